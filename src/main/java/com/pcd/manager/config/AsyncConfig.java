@@ -1,39 +1,97 @@
 package com.pcd.manager.config;
 
+import com.pcd.manager.service.ExecutorTelemetryService;
+import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import javax.sql.DataSource;
+import java.sql.SQLException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 
 /**
  * Configuration for asynchronous operations
- * Enables @Async annotations and configures thread pools for different types of operations
+ * Enables @Async and @Scheduled annotations and configures thread pools for different types of operations
+ *
+ * With spring.threads.virtual.enabled=true on a Java 21+ runtime, Tomcat (via Spring Boot) and the five
+ * named executors below run every task on its own virtual thread instead of a small fixed pool, so nothing
+ * is queued or run on the caller under load. The database and cache executors then share a semaphore of
+ * (Hikari maximum pool size - app.async.connection-reserve) permits so async queries cannot take every
+ * connection from request threads. On older runtimes the flag is ignored and the pools are used.
  */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncConfig.class);
 
+    private final boolean virtualThreads;
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    // Queue wait/run time histograms and rejection counts per executor (/admin/executors)
+    private final ExecutorTelemetryService telemetry;
+
+    // Connections kept free of async work for request threads
+    @Value("${app.async.connection-reserve:2}")
+    private int connectionReserve;
+
+    // Fan-out branch threads (FanOutService); each running branch holds a connection
+    @Value("${app.fanout.pool-size:5}")
+    private int fanOutPoolSize;
+
+    @Value("${app.fanout.queue-capacity:20}")
+    private int fanOutQueueCapacity;
+
+    private Semaphore connectionPermits;
+
+    public AsyncConfig(Environment environment, ObjectProvider<DataSource> dataSourceProvider,
+                       ExecutorTelemetryService telemetry) {
+        this.dataSourceProvider = dataSourceProvider;
+        this.telemetry = telemetry;
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (virtualThreads) {
+            logger.info("Virtual threads enabled for request handling and async executors");
+        } else if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            logger.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads (needs 21+); using thread pools",
+                       Runtime.version().feature());
+        }
+    }
+
     /**
      * General purpose async executor for lightweight operations
      * Used for: cache operations, notifications, logging
      */
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("taskExecutor", "Async-General-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("Async-General-");
         executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("taskExecutor");
             logger.warn("General async task rejected, running synchronously");
             r.run();
         });
+        executor.setTaskDecorator(telemetry.register("taskExecutor", executor));
         executor.initialize();
         logger.info("Initialized general async executor: core={}, max={}, queue={}", 
                    4, 8, 100);
@@ -46,15 +104,20 @@ public class AsyncConfig {
      */
     @Bean(name = "databaseExecutor")
     public Executor databaseExecutor() {
+        if (virtualThreads) {
+            return registered("databaseExecutor", new ConnectionBoundedExecutor(virtualThreadExecutor(null, "Async-DB-"), connectionPermits()));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(3);
         executor.setMaxPoolSize(6);
         executor.setQueueCapacity(50);
         executor.setThreadNamePrefix("Async-DB-");
         executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("databaseExecutor");
             logger.warn("Database async task rejected, running synchronously");
             r.run();
         });
+        executor.setTaskDecorator(telemetry.register("databaseExecutor", executor));
         executor.initialize();
         logger.info("Initialized database async executor: core={}, max={}, queue={}", 
                    3, 6, 50);
@@ -67,15 +130,20 @@ public class AsyncConfig {
      */
     @Bean(name = "fileExecutor")
     public Executor fileExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("fileExecutor", "Async-File-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
         executor.setQueueCapacity(25);
         executor.setThreadNamePrefix("Async-File-");
         executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("fileExecutor");
             logger.warn("File async task rejected, running synchronously");
             r.run();
         });
+        executor.setTaskDecorator(telemetry.register("fileExecutor", executor));
         executor.initialize();
         logger.info("Initialized file async executor: core={}, max={}, queue={}", 
                    2, 4, 25);
@@ -88,18 +156,158 @@ public class AsyncConfig {
      */
     @Bean(name = "cacheExecutor")
     public Executor cacheExecutor() {
+        if (virtualThreads) {
+            return registered("cacheExecutor", new ConnectionBoundedExecutor(virtualThreadExecutor(null, "Async-Cache-"), connectionPermits()));
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(3);
         executor.setQueueCapacity(20);
         executor.setThreadNamePrefix("Async-Cache-");
         executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("cacheExecutor");
             logger.warn("Cache async task rejected, running synchronously");
             r.run();
         });
+        executor.setTaskDecorator(telemetry.register("cacheExecutor", executor));
         executor.initialize();
         logger.info("Initialized cache async executor: core={}, max={}, queue={}", 
                    2, 3, 20);
         return executor;
     }
-} 
\ No newline at end of file
+
+    /**
+     * Spring MVC async request executor (WebConfig.configureAsyncSupport)
+     * Used for: StreamingResponseBody downloads such as the RMA Excel export, Callable/WebAsyncTask results
+     * Kept apart from the file executor so long downloads cannot starve background file work.
+     */
+    @Bean(name = "mvcAsyncExecutor")
+    public AsyncTaskExecutor mvcAsyncExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("mvcAsyncExecutor", "Async-Mvc-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(25);
+        executor.setThreadNamePrefix("Async-Mvc-");
+        executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("mvcAsyncExecutor");
+            logger.warn("MVC async task rejected, running synchronously on the request thread");
+            r.run();
+        });
+        executor.setTaskDecorator(telemetry.register("mvcAsyncExecutor", executor));
+        executor.initialize();
+        logger.info("Initialized MVC async executor: core={}, max={}, queue={}", 
+                   2, 4, 25);
+        return executor;
+    }
+
+    /**
+     * Fan-out executor for the parallel branches of a page load (FanOutService)
+     * Rejections are not run on the caller: that is the request thread, which would then wait for the
+     * branch regardless of the fan-out deadline. The branch falls back to its default value instead.
+     */
+    @Bean(name = "fanOutExecutor")
+    public Executor fanOutExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(fanOutPoolSize);
+        executor.setMaxPoolSize(fanOutPoolSize);
+        executor.setQueueCapacity(fanOutQueueCapacity);
+        executor.setThreadNamePrefix("Async-FanOut-");
+        executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("fanOutExecutor");
+            throw new RejectedExecutionException("Fan-out executor saturated");
+        });
+        executor.setTaskDecorator(telemetry.register("fanOutExecutor", executor));
+        executor.initialize();
+        logger.info("Initialized fan-out executor: core={}, max={}, queue={}", 
+                   fanOutPoolSize, fanOutPoolSize, fanOutQueueCapacity);
+        return executor;
+    }
+
+    /**
+     * Live map update executor for writing server-sent events to dashboard clients
+     * Used for: facility map patch batches and keep-alives (at most one write in flight per client)
+     * Rejections are not run on the caller: that is the map update ticker, and a slow client write
+     * there would stall every map. The caller drops the batch and asks the client to resync instead.
+     */
+    @Bean(name = "liveUpdateExecutor")
+    public Executor liveUpdateExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("Async-Live-");
+        executor.setRejectedExecutionHandler((r, executor1) -> {
+            telemetry.recordRejection("liveUpdateExecutor");
+            logger.warn("Live update task rejected, client will be asked to resync");
+            throw new RejectedExecutionException("Live update executor saturated");
+        });
+        executor.setTaskDecorator(telemetry.register("liveUpdateExecutor", executor));
+        executor.initialize();
+        logger.info("Initialized live update executor: core={}, max={}, queue={}", 
+                   2, 4, 200);
+        return executor;
+    }
+
+    /**
+     * Report connection acquire and usage times to the executor telemetry. Hikari rejects a metrics tracker
+     * factory once the pool has started, so it is set before the DataSource bean is initialized; the
+     * telemetry service is only looked up when the pool starts.
+     */
+    @Bean
+    public static BeanPostProcessor connectionPoolTelemetryPostProcessor(ObjectProvider<ExecutorTelemetryService> telemetry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari && hikari.getMetricsTrackerFactory() == null
+                        && hikari.getMetricRegistry() == null) {
+                    hikari.setMetricsTrackerFactory((poolName, poolStats) -> telemetry.getObject().connectionPoolTracker());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Name is the bean name to report telemetry under, or null when the caller registers a wrapper instead
+     */
+    private SimpleAsyncTaskExecutor virtualThreadExecutor(String name, String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        if (name != null) {
+            executor.setTaskDecorator(telemetry.register(name, executor));
+        }
+        logger.info("Initialized virtual thread executor: {}", threadNamePrefix);
+        return executor;
+    }
+
+    private Executor registered(String name, ConnectionBoundedExecutor executor) {
+        // Decorate outside the permit wait so queue wait includes time spent waiting for a connection permit
+        TaskDecorator decorator = telemetry.register(name, executor);
+        return task -> executor.execute(decorator.decorate(task));
+    }
+
+    /**
+     * Permits shared by the executors that query the database, sized from the connection pool
+     */
+    private synchronized Semaphore connectionPermits() {
+        if (connectionPermits == null) {
+            int poolSize = 10; // Hikari default
+            DataSource dataSource = dataSourceProvider.getIfAvailable();
+            try {
+                // Unwrap through the statement-counting wrapper (SqlMonitoringConfig)
+                if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                    poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                }
+            } catch (SQLException e) {
+                logger.warn("Could not read connection pool size, assuming {}: {}", poolSize, e.getMessage());
+            }
+            int permits = Math.max(1, poolSize - connectionReserve);
+            connectionPermits = new Semaphore(permits, true);
+            logger.info("Async database work limited to {} of {} pooled connections", permits, poolSize);
+        }
+        return connectionPermits;
+    }
+}
@@ -1,5 +1,7 @@
 package com.pcd.manager.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
@@ -7,12 +9,21 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pcd.manager.service.DashboardService;
+import com.pcd.manager.service.ToolService;
+import com.pcd.manager.util.RetainedSizeEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Configuration
 @EnableCaching
@@ -20,40 +31,77 @@ public class CacheConfig {
 
     private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
 
+    private static final long MB = 1024L * 1024L;
+
+    /**
+     * Per-region specs for production. Budgets are in estimated retained bytes (see RetainedSizeEstimator),
+     * so one "all-tools" snapshot counts for what it actually holds instead of as a single entry.
+     * Regions with a refresh interval are reloaded in the background once an entry is older than it,
+     * while readers keep getting the previous value; they only expire if nobody reads them for a long time.
+     */
+    private static final List<RegionSpec> PRODUCTION_REGIONS = Arrays.asList(
+        new RegionSpec("tools-list",         Duration.ofMinutes(30), Duration.ofMinutes(5), 64 * MB),
+        new RegionSpec("rma-list",           Duration.ofMinutes(5),  null,                  48 * MB),
+        new RegionSpec("tracktrend-list",    Duration.ofMinutes(10), null,                  16 * MB),
+        new RegionSpec("locations-list",     Duration.ofMinutes(30), null,                  2 * MB),
+        new RegionSpec("users-list",         Duration.ofMinutes(30), null,                  4 * MB),
+        new RegionSpec("tool-details",       Duration.ofMinutes(10), null,                  32 * MB),
+        new RegionSpec("rma-details",        Duration.ofMinutes(5),  null,                  32 * MB),
+        new RegionSpec("dashboard-data",     Duration.ofMinutes(15), Duration.ofMinutes(2), 24 * MB),
+        new RegionSpec("lightweight-counts", Duration.ofMinutes(3),  null,                  4 * MB),
+        new RegionSpec("dropdown-data",      Duration.ofMinutes(15), null,                  24 * MB),
+        new RegionSpec("default-location",   Duration.ofMinutes(30), null,                  1 * MB)
+    );
+
     /**
      * Production cache manager using Caffeine for better performance and memory management
      */
     @Bean
     @Profile("prod")
-    public CacheManager productionCacheManager() {
+    public CacheManager productionCacheManager(ObjectProvider<DashboardService> dashboardService,
+                                               ObjectProvider<ToolService> toolService,
+                                               @Qualifier("cacheExecutor") Executor cacheExecutor) {
         logger.info("Configuring Caffeine cache manager for production");
-        
+
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        
-        // Configure different cache strategies for different data types
+
+        // Fallback for any region not listed below
         cacheManager.setCaffeine(Caffeine.newBuilder()
-            .maximumSize(1000)  // Limit cache size for 2GB RAM
-            .expireAfterWrite(30, TimeUnit.MINUTES)  // Expire after 30 minutes
-            .expireAfterAccess(15, TimeUnit.MINUTES) // Expire after 15 minutes of no access
-            .recordStats()); // Enable cache statistics
-            
-        // Pre-define cache names for better organization
-        cacheManager.setCacheNames(
-            Arrays.asList(
-                "tools-list",           // Tools list data (5 min)
-                "rma-list",            // RMA list data (5 min)  
-                "tracktrend-list",     // TrackTrend list data (10 min)
-                "locations-list",      // Locations list (30 min - rarely changes)
-                "users-list",          // Users list (30 min - rarely changes)
-                "tool-details",        // Individual tool details (10 min)
-                "rma-details",         // Individual RMA details (5 min)
-                "dashboard-data",      // Dashboard aggregated data (2 min)
-                "lightweight-counts",  // Comment/RMA/etc counts (3 min)
-                "dropdown-data",       // Dropdown/select data (15 min)
-                "default-location"     // Default location (30 min - rarely changes)
-            )
+            .maximumSize(1000)
+            .expireAfterWrite(30, TimeUnit.MINUTES)
+            .expireAfterAccess(15, TimeUnit.MINUTES)
+            .recordStats());
+
+        // Refresh-ahead loaders, keyed by the @Cacheable keys of each region. Services are resolved
+        // lazily because they are themselves proxied by this cache manager.
+        Map<String, Map<Object, Supplier<Object>>> refreshLoaders = Map.of(
+            "tools-list", Map.of(
+                "all-tools", () -> toolService.getObject().loadAllTools()),
+            "dashboard-data", Map.of(
+                "recent-passdowns-and-filters", () -> dashboardService.getObject().loadDashboardData(),
+                "grid-tool-data", () -> dashboardService.getObject().loadGridToolData(),
+                "track-trend-filters", () -> dashboardService.getObject().loadTrackTrendFilters())
         );
-        
+
+        for (RegionSpec region : PRODUCTION_REGIONS) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(region.maxWeightBytes)
+                .weigher(RetainedSizeEstimator::weigh)
+                .expireAfterWrite(region.expireAfterWrite)
+                .executor(cacheExecutor)
+                .recordStats();
+
+            if (region.refreshAfterWrite != null) {
+                builder.refreshAfterWrite(region.refreshAfterWrite);
+                cacheManager.registerCustomCache(region.name,
+                    builder.build(new RefreshAheadLoader(region.name, refreshLoaders.getOrDefault(region.name, Map.of()))));
+            } else {
+                cacheManager.registerCustomCache(region.name, builder.build());
+            }
+            logger.debug("Configured cache region {}: expireAfterWrite={}, refreshAfterWrite={}, maxWeight={}MB",
+                region.name, region.expireAfterWrite, region.refreshAfterWrite, region.maxWeightBytes / MB);
+        }
+
         logger.info("Configured {} cache regions for production", cacheManager.getCacheNames().size());
         return cacheManager;
     }
@@ -65,9 +113,9 @@ public class CacheConfig {
     @Profile("dev")
     public CacheManager developmentCacheManager() {
         logger.info("Configuring simple cache manager for development");
-        
+
         ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        
+
         // Same cache names as production for consistency
         cacheManager.setCacheNames(
             Arrays.asList(
@@ -76,8 +124,50 @@ public class CacheConfig {
                 "default-location"
             )
         );
-        
+
         logger.info("Configured {} cache regions for development", cacheManager.getCacheNames().size());
         return cacheManager;
     }
-} 
+
+    private static final class RegionSpec {
+        private final String name;
+        private final Duration expireAfterWrite;
+        private final Duration refreshAfterWrite;
+        private final long maxWeightBytes;
+
+        private RegionSpec(String name, Duration expireAfterWrite, Duration refreshAfterWrite, long maxWeightBytes) {
+            this.name = name;
+            this.expireAfterWrite = expireAfterWrite;
+            this.refreshAfterWrite = refreshAfterWrite;
+            this.maxWeightBytes = maxWeightBytes;
+        }
+    }
+
+    /**
+     * Loader for refresh-ahead regions. Caffeine calls it on the cache executor when an entry is
+     * past its refresh interval; the stale value keeps being served until the reload completes
+     * and is kept if the reload fails. Keys without a loader return null, which Spring treats as
+     * a miss so the @Cacheable method runs as usual.
+     */
+    private static final class RefreshAheadLoader implements CacheLoader<Object, Object> {
+        private final String region;
+        private final Map<Object, Supplier<Object>> loaders;
+
+        private RefreshAheadLoader(String region, Map<Object, Supplier<Object>> loaders) {
+            this.region = region;
+            this.loaders = loaders;
+        }
+
+        @Override
+        public Object load(Object key) {
+            Supplier<Object> loader = loaders.get(key);
+            if (loader == null) {
+                return null;
+            }
+            long startTime = System.currentTimeMillis();
+            Object value = loader.get();
+            logger.debug("Loaded {}/{} in {}ms", region, key, System.currentTimeMillis() - startTime);
+            return value;
+        }
+    }
+}
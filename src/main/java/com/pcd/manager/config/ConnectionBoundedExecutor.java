@@ -0,0 +1,52 @@
+package com.pcd.manager.config;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executor decorator that holds a permit while each task runs, so tasks on unbounded (virtual-thread)
+ * executors cannot ask for more database connections than the pool can spare.
+ *
+ * The permit is taken on the task's own thread, not the submitter's: a waiting virtual thread costs almost
+ * nothing, and callers such as request threads and the fan-out helper are never blocked by the limit.
+ * Executors that share a semaphore share one budget. Every submitted task runs exactly once, even when its
+ * thread is interrupted while waiting for a permit.
+ */
+public class ConnectionBoundedExecutor implements Executor {
+
+    private final Executor delegate;
+    private final Semaphore permits;
+
+    public ConnectionBoundedExecutor(Executor delegate, Semaphore permits) {
+        this.delegate = delegate;
+        this.permits = permits;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        delegate.execute(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                // Dropping the task here would leave whatever waits on it (a CompletableFuture.supplyAsync step
+                // cannot be completed from outside) hanging forever. Take the permit anyway and run the task
+                // with the interrupt still set, so it fails or finishes by itself and its caller is released.
+                permits.acquireUninterruptibly();
+                Thread.currentThread().interrupt();
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public int getQueuedTasks() {
+        return permits.getQueueLength();
+    }
+}
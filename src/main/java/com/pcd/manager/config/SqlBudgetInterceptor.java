@@ -0,0 +1,51 @@
+package com.pcd.manager.config;
+
+import com.pcd.manager.service.SqlStatsService;
+import com.pcd.manager.util.SqlStatementCounter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Fails requests over the SQL statement budget when app.sql-monitor.fail-on-budget=true (meant for tests).
+ * Checks the request's SqlStatementCounter scope after the handler has run and before the view renders,
+ * so the request ends in an error response rather than an exception thrown into a committed response.
+ * Statements run while rendering, and responses the handler already committed, are only logged by
+ * SqlStatsService. Registered by WebConfig.
+ */
+@Component
+@ConditionalOnProperty(name = {"app.sql-monitor.enabled", "app.sql-monitor.fail-on-budget"}, havingValue = "true")
+public class SqlBudgetInterceptor implements HandlerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+
+    private final SqlStatsService sqlStatsService;
+
+    @Autowired
+    public SqlBudgetInterceptor(SqlStatsService sqlStatsService) {
+        this.sqlStatsService = sqlStatsService;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        // The scope SqlMonitoringFilter opened for this request
+        SqlStatementCounter.Scope scope = SqlStatementCounter.current();
+        int budget = sqlStatsService.getStatementBudget();
+        if (scope == null || scope.getStatementCount() <= budget) {
+            return;
+        }
+        String message = scope.describe("SQL budget exceeded by " + request.getMethod() + " " + request.getRequestURI(), budget);
+        if (response.isCommitted()) {
+            logger.warn("{} (response already committed, not failed)", message);
+            return;
+        }
+        throw new SqlStatementCounter.SqlBudgetExceededException(message);
+    }
+}
@@ -0,0 +1,215 @@
+package com.pcd.manager.config;
+
+import com.pcd.manager.util.SqlStatementCounter;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.jpa.boot.spi.JpaSettings;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * SQL instrumentation for SqlMonitoringFilter and tests.
+ *
+ * The application DataSource is wrapped so every executed statement and every fetched row is
+ * reported to SqlStatementCounter, and a Hibernate post-load listener reports entity loads.
+ * When no counting scope is open on the thread the wrappers only pay for a ThreadLocal lookup.
+ * Enabled with app.sql-monitor.enabled=true (the dev profile and tests that pin statement counts).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-monitor.enabled", havingValue = "true", matchIfMissing = false)
+public class SqlMonitoringConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMonitoringConfig.class);
+
+    @Bean
+    public static BeanPostProcessor countingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                    logger.info("Enabling SQL statement counting on DataSource '{}'", beanName);
+                    return new CountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityLoadCountingCustomizer() {
+        return hibernateProperties -> hibernateProperties.put(JpaSettings.INTEGRATOR_PROVIDER,
+                (IntegratorProvider) () -> List.of(new EntityLoadCountingIntegrator()));
+    }
+
+    /**
+     * Registers a post-load listener that counts every entity Hibernate hydrates
+     */
+    static class EntityLoadCountingIntegrator implements Integrator {
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+            if (registry != null) {
+                registry.appendListeners(EventType.POST_LOAD,
+                        (PostLoadEventListener) event -> SqlStatementCounter.recordEntityLoad());
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+
+    /**
+     * DataSource whose connections count statements and rows. unwrap() still reaches the pool.
+     */
+    static class CountingDataSource extends DelegatingDataSource {
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrapConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrapConnection(super.getConnection(username, password));
+        }
+    }
+
+    private static Connection wrapConnection(Connection target) {
+        return (Connection) Proxy.newProxyInstance(SqlMonitoringConfig.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new ConnectionHandler(target));
+    }
+
+    private static Statement wrapStatement(Statement target, String sql) {
+        Class<?> type = target instanceof CallableStatement ? CallableStatement.class
+                : target instanceof PreparedStatement ? PreparedStatement.class
+                : Statement.class;
+        return (Statement) Proxy.newProxyInstance(SqlMonitoringConfig.class.getClassLoader(),
+                new Class<?>[] {type}, new StatementHandler(target, sql));
+    }
+
+    private static ResultSet wrapResultSet(ResultSet target) {
+        if (target == null) {
+            return null;
+        }
+        return (ResultSet) Proxy.newProxyInstance(SqlMonitoringConfig.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, new ResultSetHandler(target));
+    }
+
+    private abstract static class DelegatingHandler implements InvocationHandler {
+        protected final Object target;
+
+        DelegatingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Counting[" + target + "]";
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            return afterInvoke(method, args, result);
+        }
+
+        protected abstract Object afterInvoke(Method method, Object[] args, Object result) throws SQLException;
+    }
+
+    private static class ConnectionHandler extends DelegatingHandler {
+        ConnectionHandler(Connection target) {
+            super(target);
+        }
+
+        @Override
+        protected Object afterInvoke(Method method, Object[] args, Object result) {
+            String name = method.getName();
+            if (result instanceof Statement statement
+                    && (name.equals("prepareStatement") || name.equals("prepareCall") || name.equals("createStatement"))) {
+                String sql = name.equals("createStatement") ? null : (String) args[0];
+                return wrapStatement(statement, sql);
+            }
+            return result;
+        }
+    }
+
+    private static class StatementHandler extends DelegatingHandler {
+        private final String sql;
+
+        StatementHandler(Statement target, String sql) {
+            super(target);
+            this.sql = sql;
+        }
+
+        @Override
+        protected Object afterInvoke(Method method, Object[] args, Object result) {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                // Plain Statement.execute*(sql) carries the SQL as its first argument
+                String executed = sql != null ? sql
+                        : (args != null && args.length > 0 && args[0] instanceof String s ? s : null);
+                SqlStatementCounter.recordStatement(executed);
+            }
+            if (result instanceof ResultSet resultSet
+                    && (name.equals("executeQuery") || name.equals("getResultSet") || name.equals("getGeneratedKeys"))) {
+                return wrapResultSet(resultSet);
+            }
+            return result;
+        }
+    }
+
+    private static class ResultSetHandler extends DelegatingHandler {
+        ResultSetHandler(ResultSet target) {
+            super(target);
+        }
+
+        @Override
+        protected Object afterInvoke(Method method, Object[] args, Object result) {
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                SqlStatementCounter.recordRow();
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.pcd.manager.config;
+
+import com.pcd.manager.service.SqlStatsService;
+import com.pcd.manager.util.SqlStatementCounter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a SqlStatementCounter scope around every request and reports it to SqlStatsService.
+ * Runs before the security chain so user lookups count too. Requests over the statement budget
+ * are logged; with app.sql-monitor.fail-on-budget=true SqlBudgetInterceptor fails them before the view renders.
+ * Work handed to async executors runs on other threads and is not attributed to the request.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "app.sql-monitor.enabled", havingValue = "true", matchIfMissing = false)
+public class SqlMonitoringFilter extends OncePerRequestFilter {
+
+    private final SqlStatsService sqlStatsService;
+
+    @Autowired
+    public SqlMonitoringFilter(SqlStatsService sqlStatsService) {
+        this.sqlStatsService = sqlStatsService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/css/") || path.startsWith("/js/") || path.startsWith("/images/")
+                || path.startsWith("/webjars/") || path.startsWith("/favicon") || path.startsWith("/h2-console");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            // Use the mapped pattern (/tools/{id}) so ids do not explode the endpoint table
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            sqlStatsService.record(request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED"), scope);
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package com.pcd.manager.config;
 
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.support.StandardMultipartHttpServletRequest;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.ViewControllerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -21,21 +33,79 @@ public class WebConfig implements WebMvcConfigurer {
 
     private static final Logger logger = LoggerFactory.getLogger(WebConfig.class);
 
+    /**
+     * Upload endpoints that read the multipart body themselves (StreamingUploadService). Their body is left
+     * unparsed by the multipart resolver, and they run without open-in-view so that no JDBC connection is
+     * held while a slow upload arrives.
+     */
+    static final String[] STREAMING_UPLOAD_PATHS = {"/rma/*/upload", "/api/files/upload/*"};
+
+    /**
+     * Requests that run without open-in-view: the streaming uploads, and the live map event stream, which
+     * would otherwise hold a connection for as long as the client stays subscribed
+     */
+    static final String[] NO_OPEN_IN_VIEW_PATHS = {"/rma/*/upload", "/api/files/upload/*", "/api/map/live"};
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
     @Value("${app.upload.dir:${user.home}/uploads}")
     private String uploadDir;
     
     @Value("${spring.profiles.active:default}")
     private String activeProfile;
 
+    @Value("${app.mvc.async-timeout-ms:300000}")
+    private long asyncTimeoutMs;
+
+    @Autowired
+    @Qualifier("mvcAsyncExecutor")
+    private AsyncTaskExecutor mvcAsyncExecutor;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Present only with app.sql-monitor.fail-on-budget=true
+    @Autowired
+    private ObjectProvider<SqlBudgetInterceptor> sqlBudgetInterceptor;
+
     /**
-     * Configure multipart resolver for file uploads
+     * Configure multipart resolver for file uploads: parsed up front as usual, except on the streaming
+     * upload endpoints, whose body stays unread until StreamingUploadService reads it
      */
     @Bean
     public MultipartResolver multipartResolver() {
-        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver();
-        logger.info("Configured StandardServletMultipartResolver for file uploads");
+        StandardServletMultipartResolver resolver = new StandardServletMultipartResolver() {
+            @Override
+            public MultipartHttpServletRequest resolveMultipart(HttpServletRequest request) throws MultipartException {
+                return new StandardMultipartHttpServletRequest(request, isStreamingUpload(request));
+            }
+        };
+        logger.info("Configured StandardServletMultipartResolver for file uploads (streamed: {})",
+                String.join(", ", STREAMING_UPLOAD_PATHS));
         return resolver;
     }
+
+    static boolean isStreamingUpload(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : STREAMING_UPLOAD_PATHS) {
+            if (PATH_MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Open-in-view for every request except NO_OPEN_IN_VIEW_PATHS. Replaces Spring Boot's registration
+     * (spring.jpa.open-in-view=false), which cannot exclude paths. Also the SQL budget check, when enabled.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor openEntityManagerInView = new OpenEntityManagerInViewInterceptor();
+        openEntityManagerInView.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(openEntityManagerInView).excludePathPatterns(NO_OPEN_IN_VIEW_PATHS);
+        sqlBudgetInterceptor.ifAvailable(registry::addInterceptor);
+    }
     
     /**
      * Add fallback controller mapping for paths that might be treated as resources
@@ -46,6 +116,16 @@ public class WebConfig implements WebMvcConfigurer {
         logger.info("Configured view controllers");
     }
 
+    /**
+     * Run streamed responses (StreamingResponseBody downloads such as the RMA Excel export) on the
+     * dedicated MVC async executor, with a timeout long enough for large exports
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(mvcAsyncExecutor);
+        configurer.setDefaultTimeout(asyncTimeoutMs);
+    }
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         // Configure standard static resources - let Spring Boot handle static resources automatically
@@ -76,23 +156,8 @@ public class WebConfig implements WebMvcConfigurer {
                 }
             }
             
-            String uploadAbsolutePath = uploadPath.toFile().getAbsolutePath();
-            
-            // Ensure path ends with file separator
-            if (!uploadAbsolutePath.endsWith(File.separator)) {
-                uploadAbsolutePath += File.separator;
-            }
-            
-            logger.info("Configuring resource handler for uploads at: {}", uploadAbsolutePath);
-            
-            // Set appropriate caching period based on profile
-            int cachePeriod = "dev".equals(activeProfile) ? 0 : 3600;
-            
-            registry.addResourceHandler("/uploads/**")
-                    .addResourceLocations("file:" + uploadAbsolutePath)
-                    .setCachePeriod(cachePeriod);
-            
-            logger.info("Resource handlers configured with cache period: {} seconds", cachePeriod);
+            // /uploads/** is served by UploadController (ETag, Range and Cache-Control handling)
+            logger.info("Upload directory ready at: {}", uploadPath.toAbsolutePath());
         } catch (Exception e) {
             logger.error("Error configuring upload directory resource handler", e);
         }
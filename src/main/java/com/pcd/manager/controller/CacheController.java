@@ -2,18 +2,23 @@ package com.pcd.manager.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.CacheManager;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.cache.caffeine.CaffeineCache;
 import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.pcd.manager.service.CacheInvalidationService;
+import com.pcd.manager.service.DashboardReadModelService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Controller
 @RequestMapping("/admin/cache")
@@ -24,11 +29,22 @@ public class CacheController {
     @Autowired(required = false)
     private CacheManager cacheManager;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private DashboardReadModelService dashboardReadModelService;
+
+    // Stats snapshot per region taken by /baseline, so hit rates can be compared before/after a change
+    private final Map<String, CacheStats> baselineStats = new ConcurrentHashMap<>();
+    private volatile Long baselineTimestamp;
+
     /**
      * Display cache statistics page
      */
     @GetMapping
     public String cacheStats(Model model) {
+        model.addAttribute("dashboardStats", dashboardReadModelService.getStats());
         if (cacheManager == null) {
             model.addAttribute("error", "Cache manager not available");
             return "admin/cache-stats";
@@ -52,6 +68,18 @@ public class CacheController {
                     stats.put("evictionCount", cacheStatsObj.evictionCount());
                     stats.put("estimatedSize", nativeCache.estimatedSize());
                     stats.put("averageLoadTime", String.format("%.2f ms", cacheStatsObj.averageLoadPenalty() / 1_000_000.0));
+                    nativeCache.policy().eviction().filter(eviction -> eviction.isWeighted()).ifPresent(eviction ->
+                        stats.put("memoryUsage", String.format("%.1f / %.0f MB",
+                            eviction.weightedSize().orElse(0L) / (1024.0 * 1024.0),
+                            eviction.getMaximum() / (1024.0 * 1024.0))));
+
+                    CacheStats baseline = baselineStats.get(cacheName);
+                    if (baseline != null) {
+                        CacheStats sinceBaseline = cacheStatsObj.minus(baseline);
+                        stats.put("hitRateBeforeBaseline", String.format("%.2f%%", baseline.hitRate() * 100));
+                        stats.put("hitRateSinceBaseline", String.format("%.2f%%", sinceBaseline.hitRate() * 100));
+                        stats.put("requestsSinceBaseline", sinceBaseline.requestCount());
+                    }
                 } else {
                     stats.put("type", cache.getClass().getSimpleName());
                     stats.put("hitCount", "N/A");
@@ -72,6 +100,8 @@ public class CacheController {
         }
         
         model.addAttribute("cacheStats", cacheStats);
+        model.addAttribute("invalidationCounts", cacheInvalidationService.getInvalidationCounts());
+        model.addAttribute("baselineTimestamp", baselineTimestamp);
         return "admin/cache-stats";
     }
 
@@ -82,6 +112,7 @@ public class CacheController {
     @ResponseBody
     public Map<String, Object> getCacheStatsJson() {
         Map<String, Object> response = new HashMap<>();
+        response.put("dashboardReadModel", dashboardReadModelService.getStats());
         
         if (cacheManager == null) {
             response.put("error", "Cache manager not available");
@@ -89,6 +120,7 @@ public class CacheController {
         }
 
         Map<String, Map<String, Object>> cacheStats = new HashMap<>();
+        long totalEstimatedBytes = 0;
         
         for (String cacheName : cacheManager.getCacheNames()) {
             try {
@@ -106,6 +138,23 @@ public class CacheController {
                     stats.put("evictionCount", cacheStatsObj.evictionCount());
                     stats.put("estimatedSize", nativeCache.estimatedSize());
                     stats.put("averageLoadTime", cacheStatsObj.averageLoadPenalty());
+
+                    // Estimated retained bytes for regions sized by weight (see CacheConfig)
+                    nativeCache.policy().eviction().filter(eviction -> eviction.isWeighted()).ifPresent(eviction -> {
+                        long estimatedBytes = eviction.weightedSize().orElse(0L);
+                        stats.put("estimatedBytes", estimatedBytes);
+                        stats.put("maxBytes", eviction.getMaximum());
+                        stats.put("memoryUsage", (double) estimatedBytes / eviction.getMaximum());
+                    });
+                    totalEstimatedBytes += (long) stats.getOrDefault("estimatedBytes", 0L);
+
+                    CacheStats baseline = baselineStats.get(cacheName);
+                    if (baseline != null) {
+                        CacheStats sinceBaseline = cacheStatsObj.minus(baseline);
+                        stats.put("hitRateBeforeBaseline", baseline.hitRate());
+                        stats.put("hitRateSinceBaseline", sinceBaseline.hitRate());
+                        stats.put("requestsSinceBaseline", sinceBaseline.requestCount());
+                    }
                 } else {
                     stats.put("type", cache.getClass().getSimpleName());
                 }
@@ -120,10 +169,44 @@ public class CacheController {
         }
         
         response.put("caches", cacheStats);
+        response.put("totalEstimatedBytes", totalEstimatedBytes);
+        response.put("invalidations", cacheInvalidationService.getInvalidationCounts());
+        response.put("baselineTimestamp", baselineTimestamp);
         response.put("timestamp", System.currentTimeMillis());
         return response;
     }
 
+    /**
+     * Record the current stats of every Caffeine region as the baseline.
+     * Subsequent stats report hit rates before the baseline and since it.
+     */
+    @PostMapping("/baseline")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public Map<String, Object> recordBaseline() {
+        Map<String, Object> response = new HashMap<>();
+
+        if (cacheManager == null) {
+            response.put("error", "Cache manager not available");
+            return response;
+        }
+
+        baselineStats.clear();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(cacheName);
+            if (cache instanceof CaffeineCache) {
+                baselineStats.put(cacheName, ((CaffeineCache) cache).getNativeCache().stats());
+            }
+        }
+        baselineTimestamp = System.currentTimeMillis();
+
+        response.put("success", true);
+        response.put("baselineCaches", baselineStats.size());
+        response.put("baselineTimestamp", baselineTimestamp);
+        logger.info("Recorded cache stats baseline for {} caches", baselineStats.size());
+        return response;
+    }
+
     /**
      * Clear all caches
      */
@@ -77,7 +77,7 @@ public class CustomLocationController {
         model.addAttribute("outgoingMovingParts", movingParts.get("outgoing"));
 
         // Get current parts at this location
-        List<Map<String, Object>> currentParts = customLocationService.getCurrentPartsAtLocation(id);
+        List<Map<String, Object>> currentParts = customLocationService.getCurrentPartsAtLocation(movingParts);
         model.addAttribute("currentParts", currentParts);
 
         return "custom-locations/details";
@@ -0,0 +1,57 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.ExecutorTelemetryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Async executor and connection pool saturation, collected by ExecutorTelemetryService
+ */
+@Controller
+@RequestMapping("/admin/executors")
+@PreAuthorize("hasRole('ADMIN')")
+public class ExecutorStatsController {
+
+    @Autowired
+    private ExecutorTelemetryService executorTelemetryService;
+
+    /**
+     * Display executor and connection pool statistics page
+     */
+    @GetMapping
+    public String executorStats(Model model) {
+        model.addAttribute("telemetry", executorTelemetryService.getSnapshot());
+        return "admin/executor-stats";
+    }
+
+    /**
+     * Get executor and connection pool statistics as JSON; "saturated" is true when any threshold is exceeded
+     */
+    @GetMapping("/api/stats")
+    @ResponseBody
+    public Map<String, Object> getExecutorStatsJson() {
+        return executorTelemetryService.getSnapshot();
+    }
+
+    /**
+     * Reset counters and histograms
+     */
+    @PostMapping("/reset")
+    @ResponseBody
+    public Map<String, Object> reset() {
+        executorTelemetryService.reset();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "Executor statistics reset");
+        return response;
+    }
+}
@@ -6,8 +6,12 @@ import com.pcd.manager.model.RmaPicture;
 import com.pcd.manager.service.RmaService;
 import com.pcd.manager.service.FileTransferService;
 import com.pcd.manager.service.AsyncFileTransferService;
+import com.pcd.manager.service.StreamingUploadService;
+import com.pcd.manager.service.UploadFileService;
 import com.pcd.manager.util.UploadUtils;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -38,134 +42,93 @@ public class FileManagementController {
     private final FileTransferService fileTransferService;
     private final AsyncFileTransferService asyncFileTransferService;
     private final UploadUtils uploadUtils;
+    private final UploadFileService uploadFileService;
+    private final StreamingUploadService streamingUploadService;
     
     @Autowired
     public FileManagementController(
             RmaService rmaService,
             FileTransferService fileTransferService,
             AsyncFileTransferService asyncFileTransferService,
-            UploadUtils uploadUtils) {
+            UploadUtils uploadUtils,
+            UploadFileService uploadFileService,
+            StreamingUploadService streamingUploadService) {
         this.rmaService = rmaService;
         this.fileTransferService = fileTransferService;
         this.asyncFileTransferService = asyncFileTransferService;
         this.uploadUtils = uploadUtils;
+        this.uploadFileService = uploadFileService;
+        this.streamingUploadService = streamingUploadService;
     }
     
     /**
-     * Upload files to an RMA
+     * Upload files to an RMA. The body is streamed part by part into the file store (see
+     * StreamingUploadService); send an X-Upload-Id header to poll per-file progress while it runs.
      * 
      * @param rmaId The RMA ID to attach files to
-     * @param files The files to upload
      * @return Response with upload status
      */
     @PostMapping("/upload/{rmaId}")
     @ResponseBody
     public ResponseEntity<Map<String, Object>> uploadFiles(
             @PathVariable Long rmaId,
-            @RequestParam("files") MultipartFile[] files) {
+            @RequestHeader(value = "X-Upload-Id", required = false) String uploadId,
+            HttpServletRequest request) {
         
-        logger.info("File upload request for RMA ID: {} with {} files", rmaId, files.length);
+        logger.info("File upload request for RMA ID: {} ({} bytes)", rmaId, request.getContentLengthLong());
         Map<String, Object> response = new HashMap<>();
         List<Map<String, Object>> fileResults = new ArrayList<>();
         
         try {
-            // Verify RMA exists
-            Optional<Rma> rmaOpt = rmaService.getRmaById(rmaId);
-            if (rmaOpt.isEmpty()) {
+            // Verify RMA exists before reading the body (no entity kept: this endpoint runs without
+            // open-in-view, so nothing holds a connection while the body arrives)
+            if (!rmaService.rmaExists(rmaId)) {
                 logger.warn("RMA with ID {} not found", rmaId);
                 response.put("success", false);
                 response.put("message", "RMA not found");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
             
-            Rma rma = rmaOpt.get();
-            int successCount = 0;
+            StreamingUploadService.UploadProgress upload = streamingUploadService.receive(request, uploadId, false);
             
-            // Process each file
-            for (MultipartFile file : files) {
+            for (StreamingUploadService.FileProgress file : upload.files) {
                 Map<String, Object> fileResult = new HashMap<>();
-                fileResult.put("originalName", file.getOriginalFilename());
+                fileResult.put("originalName", file.originalName);
                 fileResult.put("size", file.getSize());
                 fileResult.put("contentType", file.getContentType());
-                
-                if (file.isEmpty()) {
-                    fileResult.put("success", false);
-                    fileResult.put("message", "File is empty");
-                    fileResults.add(fileResult);
-                    continue;
+                fileResult.put("success", file.isStored());
+                fileResult.put("message", file.getMessage());
+                if (file.isStored()) {
+                    fileResult.put("filePath", file.getFilePath());
+                    fileResult.put("fileType", file.isImage() ? "picture" : "document");
                 }
-                
-                try {
-                    // Validate file
-                    if (!uploadUtils.validateFile(file)) {
-                        fileResult.put("success", false);
-                        fileResult.put("message", "File validation failed");
-                        fileResults.add(fileResult);
-                        continue;
-                    }
-                    
-                    // Determine subdirectory based on content type
-                    String contentType = file.getContentType();
-                    boolean isImage = contentType != null && contentType.startsWith("image/");
-                    String subdirectory = isImage ? "rma-pictures" : "rma-documents";
-                    
-                    // Save file to disk
-                    String filePath = uploadUtils.saveFile(file, subdirectory);
-                    if (filePath == null) {
-                        fileResult.put("success", false);
-                        fileResult.put("message", "Failed to save file");
-                        fileResults.add(fileResult);
-                        continue;
-                    }
-                    
-                    // Create and associate entity with RMA
-                    if (isImage) {
-                        RmaPicture picture = new RmaPicture();
-                        picture.setFileName(file.getOriginalFilename());
-                        picture.setFilePath(filePath);
-                        picture.setFileType(contentType);
-                        picture.setFileSize(file.getSize());
-                        picture.setRma(rma);
-                        
-                        rma.getPictures().add(picture);
-                    } else {
-                        RmaDocument document = new RmaDocument();
-                        document.setFileName(file.getOriginalFilename());
-                        document.setFilePath(filePath);
-                        document.setFileType(contentType);
-                        document.setFileSize(file.getSize());
-                        document.setRma(rma);
-                        
-                        rma.getDocuments().add(document);
-                    }
-                    
-                    successCount++;
-                    fileResult.put("success", true);
-                    fileResult.put("filePath", filePath);
-                    fileResult.put("fileType", isImage ? "picture" : "document");
-                    fileResult.put("message", "File uploaded successfully");
-                } catch (Exception e) {
-                    logger.error("Error processing file {}: {}", file.getOriginalFilename(), e.getMessage(), e);
-                    fileResult.put("success", false);
-                    fileResult.put("message", "Error: " + e.getMessage());
-                }
-                
                 fileResults.add(fileResult);
             }
             
-            // Save RMA with new files
-            if (successCount > 0) {
-                rmaService.saveRma(rma, new MultipartFile[0]);
+            // Record the stored files on the RMA now that the body is fully on disk
+            int successCount = rmaService.attachStoredFiles(rmaId, upload.files, false, null);
+            if (successCount < 0) {
+                response.put("success", false);
+                response.put("message", "RMA not found");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
             
             response.put("success", successCount > 0);
-            response.put("totalFiles", files.length);
+            response.put("uploadId", upload.uploadId);
+            response.put("totalFiles", upload.files.size());
             response.put("successCount", successCount);
-            response.put("failureCount", files.length - successCount);
+            response.put("failureCount", upload.files.size() - successCount);
             response.put("files", fileResults);
+            if (upload.getMessage() != null) {
+                response.put("message", upload.getMessage());
+            }
             
             return ResponseEntity.ok(response);
             
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error handling file upload for RMA {}: {}", rmaId, e.getMessage(), e);
             response.put("success", false);
@@ -174,6 +137,27 @@ public class FileManagementController {
         }
     }
     
+    /**
+     * Per-file progress of a running or recently finished upload
+     * 
+     * @param uploadId The X-Upload-Id sent with the upload
+     * @return Bytes received and status of each file
+     */
+    @GetMapping("/upload-progress/{uploadId}")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getUploadProgress(@PathVariable String uploadId) {
+        StreamingUploadService.UploadProgress upload = streamingUploadService.getProgress(uploadId);
+        if (upload == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "Upload not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        Map<String, Object> response = upload.toMap();
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Delete a file from an RMA
      * 
@@ -404,43 +388,39 @@ public class FileManagementController {
      * 
      * @param fileId The ID of the file to download
      * @param fileType The type of file (document/picture)
-     * @return The file as a response
      */
     @GetMapping("/download/{fileType}/{fileId}")
-    public ResponseEntity<?> downloadFile(
+    public void downloadFile(
             @PathVariable Long fileId,
-            @PathVariable String fileType) {
+            @PathVariable String fileType,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
         
         logger.info("Download request for {} with ID: {}", fileType, fileId);
         
-        try {
-            if ("document".equalsIgnoreCase(fileType)) {
-                Optional<RmaDocument> documentOpt = rmaService.findDocumentById(fileId);
-                if (documentOpt.isEmpty()) {
-                    logger.warn("Document with ID {} not found", fileId);
-                    return ResponseEntity.notFound().build();
-                }
-                
-                RmaDocument document = documentOpt.get();
-                return uploadUtils.serveFile(document.getFilePath(), document.getFileType());
-            } else if ("picture".equalsIgnoreCase(fileType)) {
-                Optional<RmaPicture> pictureOpt = rmaService.findPictureById(fileId);
-                if (pictureOpt.isEmpty()) {
-                    logger.warn("Picture with ID {} not found", fileId);
-                    return ResponseEntity.notFound().build();
-                }
-                
-                RmaPicture picture = pictureOpt.get();
-                return uploadUtils.serveFile(picture.getFilePath(), picture.getFileType());
+        if ("document".equalsIgnoreCase(fileType)) {
+            Optional<RmaDocument> documentOpt = rmaService.findDocumentById(fileId);
+            if (documentOpt.isEmpty()) {
+                logger.warn("Document with ID {} not found", fileId);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
             }
             
-            logger.warn("Invalid file type: {}", fileType);
-            return ResponseEntity.badRequest().body("Invalid file type");
+            RmaDocument document = documentOpt.get();
+            uploadFileService.serve(document.getFilePath(), document.getFileType(), document.getFileName(), request, response);
+        } else if ("picture".equalsIgnoreCase(fileType)) {
+            Optional<RmaPicture> pictureOpt = rmaService.findPictureById(fileId);
+            if (pictureOpt.isEmpty()) {
+                logger.warn("Picture with ID {} not found", fileId);
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
             
-        } catch (Exception e) {
-            logger.error("Error serving file: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body("Error serving file: " + e.getMessage());
+            RmaPicture picture = pictureOpt.get();
+            uploadFileService.serve(picture.getFilePath(), picture.getFileType(), picture.getFileName(), request, response);
+        } else {
+            logger.warn("Invalid file type: {}", fileType);
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid file type");
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.FileBlobService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Content-addressed upload store: deduplication and reference statistics, and on-demand collection
+ */
+@Controller
+@RequestMapping("/admin/files")
+@PreAuthorize("hasRole('ADMIN')")
+public class FileStoreController {
+
+    @Autowired
+    private FileBlobService fileBlobService;
+
+    @GetMapping("/api/stats")
+    @ResponseBody
+    public Map<String, Object> getStats() {
+        return fileBlobService.getStats();
+    }
+
+    @PostMapping("/recount")
+    @ResponseBody
+    public Map<String, Object> recount() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("changed", fileBlobService.recountReferences());
+        return response;
+    }
+
+    @PostMapping("/gc")
+    @ResponseBody
+    public Map<String, Object> collectGarbage() {
+        return fileBlobService.collectGarbage();
+    }
+}
@@ -7,14 +7,17 @@ import com.pcd.manager.model.Location;
 import com.pcd.manager.repository.UserRepository;
 import com.pcd.manager.repository.LocationRepository;
 import com.pcd.manager.service.MapGridService;
+import com.pcd.manager.service.MapLiveUpdateService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
@@ -34,12 +37,32 @@ public class MapGridController {
     private final MapGridService mapGridService;
     private final UserRepository userRepository;
     private final LocationRepository locationRepository;
+    private final MapLiveUpdateService mapLiveUpdateService;
     
     @Autowired
-    public MapGridController(MapGridService mapGridService, UserRepository userRepository, LocationRepository locationRepository) {
+    public MapGridController(MapGridService mapGridService, UserRepository userRepository, LocationRepository locationRepository,
+                             MapLiveUpdateService mapLiveUpdateService) {
         this.mapGridService = mapGridService;
         this.userRepository = userRepository;
         this.locationRepository = locationRepository;
+        this.mapLiveUpdateService = mapLiveUpdateService;
+    }
+    
+    /**
+     * Server-sent event stream of changes to the current user's location map (moves, resizes,
+     * edits, deletions and tool status), so open dashboards patch their view instead of re-fetching
+     */
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToLiveUpdates(Authentication authentication) {
+        if (authentication == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Long locationId = mapLiveUpdateService.resolveLocationId(authentication.getName());
+        if (locationId == null) {
+            // 204 tells EventSource not to reconnect
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(mapLiveUpdateService.subscribe(locationId, authentication.getName()));
     }
     
     /**
@@ -303,10 +326,11 @@ public class MapGridController {
     }
     
     /**
-     * Save the entire map state
+     * Save moved/resized items (delta of id, version, x, y[, width, height]).
+     * Responds 409 with the current server state of items another editor saved first.
      */
     @PostMapping("/save")
-    public ResponseEntity<Void> saveMapState(
+    public ResponseEntity<MapGridService.MapStateSaveResult> saveMapState(
             @RequestBody List<Map<String, Object>> gridItems,
             @RequestParam(required = false) Long locationId,
             Authentication authentication) {
@@ -331,9 +355,9 @@ public class MapGridController {
         }
         
         try {
-            mapGridService.saveMapState(gridItems, userEmail, effectiveLocationId);
+            MapGridService.MapStateSaveResult result = mapGridService.saveMapState(gridItems, userEmail, effectiveLocationId);
             logger.info("Map state saved with {} items", gridItems.size());
-            return ResponseEntity.ok().build();
+            return ResponseEntity.status(result.conflicts.isEmpty() ? HttpStatus.OK : HttpStatus.CONFLICT).body(result);
         } catch (Exception e) {
             logger.error("Error saving map state: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -6,6 +6,7 @@ import com.pcd.manager.model.User;
 import com.pcd.manager.model.Rma;
 import com.pcd.manager.service.PassdownExcelImportService;
 import com.pcd.manager.service.PassdownService;
+import com.pcd.manager.service.PassdownTimelineService;
 import com.pcd.manager.service.ToolService;
 import com.pcd.manager.service.UserService;
 import com.pcd.manager.service.RmaService;
@@ -14,6 +15,7 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
@@ -52,18 +54,20 @@ public class PassdownController {
     private final RmaService rmaService;
     private final UploadUtils uploadUtils;
     private final PassdownExcelImportService passdownExcelImportService;
+    private final PassdownTimelineService passdownTimelineService;
 
     @Value("${app.upload.dir:${user.home}/uploads}")
     private String uploadDir;
 
     @Autowired
-    public PassdownController(PassdownService passdownService, UserService userService, ToolService toolService, RmaService rmaService, UploadUtils uploadUtils, PassdownExcelImportService passdownExcelImportService) {
+    public PassdownController(PassdownService passdownService, UserService userService, ToolService toolService, RmaService rmaService, UploadUtils uploadUtils, PassdownExcelImportService passdownExcelImportService, PassdownTimelineService passdownTimelineService) {
         this.passdownService = passdownService;
         this.userService = userService;
         this.toolService = toolService;
         this.rmaService = rmaService;
         this.uploadUtils = uploadUtils;
         this.passdownExcelImportService = passdownExcelImportService;
+        this.passdownTimelineService = passdownTimelineService;
     }
 
     @PostConstruct
@@ -77,70 +81,61 @@ public class PassdownController {
         }
     }
 
+    /**
+     * Passdown timeline page: the first page of the date window (the last 30 days by default) with the
+     * author and tool filters for that window; older rows load from /passdown/api/timeline
+     */
     @GetMapping
-    @Transactional(readOnly = true)
     public String listPassdowns(Model model,
                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
-                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
-        
-        List<Passdown> passdowns;
-        
-        if (startDate != null && endDate != null) {
-            passdowns = passdownService.getPassdownsByDateRange(startDate, endDate);
-            model.addAttribute("startDate", startDate);
-            model.addAttribute("endDate", endDate);
-        } else if (startDate != null) {
-            passdowns = passdownService.getPassdownsByDate(startDate);
-            model.addAttribute("startDate", startDate);
-        } else {
-            // Default to all passdowns when no date parameters are provided
-            passdowns = passdownService.getAllPassdowns();
-        }
+                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                              @RequestParam(required = false) Long userId,
+                              @RequestParam(required = false) Long toolId) {
         
-        // Extract unique user names and tool names for filters (with safe lazy loading handling)
-        logger.info("Processing {} passdowns for filter extraction", passdowns.size());
-        List<String> passdownUsers = new ArrayList<>();
-        List<String> passdownTools = new ArrayList<>();
-        
-        for (Passdown p : passdowns) {
-            try {
-                if (p.getUser() != null && p.getUser().getName() != null) {
-                    String userName = p.getUser().getName();
-                    if (!passdownUsers.contains(userName)) {
-                        passdownUsers.add(userName);
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("Could not load user name for passdown {}: {}", p.getId(), e.getMessage());
-            }
-            
-            try {
-                // ManyToMany: Iterate through all tools
-                if (p.getTools() != null && !p.getTools().isEmpty()) {
-                    for (Tool tool : p.getTools()) {
-                        if (tool != null && tool.getName() != null) {
-                            String toolName = tool.getName();
-                            if (!passdownTools.contains(toolName)) {
-                                passdownTools.add(toolName);
-                            }
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.debug("Could not load tool names for passdown {}: {}", p.getId(), e.getMessage());
-            }
+        PassdownTimelineService.TimelinePage timeline;
+        try {
+            timeline = passdownTimelineService.getTimelinePage(startDate, endDate, userId, toolId, null, null, true);
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+            timeline = passdownTimelineService.getTimelinePage(null, null, null, null, null, null, true);
         }
         
-        // Sort the lists
-        passdownUsers.sort(String::compareToIgnoreCase);
-        passdownTools.sort(String::compareToIgnoreCase);
-        
-        model.addAttribute("passdownUsers", passdownUsers);
-        model.addAttribute("passdownTools", passdownTools);
-        model.addAttribute("passdowns", passdowns);
+        model.addAttribute("passdowns", timeline.items);
+        model.addAttribute("passdownUsers", timeline.users);
+        model.addAttribute("passdownTools", timeline.tools);
+        model.addAttribute("startDate", timeline.startDate);
+        model.addAttribute("endDate", timeline.endDate);
+        model.addAttribute("selectedUserId", userId);
+        model.addAttribute("selectedToolId", toolId);
+        model.addAttribute("nextCursor", timeline.nextCursor);
         return "passdown/list";
     }
 
+    /**
+     * Keyset-paginated passdown timeline, newest first.
+     * Pass the returned nextCursor (with the same window and filters) to load the following page;
+     * facets (authors and tools with counts over the window) are included on the first page unless
+     * facets=false.
+     */
+    @GetMapping("/api/timeline")
+    @ResponseBody
+    public ResponseEntity<?> getTimeline(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+                                         @RequestParam(required = false) Long userId,
+                                         @RequestParam(required = false) Long toolId,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size,
+                                         @RequestParam(required = false) Boolean facets) {
+        try {
+            boolean includeFacets = facets != null ? facets : (cursor == null || cursor.isBlank());
+            return ResponseEntity.ok(passdownTimelineService.getTimelinePage(
+                    startDate, endDate, userId, toolId, cursor, size, includeFacets));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid passdown timeline request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
     @GetMapping("/new")
     public String showCreateForm(Model model) {
         Passdown passdown = new Passdown();
@@ -0,0 +1,39 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.ReferenceDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Reference-data snapshot (tools, users, locations, RMAs, track/trends) as JSON for client-side dropdowns.
+ * The snapshot version is the ETag, so browsers revalidate with If-None-Match and get 304 until it changes.
+ */
+@RestController
+@RequestMapping("/api/reference-data")
+public class ReferenceDataController {
+
+    private final ReferenceDataService referenceDataService;
+
+    @Autowired
+    public ReferenceDataController(ReferenceDataService referenceDataService) {
+        this.referenceDataService = referenceDataService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ReferenceDataService.Snapshot> getReferenceData(WebRequest request) {
+        ReferenceDataService.Snapshot snapshot = referenceDataService.getSnapshot();
+        if (request.checkNotModified(snapshot.getETag())) {
+            // Status and ETag header are already set
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(snapshot.getETag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(snapshot);
+    }
+}
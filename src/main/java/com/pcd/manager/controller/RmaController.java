@@ -7,6 +7,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.slf4j.Logger;
@@ -25,12 +26,15 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.ArrayList;
 import java.io.FileNotFoundException;
 import java.nio.file.Path;
 import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.charset.StandardCharsets;
+import org.springframework.web.util.UriUtils;
 import java.util.Collections;
 import java.lang.StringBuilder;
 import java.util.HashSet;
@@ -72,6 +76,9 @@ public class RmaController {
     private final TrackTrendService trackTrendService;
     private final CustomLocationService customLocationService;
     private final ReturnAddressService returnAddressService;
+    private final UploadFileService uploadFileService;
+    private final ReferenceDataService referenceDataService;
+    private final StreamingUploadService streamingUploadService;
     
     // Repository dependencies for optimized queries
     private final com.pcd.manager.repository.RmaRepository rmaRepository;
@@ -91,6 +98,9 @@ public class RmaController {
                          TrackTrendService trackTrendService,
                          CustomLocationService customLocationService,
                          ReturnAddressService returnAddressService,
+                         UploadFileService uploadFileService,
+                         ReferenceDataService referenceDataService,
+                         StreamingUploadService streamingUploadService,
                          com.pcd.manager.repository.RmaRepository rmaRepository,
                          com.pcd.manager.repository.RmaCommentRepository rmaCommentRepository,
                          com.pcd.manager.repository.MovingPartRepository movingPartRepository) {
@@ -106,6 +116,9 @@ public class RmaController {
         this.trackTrendService = trackTrendService;
         this.customLocationService = customLocationService;
         this.returnAddressService = returnAddressService;
+        this.uploadFileService = uploadFileService;
+        this.referenceDataService = referenceDataService;
+        this.streamingUploadService = streamingUploadService;
         this.rmaRepository = rmaRepository;
         this.rmaCommentRepository = rmaCommentRepository;
         this.movingPartRepository = movingPartRepository;
@@ -617,29 +630,13 @@ public class RmaController {
             Map<String, Integer> counts = rmaService.getRmaCounts(id);
             model.addAttribute("rmaCounts", counts);
         } catch (Exception ignore) {}
-        model.addAttribute("allRmas", rmaService.getAllRmas());
-        model.addAttribute("locations", locationService.getAllLocations());
-        model.addAttribute("technicians", userService.getAllUsers());
-        
-        // Generate HTML options for tools for JavaScript use
-        StringBuilder toolOptionsHtml = new StringBuilder();
-        List<Tool> allTools = toolService.getAllTools();
-        // Sort tools alphabetically by name
-        allTools.sort((t1, t2) -> {
-            String name1 = t1.getName() != null ? t1.getName().toLowerCase() : "";
-            String name2 = t2.getName() != null ? t2.getName().toLowerCase() : "";
-            return name1.compareTo(name2);
-        });
-        for (Tool tool : allTools) {
-            String displayName = tool.getName();
-            if (tool.getSecondaryName() != null && !tool.getSecondaryName().isEmpty()) {
-                displayName += " (" + tool.getSecondaryName() + ")";
-            }
-            toolOptionsHtml.append("<option value=\"").append(tool.getId()).append("\">")
-                           .append(displayName).append("</option>");
-        }
-        model.addAttribute("allToolsOptions", toolOptionsHtml.toString());
-        model.addAttribute("allTools", allTools);
+        // Dropdown data comes from the shared reference-data snapshot (id/name tuples, no entity hydration)
+        ReferenceDataService.Snapshot referenceData = referenceDataService.getSnapshot();
+        model.addAttribute("allRmas", referenceData.rmas);
+        model.addAttribute("locations", referenceData.locations);
+        model.addAttribute("technicians", referenceData.users);
+        model.addAttribute("allTools", referenceData.tools);
+        model.addAttribute("referenceDataVersion", referenceData.version);
         
         // Add return addresses for dropdown
         model.addAttribute("returnAddresses", returnAddressService.getAllReturnAddresses());
@@ -672,13 +669,8 @@ public class RmaController {
         List<MovingPart> movingParts = movingPartService.getMovingPartsByRmaId(id);
         model.addAttribute("movingParts", movingParts);
         
-        // Create a map of moving part IDs to their destination chains
-        Map<Long, List<Tool>> movingPartDestinationChains = new HashMap<>();
-        for (MovingPart part : movingParts) {
-            List<Tool> chain = movingPartService.getDestinationChainForMovingPart(part.getId());
-            movingPartDestinationChains.put(part.getId(), chain);
-        }
-        model.addAttribute("movingPartDestinationChains", movingPartDestinationChains);
+        // Create a map of moving part IDs to their destination chains (one tool query for all parts)
+        model.addAttribute("movingPartDestinationChains", movingPartService.getDestinationChains(movingParts));
 
         // Track/Trend associations (by connected tool)
         List<TrackTrend> relatedTrackTrends = new ArrayList<>();
@@ -686,7 +678,7 @@ public class RmaController {
             relatedTrackTrends = trackTrendService.getTrackTrendsByToolId(rma.getTool().getId());
         }
         model.addAttribute("trackTrends", relatedTrackTrends);
-        model.addAttribute("allTrackTrends", trackTrendService.getAllTrackTrends());
+        model.addAttribute("allTrackTrends", referenceData.trackTrends);
         
         return "rma/view";
     }
@@ -1235,65 +1227,15 @@ public class RmaController {
         return result;
     }
 
-    // Verify upload directory exists when accessing files
+    // Serve uploaded files with caching, conditional GET and range support
     @GetMapping("/files/**")
-    @ResponseBody
-    public ResponseEntity<Resource> serveFile(HttpServletRequest request) {
-        try {
-            // Get the file path from the request
-            String requestURL = request.getRequestURL().toString();
-            // Extract everything after "/files/"
-            String filePath = requestURL.substring(requestURL.indexOf("/files/") + "/files/".length());
-            
-            logger.info("Attempting to serve file: {}", filePath);
-            
-            // If the file path contains an absolute path (like C:/), extract just the relative portion
-            if (filePath.contains(":/")) {
-                // Extract just the path after "uploads/"
-                int uploadsIndex = filePath.lastIndexOf("uploads/");
-                if (uploadsIndex != -1) {
-                    filePath = filePath.substring(uploadsIndex + "uploads/".length());
-                    logger.info("Extracted relative path: {}", filePath);
-                } else {
-                    logger.warn("Could not find 'uploads/' in file path: {}", filePath);
-                    return ResponseEntity.badRequest().build();
-                }
-            }
-            
-            // Create the complete file path using the configured upload directory
-            String fullPath = uploadUtils.getUploadDir() + File.separator + filePath;
-            logger.info("Full file path: {}", fullPath);
-            
-            // Check if the file exists
-            if (!uploadUtils.fileExists(fullPath)) {
-                logger.warn("File not found: {}", fullPath);
-                return ResponseEntity.notFound().build();
-            }
-            
-            // Create URL resource from the file
-            File file = new File(fullPath);
-            Resource resource = new UrlResource(file.toURI());
-            
-            // Determine content type
-            String contentType = null;
-            try {
-                contentType = Files.probeContentType(Paths.get(file.getAbsolutePath()));
-            } catch (IOException e) {
-                logger.warn("Could not determine content type for file: {}", filePath);
-            }
-            
-            if (contentType == null) {
-                contentType = "application/octet-stream";
-            }
-            
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            logger.error("Error serving file: {}", e.getMessage(), e);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public void serveFile(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Extract everything after "/files/"
+        String requestUri = request.getRequestURI();
+        String filePath = UriUtils.decode(requestUri.substring(requestUri.indexOf("/files/") + "/files/".length()),
+                StandardCharsets.UTF_8);
+        logger.debug("Serving file: {}", filePath);
+        uploadFileService.serve(filePath, null, null, request, response);
     }
 
     // Get upload directory info
@@ -1601,20 +1543,24 @@ public class RmaController {
     }
 
     /**
-     * Upload pictures for RMA and redirect back to detail page
+     * Upload pictures for RMA and redirect back to detail page. The body is streamed part by part into the
+     * file store (see StreamingUploadService) rather than buffered by the container first.
      */
     @PostMapping("/{id}/upload")
     public String uploadPictures(@PathVariable Long id,
-                                @RequestParam("files") MultipartFile[] files,
+                                @RequestHeader(value = "X-Upload-Id", required = false) String uploadId,
+                                HttpServletRequest request,
                                 RedirectAttributes redirectAttributes) {
         try {
-            // Verify RMA exists
-            Optional<Rma> rmaOpt = rmaService.getRmaById(id);
-            if (rmaOpt.isEmpty()) {
+            // Verify RMA exists (no entity kept: this endpoint runs without open-in-view, so nothing
+            // holds a connection while the body arrives)
+            if (!rmaService.rmaExists(id)) {
                 redirectAttributes.addFlashAttribute("error", "RMA not found");
                 return "redirect:/rma";
             }
             
+            StreamingUploadService.UploadProgress upload = streamingUploadService.receive(request, uploadId, true);
+            
             // Get current user for upload tracking
             User currentUser = null;
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -1626,49 +1572,32 @@ public class RmaController {
                 }
             }
             
-            Rma rma = rmaOpt.get();
-            int successCount = 0;
-            
-            // Process each file
-            for (MultipartFile file : files) {
-                if (file.isEmpty()) {
-                    continue;
-                }
-                
-                try {
-                    // Validate file
-                    if (!uploadUtils.validateFile(file)) {
-                        logger.warn("File validation failed for: {}", file.getOriginalFilename());
-                        continue;
-                    }
-                    
-                    // Only process images
-                    String contentType = file.getContentType();
-                    if (contentType == null || !contentType.startsWith("image/")) {
-                        logger.warn("File is not an image: {}", file.getOriginalFilename());
-                        continue;
-                    }
-                    
-                    // Use the new upload method with tracking
-                    RmaPicture picture = uploadUtils.saveRmaPicture(rma, file, currentUser);
-                    if (picture != null) {
-                        rma.getPictures().add(picture);
-                        successCount++;
-                    } else {
-                        logger.warn("Failed to save picture: {}", file.getOriginalFilename());
-                    }
-                    
-                } catch (Exception e) {
-                    logger.error("Error processing picture {}: {}", file.getOriginalFilename(), e.getMessage());
+            for (StreamingUploadService.FileProgress file : upload.files) {
+                if (!file.isStored()) {
+                    logger.warn("Picture {} not uploaded: {}", file.originalName, file.getMessage());
                 }
             }
             
-            // Save RMA with new pictures
+            // Record the stored pictures on the RMA now that the body is fully on disk
+            int successCount = rmaService.attachStoredFiles(id, upload.files, true, currentUser);
+            if (successCount < 0) {
+                redirectAttributes.addFlashAttribute("error", "RMA not found");
+                return "redirect:/rma";
+            }
             if (successCount > 0) {
-                rmaService.saveRma(rma, new MultipartFile[0]);
                 redirectAttributes.addFlashAttribute("success", 
                     successCount + " picture(s) uploaded successfully");
-            } else {
+            }
+            String rejected = upload.files.stream()
+                    .filter(file -> !file.isStored())
+                    .map(file -> file.originalName + ": " + file.getMessage())
+                    .collect(Collectors.joining("; "));
+            if (upload.getMessage() != null) {
+                rejected = rejected.isEmpty() ? upload.getMessage() : upload.getMessage() + " (" + rejected + ")";
+            }
+            if (!rejected.isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", "Some pictures were not uploaded: " + rejected);
+            } else if (successCount == 0) {
                 redirectAttributes.addFlashAttribute("error", "No pictures were uploaded");
             }
             
@@ -3384,7 +3313,7 @@ public class RmaController {
      * Export filtered RMA list to Excel
      */
     @PostMapping("/export-excel")
-    public ResponseEntity<byte[]> exportFilteredRmasToExcel(
+    public ResponseEntity<StreamingResponseBody> exportFilteredRmasToExcel(
             @RequestParam(required = false) String searchTerm,
             @RequestParam(required = false) String statusFilters,
             @RequestParam(required = false) String sortBy,
@@ -3396,16 +3325,21 @@ public class RmaController {
             logger.info("Filters - searchTerm: '{}', statusFilters: '{}', sortBy: '{}', sortDirection: '{}'", 
                        searchTerm, statusFilters, sortBy, sortDirection);
             
-            // Get all RMAs first
-            List<Rma> allRmas = rmaService.getAllRmas();
-            
-            // Apply filters
-            List<Rma> filteredRmas = filterRmas(allRmas, searchTerm, statusFilters, sortBy, sortDirection);
-            
-            logger.info("Filtered {} RMAs out of {} total RMAs for export", filteredRmas.size(), allRmas.size());
+            // Apply filters and sorting over projection rows; the workbook reads the RMAs in chunks
+            Set<RmaStatus> allowedStatuses = new HashSet<>();
+            if (statusFilters != null && !statusFilters.trim().isEmpty() && !statusFilters.equals("[]")) {
+                for (String status : parseStatusFilters(statusFilters)) {
+                    try {
+                        allowedStatuses.add(RmaStatus.valueOf(status));
+                    } catch (IllegalArgumentException e) {
+                        logger.warn("Invalid status filter: {}", status);
+                    }
+                }
+            }
+            List<Long> rmaIds = rmaService.findRmaIdsForExport(searchTerm, allowedStatuses, sortBy,
+                    "asc".equalsIgnoreCase(sortDirection));
             
-            // Generate Excel file
-            byte[] excelData = excelService.generateRmaListExcel(filteredRmas);
+            logger.info("Filtered {} RMAs for export", rmaIds.size());
             
             // Generate filename with timestamp
             String timestamp = java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
@@ -3415,103 +3349,20 @@ public class RmaController {
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
             headers.setContentDispositionFormData("attachment", filename);
-            headers.setContentLength(excelData.length);
             
-            logger.info("Successfully exported {} RMAs to Excel file: {}", filteredRmas.size(), filename);
+            // Written straight to the response as it is generated, so no Content-Length
+            StreamingResponseBody body = out -> excelService.writeRmaListExcel(rmaIds, out);
             
             return ResponseEntity.ok()
                     .headers(headers)
-                    .body(excelData);
+                    .body(body);
                     
         } catch (Exception e) {
             logger.error("Error exporting RMA list to Excel: {}", e.getMessage(), e);
+            String message = "Error generating Excel export: " + e.getMessage();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(("Error generating Excel export: " + e.getMessage()).getBytes());
-        }
-    }
-    
-    /**
-     * Filter RMAs based on search criteria
-     */
-    private List<Rma> filterRmas(List<Rma> rmas, String searchTerm, String statusFiltersJson, String sortBy, String sortDirection) {
-        List<Rma> filtered = new ArrayList<>(rmas);
-        
-        // Apply search term filter
-        if (searchTerm != null && !searchTerm.trim().isEmpty()) {
-            String searchLower = searchTerm.toLowerCase().trim();
-            filtered = filtered.stream()
-                    .filter(rma -> matchesSearchTerm(rma, searchLower))
-                    .collect(Collectors.toList());
-        }
-        
-        // Apply status filters
-        if (statusFiltersJson != null && !statusFiltersJson.trim().isEmpty() && !statusFiltersJson.equals("[]")) {
-            try {
-                // Parse JSON array of status strings
-                List<String> statusFilters = parseStatusFilters(statusFiltersJson);
-                if (!statusFilters.isEmpty()) {
-                    Set<RmaStatus> allowedStatuses = statusFilters.stream()
-                            .map(status -> {
-                                try {
-                                    return RmaStatus.valueOf(status);
-                                } catch (IllegalArgumentException e) {
-                                    logger.warn("Invalid status filter: {}", status);
-                                    return null;
-                                }
-                            })
-                            .filter(Objects::nonNull)
-                            .collect(Collectors.toSet());
-                    
-                    filtered = filtered.stream()
-                            .filter(rma -> allowedStatuses.contains(rma.getStatus()))
-                            .collect(Collectors.toList());
-                }
-            } catch (Exception e) {
-                logger.warn("Error parsing status filters: {}", e.getMessage());
-            }
-        }
-        
-        // Apply sorting
-        if (sortBy != null && !sortBy.trim().isEmpty()) {
-            boolean ascending = "asc".equalsIgnoreCase(sortDirection);
-            filtered = sortRmas(filtered, sortBy, ascending);
+                    .body(out -> out.write(message.getBytes()));
         }
-        
-        return filtered;
-    }
-    
-    /**
-     * Check if RMA matches search term
-     */
-    private boolean matchesSearchTerm(Rma rma, String searchTerm) {
-        // Search in RMA number
-        if (rma.getRmaNumber() != null && rma.getRmaNumber().toLowerCase().contains(searchTerm)) {
-            return true;
-        }
-        
-        // Search in tool name
-        if (rma.getTool() != null && rma.getTool().getName() != null && 
-            rma.getTool().getName().toLowerCase().contains(searchTerm)) {
-            return true;
-        }
-        
-        // Search in customer name
-        if (rma.getCustomerName() != null && rma.getCustomerName().toLowerCase().contains(searchTerm)) {
-            return true;
-        }
-        
-        // Search in part line items
-        if (rma.getPartLineItems() != null) {
-            for (PartLineItem item : rma.getPartLineItems()) {
-                if ((item.getPartName() != null && item.getPartName().toLowerCase().contains(searchTerm)) ||
-                    (item.getPartNumber() != null && item.getPartNumber().toLowerCase().contains(searchTerm)) ||
-                    (item.getProductDescription() != null && item.getProductDescription().toLowerCase().contains(searchTerm))) {
-                    return true;
-                }
-            }
-        }
-        
-        return false;
     }
     
     /**
@@ -3534,40 +3385,6 @@ public class RmaController {
         }
     }
     
-    /**
-     * Sort RMAs based on sort criteria
-     */
-    private List<Rma> sortRmas(List<Rma> rmas, String sortBy, boolean ascending) {
-        Comparator<Rma> comparator;
-        
-        switch (sortBy.toLowerCase()) {
-            case "rma-number":
-                comparator = Comparator.comparing(rma -> rma.getRmaNumber(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                break;
-            case "tool":
-                comparator = Comparator.comparing(rma -> rma.getTool() != null ? rma.getTool().getName() : "", 
-                                                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                break;
-            case "status":
-                comparator = Comparator.comparing(rma -> rma.getStatus() != null ? rma.getStatus().name() : "", 
-                                                Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                break;
-            case "customer":
-                comparator = Comparator.comparing(rma -> rma.getCustomerName(), Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
-                break;
-            case "date":
-            default:
-                comparator = Comparator.comparing(rma -> rma.getWrittenDate(), Comparator.nullsLast(Comparator.naturalOrder()));
-                break;
-        }
-        
-        if (!ascending) {
-            comparator = comparator.reversed();
-        }
-        
-        return rmas.stream().sorted(comparator).collect(Collectors.toList());
-    }
-
     @PostMapping("/{id}/update-location")
     @ResponseBody
     public Map<String, Object> updateRmaLocation(@PathVariable Long id, HttpServletRequest request) {
@@ -0,0 +1,103 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.SearchIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Full-text search across tools, RMAs, passdowns, track/trends and comments (SearchIndexService)
+ */
+@Controller
+public class SearchController {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchController.class);
+
+    private static final String STATS_URL = "/admin/search/api/stats";
+
+    private final SearchIndexService searchIndexService;
+
+    @Autowired
+    public SearchController(SearchIndexService searchIndexService) {
+        this.searchIndexService = searchIndexService;
+    }
+
+    /**
+     * Ranked, highlighted search results, one page at a time (page is 0-based).
+     * type may be repeated or comma-separated (TOOL, RMA, PASSDOWN, TRACK_TREND, TOOL_COMMENT,
+     * RMA_COMMENT, TRACK_TREND_COMMENT) to restrict the kinds of result.
+     */
+    @GetMapping("/api/search")
+    @ResponseBody
+    public ResponseEntity<?> search(@RequestParam("q") String query,
+                                    @RequestParam(required = false) List<String> type,
+                                    @RequestParam(required = false) Integer page,
+                                    @RequestParam(required = false) Integer size) {
+        try {
+            List<SearchIndexService.SearchType> types = new ArrayList<>();
+            if (type != null) {
+                for (String value : type) {
+                    if (!value.isBlank()) {
+                        types.add(parseType(value));
+                    }
+                }
+            }
+            return ResponseEntity.ok(searchIndexService.search(query, types, page, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
+    /**
+     * Search index size, pending updates and rebuild timings as JSON
+     */
+    @GetMapping(STATS_URL)
+    @ResponseBody
+    public Map<String, Object> getSearchStats() {
+        return searchIndexService.getStats();
+    }
+
+    /**
+     * Start a rebuild of the search index from the database on the cache executor.
+     * Answers 202 at once; poll the stats endpoint until "rebuilding" is false.
+     */
+    @PostMapping("/admin/search/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> rebuild() {
+        boolean started = searchIndexService.startRebuild();
+        if (started) {
+            logger.info("Search index rebuild requested");
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "Search index rebuild started" : "A search index rebuild is already running");
+        response.put("statusUrl", STATS_URL);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+                .location(URI.create(STATS_URL))
+                .body(response);
+    }
+
+    private static SearchIndexService.SearchType parseType(String value) {
+        try {
+            return SearchIndexService.SearchType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown result type: " + value.trim());
+        }
+    }
+}
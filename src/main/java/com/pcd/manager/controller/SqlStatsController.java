@@ -0,0 +1,75 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.FanOutService;
+import com.pcd.manager.service.SqlStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-endpoint SQL statement counts collected by SqlMonitoringFilter, and per-branch timings of parallel loads
+ */
+@Controller
+@RequestMapping("/admin/sql")
+@PreAuthorize("hasRole('ADMIN')")
+public class SqlStatsController {
+
+    @Autowired
+    private SqlStatsService sqlStatsService;
+
+    @Autowired
+    private FanOutService fanOutService;
+
+    /**
+     * Display SQL statistics page
+     */
+    @GetMapping
+    public String sqlStats(Model model) {
+        model.addAttribute("monitoringEnabled", sqlStatsService.isEnabled());
+        model.addAttribute("endpoints", sqlStatsService.getEndpointStats());
+        model.addAttribute("violations", sqlStatsService.getRecentViolations());
+        model.addAttribute("statementBudget", sqlStatsService.getStatementBudget());
+        model.addAttribute("since", sqlStatsService.getSince());
+        model.addAttribute("fanOutBranches", fanOutService.getBranchStats());
+        return "admin/sql-stats";
+    }
+
+    /**
+     * Get SQL statistics as JSON
+     */
+    @GetMapping("/api/stats")
+    @ResponseBody
+    public Map<String, Object> getSqlStatsJson() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("monitoringEnabled", sqlStatsService.isEnabled());
+        response.put("statementBudget", sqlStatsService.getStatementBudget());
+        response.put("endpoints", sqlStatsService.getEndpointStats());
+        response.put("recentViolations", sqlStatsService.getRecentViolations());
+        response.put("fanOutBranches", fanOutService.getBranchStats());
+        response.put("since", sqlStatsService.getSince());
+        response.put("timestamp", System.currentTimeMillis());
+        return response;
+    }
+
+    /**
+     * Reset all collected statistics
+     */
+    @PostMapping("/reset")
+    @ResponseBody
+    public Map<String, Object> reset() {
+        sqlStatsService.reset();
+        fanOutService.resetStats();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("message", "SQL statistics reset");
+        return response;
+    }
+}
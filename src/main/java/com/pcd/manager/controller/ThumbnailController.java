@@ -0,0 +1,41 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.ThumbnailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picture thumbnail statistics and the backfill job for pictures uploaded before thumbnails existed
+ */
+@Controller
+@RequestMapping("/admin/thumbnails")
+@PreAuthorize("hasRole('ADMIN')")
+public class ThumbnailController {
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @GetMapping("/api/stats")
+    @ResponseBody
+    public Map<String, Object> getStats() {
+        return thumbnailService.getStats();
+    }
+
+    @PostMapping("/backfill")
+    @ResponseBody
+    public Map<String, Object> startBackfill() {
+        boolean started = thumbnailService.startBackfill();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", started);
+        response.put("message", started ? "Thumbnail backfill started" : "A thumbnail backfill is already running");
+        return response;
+    }
+}
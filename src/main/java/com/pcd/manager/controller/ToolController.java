@@ -17,6 +17,8 @@ import com.pcd.manager.repository.RmaRepository;
 import com.pcd.manager.repository.PassdownRepository;
 import com.pcd.manager.repository.ToolCommentRepository;
 import com.pcd.manager.repository.TrackTrendRepository;
+import com.pcd.manager.service.FileBlobService;
+import com.pcd.manager.service.ThumbnailService;
 import com.pcd.manager.service.ToolService;
 import com.pcd.manager.service.LocationService;
 import com.pcd.manager.service.RmaService;
@@ -28,6 +30,7 @@ import com.pcd.manager.service.MovingPartService;
 import com.pcd.manager.service.ChecklistTemplateService;
 import com.pcd.manager.service.NCSRService;
 import com.pcd.manager.service.CustomLocationService;
+import com.pcd.manager.service.ToolListService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
@@ -59,7 +62,6 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Optional;
 import java.security.Principal;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -93,12 +95,19 @@ public class ToolController {
     private final ChecklistTemplateService checklistTemplateService;
     private final NCSRService ncsrService;
     private final CustomLocationService customLocationService;
+    private final ToolListService toolListService;
     
     @Value("${app.upload.dir:${user.home}/uploads}")
     private String uploadDir;
 
     @Autowired
-    public ToolController(ToolService toolService, ToolRepository toolRepository, LocationService locationService, RmaService rmaService, UserService userService, TrackTrendService trackTrendService, PassdownService passdownService, RmaRepository rmaRepository, PassdownRepository passdownRepository, ToolCommentRepository toolCommentRepository, TrackTrendRepository trackTrendRepository, AsyncDataService asyncDataService, MovingPartService movingPartService, ChecklistTemplateService checklistTemplateService, NCSRService ncsrService, CustomLocationService customLocationService) {
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private FileBlobService fileBlobService;
+
+    @Autowired
+    public ToolController(ToolService toolService, ToolRepository toolRepository, LocationService locationService, RmaService rmaService, UserService userService, TrackTrendService trackTrendService, PassdownService passdownService, RmaRepository rmaRepository, PassdownRepository passdownRepository, ToolCommentRepository toolCommentRepository, TrackTrendRepository trackTrendRepository, AsyncDataService asyncDataService, MovingPartService movingPartService, ChecklistTemplateService checklistTemplateService, NCSRService ncsrService, CustomLocationService customLocationService, ToolListService toolListService) {
         this.toolService = toolService;
         this.toolRepository = toolRepository;
         this.locationService = locationService;
@@ -115,6 +124,7 @@ public class ToolController {
         this.checklistTemplateService = checklistTemplateService;
         this.ncsrService = ncsrService;
         this.customLocationService = customLocationService;
+        this.toolListService = toolListService;
     }
     
     @PostConstruct
@@ -309,49 +319,21 @@ public class ToolController {
             }
         }
         
-        // Initialize all maps to ensure they're never null
-        Map<Long, List<Map<String, Object>>> toolRmasMap = new HashMap<>();
-        Map<Long, List<Map<String, Object>>> toolPassdownsMap = new HashMap<>();
-        Map<Long, List<Map<String, Object>>> toolCommentsMap = new HashMap<>();
-        Map<Long, List<Map<String, Object>>> toolTrackTrendsMap = new HashMap<>();
-        
-        try {
-            // ASYNC OPTIMIZATION: Load all related data in parallel instead of sequentially
-            logger.info("Starting parallel async data loading for {} tools", toolIds.size());
-            
-            CompletableFuture<Map<String, Map<Long, List<Map<String, Object>>>>> asyncDataFuture = 
-                asyncDataService.loadAllToolDataAsync(toolIds);
-            
-            // Wait for all async operations to complete
-            Map<String, Map<Long, List<Map<String, Object>>>> asyncData = asyncDataFuture.get();
-            
-            // Extract the data maps
-            toolRmasMap = asyncData.getOrDefault("rmas", new HashMap<>());
-            toolPassdownsMap = asyncData.getOrDefault("passdowns", new HashMap<>());
-            toolCommentsMap = asyncData.getOrDefault("comments", new HashMap<>());
-            toolTrackTrendsMap = asyncData.getOrDefault("trackTrends", new HashMap<>());
-            
-            long duration = System.currentTimeMillis() - startTime;
-            logger.info("=== COMPLETED ASYNC TOOLS LIST PAGE LOAD IN {}ms ===", duration);
-            
-            // Add performance info to model for display
-            model.addAttribute("loadTime", duration);
-            model.addAttribute("asyncEnabled", true);
-            
-        } catch (Exception e) {
-            logger.error("Error in async tools list loading, falling back to empty maps: {}", e.getMessage(), e);
-            
-            // Maps are already initialized above, so we just keep them empty
-            model.addAttribute("asyncEnabled", false);
-            model.addAttribute("asyncError", e.getMessage());
-        }
-        
-        // Ensure all tools have entries in maps (even if empty)
-        for (Long toolId : toolIds) {
-            toolRmasMap.computeIfAbsent(toolId, k -> new ArrayList<>());
-            toolPassdownsMap.computeIfAbsent(toolId, k -> new ArrayList<>());
-            toolCommentsMap.computeIfAbsent(toolId, k -> new ArrayList<>());
-            toolTrackTrendsMap.computeIfAbsent(toolId, k -> new ArrayList<>());
+        // Load the icon column data in parallel; branches that miss the deadline render as empty columns
+        AsyncDataService.ToolListData toolListData = asyncDataService.loadAllToolData(toolIds);
+        Map<Long, List<Map<String, Object>>> toolRmasMap = toolListData.rmas;
+        Map<Long, List<Map<String, Object>>> toolPassdownsMap = toolListData.passdowns;
+        Map<Long, List<Map<String, Object>>> toolCommentsMap = toolListData.comments;
+        Map<Long, List<Map<String, Object>>> toolTrackTrendsMap = toolListData.trackTrends;
+
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("=== COMPLETED TOOLS LIST PAGE LOAD IN {}ms ===", duration);
+
+        // Add performance info to model for display
+        model.addAttribute("loadTime", duration);
+        model.addAttribute("asyncEnabled", !toolListData.partial);
+        if (toolListData.partial) {
+            model.addAttribute("asyncError", "Some tool details took too long to load: " + toolListData.timings);
         }
         
         // Split into Standard vs GasGuard lists for separate rendering tables
@@ -455,6 +437,7 @@ public class ToolController {
         model.addAttribute("toolPassdownsMap", toolPassdownsMap);
         model.addAttribute("toolCommentsMap", toolCommentsMap);
         model.addAttribute("toolTrackTrendsMap", toolTrackTrendsMap);
+        model.addAttribute("toolMovingPartsMap", toolListData.movingParts);
         // toolChecklistMap removed since Status columns are gone
         
         // Add all locations for the location filter
@@ -777,7 +760,7 @@ public class ToolController {
                         }
                         logger.info("Processing file: {}, type: {}, target subdir: {}", originalFilename, contentType, subdirectory);
 
-                        String filePath = saveUploadedFile(file, subdirectory);
+                        String filePath = saveUploadedFile(file);
                         if (filePath != null) {
                             if (isPicture) {
                                 tool.getPicturePaths().add(filePath);
@@ -887,7 +870,10 @@ public class ToolController {
         
         // Don't delete the physical file if it was an RMA document (it will be handled by RMA service)
         // Only delete if it wasn't associated with an RMA
-        if (!isRmaDocument) {
+        if (fileBlobService.isBlobPath(documentPath)) {
+            // Shared content: removed by blob collection once no record references it
+            fileBlobService.release(documentPath);
+        } else if (!isRmaDocument) {
             // Delete the actual file
             try {
                 Path path = Paths.get(uploadDir + File.separator + documentPath);
@@ -971,11 +957,15 @@ public class ToolController {
         
         // Don't delete the physical file if it was an RMA picture (it will be handled by RMA service)
         // Only delete if it wasn't associated with an RMA
-        if (!isRmaPicture) {
+        if (fileBlobService.isBlobPath(picturePath)) {
+            // Shared content: removed by blob collection once no record references it
+            fileBlobService.release(picturePath);
+        } else if (!isRmaPicture) {
             // Delete the actual file
             try {
                 Path path = Paths.get(uploadDir + File.separator + picturePath);
                 Files.deleteIfExists(path);
+                thumbnailService.deleteThumbnails(path.toAbsolutePath().normalize());
                 logger.info("Deleted file: {}", path);
             } catch (IOException e) {
                 logger.error("Failed to delete file: {}", e.getMessage());
@@ -1079,25 +1069,17 @@ public class ToolController {
     }
     
     /**
-     * Saves uploaded file to the server's file system
+     * Saves uploaded file to the content-addressed store (pictures and documents alike)
      * 
      * @param file The file to save
-     * @param subdirectory The subdirectory under upload dir
      * @return The path where the file was saved, or null if it failed
      */
-    private String saveUploadedFile(MultipartFile file, String subdirectory) {
+    private String saveUploadedFile(MultipartFile file) {
         if (file.isEmpty()) {
             return null;
         }
         
         try {
-            // Create directories if they don't exist
-            File directory = new File(uploadDir + File.separator + subdirectory);
-            if (!directory.exists()) {
-                directory.mkdirs();
-            }
-            
-            // Generate a unique filename
             String originalFilename = file.getOriginalFilename();
             if (originalFilename == null || originalFilename.isEmpty()) {
                 return null;
@@ -1109,12 +1091,11 @@ public class ToolController {
                 extension = originalFilename.substring(lastDotIndex);
             }
             
-            String newFilename = UUID.randomUUID().toString() + extension;
-            String relativePath = subdirectory + File.separator + newFilename;
-            
-            // Save the file
-            Path path = Paths.get(uploadDir + File.separator + relativePath);
-            Files.write(path, file.getBytes());
+            // Hashed while streaming into the content-addressed store; identical uploads share one file
+            String relativePath = fileBlobService.store(file.getInputStream(), extension);
+            if (thumbnailService.isSupported(relativePath)) {
+                thumbnailService.schedule(relativePath);
+            }
             
             return relativePath;
         } catch (IOException e) {
@@ -1426,7 +1407,7 @@ public class ToolController {
             logger.info("Processing file: {}, type: {}, target subdir: {}", originalFilename, contentType, subdirectory);
 
             // The saveUploadedFile method already catches IOException and returns null on failure.
-            String filePath = saveUploadedFile(file, subdirectory); 
+            String filePath = saveUploadedFile(file); 
             if (filePath != null) {
                 if (isPicture) {
                     tool.getPicturePaths().add(filePath);
@@ -1538,7 +1519,7 @@ public class ToolController {
             
             logger.info("Processing file: {}, type: {}, target subdir: {}", originalFilename, contentType, subdirectory);
 
-            String filePath = saveUploadedFile(file, subdirectory); 
+            String filePath = saveUploadedFile(file); 
             if (filePath != null) {
                 if (isPicture) {
                     tool.getPicturePaths().add(filePath);
@@ -1910,6 +1891,26 @@ public class ToolController {
         }
     }
 
+    /**
+     * Keyset-paginated tools list for infinite scrolling.
+     * Filters are applied in SQL; pass the returned nextCursor to load the following page.
+     */
+    @GetMapping("/api/page")
+    @ResponseBody
+    public ResponseEntity<?> getToolListPage(@RequestParam(value = "typeView", required = false) String typeView,
+                                             @RequestParam(value = "location", required = false) String location,
+                                             @RequestParam(value = "status", required = false) String status,
+                                             @RequestParam(value = "search", required = false) String search,
+                                             @RequestParam(value = "cursor", required = false) String cursor,
+                                             @RequestParam(value = "size", required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(toolListService.getToolListPage(typeView, location, status, search, cursor, size));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Invalid tool list page request: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", e.getMessage()));
+        }
+    }
+
     /**
      * Helper method to safely convert java.sql.Date to LocalDate
      */
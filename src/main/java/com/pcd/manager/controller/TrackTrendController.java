@@ -67,48 +67,26 @@ public class TrackTrendController {
         Map<Long, List<Map<String, Object>>> affectedToolsMap = new HashMap<>();
         Map<Long, List<Map<String, Object>>> commentsDataMap = new HashMap<>();
         
-        // Bulk load lightweight RMA counts for each track/trend
+        // Bulk load related RMAs for all track/trends in one query, indexed by track/trend id
         try {
+            for (Object[] row : rmaRepository.findRmaListDataByTrackTrendIds(trackTrendIds)) {
+                Map<String, Object> rmaInfo = new HashMap<>();
+                rmaInfo.put("id", row[1]);
+                rmaInfo.put("rmaNumber", row[2]);
+                rmaInfo.put("referenceNumber", row[2]); // read by the list template popovers
+                rmaInfo.put("status", row[3]);
+                rmaInfo.put("sapNotificationNumber", null); // Add this for template compatibility
+
+                // Nested tool map to match template expectations
+                Map<String, Object> toolInfo = new HashMap<>();
+                toolInfo.put("name", row[5] != null ? row[5] : "Unknown Tool");
+                rmaInfo.put("tool", toolInfo);
+
+                relatedRmasMap.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(rmaInfo);
+            }
+
             for (TrackTrend tt : trackTrends) {
-                if (tt.getAffectedTools() != null && !tt.getAffectedTools().isEmpty()) {
-                    List<Long> toolIds = tt.getAffectedTools().stream()
-                            .map(Tool::getId)
-                            .collect(Collectors.toList());
-                    
-                    List<Object[]> rmaData = rmaRepository.findRmaListDataByToolIds(toolIds);
-                    List<Map<String, Object>> rmaList = new ArrayList<>();
-                    
-                    for (Object[] row : rmaData) {
-                        Map<String, Object> rmaInfo = new HashMap<>();
-                        rmaInfo.put("id", row[0]);
-                        rmaInfo.put("rmaNumber", row[1]);
-                        rmaInfo.put("status", row[2]);
-                        rmaInfo.put("sapNotificationNumber", null); // Add this for template compatibility
-                        
-                        // Add tool information - create a nested map to match template expectations
-                        Long toolId = (Long) row[3]; // tool.id from the query
-                        if (toolId != null) {
-                            // Find the tool name from the affected tools
-                            String toolName = tt.getAffectedTools().stream()
-                                    .filter(tool -> tool.getId().equals(toolId))
-                                    .map(Tool::getName)
-                                    .findFirst()
-                                    .orElse("Unknown Tool");
-                            
-                            Map<String, Object> toolInfo = new HashMap<>();
-                            toolInfo.put("name", toolName);
-                            rmaInfo.put("tool", toolInfo);
-                        } else {
-                            rmaInfo.put("tool", null);
-                        }
-                        
-                        rmaList.add(rmaInfo);
-                    }
-                    
-                    relatedRmasMap.put(tt.getId(), rmaList);
-                } else {
-                    relatedRmasMap.put(tt.getId(), new ArrayList<>());
-                }
+                relatedRmasMap.putIfAbsent(tt.getId(), new ArrayList<>());
                 
                 // Pre-compute affected tools data to avoid template accessing full Tool objects
                 List<Map<String, Object>> toolsData = new ArrayList<>();
@@ -0,0 +1,57 @@
+package com.pcd.manager.controller;
+
+import com.pcd.manager.service.ThumbnailService;
+import com.pcd.manager.service.UploadFileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * Serves uploaded pictures and documents under /uploads/** (GET and HEAD) through UploadFileService.
+ * ?size=N serves the picture's thumbnail that best fits N pixels, or the original until it has been generated.
+ */
+@Controller
+public class UploadController {
+
+    private final UploadFileService uploadFileService;
+    private final ThumbnailService thumbnailService;
+
+    @Autowired
+    public UploadController(UploadFileService uploadFileService, ThumbnailService thumbnailService) {
+        this.uploadFileService = uploadFileService;
+        this.thumbnailService = thumbnailService;
+    }
+
+    @GetMapping("/uploads/**")
+    public void serveUpload(@RequestParam(required = false) Integer size,
+                            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+        String filePath = UriUtils.decode(path.substring("/uploads/".length()), StandardCharsets.UTF_8);
+        if (size == null || size <= 0) {
+            uploadFileService.serve(filePath, null, null, request, response);
+            return;
+        }
+        Path original = uploadFileService.resolve(filePath);
+        if (original == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Path thumbnail = thumbnailService.findThumbnail(original, size);
+        if (thumbnail != null) {
+            uploadFileService.serve(thumbnail, null, null, true, request, response);
+        } else {
+            // Not cached for long: the same URL serves the thumbnail once it exists
+            boolean immutable = uploadFileService.isImmutable(original) && !thumbnailService.isSupported(filePath);
+            uploadFileService.serve(original, null, null, immutable, request, response);
+        }
+    }
+}
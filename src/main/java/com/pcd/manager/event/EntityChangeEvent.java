@@ -0,0 +1,56 @@
+package com.pcd.manager.event;
+
+/**
+ * Published whenever a tracked entity is created, updated or deleted.
+ * Carries only the entity type and id so listeners (cache invalidation, indexes)
+ * reload whatever state they need instead of holding on to managed entities.
+ */
+public class EntityChangeEvent {
+
+    public enum EntityType {
+        TOOL, RMA, TRACK_TREND, USER, PASSDOWN, LOCATION
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final EntityType entityType;
+    private final Long entityId;
+    private final ChangeType changeType;
+
+    public EntityChangeEvent(EntityType entityType, Long entityId, ChangeType changeType) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.changeType = changeType;
+    }
+
+    public static EntityChangeEvent created(EntityType entityType, Long entityId) {
+        return new EntityChangeEvent(entityType, entityId, ChangeType.CREATED);
+    }
+
+    public static EntityChangeEvent updated(EntityType entityType, Long entityId) {
+        return new EntityChangeEvent(entityType, entityId, ChangeType.UPDATED);
+    }
+
+    public static EntityChangeEvent deleted(EntityType entityType, Long entityId) {
+        return new EntityChangeEvent(entityType, entityId, ChangeType.DELETED);
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    @Override
+    public String toString() {
+        return "EntityChangeEvent{" + entityType + " " + entityId + " " + changeType + "}";
+    }
+}
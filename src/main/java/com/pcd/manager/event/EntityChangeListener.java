@@ -0,0 +1,100 @@
+package com.pcd.manager.event;
+
+import com.pcd.manager.model.Location;
+import com.pcd.manager.model.Note;
+import com.pcd.manager.model.Passdown;
+import com.pcd.manager.model.PassdownPicture;
+import com.pcd.manager.model.Rma;
+import com.pcd.manager.model.RmaComment;
+import com.pcd.manager.model.RmaDocument;
+import com.pcd.manager.model.RmaPicture;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.model.ToolComment;
+import com.pcd.manager.model.ToolPicture;
+import com.pcd.manager.model.TrackTrend;
+import com.pcd.manager.model.TrackTrendComment;
+import com.pcd.manager.model.TrackTrendPicture;
+import com.pcd.manager.model.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns row-level writes into EntityChangeEvents.
+ * Registered with @EntityListeners on the tracked entities; Hibernate resolves it
+ * through Spring so the publisher is injected.
+ *
+ * Child rows (comments, pictures, documents) are reported as an UPDATE of their parent.
+ * Collection-only changes (element collections, many-to-many) do not trigger JPA callbacks,
+ * so services that only touch collections publish the event themselves.
+ */
+public class EntityChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntityChangeListener.class);
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    public void onPersist(Object entity) {
+        publish(entity, EntityChangeEvent.ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void onUpdate(Object entity) {
+        publish(entity, EntityChangeEvent.ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        publish(entity, EntityChangeEvent.ChangeType.DELETED);
+    }
+
+    private void publish(Object entity, EntityChangeEvent.ChangeType changeType) {
+        EntityChangeEvent event = toEvent(entity, changeType);
+        if (event == null || eventPublisher == null) {
+            return;
+        }
+        logger.debug("Publishing {}", event);
+        eventPublisher.publishEvent(event);
+    }
+
+    private static EntityChangeEvent toEvent(Object entity, EntityChangeEvent.ChangeType changeType) {
+        if (entity instanceof Tool tool) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.TOOL, tool.getId(), changeType);
+        } else if (entity instanceof Rma rma) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.RMA, rma.getId(), changeType);
+        } else if (entity instanceof TrackTrend trackTrend) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.TRACK_TREND, trackTrend.getId(), changeType);
+        } else if (entity instanceof User user) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.USER, user.getId(), changeType);
+        } else if (entity instanceof Passdown passdown) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.PASSDOWN, passdown.getId(), changeType);
+        } else if (entity instanceof Location location) {
+            return new EntityChangeEvent(EntityChangeEvent.EntityType.LOCATION, location.getId(), changeType);
+        } else if (entity instanceof ToolComment comment && comment.getTool() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.TOOL, comment.getTool().getId());
+        } else if (entity instanceof Note note && note.getTool() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.TOOL, note.getTool().getId());
+        } else if (entity instanceof ToolPicture picture && picture.getTool() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.TOOL, picture.getTool().getId());
+        } else if (entity instanceof RmaComment comment && comment.getRma() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.RMA, comment.getRma().getId());
+        } else if (entity instanceof RmaDocument document && document.getRma() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.RMA, document.getRma().getId());
+        } else if (entity instanceof RmaPicture picture && picture.getRma() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.RMA, picture.getRma().getId());
+        } else if (entity instanceof TrackTrendComment comment && comment.getTrackTrend() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.TRACK_TREND, comment.getTrackTrend().getId());
+        } else if (entity instanceof TrackTrendPicture picture && picture.getTrackTrend() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.TRACK_TREND, picture.getTrackTrend().getId());
+        } else if (entity instanceof PassdownPicture picture && picture.getPassdown() != null) {
+            return EntityChangeEvent.updated(EntityChangeEvent.EntityType.PASSDOWN, picture.getPassdown().getId());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.pcd.manager.event;
+
+import com.pcd.manager.model.MapGridItem;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Published when facility-map grid items at one location are created, moved, resized, edited or deleted.
+ * Each patch is a JSON-ready map keyed by item "id" holding only what the client needs to patch its view:
+ * geometry and version for moves, the full item for creations and edits, and "deleted": true for deletions.
+ */
+public class MapGridChangeEvent {
+
+    private final Long locationId;
+    private final List<Map<String, Object>> patches;
+
+    public MapGridChangeEvent(Long locationId, List<Map<String, Object>> patches) {
+        this.locationId = locationId;
+        this.patches = patches;
+    }
+
+    /**
+     * Full patch for a created or edited item
+     */
+    public static Map<String, Object> itemPatch(MapGridItem item) {
+        Map<String, Object> patch = geometryPatch(item.getId(), item.getVersion(), item.getX(), item.getY(),
+                item.getWidth(), item.getHeight());
+        patch.put("type", item.getType() != null ? item.getType().name() : null);
+        patch.put("toolId", item.getTool() != null ? item.getTool().getId() : null);
+        patch.put("text", item.getText());
+        patch.put("color", item.getColor());
+        patch.put("isSolid", item.getIsSolid());
+        return patch;
+    }
+
+    public static Map<String, Object> geometryPatch(Long id, Long version, Integer x, Integer y, Integer width, Integer height) {
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("id", id);
+        patch.put("version", version);
+        patch.put("x", x);
+        patch.put("y", y);
+        patch.put("width", width);
+        patch.put("height", height);
+        return patch;
+    }
+
+    public static Map<String, Object> deletedPatch(Long id) {
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("id", id);
+        patch.put("deleted", true);
+        return patch;
+    }
+
+    public Long getLocationId() {
+        return locationId;
+    }
+
+    public List<Map<String, Object>> getPatches() {
+        return patches;
+    }
+
+    @Override
+    public String toString() {
+        return "MapGridChangeEvent{location " + locationId + ", " + patches.size() + " items}";
+    }
+}
@@ -0,0 +1,28 @@
+package com.pcd.manager.event;
+
+import com.pcd.manager.model.MovingPart;
+import com.pcd.manager.service.MovingPartLocationIndexService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * JPA entity listener that keeps moving_part_endpoints in step with a moving part's from/to columns.
+ * Runs inside the flush, so the endpoint rows commit or roll back with the moving part; rows of deleted
+ * parts go with them through the ON DELETE CASCADE foreign key.
+ */
+public class MovingPartEndpointListener {
+
+    @Autowired
+    @Lazy
+    private MovingPartLocationIndexService movingPartLocationIndexService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(MovingPart movingPart) {
+        if (movingPartLocationIndexService != null && movingPart.getId() != null) {
+            movingPartLocationIndexService.reindex(movingPart);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.pcd.manager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One physical upload in the content-addressed store (blobs/ab/cd/<sha256>.ext).
+ * Records that share a file all hold the same filePath; referenceCount is how many of them do.
+ */
+@Entity
+@Table(name = "file_blobs", indexes = {
+    @Index(name = "idx_file_blobs_unreferenced", columnList = "reference_count, unreferenced_since")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String sha256;
+
+    @Column(name = "file_path", nullable = false, unique = true)
+    private String filePath; // Path relative to the base upload directory
+
+    private Long fileSize; // Size in bytes
+
+    @Column(name = "reference_count", nullable = false)
+    private int referenceCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Set when the last reference went away (or at upload, until first linked); null while referenced
+    @Column(name = "unreferenced_since")
+    private LocalDateTime unreferencedSince;
+}
@@ -1,5 +1,6 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -12,6 +13,7 @@ import java.util.Map;
 @Table(name = "locations", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"state", "fab"})
 })
+@EntityListeners(EntityChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
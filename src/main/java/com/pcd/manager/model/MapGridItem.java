@@ -61,6 +61,10 @@ public class MapGridItem {
     @JoinColumn(name = "updated_by")
     private User updatedBy;
 
+    // Bumped on every write; map-state saves carry the version the editor loaded to detect concurrent edits
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @PrePersist
     protected void onCreate() {
         createdDate = LocalDateTime.now();
@@ -70,6 +74,7 @@ public class MapGridItem {
     @PreUpdate
     protected void onUpdate() {
         updatedDate = LocalDateTime.now();
+        version = (version != null ? version : 0L) + 1;
     }
 
     public enum ItemType {
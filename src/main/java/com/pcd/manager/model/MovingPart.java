@@ -1,5 +1,6 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.MovingPartEndpointListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -15,11 +16,14 @@ import java.util.ArrayList;
 
 @Entity
 @Table(name = "moving_parts")
+@EntityListeners(MovingPartEndpointListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MovingPart {
 
+    private static final ObjectMapper JSON = new ObjectMapper();
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -87,12 +91,18 @@ public class MovingPart {
 
     // Helper methods for destination chain
     public List<Long> getDestinationToolIds() {
+        return parseDestinationChain(destinationChain);
+    }
+
+    /**
+     * Tool ids of a destination_chain value (JSON array), empty when blank or unreadable
+     */
+    public static List<Long> parseDestinationChain(String destinationChain) {
         if (destinationChain == null || destinationChain.trim().isEmpty()) {
             return new ArrayList<>();
         }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(destinationChain, new TypeReference<List<Long>>() {});
+            return JSON.readValue(destinationChain, new TypeReference<List<Long>>() {});
         } catch (JsonProcessingException e) {
             return new ArrayList<>();
         }
@@ -104,8 +114,7 @@ public class MovingPart {
             return;
         }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            this.destinationChain = mapper.writeValueAsString(toolIds);
+            this.destinationChain = JSON.writeValueAsString(toolIds);
         } catch (JsonProcessingException e) {
             this.destinationChain = null;
         }
@@ -142,30 +151,41 @@ public class MovingPart {
     
     // Helper methods for custom locations
     public List<String> getToCustomLocationsList() {
+        return parseCustomLocations(toCustomLocations);
+    }
+
+    /**
+     * Names in a to_custom_locations value (JSON array), empty when blank or unreadable
+     */
+    public static List<String> parseCustomLocations(String toCustomLocations) {
         if (toCustomLocations == null || toCustomLocations.trim().isEmpty()) {
             return new ArrayList<>();
         }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            return mapper.readValue(toCustomLocations, new TypeReference<List<String>>() {});
+            return JSON.readValue(toCustomLocations, new TypeReference<List<String>>() {});
         } catch (JsonProcessingException e) {
             return new ArrayList<>();
         }
     }
-    
-    public void setToCustomLocationsList(List<String> customLocations) {
+
+    /**
+     * to_custom_locations value for a list of names, null when empty
+     */
+    public static String formatCustomLocations(List<String> customLocations) {
         if (customLocations == null || customLocations.isEmpty()) {
-            this.toCustomLocations = null;
-            return;
+            return null;
         }
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            this.toCustomLocations = mapper.writeValueAsString(customLocations);
+            return JSON.writeValueAsString(customLocations);
         } catch (JsonProcessingException e) {
-            this.toCustomLocations = null;
+            return null;
         }
     }
     
+    public void setToCustomLocationsList(List<String> customLocations) {
+        this.toCustomLocations = formatCustomLocations(customLocations);
+    }
+    
     /**
      * Get the display name for the source location (tool or custom)
      */
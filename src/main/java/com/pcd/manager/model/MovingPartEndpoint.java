@@ -0,0 +1,63 @@
+package com.pcd.manager.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One end of a moving part's movement: where it came from (FROM, sortOrder 0) or one of the places it
+ * went to (TO: destination-chain tools and custom locations in their listed order).
+ *
+ * Normalized copy of MovingPart's fromTool/fromCustomLocation, destination_chain and to_custom_locations,
+ * rewritten by MovingPartEndpointListener whenever a moving part is saved, so "parts at/through this tool
+ * or custom location" is an indexed lookup instead of a scan over the JSON text columns. Custom locations
+ * are matched by entity id or by nameKey (trimmed, lower-cased name), as the text columns only hold names.
+ */
+@Entity
+@Table(name = "moving_part_endpoints", indexes = {
+    @Index(name = "idx_mpe_moving_part", columnList = "moving_part_id"),
+    @Index(name = "idx_mpe_tool_role", columnList = "tool_id, role"),
+    @Index(name = "idx_mpe_custom_location_role", columnList = "custom_location_id, role"),
+    @Index(name = "idx_mpe_name_key_role", columnList = "name_key, role")
+})
+@Data
+@NoArgsConstructor
+public class MovingPartEndpoint {
+
+    public enum Role {
+        FROM, TO
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "moving_part_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    private MovingPart movingPart;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private Role role;
+
+    @Column(name = "sort_order", nullable = false)
+    private Integer sortOrder;
+
+    // Plain ids rather than foreign keys: like the JSON columns they mirror, they may outlive the tool
+    @Column(name = "tool_id")
+    private Long toolId;
+
+    @Column(name = "custom_location_id")
+    private Long customLocationId;
+
+    @Column(name = "custom_location_name")
+    private String customLocationName;
+
+    @Column(name = "name_key")
+    private String nameKey;
+}
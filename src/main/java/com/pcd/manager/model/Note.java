@@ -1,10 +1,12 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.EntityChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "notes")
+@EntityListeners(EntityChangeListener.class)
 public class Note {
 
     @Id
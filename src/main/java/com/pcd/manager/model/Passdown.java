@@ -1,5 +1,6 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.EntityChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -18,7 +19,11 @@ import java.util.HashMap;
 import jakarta.persistence.FetchType;
 
 @Entity
-@Table(name = "passdowns")
+@Table(name = "passdowns", indexes = {
+    @Index(name = "ux_passdowns_content_hash", columnList = "content_hash", unique = true),
+    @Index(name = "idx_passdowns_date_id", columnList = "date, id")
+})
+@EntityListeners(EntityChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -39,6 +44,11 @@ public class Passdown {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdDate;
 
+    // SHA-256 of date, normalized comment, tool ids and tech ids, recorded by the Excel import so
+    // importing the same shift log again skips rows already present; null for passdowns it never saw
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     // User who created the passdown
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
@@ -1,5 +1,6 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.EntityChangeListener;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -23,6 +24,7 @@ import java.math.BigDecimal;
  */
 @Entity
 @Table(name = "rmas")
+@EntityListeners(EntityChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
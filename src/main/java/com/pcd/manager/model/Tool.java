@@ -1,5 +1,6 @@
 package com.pcd.manager.model;
 
+import com.pcd.manager.event.EntityChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -8,6 +9,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.EqualsAndHashCode;
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -22,6 +25,7 @@ import java.util.Set;
 
 @Entity
 @Table(name = "tools")
+@EntityListeners(EntityChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,8 +37,10 @@ import java.util.Set;
     "documentPaths",
     "documentNames",
     "documentTags",
+    "pictures",
     "picturePaths",
-    "pictureNames"
+    "pictureNames",
+    "tags"
 })
 public class Tool {
 
@@ -197,35 +203,51 @@ public class Tool {
     @Column(name = "start_up_sl03_complete")
     private Boolean startUpSl03Complete;
 
-    // Document and picture paths
-    @ElementCollection(fetch = FetchType.EAGER)
+    // Document and picture paths. All collections below are lazy: list queries only read the tools
+    // row. Detail and cache loads fetch them explicitly (ToolRepository.findByIdWithCollections /
+    // findAllWithCollections); any other access falls back to SUBSELECT fetching, which loads a
+    // collection for every tool of the originating query in one statement instead of one per tool.
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_documents", joinColumns = @JoinColumn(name = "tool_id"))
     @Column(name = "document_path")
     private Set<String> documentPaths = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_document_names", joinColumns = @JoinColumn(name = "tool_id"))
     @MapKeyColumn(name = "document_path")
     @Column(name = "original_filename")
     private Map<String, String> documentNames = new HashMap<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_document_tags", joinColumns = @JoinColumn(name = "tool_id"))
     @MapKeyColumn(name = "document_path")
     @Column(name = "document_tag")
     private Map<String, String> documentTags = new HashMap<>();
 
     // Pictures with upload tracking
-    @OneToMany(mappedBy = "tool", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "tool", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<ToolPicture> pictures = new ArrayList<>();
 
     // Legacy string-based picture tracking - deprecated but kept for migration compatibility
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_pictures_legacy", joinColumns = @JoinColumn(name = "tool_id"))
     @Column(name = "picture_path")
     private Set<String> picturePaths = new HashSet<>();
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_picture_names_legacy", joinColumns = @JoinColumn(name = "tool_id"))
     @MapKeyColumn(name = "picture_path")
     @Column(name = "original_filename")
@@ -243,7 +265,9 @@ public class Tool {
     private Set<User> currentTechnicians = new HashSet<>();
 
     // Tags for the tool
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ElementCollection(fetch = FetchType.LAZY)
+    @Fetch(FetchMode.SUBSELECT)
+    @EqualsAndHashCode.Exclude
     @CollectionTable(name = "tool_tags", joinColumns = @JoinColumn(name = "tool_id"))
     @Column(name = "tag")
     private Set<String> tags = new HashSet<>();
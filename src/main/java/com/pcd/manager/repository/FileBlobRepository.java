@@ -0,0 +1,66 @@
+package com.pcd.manager.repository;
+
+import com.pcd.manager.model.FileBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    /**
+     * Every column that stores an upload path, one row per reference, limited to the blob store
+     */
+    String BLOB_REFERENCES =
+            "SELECT file_path AS path FROM rma_pictures WHERE file_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT file_path FROM rma_documents WHERE file_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT file_path FROM tool_pictures WHERE file_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT file_path FROM passdown_pictures WHERE file_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT file_path FROM tracktrend_pictures WHERE file_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT picture_path FROM tool_pictures_legacy WHERE picture_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT document_path FROM tool_documents WHERE document_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT picture_path FROM passdown_pictures_legacy WHERE picture_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT document_path FROM passdown_documents WHERE document_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT picture_path FROM tracktrend_picture_paths_legacy WHERE picture_path LIKE 'blobs/%' " +
+            "UNION ALL SELECT document_path FROM tracktrend_document_paths WHERE document_path LIKE 'blobs/%'";
+
+    Optional<FileBlob> findBySha256(String sha256);
+
+    /**
+     * Returns: path, reference count for every blob path referenced at least once
+     */
+    @Query(value = "SELECT r.path, COUNT(*) FROM (" + BLOB_REFERENCES + ") r GROUP BY r.path", nativeQuery = true)
+    List<Object[]> findReferenceCounts();
+
+    @Query(value = "SELECT COUNT(*) FROM (" + BLOB_REFERENCES + ") r WHERE r.path = :path", nativeQuery = true)
+    long countReferences(@Param("path") String path);
+
+    @Query("SELECT b FROM FileBlob b WHERE b.referenceCount = 0 AND b.unreferencedSince < :cutoff")
+    List<FileBlob> findUnreferencedBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Restart the grace period of an unreferenced blob that an upload is about to reuse
+     */
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.unreferencedSince = :now WHERE b.id = :id AND b.unreferencedSince IS NOT NULL")
+    int touchUnreferenced(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.id = :id AND b.referenceCount = 0 AND b.unreferencedSince < :cutoff")
+    int deleteIfUnreferencedBefore(@Param("id") Long id, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Returns: blob count, stored bytes, total references, unreferenced blob count, bytes the references
+     * would take as separate copies
+     */
+    @Query("SELECT COUNT(b), COALESCE(SUM(b.fileSize), 0), COALESCE(SUM(b.referenceCount), 0), " +
+           "COALESCE(SUM(CASE WHEN b.referenceCount = 0 THEN 1 ELSE 0 END), 0), " +
+           "COALESCE(SUM(b.fileSize * b.referenceCount), 0) FROM FileBlob b")
+    List<Object[]> findTotals();
+}
@@ -4,8 +4,11 @@ import com.pcd.manager.model.MapGridItem;
 import com.pcd.manager.model.Tool;
 import com.pcd.manager.model.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,4 +49,29 @@ public interface MapGridItemRepository extends JpaRepository<MapGridItem, Long>
      * Find grid items by location and type
      */
     List<MapGridItem> findByLocationIdAndType(Long locationId, MapGridItem.ItemType type);
-} 
\ No newline at end of file
+
+    /**
+     * Current geometry of the given items, restricted to one location (map-state saves)
+     * Returns: id, x, y, width, height, version
+     */
+    @Query("SELECT m.id, m.x, m.y, m.width, m.height, m.version FROM MapGridItem m " +
+           "WHERE m.location.id = :locationId AND m.id IN :ids")
+    List<Object[]> findGeometryByLocationIdAndIdIn(@Param("locationId") Long locationId, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Grid items placing one tool, with the tool's current status (live map status updates)
+     * Returns: id, locationId, status
+     */
+    @Query("SELECT m.id, m.location.id, t.status FROM MapGridItem m JOIN m.tool t WHERE t.id = :toolId")
+    List<Object[]> findPlacementStatusByToolId(@Param("toolId") Long toolId);
+
+    /**
+     * Facility map items for one location with the tool fields the map renders (dashboard)
+     * Returns: id, type, x, y, width, height, text, color, isSolid, version,
+     *          tool.id, tool.name, tool.toolType, tool.model1, tool.serialNumber1, tool.status
+     */
+    @Query("SELECT m.id, m.type, m.x, m.y, m.width, m.height, m.text, m.color, m.isSolid, m.version, " +
+           "t.id, t.name, t.toolType, t.model1, t.serialNumber1, t.status " +
+           "FROM MapGridItem m LEFT JOIN m.tool t WHERE m.location.id = :locationId ORDER BY m.type")
+    List<Object[]> findDashboardDataByLocationId(@Param("locationId") Long locationId);
+}
@@ -0,0 +1,19 @@
+package com.pcd.manager.repository;
+
+import com.pcd.manager.model.MovingPartEndpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MovingPartEndpointRepository extends JpaRepository<MovingPartEndpoint, Long> {
+
+    /**
+     * Rename every name-matched custom location endpoint in one statement
+     */
+    @Modifying
+    @Query("UPDATE MovingPartEndpoint e SET e.customLocationName = :newName, e.nameKey = :newKey WHERE e.nameKey = :oldKey")
+    int renameCustomLocation(@Param("oldKey") String oldKey, @Param("newName") String newName, @Param("newKey") String newKey);
+}
@@ -1,8 +1,10 @@
 package com.pcd.manager.repository;
 
 import com.pcd.manager.model.MovingPart;
+import com.pcd.manager.model.MovingPartEndpoint;
 import com.pcd.manager.model.Tool;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -14,14 +16,14 @@ public interface MovingPartRepository extends JpaRepository<MovingPart, Long> {
     
     List<MovingPart> findByFromToolOrderByMoveDateDesc(Tool fromTool);
     
-    @Query("SELECT mp FROM MovingPart mp WHERE mp.fromTool.id = :toolId OR " +
-           "(mp.destinationChain IS NOT NULL AND " +
-           "(mp.destinationChain LIKE CONCAT('[', :toolId, ']') OR " +
-           "mp.destinationChain LIKE CONCAT('[', :toolId, ',%') OR " +
-           "mp.destinationChain LIKE CONCAT('%,', :toolId, ',%') OR " +
-           "mp.destinationChain LIKE CONCAT('%,', :toolId, ']'))) " +
+    /**
+     * Moving parts that came from the tool or passed through it (anywhere in the destination chain),
+     * looked up in the moving_part_endpoints index
+     */
+    @Query("SELECT mp FROM MovingPart mp WHERE EXISTS (" +
+           "SELECT e.id FROM MovingPartEndpoint e WHERE e.movingPart = mp AND e.toolId = :toolId) " +
            "ORDER BY mp.moveDate DESC")
-    List<MovingPart> findAllByToolId(Long toolId);
+    List<MovingPart> findAllByToolId(@Param("toolId") Long toolId);
     
     /**
      * OPTIMIZATION: Bulk find moving parts for multiple tools to avoid N+1 queries
@@ -30,15 +32,19 @@ public interface MovingPartRepository extends JpaRepository<MovingPart, Long> {
     @Query("SELECT DISTINCT mp FROM MovingPart mp WHERE mp.fromTool.id IN :toolIds " +
            "ORDER BY mp.moveDate DESC")
     List<MovingPart> findAllByToolIds(List<Long> toolIds);
+
+    /**
+     * Lightweight query for tools list view - moving parts moved off each tool
+     * Returns: id, partName, moveDate, destinationChain, fromTool.id, fromTool.name
+     */
+    @Query("SELECT mp.id, mp.partName, mp.moveDate, mp.destinationChain, t.id, t.name FROM MovingPart mp " +
+           "JOIN mp.fromTool t WHERE t.id IN :toolIds ORDER BY mp.moveDate DESC")
+    List<Object[]> findMovingPartListDataByToolIds(@Param("toolIds") List<Long> toolIds);
     
-    @Query("SELECT mp FROM MovingPart mp WHERE mp.fromTool = :tool OR " +
-           "(mp.destinationChain IS NOT NULL AND " +
-           "(mp.destinationChain LIKE CONCAT('[', :#{#tool.id}, ']') OR " +
-           "mp.destinationChain LIKE CONCAT('[', :#{#tool.id}, ',%') OR " +
-           "mp.destinationChain LIKE CONCAT('%,', :#{#tool.id}, ',%') OR " +
-           "mp.destinationChain LIKE CONCAT('%,', :#{#tool.id}, ']'))) " +
+    @Query("SELECT mp FROM MovingPart mp WHERE EXISTS (" +
+           "SELECT e.id FROM MovingPartEndpoint e WHERE e.movingPart = mp AND e.toolId = :#{#tool.id}) " +
            "ORDER BY mp.moveDate DESC")
-    List<MovingPart> findAllByTool(Tool tool);
+    List<MovingPart> findAllByTool(@Param("tool") Tool tool);
     
     List<MovingPart> findByRmaId(Long rmaId);
     
@@ -53,4 +59,46 @@ public interface MovingPartRepository extends JpaRepository<MovingPart, Long> {
      */
     @Query("SELECT mp.rma.id, COUNT(mp.id) FROM MovingPart mp WHERE mp.rma.id IN :rmaIds GROUP BY mp.rma.id")
     List<Object[]> findMovingPartCountsByRmaIds(@Param("rmaIds") List<Long> rmaIds);
-} 
\ No newline at end of file
+
+    /**
+     * Moving parts with a FROM or TO endpoint at a custom location, matched by entity id or by name key
+     * (trimmed, lower-cased name) for parts that only recorded the name
+     */
+    @Query("SELECT mp FROM MovingPart mp WHERE EXISTS (" +
+           "SELECT e.id FROM MovingPartEndpoint e WHERE e.movingPart = mp AND e.role = :role " +
+           "AND (e.customLocationId = :customLocationId OR e.nameKey = :nameKey)) " +
+           "ORDER BY mp.moveDate DESC")
+    List<MovingPart> findByCustomLocationEndpoint(@Param("role") MovingPartEndpoint.Role role,
+                                                  @Param("customLocationId") Long customLocationId,
+                                                  @Param("nameKey") String nameKey);
+
+    /**
+     * Destination lists of the moving parts that name a custom location as a destination
+     * Returns: id, toCustomLocations
+     */
+    @Query("SELECT mp.id, mp.toCustomLocations FROM MovingPart mp WHERE mp.id IN (" +
+           "SELECT e.movingPart.id FROM MovingPartEndpoint e WHERE e.role = :role AND e.nameKey = :nameKey)")
+    List<Object[]> findToCustomLocationsByEndpointName(@Param("role") MovingPartEndpoint.Role role,
+                                                      @Param("nameKey") String nameKey);
+
+    /**
+     * Rename the text source of every moving part whose FROM endpoint has the old name key, in one statement
+     */
+    @Modifying
+    @Query("UPDATE MovingPart mp SET mp.fromCustomLocation = :newName WHERE mp.id IN (" +
+           "SELECT e.movingPart.id FROM MovingPartEndpoint e WHERE e.role = :role AND e.nameKey = :oldKey)")
+    int renameFromCustomLocation(@Param("role") MovingPartEndpoint.Role role,
+                                 @Param("oldKey") String oldKey,
+                                 @Param("newName") String newName);
+
+    /**
+     * From/to columns of moving parts missing from the moving_part_endpoints index (startup backfill)
+     * Returns: id, fromTool.id, fromCustomLocationEntity.id, fromCustomLocationEntity.name, fromCustomLocation,
+     *          destinationChain, toCustomLocationEntity.id, toCustomLocationEntity.name, toCustomLocations
+     */
+    @Query("SELECT mp.id, ft.id, fcl.id, fcl.name, mp.fromCustomLocation, mp.destinationChain, " +
+           "tcl.id, tcl.name, mp.toCustomLocations FROM MovingPart mp " +
+           "LEFT JOIN mp.fromTool ft LEFT JOIN mp.fromCustomLocationEntity fcl LEFT JOIN mp.toCustomLocationEntity tcl " +
+           "WHERE NOT EXISTS (SELECT e.id FROM MovingPartEndpoint e WHERE e.movingPart = mp)")
+    List<Object[]> findEndpointDataWithoutEndpoints();
+}
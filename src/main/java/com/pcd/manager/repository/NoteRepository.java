@@ -2,8 +2,11 @@ package com.pcd.manager.repository;
 
 import com.pcd.manager.model.Note;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,4 +40,11 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
      * @return List of notes for any of the specified tools, ordered by creation time (newest first)
      */
     List<Note> findByToolIdInOrderByCreatedAtDesc(List<Long> toolIds);
-} 
\ No newline at end of file
+
+    /**
+     * Note text per tool, newest first (dashboard search)
+     * Returns: tool.id, content
+     */
+    @Query("SELECT n.tool.id, n.content FROM Note n WHERE n.tool.id IN :toolIds ORDER BY n.createdAt DESC")
+    List<Object[]> findContentByToolIds(@Param("toolIds") Collection<Long> toolIds);
+}
@@ -1,12 +1,14 @@
 package com.pcd.manager.repository;
 
 import com.pcd.manager.model.Passdown;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -93,4 +95,127 @@ public interface PassdownRepository extends JpaRepository<Passdown, Long> {
     List<Passdown> findPotentialDuplicates(@Param("date") LocalDate date, 
                                            @Param("comment") String comment, 
                                            @Param("toolIds") List<Long> toolIds);
-} 
\ No newline at end of file
+
+    /**
+     * Passdowns in a date range for the dashboard feed, newest first
+     * Returns: id, date, createdDate, comment, user.id, user.name
+     */
+    @Query("SELECT p.id, p.date, p.createdDate, p.comment, u.id, u.name FROM Passdown p LEFT JOIN p.user u " +
+           "WHERE p.date BETWEEN :startDate AND :endDate ORDER BY p.date DESC, p.id DESC")
+    List<Object[]> findFeedDataByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Tools of the passdowns in a date range
+     * Returns: passdown.id, tool.id, tool.name
+     */
+    @Query("SELECT p.id, t.id, t.name FROM Passdown p JOIN p.tools t " +
+           "WHERE p.date BETWEEN :startDate AND :endDate ORDER BY t.name")
+    List<Object[]> findFeedToolsByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Content hashes already recorded in a date range, for import duplicate detection
+     */
+    @Query("SELECT p.contentHash FROM Passdown p WHERE p.contentHash IS NOT NULL AND p.date BETWEEN :startDate AND :endDate")
+    List<String> findContentHashesByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Passdowns in a date range without a content hash (entered by hand or imported before hashing)
+     * Returns: id, date, comment
+     */
+    @Query("SELECT p.id, p.date, p.comment FROM Passdown p " +
+           "WHERE p.contentHash IS NULL AND p.date BETWEEN :startDate AND :endDate ORDER BY p.id")
+    List<Object[]> findUnhashedByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Tools of the passdowns returned by findUnhashedByDateBetween
+     * Returns: passdown.id, tool.id
+     */
+    @Query("SELECT p.id, t.id FROM Passdown p JOIN p.tools t " +
+           "WHERE p.contentHash IS NULL AND p.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findUnhashedToolIdsByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Technicians of the passdowns returned by findUnhashedByDateBetween
+     * Returns: passdown.id, user.id
+     */
+    @Query("SELECT p.id, u.id FROM Passdown p JOIN p.assignedTechs u " +
+           "WHERE p.contentHash IS NULL AND p.date BETWEEN :startDate AND :endDate")
+    List<Object[]> findUnhashedTechIdsByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Ids of passdowns by content hash, to attach join rows after a batch insert
+     * Returns: id, contentHash
+     */
+    @Query("SELECT p.id, p.contentHash FROM Passdown p WHERE p.contentHash IN :hashes")
+    List<Object[]> findIdsByContentHashIn(@Param("hashes") Collection<String> hashes);
+
+    /**
+     * One page of the passdown timeline, newest first, after the (afterDate, afterId) keyset position.
+     * userId and toolId of 0 mean no filter.
+     * Returns: id, date, createdDate, comment, user.id, user.name
+     */
+    @Query("SELECT p.id, p.date, p.createdDate, p.comment, u.id, u.name FROM Passdown p LEFT JOIN p.user u " +
+           "WHERE p.date BETWEEN :startDate AND :endDate " +
+           "AND (:userId = 0 OR u.id = :userId) " +
+           "AND (:toolId = 0 OR EXISTS (SELECT 1 FROM Passdown p2 JOIN p2.tools t WHERE p2.id = p.id AND t.id = :toolId)) " +
+           "AND (p.date < :afterDate OR (p.date = :afterDate AND p.id < :afterId)) " +
+           "ORDER BY p.date DESC, p.id DESC")
+    List<Object[]> findTimelinePage(@Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate,
+                                    @Param("userId") long userId,
+                                    @Param("toolId") long toolId,
+                                    @Param("afterDate") LocalDate afterDate,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+
+    /**
+     * Tools of a page of timeline passdowns
+     * Returns: passdown.id, tool.id, tool.name
+     */
+    @Query("SELECT p.id, t.id, t.name FROM Passdown p JOIN p.tools t WHERE p.id IN :ids ORDER BY t.name")
+    List<Object[]> findTimelineToolsByPassdownIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Assigned technicians of a page of timeline passdowns
+     * Returns: passdown.id, user.id, user.name
+     */
+    @Query("SELECT p.id, u.id, u.name FROM Passdown p JOIN p.assignedTechs u WHERE p.id IN :ids ORDER BY u.name")
+    List<Object[]> findTimelineTechsByPassdownIds(@Param("ids") List<Long> ids);
+
+    /**
+     * One picture per passdown for the timeline thumbnail
+     * Returns: passdown.id, picturePath
+     */
+    @Query("SELECT p.id, MIN(pp) FROM Passdown p JOIN p.picturePaths pp WHERE p.id IN :ids GROUP BY p.id")
+    List<Object[]> findFirstPicturePathsByPassdownIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Authors of the passdowns in a date range, for the timeline filter
+     * Returns: user.id, user.name, passdown count
+     */
+    @Query("SELECT u.id, u.name, COUNT(p) FROM Passdown p JOIN p.user u " +
+           "WHERE p.date BETWEEN :startDate AND :endDate GROUP BY u.id, u.name ORDER BY u.name")
+    List<Object[]> findAuthorFacetsByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Tools of the passdowns in a date range, for the timeline filter
+     * Returns: tool.id, tool.name, passdown count
+     */
+    @Query("SELECT t.id, t.name, COUNT(p) FROM Passdown p JOIN p.tools t " +
+           "WHERE p.date BETWEEN :startDate AND :endDate GROUP BY t.id, t.name ORDER BY t.name")
+    List<Object[]> findToolFacetsByDateBetween(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * All passdown ids, for rebuilding the search index in batches
+     */
+    @Query("SELECT p.id FROM Passdown p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    /**
+     * Searchable text of the given passdowns (SearchIndexService); tool names come from
+     * findTimelineToolsByPassdownIds
+     * Returns: id, date, comment, user.name
+     */
+    @Query("SELECT p.id, p.date, p.comment, u.name FROM Passdown p LEFT JOIN p.user u WHERE p.id IN :ids")
+    List<Object[]> findSearchDataByIds(@Param("ids") Collection<Long> ids);
+}
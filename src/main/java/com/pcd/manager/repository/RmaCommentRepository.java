@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -26,4 +27,12 @@ public interface RmaCommentRepository extends JpaRepository<RmaComment, Long> {
      */
     @Query("SELECT rc.rma.id, rc.content, rc.createdDate, rc.user.name FROM RmaComment rc WHERE rc.rma.id IN :rmaIds ORDER BY rc.rma.id, rc.createdDate DESC")
     List<Object[]> findCommentContentByRmaIds(@Param("rmaIds") List<Long> rmaIds);
-} 
\ No newline at end of file
+
+    /**
+     * Comment text for the search index, all comments of the given rmas
+     * Returns: rma.id, comment.id, content, createdDate, user.name
+     */
+    @Query("SELECT rc.rma.id, rc.id, rc.content, rc.createdDate, u.name FROM RmaComment rc LEFT JOIN rc.user u " +
+           "WHERE rc.rma.id IN :rmaIds")
+    List<Object[]> findSearchDataByRmaIds(@Param("rmaIds") Collection<Long> rmaIds);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -57,6 +58,16 @@ public interface RmaRepository extends JpaRepository<Rma, Long> {
      */
     @Query("SELECT r.id, r.referenceNumber, r.status, r.tool.id FROM Rma r WHERE r.tool.id IN :toolIds ORDER BY r.id DESC")
     List<Object[]> findRmaListDataByToolIds(@Param("toolIds") List<Long> toolIds);
+
+    /**
+     * Related RMAs for many track/trends at once, via their affected tools - one round-trip for the whole list page
+     * Returns: trackTrend.id, rma.id, referenceNumber, status, tool.id, tool.name (newest RMA first per track/trend)
+     */
+    @Query("SELECT tt.id, r.id, r.referenceNumber, r.status, t.id, t.name " +
+           "FROM TrackTrend tt JOIN tt.affectedTools t JOIN Rma r ON r.tool.id = t.id " +
+           "WHERE tt.id IN :trackTrendIds " +
+           "ORDER BY tt.id, r.id DESC")
+    List<Object[]> findRmaListDataByTrackTrendIds(@Param("trackTrendIds") List<Long> trackTrendIds);
     
     /**
      * Lightweight query for RMA list view - only loads essential fields
@@ -105,4 +116,69 @@ public interface RmaRepository extends JpaRepository<Rma, Long> {
            "FROM Rma r JOIN r.partLineItems pli " +
            "WHERE r.id IN :rmaIds")
     List<Object[]> findPartLineItemsByRmaIds(@Param("rmaIds") List<Long> rmaIds);
-} 
\ No newline at end of file
+    
+    /**
+     * Fields the RMA list export sorts on, for the RMAs matching its filters, in default list order.
+     * With matchText, keeps RMAs whose reference number, tool name, customer or part line item (name, number,
+     * description) matches the lower-case LIKE pattern ('!' escapes); only RMAs in one of the statuses are kept.
+     * Returns: id, referenceNumber, tool.name, customerName, status, writtenDate
+     */
+    @Query("SELECT r.id, r.referenceNumber, t.name, r.customerName, r.status, r.writtenDate " +
+           "FROM Rma r LEFT JOIN r.tool t " +
+           "WHERE r.status IN :statuses " +
+           "AND (:matchText = false " +
+           "  OR LOWER(r.referenceNumber) LIKE :pattern ESCAPE '!' " +
+           "  OR LOWER(t.name) LIKE :pattern ESCAPE '!' " +
+           "  OR LOWER(r.customerName) LIKE :pattern ESCAPE '!' " +
+           "  OR r.id IN (SELECT pr.id FROM Rma pr JOIN pr.partLineItems pli " +
+           "              WHERE LOWER(pli.partName) LIKE :pattern ESCAPE '!' " +
+           "              OR LOWER(pli.partNumber) LIKE :pattern ESCAPE '!' " +
+           "              OR LOWER(pli.productDescription) LIKE :pattern ESCAPE '!')) " +
+           "ORDER BY r.writtenDate DESC NULLS LAST, r.id DESC")
+    List<Object[]> findExportKeys(@Param("statuses") Collection<RmaStatus> statuses,
+                                  @Param("matchText") boolean matchText,
+                                  @Param("pattern") String pattern);
+    
+    /**
+     * Columns of the RMA list Excel export for one chunk of RMAs
+     * Returns: id, referenceNumber, tool.name, tool.serialNumber1, tool.serialNumber2, tool.model1, tool.model2,
+     *          status, priority, customerName, location.id, technician,
+     *          writtenDate, rmaNumberProvidedDate, shippingMemoEmailedDate, partsReceivedDate,
+     *          installedPartsDate, failedPartsPackedDate, failedPartsShippedDate, notes
+     */
+    @Query("SELECT r.id, r.referenceNumber, t.name, t.serialNumber1, t.serialNumber2, t.model1, t.model2, " +
+           "r.status, r.priority, r.customerName, l.id, r.technician, " +
+           "r.writtenDate, r.rmaNumberProvidedDate, r.shippingMemoEmailedDate, r.partsReceivedDate, " +
+           "r.installedPartsDate, r.failedPartsPackedDate, r.failedPartsShippedDate, r.notes " +
+           "FROM Rma r LEFT JOIN r.tool t LEFT JOIN r.location l " +
+           "WHERE r.id IN :rmaIds")
+    List<Object[]> findExportRowsByIds(@Param("rmaIds") List<Long> rmaIds);
+
+    /**
+     * Reference data for dropdowns (ReferenceDataService)
+     * Returns: id, referenceNumber, customerName, writtenDate
+     */
+    @Query("SELECT r.id, r.referenceNumber, r.customerName, r.writtenDate FROM Rma r")
+    List<Object[]> findReferenceData();
+
+    @Query("SELECT r.id, r.referenceNumber, r.customerName, r.writtenDate FROM Rma r WHERE r.id = :id")
+    List<Object[]> findReferenceDataById(@Param("id") Long id);
+
+    /**
+     * All RMA ids, for rebuilding the search index in batches
+     */
+    @Query("SELECT r.id FROM Rma r ORDER BY r.id")
+    List<Long> findAllIds();
+
+    /**
+     * Searchable text of the given RMAs (SearchIndexService)
+     * Returns: id, referenceNumber, customerName, serialNumber, tool.name, technician, fieldTechName,
+     *          problemDiscoverer, salesOrder, serviceOrder, notes, whatHappened, whyAndHowItHappened,
+     *          howContained, whoContained, instructionsForExposedComponent, writtenDate
+     */
+    @Query("SELECT r.id, r.referenceNumber, r.customerName, r.serialNumber, t.name, r.technician, r.fieldTechName, " +
+           "r.problemDiscoverer, r.salesOrder, r.serviceOrder, r.notes, r.whatHappened, r.whyAndHowItHappened, " +
+           "r.howContained, r.whoContained, r.instructionsForExposedComponent, r.writtenDate " +
+           "FROM Rma r LEFT JOIN r.tool t WHERE r.id IN :ids")
+    List<Object[]> findSearchDataByIds(@Param("ids") Collection<Long> ids);
+}
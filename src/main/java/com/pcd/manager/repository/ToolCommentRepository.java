@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -24,4 +25,12 @@ public interface ToolCommentRepository extends JpaRepository<ToolComment, Long>
            "CASE WHEN LENGTH(c.content) > 100 THEN CONCAT(SUBSTRING(c.content, 1, 100), '...') ELSE c.content END, " +
            "c.tool.id FROM ToolComment c WHERE c.tool.id IN :toolIds ORDER BY c.createdDate DESC")
     List<Object[]> findCommentListDataByToolIds(@Param("toolIds") List<Long> toolIds);
-} 
\ No newline at end of file
+
+    /**
+     * Comment text for the search index, all comments of the given tools
+     * Returns: tool.id, comment.id, content, createdDate, user.name
+     */
+    @Query("SELECT c.tool.id, c.id, c.content, c.createdDate, u.name FROM ToolComment c LEFT JOIN c.user u " +
+           "WHERE c.tool.id IN :toolIds")
+    List<Object[]> findSearchDataByToolIds(@Param("toolIds") Collection<Long> toolIds);
+}
@@ -1,11 +1,14 @@
 package com.pcd.manager.repository;
 
 import com.pcd.manager.model.Tool;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -120,6 +123,56 @@ public interface ToolRepository extends JpaRepository<Tool, Long> {
                "ORDER BY t.upload_date ASC NULLS FIRST, t.updated_at DESC, t.created_at DESC", nativeQuery = true)
     List<Object[]> findAllForAsyncListView();
     
+    /**
+     * Number of completed checklist items per tool, matching Tool.getCalculatedStatus()
+     * (a flag OR a date counts as complete). 0 = NOT_STARTED, 12 = COMPLETED.
+     */
+    String COMPLETED_CHECKLIST_ITEMS_SQL =
+           "(CASE WHEN t.commission_complete = TRUE OR t.commission_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.pre_sl1_complete = TRUE OR t.pre_sl1date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.sl1_complete = TRUE OR t.sl1date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.mechanical_pre_sl1_complete = TRUE OR t.mechanical_pre_sl1date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.mechanical_post_sl1_complete = TRUE OR t.mechanical_post_sl1date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.specific_input_functionality_complete = TRUE OR t.specific_input_functionality_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.modes_of_operation_complete = TRUE OR t.modes_of_operation_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.specific_soos_complete = TRUE OR t.specific_soos_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.field_service_report_complete = TRUE OR t.field_service_report_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.certificate_of_approval_complete = TRUE OR t.certificate_of_approval_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.turned_over_to_customer_complete = TRUE OR t.turned_over_to_customer_date IS NOT NULL THEN 1 ELSE 0 END + " +
+           "CASE WHEN t.start_up_sl03_complete = TRUE OR t.start_up_sl03date IS NOT NULL THEN 1 ELSE 0 END)";
+
+    /**
+     * Keyset-paginated page of the tools list with all filters applied in SQL.
+     * Ordered by (name, id); pass afterName='' and afterId=0 for the first page.
+     * Empty-string filters mean "no filter" (avoids untyped NULL parameters on PostgreSQL).
+     * GasGuard tools (AMATGASGUARD, or the legacy GASGUARD value) match every type filter, as on the list page.
+     * search is a LIKE pattern escaped with '!' (see ToolListService).
+     * Returns: id, name, secondaryName, toolType, serialNumber1, serialNumber2,
+     *          model1, model2, locationName, updatedAt, completedItems
+     */
+    @Query(value = "SELECT x.id, x.name, x.secondary_name, x.tool_type, x.serial_number1, x.serial_number2, " +
+           "x.model1, x.model2, x.location_name, x.updated_at, x.completed_items " +
+           "FROM (SELECT t.id, t.name, t.secondary_name, t.tool_type, t.serial_number1, t.serial_number2, " +
+           "t.model1, t.model2, t.location_name, t.updated_at, " +
+           COMPLETED_CHECKLIST_ITEMS_SQL + " AS completed_items " +
+           "FROM tools t " +
+           "WHERE (:toolType = '' OR CAST(t.tool_type AS VARCHAR(32)) IN (:toolType, 'AMATGASGUARD', 'GASGUARD')) " +
+           "AND (:locationName = '' OR t.location_name = :locationName) " +
+           "AND (:search = '' OR LOWER(t.name) LIKE :search ESCAPE '!' OR LOWER(t.secondary_name) LIKE :search ESCAPE '!' " +
+           "OR LOWER(t.serial_number1) LIKE :search ESCAPE '!' OR LOWER(t.serial_number2) LIKE :search ESCAPE '!' " +
+           "OR LOWER(t.model1) LIKE :search ESCAPE '!' OR LOWER(t.model2) LIKE :search ESCAPE '!') " +
+           "AND (t.name > :afterName OR (t.name = :afterName AND t.id > :afterId))) x " +
+           "WHERE x.completed_items BETWEEN :minCompleted AND :maxCompleted " +
+           "ORDER BY x.name ASC, x.id ASC", nativeQuery = true)
+    List<Object[]> findToolListPage(@Param("toolType") String toolType,
+                                    @Param("locationName") String locationName,
+                                    @Param("search") String search,
+                                    @Param("minCompleted") int minCompleted,
+                                    @Param("maxCompleted") int maxCompleted,
+                                    @Param("afterName") String afterName,
+                                    @Param("afterId") long afterId,
+                                    Pageable pageable);
+
     /**
      * Get technician assignments for multiple tools
      * Returns: toolId, userId, userName
@@ -127,6 +180,16 @@ public interface ToolRepository extends JpaRepository<Tool, Long> {
     @Query("SELECT t.id, u.id, u.name FROM Tool t JOIN t.currentTechnicians u WHERE t.id IN :toolIds")
     List<Object[]> findTechniciansByToolIds(@Param("toolIds") List<Long> toolIds);
     
+    /**
+     * Identifier columns used by ToolMatchIndexService to match NCSR equipment numbers
+     * Returns: id, name, secondaryName, serialNumber1, serialNumber2
+     */
+    @Query("SELECT t.id, t.name, t.secondaryName, t.serialNumber1, t.serialNumber2 FROM Tool t")
+    List<Object[]> findMatchKeyData();
+
+    @Query("SELECT t.id, t.name, t.secondaryName, t.serialNumber1, t.serialNumber2 FROM Tool t WHERE t.id = :id")
+    List<Object[]> findMatchKeyDataById(@Param("id") Long id);
+    
     /**
      * Ultra-lightweight query for grid view - only loads essential fields needed for grid display
      * Returns minimal data: id, name, model1, serialNumber1, status, toolType, locationName, hasAssignedUsers
@@ -178,4 +241,122 @@ public interface ToolRepository extends JpaRepository<Tool, Long> {
            "ON t.id = new_pics.tool_id " +
            "WHERE t.id IN :toolIds", nativeQuery = true)
     List<Object[]> findPictureCountsByToolIds(@Param("toolIds") List<Long> toolIds);
-} 
\ No newline at end of file
+
+    // Tool ids per round of collection queries, well under the bind-parameter limits of H2 and PostgreSQL
+    int COLLECTION_FETCH_BATCH = 1000;
+
+    /**
+     * Find a tool with all of its document, picture and tag collections loaded, for the detail page and
+     * for callers that keep the entity beyond the session (caches).
+     * Always 1 + 7 statements, whatever the collection sizes. Must run inside a transaction or open session.
+     */
+    default Optional<Tool> findByIdWithCollections(Long id) {
+        Optional<Tool> tool = findById(id);
+        tool.ifPresent(t -> fetchCollections(List.of(id)));
+        return tool;
+    }
+
+    /**
+     * Find all tools with their collections loaded: 1 + 7 statements per COLLECTION_FETCH_BATCH tools
+     * instead of 1 + 7 per tool. Must run inside a transaction or open session.
+     */
+    default List<Tool> findAllWithCollections() {
+        List<Tool> tools = findAll();
+        List<Long> ids = tools.stream().map(Tool::getId).toList();
+        for (int from = 0; from < ids.size(); from += COLLECTION_FETCH_BATCH) {
+            fetchCollections(ids.subList(from, Math.min(from + COLLECTION_FETCH_BATCH, ids.size())));
+        }
+        return tools;
+    }
+
+    /**
+     * Load the seven lazy collections of tools already in the persistence context, one entity-graph query
+     * per collection (joining them all in one query would multiply their sizes)
+     */
+    private void fetchCollections(Collection<Long> ids) {
+        fetchDocumentPaths(ids);
+        fetchDocumentNames(ids);
+        fetchDocumentTags(ids);
+        fetchPictures(ids);
+        fetchPicturePaths(ids);
+        fetchPictureNames(ids);
+        fetchTags(ids);
+    }
+
+    @EntityGraph(attributePaths = "documentPaths")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchDocumentPaths(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "documentNames")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchDocumentNames(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "documentTags")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchDocumentTags(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "pictures")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchPictures(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "picturePaths")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchPicturePaths(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "pictureNames")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchPictureNames(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT t FROM Tool t WHERE t.id IN :ids")
+    List<Tool> fetchTags(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reference data for dropdowns (ReferenceDataService)
+     * Returns: id, name, secondaryName, toolType, locationName, systemName, equipmentLocation
+     */
+    @Query("SELECT t.id, t.name, t.secondaryName, t.toolType, t.locationName, t.systemName, t.equipmentLocation FROM Tool t")
+    List<Object[]> findReferenceData();
+
+    @Query("SELECT t.id, t.name, t.secondaryName, t.toolType, t.locationName, t.systemName, t.equipmentLocation " +
+           "FROM Tool t WHERE t.id = :id")
+    List<Object[]> findReferenceDataById(@Param("id") Long id);
+
+    /**
+     * Dashboard tool list rows for one location (all tools when locationName is null)
+     * Returns: id, name, secondaryName, toolType, status, serialNumber1, model1, notes
+     */
+    @Query("SELECT t.id, t.name, t.secondaryName, t.toolType, t.status, t.serialNumber1, t.model1, t.notes FROM Tool t " +
+           "WHERE (:locationName IS NULL OR t.locationName = :locationName)")
+    List<Object[]> findDashboardRowsByLocationName(@Param("locationName") String locationName);
+
+    /**
+     * Assigned technicians of the tools at one location (all tools when locationName is null)
+     * Returns: tool.id, user.id, user.name
+     */
+    @Query("SELECT t.id, u.id, u.name FROM Tool t JOIN t.currentTechnicians u " +
+           "WHERE (:locationName IS NULL OR t.locationName = :locationName) ORDER BY u.name")
+    List<Object[]> findTechnicianNamesByLocationName(@Param("locationName") String locationName);
+
+    /**
+     * Which of the given ids exist, in one query
+     */
+    @Query("SELECT t.id FROM Tool t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * All tool ids, for rebuilding the search index in batches
+     */
+    @Query("SELECT t.id FROM Tool t ORDER BY t.id")
+    List<Long> findAllIds();
+
+    /**
+     * Searchable text of the given tools (SearchIndexService)
+     * Returns: id, name, secondaryName, serialNumber1, serialNumber2, model1, model2, chemicalGasService,
+     *          systemName, equipmentLocation, locationName, notes
+     */
+    @Query("SELECT t.id, t.name, t.secondaryName, t.serialNumber1, t.serialNumber2, t.model1, t.model2, " +
+           "t.chemicalGasService, t.systemName, t.equipmentLocation, t.locationName, t.notes " +
+           "FROM Tool t WHERE t.id IN :ids")
+    List<Object[]> findSearchDataByIds(@Param("ids") Collection<Long> ids);
+}
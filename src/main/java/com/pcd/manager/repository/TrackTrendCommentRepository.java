@@ -2,12 +2,23 @@ package com.pcd.manager.repository;
 
 import com.pcd.manager.model.TrackTrendComment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface TrackTrendCommentRepository extends JpaRepository<TrackTrendComment, Long> {
     List<TrackTrendComment> findByTrackTrendId(Long trackTrendId);
     List<TrackTrendComment> findByTrackTrendIdOrderByCreatedDateDesc(Long trackTrendId);
-} 
\ No newline at end of file
+
+    /**
+     * Comment text for the search index, all comments of the given track/trends
+     * Returns: trackTrend.id, comment.id, content, createdDate, user.name
+     */
+    @Query("SELECT c.trackTrend.id, c.id, c.content, c.createdDate, u.name FROM TrackTrendComment c LEFT JOIN c.user u " +
+           "WHERE c.trackTrend.id IN :trackTrendIds")
+    List<Object[]> findSearchDataByTrackTrendIds(@Param("trackTrendIds") Collection<Long> trackTrendIds);
+}
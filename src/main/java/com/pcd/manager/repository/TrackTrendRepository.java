@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -37,4 +38,34 @@ public interface TrackTrendRepository extends JpaRepository<TrackTrend, Long> {
      */
     @Query("SELECT tt.id, tt.name, t.id FROM TrackTrend tt JOIN tt.affectedTools t WHERE t.id IN :toolIds ORDER BY tt.name")
     List<Object[]> findTrackTrendListDataByToolIds(@Param("toolIds") List<Long> toolIds);
-} 
\ No newline at end of file
+
+    /**
+     * Reference data for dropdowns (ReferenceDataService)
+     * Returns: id, name
+     */
+    @Query("SELECT tt.id, tt.name FROM TrackTrend tt")
+    List<Object[]> findReferenceData();
+
+    @Query("SELECT tt.id, tt.name FROM TrackTrend tt WHERE tt.id = :id")
+    List<Object[]> findReferenceDataById(@Param("id") Long id);
+
+    /**
+     * Track/trend filter options with their affected tools (one row per pair, tool null when none)
+     * Returns: trackTrend.id, trackTrend.name, tool.id
+     */
+    @Query("SELECT tt.id, tt.name, t.id FROM TrackTrend tt LEFT JOIN tt.affectedTools t")
+    List<Object[]> findFilterData();
+
+    /**
+     * All track/trend ids, for rebuilding the search index in batches
+     */
+    @Query("SELECT tt.id FROM TrackTrend tt ORDER BY tt.id")
+    List<Long> findAllIds();
+
+    /**
+     * Searchable text of the given track/trends (SearchIndexService)
+     * Returns: id, name, description
+     */
+    @Query("SELECT tt.id, tt.name, tt.description FROM TrackTrend tt WHERE tt.id IN :ids")
+    List<Object[]> findSearchDataByIds(@Param("ids") Collection<Long> ids);
+}
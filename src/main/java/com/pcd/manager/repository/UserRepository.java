@@ -2,8 +2,11 @@ package com.pcd.manager.repository;
 
 import com.pcd.manager.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +15,20 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmailIgnoreCase(String email);
     boolean existsByEmailIgnoreCase(String email);
     List<User> findByActiveToolId(Long toolId);
-} 
\ No newline at end of file
+
+    /**
+     * Reference data for dropdowns (ReferenceDataService)
+     * Returns: id, name
+     */
+    @Query("SELECT u.id, u.name FROM User u")
+    List<Object[]> findReferenceData();
+
+    @Query("SELECT u.id, u.name FROM User u WHERE u.id = :id")
+    List<Object[]> findReferenceDataById(@Param("id") Long id);
+
+    /**
+     * Which of the given ids exist, in one query
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,292 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.model.Rma;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.model.TrackTrend;
+import com.pcd.manager.model.User;
+import com.pcd.manager.repository.RmaRepository;
+import com.pcd.manager.repository.ToolRepository;
+import com.pcd.manager.repository.TrackTrendRepository;
+import com.pcd.manager.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Entity-scoped cache invalidation driven by EntityChangeEvents.
+ *
+ * Instead of clearing whole regions with @CacheEvict(allEntries = true), each change only
+ * touches the keys it affects: the entity's own detail entry is evicted and its row in the
+ * cached list snapshot is patched in place (or removed on delete). Runs after commit so a
+ * concurrent reader can never re-cache pre-commit state.
+ */
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    // Cache keys used by the @Cacheable methods in ToolService, RmaService, TrackTrendService,
+    // UserService and DashboardService
+    static final String ALL_TOOLS_KEY = "all-tools";
+    static final String TOOLS_DROPDOWN_KEY = "tools-dropdown";
+    static final String ALL_RMAS_KEY = "all-rmas";
+    static final String ALL_TRACKTRENDS_KEY = "all-tracktrends";
+    static final String ALL_USERS_KEY = "all-users";
+    static final String DASHBOARD_PASSDOWNS_KEY = "recent-passdowns-and-filters";
+    static final String DASHBOARD_GRID_KEY = "grid-tool-data";
+    static final String DASHBOARD_TRACKTREND_FILTERS_KEY = "track-trend-filters";
+
+    private static final Comparator<Rma> RMA_LIST_ORDER = Comparator
+            .comparing(Rma::getWrittenDate, Comparator.nullsLast(Comparator.<LocalDate>reverseOrder()))
+            .thenComparing(Rma::getId, Comparator.nullsLast(Comparator.<Long>reverseOrder()));
+
+    private static final Comparator<TrackTrend> TRACKTREND_LIST_ORDER =
+            Comparator.comparing(TrackTrend::getName, String.CASE_INSENSITIVE_ORDER);
+
+    private final CacheManager cacheManager;
+    private final ToolRepository toolRepository;
+    private final RmaRepository rmaRepository;
+    private final TrackTrendRepository trackTrendRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<String, RegionCounters> counters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CacheInvalidationService(ObjectProvider<CacheManager> cacheManager,
+                                    ToolRepository toolRepository,
+                                    RmaRepository rmaRepository,
+                                    TrackTrendRepository trackTrendRepository,
+                                    UserRepository userRepository,
+                                    PlatformTransactionManager transactionManager) {
+        this.cacheManager = cacheManager.getIfAvailable();
+        this.toolRepository = toolRepository;
+        this.rmaRepository = rmaRepository;
+        this.trackTrendRepository = trackTrendRepository;
+        this.userRepository = userRepository;
+        // AFTER_COMMIT listeners must not join the finished transaction, so reloads get their own
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (cacheManager == null || event.getEntityId() == null) {
+            return;
+        }
+        try {
+            switch (event.getEntityType()) {
+                case TOOL -> onToolChange(event);
+                case RMA -> onRmaChange(event);
+                case TRACK_TREND -> onTrackTrendChange(event);
+                case USER -> onUserChange(event);
+                case PASSDOWN -> evict("dashboard-data", DASHBOARD_PASSDOWNS_KEY);
+            }
+        } catch (Exception e) {
+            // Never leave a region stale because a patch failed - fall back to dropping the snapshots
+            logger.warn("Incremental cache invalidation failed for {}, evicting list snapshots: {}", event, e.getMessage());
+            evictListSnapshots(event.getEntityType());
+        }
+    }
+
+    private void onToolChange(EntityChangeEvent event) {
+        Long id = event.getEntityId();
+        evict("tool-details", id);
+        evict("dashboard-data", DASHBOARD_GRID_KEY);
+        if (event.getChangeType() == EntityChangeEvent.ChangeType.UPDATED) {
+            patchList("tools-list", ALL_TOOLS_KEY, id, Tool::getId,
+                    () -> toolRepository.findByIdWithCollections(id), null);
+            patchList("dropdown-data", TOOLS_DROPDOWN_KEY, id, Tool::getId,
+                    () -> toolRepository.findByIdWithTechnicians(id), null);
+        } else if (event.getChangeType() == EntityChangeEvent.ChangeType.DELETED) {
+            removeFromList("tools-list", ALL_TOOLS_KEY, id, Tool::getId);
+            removeFromList("dropdown-data", TOOLS_DROPDOWN_KEY, id, Tool::getId);
+            // Track/trend filters carry affected tool ids
+            evict("dashboard-data", DASHBOARD_TRACKTREND_FILTERS_KEY);
+        } else {
+            // Creations usually arrive in bulk (Excel import); one reload beats N patches
+            evict("tools-list", ALL_TOOLS_KEY);
+            evict("dropdown-data", TOOLS_DROPDOWN_KEY);
+        }
+    }
+
+    private void onRmaChange(EntityChangeEvent event) {
+        Long id = event.getEntityId();
+        evict("rma-details", id);
+        evict("rma-details", "counts-" + id);
+        if (event.getChangeType() == EntityChangeEvent.ChangeType.DELETED) {
+            removeFromList("rma-list", ALL_RMAS_KEY, id, Rma::getId);
+        } else {
+            patchList("rma-list", ALL_RMAS_KEY, id, Rma::getId,
+                    () -> rmaRepository.findById(id), RMA_LIST_ORDER);
+        }
+    }
+
+    private void onTrackTrendChange(EntityChangeEvent event) {
+        Long id = event.getEntityId();
+        evict("dashboard-data", DASHBOARD_TRACKTREND_FILTERS_KEY);
+        if (event.getChangeType() == EntityChangeEvent.ChangeType.DELETED) {
+            removeFromList("tracktrend-list", ALL_TRACKTRENDS_KEY, id, TrackTrend::getId);
+        } else {
+            patchList("tracktrend-list", ALL_TRACKTRENDS_KEY, id, TrackTrend::getId,
+                    () -> trackTrendRepository.findById(id), TRACKTREND_LIST_ORDER);
+        }
+    }
+
+    private void onUserChange(EntityChangeEvent event) {
+        Long id = event.getEntityId();
+        if (event.getChangeType() == EntityChangeEvent.ChangeType.DELETED) {
+            removeFromList("users-list", ALL_USERS_KEY, id, User::getId);
+        } else {
+            patchList("users-list", ALL_USERS_KEY, id, User::getId,
+                    () -> userRepository.findById(id), null);
+        }
+        // The tools dropdown embeds technician users; a brand-new user cannot be assigned yet
+        if (event.getChangeType() != EntityChangeEvent.ChangeType.CREATED) {
+            evict("dropdown-data", TOOLS_DROPDOWN_KEY);
+        }
+    }
+
+    private void evictListSnapshots(EntityChangeEvent.EntityType entityType) {
+        switch (entityType) {
+            case TOOL -> {
+                evict("tools-list", ALL_TOOLS_KEY);
+                evict("dropdown-data", TOOLS_DROPDOWN_KEY);
+            }
+            case RMA -> evict("rma-list", ALL_RMAS_KEY);
+            case TRACK_TREND -> evict("tracktrend-list", ALL_TRACKTRENDS_KEY);
+            case USER -> {
+                evict("users-list", ALL_USERS_KEY);
+                evict("dropdown-data", TOOLS_DROPDOWN_KEY);
+            }
+            case PASSDOWN -> evict("dashboard-data", DASHBOARD_PASSDOWNS_KEY);
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+            countersFor(cacheName).evictedKeys.incrementAndGet();
+        }
+    }
+
+    /**
+     * Replace one row of a cached list snapshot with a freshly loaded copy.
+     * The list is copied before modification because other requests may be iterating it.
+     * Does nothing when the snapshot is not cached; evicts it if the row cannot be reloaded.
+     */
+    private synchronized <T> void patchList(String cacheName, Object key, Long id, Function<T, Long> idOf,
+                                            Supplier<Optional<T>> loader, Comparator<T> order) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        List<T> snapshot = peek(cache, key);
+        if (snapshot == null) {
+            return;
+        }
+        Optional<T> fresh = readTransaction.execute(status -> loader.get());
+        if (fresh == null || fresh.isEmpty()) {
+            removeFromList(cacheName, key, id, idOf);
+            return;
+        }
+
+        List<T> patched = new ArrayList<>(snapshot);
+        boolean replaced = false;
+        for (int i = 0; i < patched.size(); i++) {
+            if (Objects.equals(idOf.apply(patched.get(i)), id)) {
+                patched.set(i, fresh.get());
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            patched.add(fresh.get());
+        }
+        if (order != null) {
+            patched.sort(order);
+        }
+        cache.put(key, patched);
+        countersFor(cacheName).patchedEntries.incrementAndGet();
+    }
+
+    private synchronized <T> void removeFromList(String cacheName, Object key, Long id, Function<T, Long> idOf) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return;
+        }
+        List<T> snapshot = peek(cache, key);
+        if (snapshot == null) {
+            return;
+        }
+        List<T> patched = new ArrayList<>(snapshot);
+        if (patched.removeIf(item -> Objects.equals(idOf.apply(item), id))) {
+            cache.put(key, patched);
+            countersFor(cacheName).patchedEntries.incrementAndGet();
+        }
+    }
+
+    /**
+     * Read a cached list without triggering a load. Refresh-ahead regions are Caffeine LoadingCaches,
+     * where a plain Cache.get on a missing key would run the (expensive) loader.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> peek(Cache cache, Object key) {
+        Object value;
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            value = ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).getIfPresent(key);
+        } else {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            value = wrapper != null ? wrapper.get() : null;
+        }
+        return value instanceof List<?> list ? (List<T>) list : null;
+    }
+
+    private RegionCounters countersFor(String cacheName) {
+        return counters.computeIfAbsent(cacheName, name -> new RegionCounters());
+    }
+
+    /**
+     * Per-region invalidation counters for the cache admin page
+     */
+    public Map<String, Map<String, Long>> getInvalidationCounts() {
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        counters.forEach((cacheName, regionCounters) -> {
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("evictedKeys", regionCounters.evictedKeys.get());
+            values.put("patchedEntries", regionCounters.patchedEntries.get());
+            result.put(cacheName, values);
+        });
+        return result;
+    }
+
+    private static class RegionCounters {
+        private final AtomicLong evictedKeys = new AtomicLong();
+        private final AtomicLong patchedEntries = new AtomicLong();
+    }
+}
@@ -3,6 +3,7 @@ package com.pcd.manager.service;
 import com.pcd.manager.model.CustomLocation;
 import com.pcd.manager.model.Location;
 import com.pcd.manager.model.MovingPart;
+import com.pcd.manager.model.MovingPartEndpoint;
 import com.pcd.manager.repository.CustomLocationRepository;
 import com.pcd.manager.repository.MovingPartRepository;
 import org.slf4j.Logger;
@@ -25,6 +26,9 @@ public class CustomLocationService {
     @Autowired
     private MovingPartRepository movingPartRepository;
 
+    @Autowired
+    private MovingPartLocationIndexService movingPartLocationIndexService;
+
     /**
      * Get all custom locations for a specific location
      */
@@ -113,45 +117,10 @@ public class CustomLocationService {
         // First, update the custom location itself
         CustomLocation updatedCustomLocation = updateCustomLocation(id, updatedLocation);
         
-        // If the name changed, update all MovingParts that reference the old name
+        // If the name changed, update all MovingParts that reference the old name (set-based, via the endpoint index)
         if (!oldName.equals(updatedLocation.getName())) {
-            String newName = updatedLocation.getName();
-            logger.info("Updating MovingPart references from '{}' to '{}'", oldName, newName);
-            
-            // Get ALL moving parts
-            List<MovingPart> allMovingParts = movingPartRepository.findAll();
-            
-            for (MovingPart mp : allMovingParts) {
-                boolean wasUpdated = false;
-                
-                // Update fromCustomLocation if it matches the old name
-                if (mp.getFromCustomLocation() != null && mp.getFromCustomLocation().equalsIgnoreCase(oldName)) {
-                    mp.setFromCustomLocation(newName);
-                    wasUpdated = true;
-                    logger.info("Updated MovingPart {} fromCustomLocation: {} -> {}", mp.getId(), oldName, newName);
-                }
-                
-                // Update toCustomLocations list if it contains the old name
-                List<String> toLocations = mp.getToCustomLocationsList();
-                if (toLocations != null && !toLocations.isEmpty()) {
-                    boolean listUpdated = false;
-                    for (int i = 0; i < toLocations.size(); i++) {
-                        if (toLocations.get(i).equalsIgnoreCase(oldName)) {
-                            toLocations.set(i, newName);
-                            listUpdated = true;
-                        }
-                    }
-                    if (listUpdated) {
-                        mp.setToCustomLocationsList(toLocations);
-                        wasUpdated = true;
-                        logger.info("Updated MovingPart {} toCustomLocationsList to include: {}", mp.getId(), newName);
-                    }
-                }
-                
-                if (wasUpdated) {
-                    movingPartRepository.save(mp);
-                }
-            }
+            logger.info("Updating MovingPart references from '{}' to '{}'", oldName, updatedLocation.getName());
+            movingPartLocationIndexService.renameCustomLocation(oldName, updatedLocation.getName());
         }
         
         return updatedCustomLocation;
@@ -173,45 +142,13 @@ public class CustomLocationService {
         CustomLocation customLocation = customLocationRepository.findById(customLocationId)
                 .orElseThrow(() -> new RuntimeException("Custom location not found"));
         
-        String locationName = customLocation.getName();
+        String nameKey = MovingPartLocationIndexService.nameKey(customLocation.getName());
         
-        // Get all moving parts from the repository
-        List<MovingPart> allMovingParts = movingPartRepository.findAll();
-        
-        // Find incoming parts (where this location is the destination)
-        List<MovingPart> incoming = allMovingParts.stream()
-                .filter(mp -> {
-                    // Check entity reference
-                    if (mp.getToCustomLocationEntity() != null && 
-                        mp.getToCustomLocationEntity().getId().equals(customLocationId)) {
-                        return true;
-                    }
-                    // Check text-based custom locations
-                    if (mp.getToCustomLocationsList() != null && 
-                        mp.getToCustomLocationsList().stream()
-                            .anyMatch(loc -> loc.equalsIgnoreCase(locationName))) {
-                        return true;
-                    }
-                    return false;
-                })
-                .collect(Collectors.toList());
-        
-        // Find outgoing parts (where this location is the source)
-        List<MovingPart> outgoing = allMovingParts.stream()
-                .filter(mp -> {
-                    // Check entity reference
-                    if (mp.getFromCustomLocationEntity() != null && 
-                        mp.getFromCustomLocationEntity().getId().equals(customLocationId)) {
-                        return true;
-                    }
-                    // Check text-based custom location
-                    if (mp.getFromCustomLocation() != null && 
-                        mp.getFromCustomLocation().equalsIgnoreCase(locationName)) {
-                        return true;
-                    }
-                    return false;
-                })
-                .collect(Collectors.toList());
+        // Incoming: this location is a destination; outgoing: it is the source
+        List<MovingPart> incoming = movingPartRepository.findByCustomLocationEndpoint(
+                MovingPartEndpoint.Role.TO, customLocationId, nameKey);
+        List<MovingPart> outgoing = movingPartRepository.findByCustomLocationEndpoint(
+                MovingPartEndpoint.Role.FROM, customLocationId, nameKey);
         
         Map<String, List<MovingPart>> movingParts = new HashMap<>();
         movingParts.put("incoming", incoming);
@@ -225,9 +162,13 @@ public class CustomLocationService {
      * (Parts that were moved TO this location and haven't been moved FROM it)
      */
     public List<Map<String, Object>> getCurrentPartsAtLocation(Long customLocationId) {
-        // Reuse the getMovingPartsForCustomLocation method to get all moving parts
-        Map<String, List<MovingPart>> movingParts = getMovingPartsForCustomLocation(customLocationId);
-        
+        return getCurrentPartsAtLocation(getMovingPartsForCustomLocation(customLocationId));
+    }
+
+    /**
+     * Parts currently at a custom location, from its already loaded incoming and outgoing moving parts
+     */
+    public List<Map<String, Object>> getCurrentPartsAtLocation(Map<String, List<MovingPart>> movingParts) {
         List<MovingPart> incomingParts = movingParts.get("incoming");
         List<MovingPart> outgoingParts = movingParts.get("outgoing");
         
@@ -0,0 +1,663 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.event.MapGridChangeEvent;
+import com.pcd.manager.model.Location;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.repository.LocationRepository;
+import com.pcd.manager.repository.MapGridItemRepository;
+import com.pcd.manager.repository.NoteRepository;
+import com.pcd.manager.repository.PassdownRepository;
+import com.pcd.manager.repository.RmaRepository;
+import com.pcd.manager.repository.ToolCommentRepository;
+import com.pcd.manager.repository.ToolRepository;
+import com.pcd.manager.repository.TrackTrendRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Precomputed read model for /dashboard, kept per location so a dashboard request is a map lookup
+ * plus template render instead of a dozen queries and entity graphs.
+ *
+ * A location's view is made of sections (tool list, the RMA/passdown/comment/track-trend icon data and
+ * the facility map) plus sections shared by every location (two-week passdown feed, map tool data and
+ * track/trend filters). Change events mark only the sections they can affect as stale; the next request
+ * re-reads just those with projection queries and reuses the rest. When the tool set of a location
+ * changes, its tool-keyed sections are re-read with it. The passdown feed also goes stale at midnight.
+ * Build counts, timings and invalidation-to-rebuild lag are reported on the admin cache page.
+ */
+@Service
+public class DashboardReadModelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardReadModelService.class);
+
+    private static final int RECENT_PASSDOWN_WEEKS = 2;
+    // View key used when the user has no location: every tool and no facility map
+    private static final Long ALL_LOCATIONS = 0L;
+
+    // Assigned tools first, then by name
+    private static final Comparator<ToolEntry> TOOL_ORDER = Comparator
+            .comparing((ToolEntry entry) -> entry.tool.currentTechnicians.isEmpty())
+            .thenComparing(entry -> entry.tool.name != null ? entry.tool.name : "", String.CASE_INSENSITIVE_ORDER);
+
+    private enum Section { TOOLS, RMAS, PASSDOWNS, COMMENTS, TRACK_TRENDS, GRID }
+
+    private enum SharedSection { PASSDOWN_FEED, MAP_TOOLS, TRACK_TREND_FILTERS }
+
+    private final ToolRepository toolRepository;
+    private final RmaRepository rmaRepository;
+    private final PassdownRepository passdownRepository;
+    private final ToolCommentRepository toolCommentRepository;
+    private final TrackTrendRepository trackTrendRepository;
+    private final NoteRepository noteRepository;
+    private final MapGridItemRepository mapGridItemRepository;
+    private final LocationRepository locationRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<Long, LocationModel> models = new ConcurrentHashMap<>();
+    private final SharedModel sharedModel = new SharedModel();
+    private final AtomicLong eventsReceived = new AtomicLong();
+
+    @Autowired
+    public DashboardReadModelService(ToolRepository toolRepository,
+                                     RmaRepository rmaRepository,
+                                     PassdownRepository passdownRepository,
+                                     ToolCommentRepository toolCommentRepository,
+                                     TrackTrendRepository trackTrendRepository,
+                                     NoteRepository noteRepository,
+                                     MapGridItemRepository mapGridItemRepository,
+                                     LocationRepository locationRepository,
+                                     PlatformTransactionManager transactionManager) {
+        this.toolRepository = toolRepository;
+        this.rmaRepository = rmaRepository;
+        this.passdownRepository = passdownRepository;
+        this.toolCommentRepository = toolCommentRepository;
+        this.trackTrendRepository = trackTrendRepository;
+        this.noteRepository = noteRepository;
+        this.mapGridItemRepository = mapGridItemRepository;
+        this.locationRepository = locationRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Dashboard data for a location (null for every tool and no map), re-reading stale sections first
+     */
+    public DashboardView getView(Long locationId) {
+        LocationModel model = models.computeIfAbsent(locationId != null ? locationId : ALL_LOCATIONS, LocationModel::new);
+        SharedSections shared = sharedModel.get();
+        LocationSections sections = model.get();
+        return new DashboardView(locationId, sections.tools, sections.toolRmas, sections.toolPassdowns, sections.toolComments,
+                sections.toolTrackTrends, sections.gridItems, shared.recentPassdowns, shared.passdownUsers,
+                shared.passdownTools, shared.mapTools, shared.trackTrendFilters);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        eventsReceived.incrementAndGet();
+        try {
+            switch (event.getEntityType()) {
+                case TOOL -> {
+                    // Also covers tool comments and notes, which are reported as tool updates
+                    sharedModel.markStale(SharedSection.MAP_TOOLS, SharedSection.PASSDOWN_FEED);
+                    String locationName = event.getChangeType() == EntityChangeEvent.ChangeType.DELETED || models.isEmpty()
+                            ? null : currentLocationName(event.getEntityId());
+                    models.values().forEach(model -> model.onToolChange(event.getEntityId(), locationName));
+                }
+                case PASSDOWN -> {
+                    sharedModel.markStale(SharedSection.PASSDOWN_FEED);
+                    markAllStale(Section.PASSDOWNS);
+                }
+                case RMA -> markAllStale(Section.RMAS);
+                case TRACK_TREND -> {
+                    sharedModel.markStale(SharedSection.TRACK_TREND_FILTERS);
+                    markAllStale(Section.TRACK_TRENDS);
+                }
+                // User names appear as technicians, comment and passdown authors
+                case USER -> {
+                    sharedModel.markStale(SharedSection.PASSDOWN_FEED);
+                    markAllStale(Section.TOOLS, Section.COMMENTS, Section.PASSDOWNS);
+                }
+                // Tools are matched to locations by name, so a rename re-reads everything
+                case LOCATION -> models.values().forEach(LocationModel::reset);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not apply {} to dashboard read model, rebuilding all views: {}", event, e.getMessage());
+            models.values().forEach(LocationModel::reset);
+            sharedModel.markStale(SharedSection.values());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMapGridChange(MapGridChangeEvent event) {
+        eventsReceived.incrementAndGet();
+        LocationModel model = models.get(event.getLocationId());
+        if (model != null) {
+            model.markStale(Section.GRID);
+        }
+    }
+
+    /**
+     * Per-view and shared build statistics for the admin cache page
+     */
+    public Map<String, Object> getStats() {
+        long now = System.currentTimeMillis();
+        List<Map<String, Object>> views = models.values().stream()
+                .sorted(Comparator.comparing(model -> model.key))
+                .map(model -> model.stats(now))
+                .collect(Collectors.toList());
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("views", views);
+        stats.put("shared", sharedModel.stats(now));
+        stats.put("eventsReceived", eventsReceived.get());
+        return stats;
+    }
+
+    private void markAllStale(Section... sections) {
+        models.values().forEach(model -> model.markStale(sections));
+    }
+
+    private String currentLocationName(Long toolId) {
+        List<Object[]> rows = readTransaction.execute(status -> toolRepository.findReferenceDataById(toolId));
+        // row: id, name, secondaryName, toolType, locationName, systemName, equipmentLocation
+        return rows == null || rows.isEmpty() ? null : (String) rows.get(0)[4];
+    }
+
+    private LocationSections buildSections(Long key, LocationSections previous, Set<Section> reload) {
+        String locationName = previous != null ? previous.locationName : null;
+        if (previous == null && !ALL_LOCATIONS.equals(key)) {
+            Location location = locationRepository.findById(key).orElse(null);
+            if (location == null) {
+                return LocationSections.empty();
+            }
+            // Same key DashboardController has always matched tools with
+            locationName = location.getDisplayName() != null ? location.getDisplayName() : location.getName();
+        }
+
+        List<ToolEntry> tools = reload.contains(Section.TOOLS) ? loadTools(locationName) : previous.tools;
+        Set<Long> toolIds = tools.stream().map(entry -> entry.tool.id).collect(Collectors.toCollection(LinkedHashSet::new));
+        boolean toolSetChanged = previous == null || !previous.toolIds.equals(toolIds);
+        List<Long> idList = new ArrayList<>(toolIds);
+
+        return new LocationSections(locationName, tools, toolIds,
+                reload.contains(Section.RMAS) || toolSetChanged ? groupByTool(idList, rmaRepository::findRmaListDataByToolIds,
+                        3, row -> info("id", row[0], "rmaNumber", row[1], "status", row[2])) : previous.toolRmas,
+                reload.contains(Section.PASSDOWNS) || toolSetChanged ? groupByTool(idList, passdownRepository::findPassdownListDataByToolIds,
+                        4, row -> info("id", row[0], "date", row[1], "userName", row[2], "comment", row[3])) : previous.toolPassdowns,
+                reload.contains(Section.COMMENTS) || toolSetChanged ? groupByTool(idList, toolCommentRepository::findCommentListDataByToolIds,
+                        4, row -> info("id", row[0], "createdDate", row[1], "userName", row[2], "content", row[3])) : previous.toolComments,
+                reload.contains(Section.TRACK_TRENDS) || toolSetChanged ? groupByTool(idList, trackTrendRepository::findTrackTrendListDataByToolIds,
+                        2, row -> info("id", row[0], "name", row[1])) : previous.toolTrackTrends,
+                reload.contains(Section.GRID) ? loadGridItems(key) : previous.gridItems);
+    }
+
+    private List<ToolEntry> loadTools(String locationName) {
+        List<Object[]> rows = toolRepository.findDashboardRowsByLocationName(locationName);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        // row: tool.id, user.id, user.name
+        Map<Long, List<NameRef>> techniciansByTool = new HashMap<>();
+        for (Object[] row : toolRepository.findTechnicianNamesByLocationName(locationName)) {
+            techniciansByTool.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new NameRef((Long) row[1], (String) row[2]));
+        }
+        // row: tool.id, content
+        Map<Long, List<String>> notesByTool = new HashMap<>();
+        List<Long> toolIds = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        for (Object[] row : noteRepository.findContentByToolIds(toolIds)) {
+            if (row[1] != null) {
+                notesByTool.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
+        // row: id, name, secondaryName, toolType, status, serialNumber1, model1, notes
+        List<ToolEntry> tools = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            ToolRow tool = new ToolRow(id, (String) row[1], (String) row[2], (Tool.ToolType) row[3], (Tool.ToolStatus) row[4],
+                    (String) row[5], (String) row[6], techniciansByTool.getOrDefault(id, List.of()));
+            String ownNotes = row[7] != null ? (String) row[7] : "";
+            String searchableNotes = (ownNotes + " " + String.join(" \n ", notesByTool.getOrDefault(id, List.of()))).trim();
+            tools.add(new ToolEntry(tool, searchableNotes));
+        }
+        tools.sort(TOOL_ORDER);
+        return Collections.unmodifiableList(tools);
+    }
+
+    private List<Map<String, Object>> loadGridItems(Long key) {
+        if (ALL_LOCATIONS.equals(key)) {
+            return List.of();
+        }
+        // row: id, type, x, y, width, height, text, color, isSolid, version,
+        //      tool.id, tool.name, tool.toolType, tool.model1, tool.serialNumber1, tool.status
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Object[] row : mapGridItemRepository.findDashboardDataByLocationId(key)) {
+            Map<String, Object> item = info("id", row[0], "type", row[1], "x", row[2], "y", row[3], "width", row[4], "height", row[5]);
+            item.put("text", row[6]);
+            item.put("color", row[7]);
+            item.put("isSolid", row[8]);
+            item.put("version", row[9]);
+            item.put("tool", row[10] == null ? null : info("id", row[10], "name", row[11], "toolType", row[12],
+                    "model1", row[13], "serialNumber1", row[14], "status", row[15]));
+            items.add(item);
+        }
+        return Collections.unmodifiableList(items);
+    }
+
+    private SharedSections buildShared(SharedSections previous, Set<SharedSection> reload, LocalDate today) {
+        List<PassdownRow> recentPassdowns = previous != null ? previous.recentPassdowns : null;
+        List<String> passdownUsers = previous != null ? previous.passdownUsers : null;
+        List<String> passdownTools = previous != null ? previous.passdownTools : null;
+        if (reload.contains(SharedSection.PASSDOWN_FEED)) {
+            LocalDate from = today.minusWeeks(RECENT_PASSDOWN_WEEKS);
+            // row: passdown.id, tool.id, tool.name
+            Map<Long, List<NameRef>> toolsByPassdown = new HashMap<>();
+            for (Object[] row : passdownRepository.findFeedToolsByDateBetween(from, today)) {
+                toolsByPassdown.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add(new NameRef((Long) row[1], (String) row[2]));
+            }
+            // row: id, date, createdDate, comment, user.id, user.name
+            recentPassdowns = new ArrayList<>();
+            for (Object[] row : passdownRepository.findFeedDataByDateBetween(from, today)) {
+                Long id = (Long) row[0];
+                recentPassdowns.add(new PassdownRow(id, (LocalDate) row[1], (LocalDateTime) row[2], (String) row[3],
+                        row[4] != null ? new NameRef((Long) row[4], (String) row[5]) : null,
+                        toolsByPassdown.getOrDefault(id, List.of())));
+            }
+            recentPassdowns = Collections.unmodifiableList(recentPassdowns);
+            passdownUsers = recentPassdowns.stream()
+                    .filter(passdown -> passdown.user != null && passdown.user.name != null)
+                    .map(passdown -> passdown.user.name)
+                    .distinct()
+                    .collect(Collectors.toUnmodifiableList());
+            passdownTools = recentPassdowns.stream()
+                    .flatMap(passdown -> passdown.tools.stream().map(tool -> tool.name))
+                    .filter(name -> name != null)
+                    .distinct()
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        List<Map<String, Object>> mapTools = previous != null ? previous.mapTools : null;
+        if (reload.contains(SharedSection.MAP_TOOLS)) {
+            // row: id, name, model1, serialNumber1, status, toolType, locationName, hasAssignedUsers
+            mapTools = toolRepository.findGridViewData().stream().map(row -> {
+                Map<String, Object> map = info("id", row[0], "name", row[1], "model", row[2], "serial", row[3]);
+                map.put("status", row[4] != null ? row[4].toString() : "");
+                map.put("type", row[5] != null ? row[5].toString() : "");
+                map.put("location", row[6]);
+                map.put("hasAssignedUsers", row[7]);
+                return map;
+            }).collect(Collectors.toUnmodifiableList());
+        }
+
+        List<Map<String, Object>> trackTrendFilters = previous != null ? previous.trackTrendFilters : null;
+        if (reload.contains(SharedSection.TRACK_TREND_FILTERS)) {
+            // row: trackTrend.id, trackTrend.name, tool.id
+            Map<Long, Map<String, Object>> filtersById = new LinkedHashMap<>();
+            for (Object[] row : trackTrendRepository.findFilterData()) {
+                Map<String, Object> filter = filtersById.computeIfAbsent((Long) row[0],
+                        id -> info("id", id, "title", row[1], "affectedTools", new ArrayList<Long>()));
+                if (row[2] != null) {
+                    @SuppressWarnings("unchecked")
+                    List<Long> affectedTools = (List<Long>) filter.get("affectedTools");
+                    affectedTools.add((Long) row[2]);
+                }
+            }
+            trackTrendFilters = filtersById.values().stream()
+                    .sorted(Comparator.comparing(filter -> filter.get("title") != null ? (String) filter.get("title") : "",
+                            String.CASE_INSENSITIVE_ORDER))
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        return new SharedSections(today, recentPassdowns, passdownUsers, passdownTools, mapTools, trackTrendFilters);
+    }
+
+    /**
+     * Rows grouped by the tool id in column toolColumn; every requested tool gets an entry, empty if none
+     */
+    private static Map<Long, List<Map<String, Object>>> groupByTool(List<Long> toolIds, Function<List<Long>, List<Object[]>> query,
+                                                                    int toolColumn, Function<Object[], Map<String, Object>> mapper) {
+        Map<Long, List<Map<String, Object>>> byTool = new HashMap<>();
+        if (!toolIds.isEmpty()) {
+            for (Object[] row : query.apply(toolIds)) {
+                byTool.computeIfAbsent((Long) row[toolColumn], id -> new ArrayList<>()).add(mapper.apply(row));
+            }
+        }
+        for (Long toolId : toolIds) {
+            byTool.computeIfAbsent(toolId, id -> new ArrayList<>());
+        }
+        return Collections.unmodifiableMap(byTool);
+    }
+
+    private static Map<String, Object> info(Object... keysAndValues) {
+        Map<String, Object> map = new HashMap<>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * Sections and build statistics of one location's view; all state is guarded by the instance monitor
+     */
+    private class LocationModel {
+        private final Long key;
+        private LocationSections sections;
+        private final Set<Section> stale = EnumSet.noneOf(Section.class);
+        private long staleSince;
+        private long builtAt;
+        private long requests;
+        private long rebuilds;
+        private long lastBuildMillis;
+        private long maxRebuildLagMillis;
+        private long totalRebuildLagMillis;
+        private long laggedRebuilds;
+
+        LocationModel(Long key) {
+            this.key = key;
+        }
+
+        synchronized LocationSections get() {
+            requests++;
+            if (sections != null && stale.isEmpty()) {
+                return sections;
+            }
+            long start = System.currentTimeMillis();
+            LocationSections previous = sections;
+            Set<Section> reload = previous == null ? EnumSet.allOf(Section.class) : EnumSet.copyOf(stale);
+            sections = readTransaction.execute(status -> buildSections(key, previous, reload));
+            builtAt = System.currentTimeMillis();
+            lastBuildMillis = builtAt - start;
+            rebuilds++;
+            if (staleSince > 0) {
+                long lag = start - staleSince;
+                maxRebuildLagMillis = Math.max(maxRebuildLagMillis, lag);
+                totalRebuildLagMillis += lag;
+                laggedRebuilds++;
+            }
+            logger.debug("Built dashboard view {} (reloaded {}) in {}ms", key, previous == null ? "all" : reload, lastBuildMillis);
+            stale.clear();
+            staleSince = 0;
+            return sections;
+        }
+
+        synchronized void markStale(Section... changed) {
+            if (sections == null) {
+                return;
+            }
+            Collections.addAll(stale, changed);
+            if (staleSince == 0) {
+                staleSince = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * Tool rows, their comments/notes and map labels change with the tool; a tool moving into
+         * this location changes the tool set
+         */
+        synchronized void onToolChange(Long toolId, String locationName) {
+            if (sections == null) {
+                return;
+            }
+            if (ALL_LOCATIONS.equals(key) || sections.toolIds.contains(toolId)
+                    || (locationName != null && locationName.equals(sections.locationName))) {
+                markStale(Section.TOOLS, Section.COMMENTS, Section.GRID);
+            }
+        }
+
+        synchronized void reset() {
+            if (sections != null) {
+                sections = null;
+                stale.clear();
+                staleSince = System.currentTimeMillis();
+            }
+        }
+
+        synchronized Map<String, Object> stats(long now) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("locationId", ALL_LOCATIONS.equals(key) ? null : key);
+            stats.put("locationName", sections != null ? sections.locationName : null);
+            stats.put("tools", sections != null ? sections.tools.size() : 0);
+            stats.put("ageMs", builtAt > 0 ? now - builtAt : null);
+            stats.put("staleSections", sections == null ? "all" : stale.isEmpty() ? "" : stale.toString());
+            stats.put("staleForMs", staleSince > 0 ? now - staleSince : 0);
+            stats.put("requests", requests);
+            stats.put("rebuilds", rebuilds);
+            stats.put("lastBuildMs", lastBuildMillis);
+            stats.put("maxRebuildLagMs", maxRebuildLagMillis);
+            stats.put("avgRebuildLagMs", laggedRebuilds > 0 ? totalRebuildLagMillis / laggedRebuilds : 0);
+            return stats;
+        }
+    }
+
+    /**
+     * Location-independent sections; guarded by the instance monitor
+     */
+    private class SharedModel {
+        private SharedSections sections;
+        private final Set<SharedSection> stale = EnumSet.noneOf(SharedSection.class);
+        private long staleSince;
+        private long builtAt;
+        private long rebuilds;
+        private long lastBuildMillis;
+
+        synchronized SharedSections get() {
+            LocalDate today = LocalDate.now();
+            if (sections != null && !today.equals(sections.feedDate)) {
+                stale.add(SharedSection.PASSDOWN_FEED);
+            }
+            if (sections != null && stale.isEmpty()) {
+                return sections;
+            }
+            long start = System.currentTimeMillis();
+            SharedSections previous = sections;
+            Set<SharedSection> reload = previous == null ? EnumSet.allOf(SharedSection.class) : EnumSet.copyOf(stale);
+            sections = readTransaction.execute(status -> buildShared(previous, reload, today));
+            builtAt = System.currentTimeMillis();
+            lastBuildMillis = builtAt - start;
+            rebuilds++;
+            stale.clear();
+            staleSince = 0;
+            return sections;
+        }
+
+        synchronized void markStale(SharedSection... changed) {
+            if (sections == null) {
+                return;
+            }
+            Collections.addAll(stale, changed);
+            if (staleSince == 0) {
+                staleSince = System.currentTimeMillis();
+            }
+        }
+
+        synchronized Map<String, Object> stats(long now) {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("ageMs", builtAt > 0 ? now - builtAt : null);
+            stats.put("staleSections", sections == null ? "all" : stale.isEmpty() ? "" : stale.toString());
+            stats.put("staleForMs", staleSince > 0 ? now - staleSince : 0);
+            stats.put("rebuilds", rebuilds);
+            stats.put("lastBuildMs", lastBuildMillis);
+            return stats;
+        }
+    }
+
+    private static class LocationSections {
+        private final String locationName;
+        private final List<ToolEntry> tools;
+        private final Set<Long> toolIds;
+        private final Map<Long, List<Map<String, Object>>> toolRmas;
+        private final Map<Long, List<Map<String, Object>>> toolPassdowns;
+        private final Map<Long, List<Map<String, Object>>> toolComments;
+        private final Map<Long, List<Map<String, Object>>> toolTrackTrends;
+        private final List<Map<String, Object>> gridItems;
+
+        LocationSections(String locationName, List<ToolEntry> tools, Set<Long> toolIds,
+                         Map<Long, List<Map<String, Object>>> toolRmas, Map<Long, List<Map<String, Object>>> toolPassdowns,
+                         Map<Long, List<Map<String, Object>>> toolComments, Map<Long, List<Map<String, Object>>> toolTrackTrends,
+                         List<Map<String, Object>> gridItems) {
+            this.locationName = locationName;
+            this.tools = tools;
+            this.toolIds = toolIds;
+            this.toolRmas = toolRmas;
+            this.toolPassdowns = toolPassdowns;
+            this.toolComments = toolComments;
+            this.toolTrackTrends = toolTrackTrends;
+            this.gridItems = gridItems;
+        }
+
+        static LocationSections empty() {
+            return new LocationSections(null, List.of(), Set.of(), Map.of(), Map.of(), Map.of(), Map.of(), List.of());
+        }
+    }
+
+    private static class SharedSections {
+        private final LocalDate feedDate;
+        private final List<PassdownRow> recentPassdowns;
+        private final List<String> passdownUsers;
+        private final List<String> passdownTools;
+        private final List<Map<String, Object>> mapTools;
+        private final List<Map<String, Object>> trackTrendFilters;
+
+        SharedSections(LocalDate feedDate, List<PassdownRow> recentPassdowns, List<String> passdownUsers, List<String> passdownTools,
+                       List<Map<String, Object>> mapTools, List<Map<String, Object>> trackTrendFilters) {
+            this.feedDate = feedDate;
+            this.recentPassdowns = recentPassdowns;
+            this.passdownUsers = passdownUsers;
+            this.passdownTools = passdownTools;
+            this.mapTools = mapTools;
+            this.trackTrendFilters = trackTrendFilters;
+        }
+    }
+
+    /**
+     * Everything the dashboard template renders for one location. Shared between requests: read only.
+     */
+    public static class DashboardView {
+        public final Long locationId;
+        public final List<ToolEntry> tools;
+        public final Map<Long, List<Map<String, Object>>> toolRmas;
+        public final Map<Long, List<Map<String, Object>>> toolPassdowns;
+        public final Map<Long, List<Map<String, Object>>> toolComments;
+        public final Map<Long, List<Map<String, Object>>> toolTrackTrends;
+        public final List<Map<String, Object>> gridItems;
+        public final List<PassdownRow> recentPassdowns;
+        public final List<String> passdownUsers;
+        public final List<String> passdownTools;
+        public final List<Map<String, Object>> allToolsData;
+        public final List<Map<String, Object>> trackTrendFilters;
+
+        public DashboardView(Long locationId, List<ToolEntry> tools, Map<Long, List<Map<String, Object>>> toolRmas,
+                             Map<Long, List<Map<String, Object>>> toolPassdowns, Map<Long, List<Map<String, Object>>> toolComments,
+                             Map<Long, List<Map<String, Object>>> toolTrackTrends, List<Map<String, Object>> gridItems,
+                             List<PassdownRow> recentPassdowns, List<String> passdownUsers, List<String> passdownTools,
+                             List<Map<String, Object>> allToolsData, List<Map<String, Object>> trackTrendFilters) {
+            this.locationId = locationId;
+            this.tools = tools;
+            this.toolRmas = toolRmas;
+            this.toolPassdowns = toolPassdowns;
+            this.toolComments = toolComments;
+            this.toolTrackTrends = toolTrackTrends;
+            this.gridItems = gridItems;
+            this.recentPassdowns = recentPassdowns;
+            this.passdownUsers = passdownUsers;
+            this.passdownTools = passdownTools;
+            this.allToolsData = allToolsData;
+            this.trackTrendFilters = trackTrendFilters;
+        }
+    }
+
+    /**
+     * One row of the dashboard tool list (template: toolMap.tool, toolMap.searchableNotes)
+     */
+    public static class ToolEntry {
+        public final ToolRow tool;
+        public final String searchableNotes;
+
+        public ToolEntry(ToolRow tool, String searchableNotes) {
+            this.tool = tool;
+            this.searchableNotes = searchableNotes;
+        }
+    }
+
+    /**
+     * The Tool fields the dashboard list shows, named as on the entity
+     */
+    public static class ToolRow {
+        public final Long id;
+        public final String name;
+        public final String secondaryName;
+        public final Tool.ToolType toolType;
+        public final Tool.ToolStatus status;
+        public final String serialNumber1;
+        public final String model1;
+        public final List<NameRef> currentTechnicians;
+
+        public ToolRow(Long id, String name, String secondaryName, Tool.ToolType toolType, Tool.ToolStatus status,
+                       String serialNumber1, String model1, List<NameRef> currentTechnicians) {
+            this.id = id;
+            this.name = name;
+            this.secondaryName = secondaryName;
+            this.toolType = toolType;
+            this.status = status;
+            this.serialNumber1 = serialNumber1;
+            this.model1 = model1;
+            this.currentTechnicians = currentTechnicians;
+        }
+    }
+
+    /**
+     * The Passdown fields the dashboard feed shows, named as on the entity
+     */
+    public static class PassdownRow {
+        public final Long id;
+        public final LocalDate date;
+        public final LocalDateTime createdDate;
+        public final String comment;
+        public final NameRef user;
+        public final List<NameRef> tools;
+
+        public PassdownRow(Long id, LocalDate date, LocalDateTime createdDate, String comment, NameRef user, List<NameRef> tools) {
+            this.id = id;
+            this.date = date;
+            this.createdDate = createdDate;
+            this.comment = comment;
+            this.user = user;
+            this.tools = tools;
+        }
+    }
+
+    public static class NameRef {
+        public final Long id;
+        public final String name;
+
+        public NameRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
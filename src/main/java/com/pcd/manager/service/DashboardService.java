@@ -46,7 +46,16 @@ public class DashboardService {
     @Cacheable(value = "dashboard-data", key = "'recent-passdowns-and-filters'")
     @Transactional(readOnly = true)
     public Map<String, Object> getDashboardData() {
-        logger.info("Fetching dashboard data (cacheable)");
+        return loadDashboardData();
+    }
+
+    /**
+     * Load recent passdowns and filter data, bypassing the cache.
+     * Also used by the dashboard-data refresh-ahead loader in CacheConfig.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> loadDashboardData() {
+        logger.info("Loading dashboard data");
         
         Map<String, Object> dashboardData = new HashMap<>();
         
@@ -80,7 +89,16 @@ public class DashboardService {
     @Cacheable(value = "dashboard-data", key = "'grid-tool-data'")
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getGridToolData() {
-        logger.info("Fetching grid tool data (cacheable)");
+        return loadGridToolData();
+    }
+
+    /**
+     * Load lightweight tool data for grid display, bypassing the cache.
+     * Also used by the dashboard-data refresh-ahead loader in CacheConfig.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> loadGridToolData() {
+        logger.info("Loading grid tool data");
         
         List<Object[]> gridToolData = toolRepository.findGridViewData();
         return gridToolData.stream().map(row -> {
@@ -103,7 +121,16 @@ public class DashboardService {
     @Cacheable(value = "dashboard-data", key = "'track-trend-filters'")
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getTrackTrendFilters() {
-        logger.info("Fetching track trend filters (cacheable)");
+        return loadTrackTrendFilters();
+    }
+
+    /**
+     * Load track trend data for filters, bypassing the cache.
+     * Also used by the dashboard-data refresh-ahead loader in CacheConfig.
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> loadTrackTrendFilters() {
+        logger.info("Loading track trend filters");
         
         List<TrackTrend> allTrackTrends = trackTrendService.getAllTrackTrendsWithAffectedTools();
         logger.info("Fetched {} track/trend items for filters.", allTrackTrends.size());
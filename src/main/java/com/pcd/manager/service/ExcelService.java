@@ -6,8 +6,13 @@ import com.pcd.manager.model.LaborEntry;
 import com.pcd.manager.model.RmaComment;
 import com.pcd.manager.model.Tool;
 import com.pcd.manager.model.User;
+import com.pcd.manager.model.RmaPriority;
+import com.pcd.manager.model.RmaStatus;
+import com.pcd.manager.repository.LocationRepository;
+import com.pcd.manager.repository.RmaRepository;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,6 +24,7 @@ import jakarta.annotation.PostConstruct;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.ByteArrayInputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -36,6 +42,10 @@ public class ExcelService {
 
     private static final Logger logger = LoggerFactory.getLogger(ExcelService.class);
 
+    // RMA list export: RMAs read per query, and rows SXSSF keeps in memory before spooling to disk
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final int EXPORT_ROW_WINDOW = 100;
+
     @Value("${app.upload.dir:${user.dir}/uploads}")
     private String uploadDir;
 
@@ -44,6 +54,12 @@ public class ExcelService {
     
     @Autowired
     private com.pcd.manager.service.ReturnAddressService returnAddressService;
+    
+    @Autowired
+    private RmaRepository rmaRepository;
+    
+    @Autowired
+    private LocationRepository locationRepository;
 
     @PostConstruct
     public void init() {
@@ -1095,16 +1111,14 @@ public class ExcelService {
     }
     
     /**
-     * Generates an Excel file containing a list of RMAs
-     * 
-     * @param rmas The list of RMAs to include in the Excel file
-     * @return A byte array of the Excel file
-     * @throws IOException If an I/O error occurs
+     * Writes the RMA list export for the given RMA ids, in that order, straight to the output stream.
+     * Rows are read as projections in chunks of EXPORT_CHUNK_SIZE and written through SXSSF, which keeps
+     * only EXPORT_ROW_WINDOW rows in memory and spools the rest to a compressed temp file.
      */
-    public byte[] generateRmaListExcel(List<Rma> rmas) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook();
-             ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            
+    public void writeRmaListExcel(List<Long> rmaIds, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(EXPORT_ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             // Create sheet
             Sheet sheet = workbook.createSheet("RMA List");
             
@@ -1135,126 +1149,121 @@ public class ExcelService {
                 "Part Names", "Part Numbers", "Notes"
             };
             
+            // SXSSF cannot autosize over flushed rows, so track the widest value per column instead
+            int[] maxChars = new int[headers.length];
             for (int i = 0; i < headers.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(headers[i]);
                 cell.setCellStyle(headerStyle);
+                maxChars[i] = headers[i].length();
             }
             
+            Map<Long, String> locationNames = new HashMap<>();
+            locationRepository.findAll().forEach(location -> locationNames.put(location.getId(), location.getDisplayName()));
+            
             // Populate data rows
             int rowNum = 1;
-            for (Rma rma : rmas) {
-                Row row = sheet.createRow(rowNum++);
-                int colNum = 0;
-                
-                // RMA Number
-                setCellValueSafe(row, colNum++, rma.getRmaNumber());
+            for (int from = 0; from < rmaIds.size(); from += EXPORT_CHUNK_SIZE) {
+                List<Long> chunk = rmaIds.subList(from, Math.min(from + EXPORT_CHUNK_SIZE, rmaIds.size()));
                 
-                // SAP Notification
-                setCellValueSafe(row, colNum++, rma.getSapNotificationNumber());
+                // row: id, referenceNumber, tool name, serial1, serial2, model1, model2, status, priority, customerName,
+                //      location id, technician, 7 milestone dates, notes
+                Map<Long, Object[]> rowsById = new HashMap<>();
+                for (Object[] data : rmaRepository.findExportRowsByIds(chunk)) {
+                    rowsById.put((Long) data[0], data);
+                }
+                Map<Long, List<Object[]>> partsByRmaId = new HashMap<>();
+                for (Object[] part : rmaRepository.findPartLineItemsByRmaIds(chunk)) {
+                    partsByRmaId.computeIfAbsent((Long) part[0], id -> new ArrayList<>()).add(part);
+                }
                 
-                // Tool information
-                Tool tool = rma.getTool();
-                if (tool != null) {
-                    setCellValueSafe(row, colNum++, tool.getName()); // Tool Name
-                    
-                    // Tool Serial # (combine serial1 and serial2)
-                    String serialNumber = "";
-                    if (tool.getSerialNumber1() != null && !tool.getSerialNumber1().isEmpty()) {
-                        serialNumber = tool.getSerialNumber1();
-                    }
-                    if (tool.getSerialNumber2() != null && !tool.getSerialNumber2().isEmpty()) {
-                        if (!serialNumber.isEmpty()) {
-                            serialNumber += " / ";
-                        }
-                        serialNumber += tool.getSerialNumber2();
+                for (Long rmaId : chunk) {
+                    Object[] data = rowsById.get(rmaId);
+                    if (data == null) {
+                        continue; // deleted since the id list was built
                     }
-                    setCellValueSafe(row, colNum++, serialNumber);
+                    Row row = sheet.createRow(rowNum++);
+                    int colNum = 0;
                     
-                    // Tool Model # (combine model1 and model2)
-                    String modelNumber = "";
-                    if (tool.getModel1() != null && !tool.getModel1().isEmpty()) {
-                        modelNumber = tool.getModel1();
-                    }
-                    if (tool.getModel2() != null && !tool.getModel2().isEmpty()) {
-                        if (!modelNumber.isEmpty()) {
-                            modelNumber += " / ";
-                        }
-                        modelNumber += tool.getModel2();
+                    // RMA Number and SAP Notification (both stored as the reference number)
+                    setCellValueSafe(row, colNum++, (String) data[1], maxChars);
+                    setCellValueSafe(row, colNum++, (String) data[1], maxChars);
+                    
+                    // Tool information
+                    setCellValueSafe(row, colNum++, (String) data[2], maxChars);
+                    setCellValueSafe(row, colNum++, joinNonEmpty((String) data[3], (String) data[4]), maxChars);
+                    setCellValueSafe(row, colNum++, joinNonEmpty((String) data[5], (String) data[6]), maxChars);
+                    
+                    // Status and Priority
+                    setCellValueSafe(row, colNum++, data[7] != null ? ((RmaStatus) data[7]).getDisplayName() : "", maxChars);
+                    setCellValueSafe(row, colNum++, data[8] != null ? ((RmaPriority) data[8]).getDisplayName() : "", maxChars);
+                    
+                    // Customer Name, Location, Technician
+                    setCellValueSafe(row, colNum++, (String) data[9], maxChars);
+                    setCellValueSafe(row, colNum++, data[10] != null ? locationNames.get((Long) data[10]) : "", maxChars);
+                    setCellValueSafe(row, colNum++, (String) data[11], maxChars);
+                    
+                    // Dates (with date formatting)
+                    for (int i = 12; i <= 18; i++) {
+                        setDateCellValue(row, colNum++, (LocalDate) data[i], dateStyle);
                     }
-                    setCellValueSafe(row, colNum++, modelNumber);
-                } else {
-                    setCellValueSafe(row, colNum++, ""); // Tool Name
-                    setCellValueSafe(row, colNum++, ""); // Tool Serial #
-                    setCellValueSafe(row, colNum++, ""); // Tool Model #
-                }
-                
-                // Status
-                setCellValueSafe(row, colNum++, rma.getStatus() != null ? rma.getStatus().getDisplayName() : "");
-                
-                // Priority
-                setCellValueSafe(row, colNum++, rma.getPriority() != null ? rma.getPriority().getDisplayName() : "");
-                
-                // Customer Name
-                setCellValueSafe(row, colNum++, rma.getCustomerName());
-                
-                // Location
-                setCellValueSafe(row, colNum++, rma.getLocation() != null ? rma.getLocation().getDisplayName() : "");
-                
-                // Technician
-                setCellValueSafe(row, colNum++, rma.getTechnician());
-                
-                // Dates (with date formatting)
-                setDateCellValue(row, colNum++, rma.getWrittenDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getRmaNumberProvidedDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getShippingMemoEmailedDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getPartsReceivedDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getInstalledPartsDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getFailedPartsPackedDate(), dateStyle);
-                setDateCellValue(row, colNum++, rma.getFailedPartsShippedDate(), dateStyle);
-                
-                // Part information (concatenated)
-                StringBuilder partNames = new StringBuilder();
-                StringBuilder partNumbers = new StringBuilder();
-                
-                if (rma.getPartLineItems() != null && !rma.getPartLineItems().isEmpty()) {
-                    for (int i = 0; i < rma.getPartLineItems().size(); i++) {
-                        PartLineItem item = rma.getPartLineItems().get(i);
+                    
+                    // Part information (concatenated)
+                    StringBuilder partNames = new StringBuilder();
+                    StringBuilder partNumbers = new StringBuilder();
+                    List<Object[]> parts = partsByRmaId.getOrDefault(rmaId, List.of());
+                    for (int i = 0; i < parts.size(); i++) {
                         if (i > 0) {
                             partNames.append("; ");
                             partNumbers.append("; ");
                         }
-                        partNames.append(item.getPartName() != null ? item.getPartName() : "");
-                        partNumbers.append(item.getPartNumber() != null ? item.getPartNumber() : "");
+                        partNames.append(parts.get(i)[1] != null ? parts.get(i)[1] : "");
+                        partNumbers.append(parts.get(i)[2] != null ? parts.get(i)[2] : "");
                     }
+                    setCellValueSafe(row, colNum++, partNames.toString(), maxChars);
+                    setCellValueSafe(row, colNum++, partNumbers.toString(), maxChars);
+                    
+                    // Notes only (Root Cause and Resolution removed)
+                    setCellValueSafe(row, colNum++, (String) data[19], maxChars);
                 }
-                
-                setCellValueSafe(row, colNum++, partNames.toString());
-                setCellValueSafe(row, colNum++, partNumbers.toString());
-                
-                // Notes only (Root Cause and Resolution removed)
-                setCellValueSafe(row, colNum++, rma.getNotes());
             }
             
-            // Auto-size columns
+            // Size columns from the widest value, within the same 2000-8000 bounds as before
             for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-                // Set minimum width to prevent too narrow columns
-                if (sheet.getColumnWidth(i) < 2000) {
-                    sheet.setColumnWidth(i, 2000);
-                }
-                // Set maximum width to prevent too wide columns
-                if (sheet.getColumnWidth(i) > 8000) {
-                    sheet.setColumnWidth(i, 8000);
-                }
+                int width = Math.min(maxChars[i], 255) * 256 + 512;
+                sheet.setColumnWidth(i, Math.max(2000, Math.min(width, 8000)));
             }
             
             // Freeze header row
             sheet.createFreezePane(0, 1);
             
-            // Write workbook to output stream
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(out);
+            out.flush();
+            logger.info("Wrote RMA list export with {} rows", rowNum - 1);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+    
+    /**
+     * Joins two optional values with " / ", skipping empty ones
+     */
+    private String joinNonEmpty(String first, String second) {
+        String result = first != null && !first.isEmpty() ? first : "";
+        if (second != null && !second.isEmpty()) {
+            result = result.isEmpty() ? second : result + " / " + second;
+        }
+        return result;
+    }
+    
+    /**
+     * Sets a cell value like setCellValueSafe and records its length for column sizing
+     */
+    private void setCellValueSafe(Row row, int columnIndex, String value, int[] maxChars) {
+        setCellValueSafe(row, columnIndex, value);
+        if (value != null && value.length() > maxChars[columnIndex]) {
+            maxChars[columnIndex] = value.length();
         }
     }
     
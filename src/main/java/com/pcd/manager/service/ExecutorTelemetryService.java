@@ -0,0 +1,343 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.config.ConnectionBoundedExecutor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Saturation telemetry for the async executors (AsyncConfig) and the Hikari connection pool, for /admin/executors.
+ *
+ * Executors are registered when AsyncConfig builds them and get a task decorator that times queue wait and
+ * run time into fixed-bucket histograms; rejections are counted by their rejection handlers. Connection
+ * acquire times and timeouts come from a Hikari metrics tracker installed before the pool starts. Each
+ * snapshot compares the numbers with the app.telemetry.* thresholds and lists what is saturated. Counters
+ * and histograms cover the time since the last reset.
+ */
+@Service
+public class ExecutorTelemetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExecutorTelemetryService.class);
+
+    // Upper bounds in ms of the histogram buckets; the last bucket is everything slower
+    private static final long[] BUCKET_BOUNDS_MS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private final ObjectProvider<DataSource> dataSourceProvider;
+    private final Map<String, ExecutorStats> executors = new ConcurrentHashMap<>();
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final LatencyHistogram connectionUsage = new LatencyHistogram();
+    private final AtomicLong connectionTimeouts = new AtomicLong();
+    private volatile long since = System.currentTimeMillis();
+    private HikariDataSource hikari;
+
+    @Value("${app.telemetry.executor.queue-ratio:0.8}")
+    private double executorQueueRatio;
+
+    @Value("${app.telemetry.executor.wait-p95-ms:500}")
+    private long executorWaitP95Millis;
+
+    @Value("${app.telemetry.pool.pending:1}")
+    private int poolPendingThreshold;
+
+    @Value("${app.telemetry.pool.active-ratio:0.9}")
+    private double poolActiveRatio;
+
+    @Value("${app.telemetry.pool.acquire-p95-ms:500}")
+    private long poolAcquireP95Millis;
+
+    public ExecutorTelemetryService(ObjectProvider<DataSource> dataSourceProvider) {
+        this.dataSourceProvider = dataSourceProvider;
+    }
+
+    @PostConstruct
+    public void findConnectionPool() {
+        DataSource dataSource = dataSourceProvider.getIfAvailable();
+        try {
+            // Unwrap through the statement-counting wrapper (SqlMonitoringConfig)
+            if (dataSource == null || !dataSource.isWrapperFor(HikariDataSource.class)) {
+                logger.info("DataSource is not a Hikari pool, connection telemetry disabled");
+                return;
+            }
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (Exception e) {
+            logger.warn("Could not attach connection pool telemetry: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Metrics tracker for the Hikari pool. Hikari only accepts a tracker factory before the pool starts,
+     * so AsyncConfig installs one on the HikariDataSource bean that asks for this tracker.
+     */
+    public IMetricsTracker connectionPoolTracker() {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                connectionAcquire.record(TimeUnit.NANOSECONDS.toMillis(elapsedAcquiredNanos));
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                connectionUsage.record(elapsedBorrowedMillis);
+            }
+
+            @Override
+            public void recordConnectionTimeout() {
+                connectionTimeouts.incrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Track an executor; the returned decorator must be installed on it so task timings are recorded
+     */
+    public TaskDecorator register(String name, Executor executor) {
+        ExecutorStats stats = executors.computeIfAbsent(name, key -> new ExecutorStats());
+        stats.executor = executor;
+        return task -> {
+            long submitted = System.nanoTime();
+            stats.submitted.incrementAndGet();
+            return () -> {
+                long started = System.nanoTime();
+                stats.queueWait.record(TimeUnit.NANOSECONDS.toMillis(started - submitted));
+                stats.running.incrementAndGet();
+                try {
+                    task.run();
+                    stats.completed.incrementAndGet();
+                } catch (RuntimeException | Error e) {
+                    stats.failed.incrementAndGet();
+                    throw e;
+                } finally {
+                    stats.running.decrementAndGet();
+                    stats.runTime.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                }
+            };
+        };
+    }
+
+    /**
+     * Called by an executor's rejection handler
+     */
+    public void recordRejection(String name) {
+        executors.computeIfAbsent(name, key -> new ExecutorStats()).rejected.incrementAndGet();
+    }
+
+    public Map<String, Object> getSnapshot() {
+        List<String> alerts = new ArrayList<>();
+        Map<String, Object> executorSnapshots = new LinkedHashMap<>();
+        executors.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> executorSnapshots.put(entry.getKey(), executorSnapshot(entry.getKey(), entry.getValue(), alerts)));
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("executors", executorSnapshots);
+        snapshot.put("connectionPool", poolSnapshot(alerts));
+        snapshot.put("alerts", alerts);
+        snapshot.put("saturated", !alerts.isEmpty());
+        snapshot.put("thresholds", thresholds());
+        snapshot.put("since", since);
+        snapshot.put("timestamp", System.currentTimeMillis());
+        return snapshot;
+    }
+
+    public void reset() {
+        executors.values().forEach(ExecutorStats::reset);
+        connectionAcquire.reset();
+        connectionUsage.reset();
+        connectionTimeouts.set(0);
+        since = System.currentTimeMillis();
+    }
+
+    private Map<String, Object> executorSnapshot(String name, ExecutorStats stats, List<String> alerts) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        Executor executor = stats.executor;
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            int queueDepth = pool.getQueueSize();
+            int queueCapacity = pool.getQueueCapacity();
+            snapshot.put("type", "thread-pool");
+            snapshot.put("activeThreads", pool.getActiveCount());
+            snapshot.put("poolSize", pool.getPoolSize());
+            snapshot.put("corePoolSize", pool.getCorePoolSize());
+            snapshot.put("maxPoolSize", pool.getMaxPoolSize());
+            snapshot.put("queueDepth", queueDepth);
+            snapshot.put("queueCapacity", queueCapacity);
+            if (queueCapacity > 0 && queueDepth >= queueCapacity * executorQueueRatio) {
+                alerts.add(name + ": queue at " + queueDepth + " of " + queueCapacity);
+            }
+        } else {
+            snapshot.put("type", "virtual-threads");
+            snapshot.put("activeThreads", stats.running.get());
+            if (executor instanceof ConnectionBoundedExecutor bounded) {
+                snapshot.put("connectionPermitsAvailable", bounded.getAvailablePermits());
+                snapshot.put("queueDepth", bounded.getQueuedTasks());
+            }
+        }
+        long rejected = stats.rejected.get();
+        snapshot.put("submitted", stats.submitted.get());
+        snapshot.put("completed", stats.completed.get());
+        snapshot.put("failed", stats.failed.get());
+        snapshot.put("rejected", rejected);
+        snapshot.put("queueWaitMs", stats.queueWait.toMap());
+        snapshot.put("runTimeMs", stats.runTime.toMap());
+        if (rejected > 0) {
+            alerts.add(name + ": " + rejected + " tasks rejected and run on the caller");
+        }
+        long waitP95 = stats.queueWait.percentile(0.95);
+        if (waitP95 > executorWaitP95Millis) {
+            alerts.add(name + ": p95 queue wait " + waitP95 + " ms");
+        }
+        return snapshot;
+    }
+
+    private Map<String, Object> poolSnapshot(List<String> alerts) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            snapshot.put("available", false);
+            return snapshot;
+        }
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        int maxPoolSize = hikari.getMaximumPoolSize();
+        long timeouts = connectionTimeouts.get();
+        snapshot.put("available", true);
+        snapshot.put("poolName", hikari.getPoolName());
+        snapshot.put("activeConnections", active);
+        snapshot.put("idleConnections", pool.getIdleConnections());
+        snapshot.put("totalConnections", pool.getTotalConnections());
+        snapshot.put("pendingThreads", pending);
+        snapshot.put("maxPoolSize", maxPoolSize);
+        snapshot.put("connectionTimeoutMs", hikari.getConnectionTimeout());
+        snapshot.put("connectionTimeouts", timeouts);
+        snapshot.put("acquireMs", connectionAcquire.toMap());
+        snapshot.put("usageMs", connectionUsage.toMap());
+
+        if (pending >= poolPendingThreshold) {
+            alerts.add("connection pool: " + pending + " threads waiting for a connection");
+        }
+        if (active >= maxPoolSize * poolActiveRatio) {
+            alerts.add("connection pool: " + active + " of " + maxPoolSize + " connections in use");
+        }
+        long acquireP95 = connectionAcquire.percentile(0.95);
+        if (acquireP95 > poolAcquireP95Millis) {
+            alerts.add("connection pool: p95 acquire time " + acquireP95 + " ms");
+        }
+        if (timeouts > 0) {
+            alerts.add("connection pool: " + timeouts + " connection timeouts");
+        }
+        return snapshot;
+    }
+
+    private Map<String, Object> thresholds() {
+        Map<String, Object> thresholds = new LinkedHashMap<>();
+        thresholds.put("executorQueueRatio", executorQueueRatio);
+        thresholds.put("executorWaitP95Ms", executorWaitP95Millis);
+        thresholds.put("poolPendingThreads", poolPendingThreshold);
+        thresholds.put("poolActiveRatio", poolActiveRatio);
+        thresholds.put("poolAcquireP95Ms", poolAcquireP95Millis);
+        return thresholds;
+    }
+
+    private static class ExecutorStats {
+        private volatile Executor executor;
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicInteger running = new AtomicInteger();
+        private final LatencyHistogram queueWait = new LatencyHistogram();
+        private final LatencyHistogram runTime = new LatencyHistogram();
+
+        void reset() {
+            submitted.set(0);
+            completed.set(0);
+            failed.set(0);
+            rejected.set(0);
+            queueWait.reset();
+            runTime.reset();
+        }
+    }
+
+    /**
+     * Fixed-bucket millisecond histogram; percentiles are reported as the upper bound of their bucket (capped at the max)
+     */
+    private static class LatencyHistogram {
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+
+        void record(long millis) {
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && millis > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+        }
+
+        long percentile(double percentile) {
+            long total = count.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return i < BUCKET_BOUNDS_MS.length ? Math.min(BUCKET_BOUNDS_MS[i], maxMillis.get()) : maxMillis.get();
+                }
+            }
+            return maxMillis.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < buckets.length(); i++) {
+                buckets.set(i, 0);
+            }
+            count.set(0);
+            totalMillis.set(0);
+            maxMillis.set(0);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            long total = count.get();
+            map.put("count", total);
+            map.put("avg", total > 0 ? totalMillis.get() / total : 0);
+            map.put("p50", percentile(0.50));
+            map.put("p95", percentile(0.95));
+            map.put("p99", percentile(0.99));
+            map.put("max", maxMillis.get());
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length(); i++) {
+                histogram.put(i < BUCKET_BOUNDS_MS.length ? "le" + BUCKET_BOUNDS_MS[i] : "gt" + BUCKET_BOUNDS_MS[i - 1],
+                        buckets.get(i));
+            }
+            map.put("buckets", histogram);
+            return map;
+        }
+    }
+}
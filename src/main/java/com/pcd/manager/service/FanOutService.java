@@ -0,0 +1,279 @@
+package com.pcd.manager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only loads in parallel on the fanOutExecutor under one deadline.
+ *
+ * A caller starts a fan-out, forks one branch per load (each with a fallback value), then joins. Join waits
+ * at most until the deadline: branches that failed or are still running yield their fallback and the
+ * result is marked partial, so a slow query degrades one column of a page instead of pinning the request
+ * thread. Each branch runs in its own read-only transaction whose timeout is the time left to the deadline,
+ * so an abandoned query is also cancelled by the database. A branch the saturated executor rejects yields
+ * its fallback at once rather than running on the caller's thread. Per-branch timings and outcomes are
+ * kept for /admin/sql.
+ */
+@Service
+public class FanOutService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutService.class);
+
+    public enum Outcome { COMPLETED, FAILED, TIMED_OUT, REJECTED }
+
+    private final Executor fanOutExecutor;
+    private final PlatformTransactionManager transactionManager;
+    private final Map<String, BranchStats> branchStats = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FanOutService(@Qualifier("fanOutExecutor") Executor fanOutExecutor,
+                         PlatformTransactionManager transactionManager) {
+        this.fanOutExecutor = fanOutExecutor;
+        this.transactionManager = transactionManager;
+    }
+
+    /**
+     * Start a fan-out; name identifies it in logs and statistics (e.g. "tools-list")
+     */
+    public FanOut start(String name, Duration deadline) {
+        return new FanOut(name, System.nanoTime() + deadline.toNanos());
+    }
+
+    /**
+     * Per-branch statistics keyed "fanOut/branch": calls, failures, timeouts and timings in ms
+     */
+    public Map<String, Map<String, Object>> getBranchStats() {
+        Map<String, Map<String, Object>> stats = new TreeMap<>();
+        branchStats.forEach((key, branch) -> stats.put(key, branch.toMap()));
+        return stats;
+    }
+
+    public void resetStats() {
+        branchStats.clear();
+    }
+
+    public class FanOut {
+        private final String name;
+        private final long deadlineNanos;
+        private final List<Branch<?>> branches = new ArrayList<>();
+        private boolean joined;
+
+        private FanOut(String name, long deadlineNanos) {
+            this.name = name;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Submit a load; fallback is used when it fails or misses the deadline
+         */
+        public <T> Branch<T> fork(String branchName, Supplier<T> loader, T fallback) {
+            if (joined) {
+                throw new IllegalStateException("Fan-out " + name + " has already been joined");
+            }
+            Branch<T> branch = new Branch<>(branchName, fallback);
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            transaction.setTimeout((int) Math.max(1, TimeUnit.NANOSECONDS.toSeconds(remainingNanos() + 999_999_999L)));
+            try {
+                branch.future = CompletableFuture.supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    try {
+                        return transaction.execute(status -> loader.get());
+                    } finally {
+                        branch.elapsedNanos = System.nanoTime() - start;
+                    }
+                }, fanOutExecutor);
+            } catch (RejectedExecutionException e) {
+                branch.future = CompletableFuture.failedFuture(e);
+                branch.elapsedNanos = 0;
+            }
+            branches.add(branch);
+            return branch;
+        }
+
+        /**
+         * Wait for every branch or the deadline, whichever comes first, and settle each branch
+         * to its value or fallback. Returns true when every branch completed.
+         */
+        public boolean join() {
+            if (joined) {
+                return !isPartial();
+            }
+            joined = true;
+            CompletableFuture<?>[] futures = branches.stream().map(branch -> branch.future).toArray(CompletableFuture[]::new);
+            try {
+                CompletableFuture.allOf(futures).get(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException | TimeoutException e) {
+                // Settled per branch below
+            }
+
+            for (Branch<?> branch : branches) {
+                branch.settle();
+                branchStats.computeIfAbsent(name + "/" + branch.name, key -> new BranchStats()).record(branch);
+            }
+            if (isPartial()) {
+                logger.warn("Fan-out {} returned partial results: {}", name, describe());
+            } else {
+                logger.debug("Fan-out {} completed: {}", name, describe());
+            }
+            return !isPartial();
+        }
+
+        public boolean isPartial() {
+            return branches.stream().anyMatch(branch -> branch.outcome != Outcome.COMPLETED);
+        }
+
+        /**
+         * Branch name to elapsed milliseconds (time to the deadline for branches that timed out)
+         */
+        public Map<String, Long> getTimings() {
+            Map<String, Long> timings = new LinkedHashMap<>();
+            branches.forEach(branch -> timings.put(branch.name, branch.getElapsedMillis()));
+            return timings;
+        }
+
+        private long remainingNanos() {
+            return deadlineNanos - System.nanoTime();
+        }
+
+        private String describe() {
+            StringBuilder description = new StringBuilder();
+            for (Branch<?> branch : branches) {
+                if (description.length() > 0) {
+                    description.append(", ");
+                }
+                description.append(branch.name).append('=').append(branch.outcome).append(' ')
+                        .append(branch.getElapsedMillis()).append("ms");
+            }
+            return description.toString();
+        }
+    }
+
+    public static class Branch<T> {
+        private final String name;
+        private final T fallback;
+        private final long forkedAt = System.nanoTime();
+        private volatile CompletableFuture<T> future;
+        private volatile long elapsedNanos = -1;
+        private T value;
+        private Outcome outcome;
+        private Throwable failure;
+
+        private Branch(String name, T fallback) {
+            this.name = name;
+            this.fallback = fallback;
+        }
+
+        private void settle() {
+            if (!future.isDone()) {
+                // The transaction timeout cancels the query; the late result is dropped
+                future.cancel(false);
+                outcome = Outcome.TIMED_OUT;
+                value = fallback;
+                return;
+            }
+            try {
+                value = future.join();
+                outcome = Outcome.COMPLETED;
+            } catch (Exception e) {
+                failure = e.getCause() != null ? e.getCause() : e;
+                if (failure instanceof RejectedExecutionException) {
+                    logger.warn("Fan-out branch {} rejected by the saturated executor, using fallback", name);
+                    outcome = Outcome.REJECTED;
+                    value = fallback;
+                    return;
+                }
+                logger.error("Fan-out branch {} failed, using fallback: {}", name, failure.getMessage(), failure);
+                outcome = Outcome.FAILED;
+                value = fallback;
+            }
+        }
+
+        /**
+         * Loaded value, or the fallback when the branch failed or timed out (only valid after join)
+         */
+        public T get() {
+            if (outcome == null) {
+                throw new IllegalStateException("Branch " + name + " read before join");
+            }
+            return value;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public Throwable getFailure() {
+            return failure;
+        }
+
+        public long getElapsedMillis() {
+            long nanos = elapsedNanos >= 0 && outcome != Outcome.TIMED_OUT ? elapsedNanos : System.nanoTime() - forkedAt;
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+
+    private static class BranchStats {
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong rejections = new AtomicLong();
+        private final AtomicLong totalMillis = new AtomicLong();
+        private final AtomicLong maxMillis = new AtomicLong();
+        private volatile long lastMillis;
+
+        void record(Branch<?> branch) {
+            long millis = branch.getElapsedMillis();
+            calls.incrementAndGet();
+            if (branch.outcome == Outcome.FAILED) {
+                failures.incrementAndGet();
+            } else if (branch.outcome == Outcome.TIMED_OUT) {
+                timeouts.incrementAndGet();
+            } else if (branch.outcome == Outcome.REJECTED) {
+                rejections.incrementAndGet();
+            }
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+            lastMillis = millis;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new HashMap<>();
+            long count = calls.get();
+            map.put("calls", count);
+            map.put("failures", failures.get());
+            map.put("timeouts", timeouts.get());
+            map.put("rejections", rejections.get());
+            map.put("avgMillis", count > 0 ? totalMillis.get() / count : 0);
+            map.put("maxMillis", maxMillis.get());
+            map.put("lastMillis", lastMillis);
+            return map;
+        }
+    }
+}
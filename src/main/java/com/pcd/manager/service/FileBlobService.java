@@ -0,0 +1,411 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.model.FileBlob;
+import com.pcd.manager.repository.FileBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for uploads that records link to (pictures and documents of RMAs, tools,
+ * passdowns and track/trends).
+ *
+ * Uploads are hashed with SHA-256 while they stream to a temp file and kept once per hash at
+ * blobs/ab/cd/<sha256>.ext; uploading the same content again returns the existing path. Linking and
+ * transferring only copy that path, so neither costs disk or I/O.
+ *
+ * Reference counts are recomputed from every path column in one grouped query after RMA, tool, passdown
+ * and track/trend changes commit (coalesced onto the databaseExecutor). Deleting a record only releases its
+ * path; the nightly garbage collection removes blobs that have had no references for the grace period,
+ * re-counting each one under its hash lock right before deleting it. Files under the older
+ * subdirectory/yyyy/MM/<uuid> layout are not part of the store and are still deleted directly.
+ */
+@Service
+public class FileBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBlobService.class);
+
+    public static final String BLOB_DIR = "blobs";
+    private static final String INCOMING_DIR = ".incoming";
+    private static final Pattern EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+    private static final int LOCK_STRIPES = 64;
+
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate writeTransaction;
+    private final Executor databaseExecutor;
+    private final ThumbnailService thumbnailService;
+    private final Path baseUploadPath;
+
+    // Store and collect of the same hash never interleave (single application instance)
+    private final Object[] hashLocks = new Object[LOCK_STRIPES];
+    private final AtomicBoolean recountPending = new AtomicBoolean();
+    private final AtomicBoolean collecting = new AtomicBoolean();
+
+    private final AtomicLong stored = new AtomicLong();
+    private final AtomicLong deduplicated = new AtomicLong();
+    private final AtomicLong bytesDeduplicated = new AtomicLong();
+    private volatile Map<String, Object> lastCollection = Map.of();
+
+    // Unreferenced blobs younger than this survive collection (uploads not linked yet, undo windows)
+    @Value("${app.files.gc.grace-hours:24}")
+    private long graceHours;
+
+    @Autowired
+    public FileBlobService(FileBlobRepository fileBlobRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Qualifier("databaseExecutor") Executor databaseExecutor,
+                           ThumbnailService thumbnailService,
+                           @Value("${app.upload.dir:${user.home}/uploads}") String uploadDir) {
+        this.fileBlobRepository = fileBlobRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.databaseExecutor = databaseExecutor;
+        this.thumbnailService = thumbnailService;
+        this.baseUploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            hashLocks[i] = new Object();
+        }
+    }
+
+    public boolean isBlobPath(String relativePath) {
+        return relativePath != null && relativePath.replace('\\', '/').startsWith(BLOB_DIR + "/");
+    }
+
+    /**
+     * Stream content into the store and return its path relative to the upload directory. The blob row is
+     * committed in its own transaction, so a caller that rolls back leaves an unreferenced blob for
+     * collection rather than a file nothing knows about.
+     *
+     * @param extension file extension including the dot (".jpg"), or empty
+     */
+    public String store(InputStream content, String extension) throws IOException {
+        return commit(receive(content), extension);
+    }
+
+    /**
+     * First half of {@link #store}: copy content to a temp file in the store, hashing it in the same pass.
+     * The result must be passed to {@link #commit} or {@link #discard}.
+     */
+    public Received receive(InputStream content) throws IOException {
+        Path incoming = baseUploadPath.resolve(BLOB_DIR).resolve(INCOMING_DIR);
+        Files.createDirectories(incoming);
+        Path temp = incoming.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                size = Files.copy(in, temp);
+            }
+            return new Received(temp, HexFormat.of().formatHex(digest.digest()), size);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    /**
+     * Second half of {@link #store}: move received content to its hash path, or drop it when the same
+     * content is already stored, and return the stored path
+     */
+    public String commit(Received received, String extension) throws IOException {
+        Path temp = received.temp;
+        String hash = received.sha256;
+        long size = received.size;
+        try {
+            synchronized (lockFor(hash)) {
+                Optional<FileBlob> existing = fileBlobRepository.findBySha256(hash);
+                if (existing.isPresent() && Files.isRegularFile(resolve(existing.get().getFilePath()))) {
+                    writeTransaction.executeWithoutResult(status ->
+                            fileBlobRepository.touchUnreferenced(existing.get().getId(), LocalDateTime.now()));
+                    deduplicated.incrementAndGet();
+                    bytesDeduplicated.addAndGet(size);
+                    logger.info("Upload matches stored blob {} ({} bytes not written)", existing.get().getFilePath(), size);
+                    return existing.get().getFilePath();
+                }
+
+                // A row whose file went missing gets the file back at its recorded path
+                String relativePath = existing.map(FileBlob::getFilePath).orElse(blobPath(hash, extension));
+                Path target = resolve(relativePath);
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                if (existing.isEmpty()) {
+                    LocalDateTime now = LocalDateTime.now();
+                    try {
+                        writeTransaction.executeWithoutResult(status -> fileBlobRepository.save(
+                                new FileBlob(null, hash, relativePath, size, 0, now, now)));
+                    } catch (DataIntegrityViolationException e) {
+                        // Another instance recorded the same content first; the file is identical either way
+                        logger.debug("Blob {} was recorded concurrently", hash);
+                    }
+                }
+                stored.incrementAndGet();
+                logger.info("Stored new blob {} ({} bytes)", relativePath, size);
+                return relativePath;
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Drop received content that will not be committed
+     */
+    public void discard(Received received) {
+        try {
+            Files.deleteIfExists(received.temp);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}: {}", received.temp, e.getMessage());
+        }
+    }
+
+    /**
+     * A record stopped using this path; the file stays until collection finds it unreferenced
+     */
+    public void release(String relativePath) {
+        logger.debug("Released blob reference {}", relativePath);
+        requestRecount();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        switch (event.getEntityType()) {
+            case TOOL, RMA, PASSDOWN, TRACK_TREND -> requestRecount();
+            default -> { }
+        }
+    }
+
+    /**
+     * Queue one reference recount; requests arriving before it starts share it
+     */
+    public void requestRecount() {
+        if (!recountPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            databaseExecutor.execute(() -> {
+                recountPending.set(false);
+                try {
+                    recountReferences();
+                } catch (RuntimeException e) {
+                    logger.warn("Blob reference recount failed: {}", e.getMessage());
+                }
+            });
+        } catch (RuntimeException e) {
+            recountPending.set(false);
+            logger.warn("Could not queue blob reference recount: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute every blob's reference count with one grouped query over all path columns.
+     * Returns the number of blobs whose count changed.
+     */
+    public int recountReferences() {
+        Integer changed = writeTransaction.execute(status -> {
+            Map<String, Long> counts = new HashMap<>();
+            for (Object[] row : fileBlobRepository.findReferenceCounts()) {
+                counts.put((String) row[0], ((Number) row[1]).longValue());
+            }
+            LocalDateTime now = LocalDateTime.now();
+            int updated = 0;
+            for (FileBlob blob : fileBlobRepository.findAll()) {
+                int count = counts.getOrDefault(blob.getFilePath(), 0L).intValue();
+                if (count == blob.getReferenceCount() && (count == 0) == (blob.getUnreferencedSince() != null)) {
+                    continue;
+                }
+                blob.setReferenceCount(count);
+                if (count == 0) {
+                    if (blob.getUnreferencedSince() == null) {
+                        blob.setUnreferencedSince(now);
+                    }
+                } else {
+                    blob.setUnreferencedSince(null);
+                }
+                updated++;
+            }
+            return updated;
+        });
+        if (changed != null && changed > 0) {
+            logger.info("Blob reference recount updated {} blobs", changed);
+        }
+        return changed == null ? 0 : changed;
+    }
+
+    @Scheduled(cron = "${app.files.gc.cron:0 30 3 * * *}")
+    public void scheduledCollection() {
+        collectGarbage();
+    }
+
+    /**
+     * Delete blobs (and their thumbnails) unreferenced for longer than the grace period, plus temp files
+     * left by interrupted uploads. Each candidate is re-counted under its hash lock before deletion.
+     */
+    public Map<String, Object> collectGarbage() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!collecting.compareAndSet(false, true)) {
+            result.put("success", false);
+            result.put("message", "A collection is already running");
+            return result;
+        }
+        long start = System.currentTimeMillis();
+        int deleted = 0;
+        int kept = 0;
+        long bytesFreed = 0;
+        try {
+            recountReferences();
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(graceHours);
+            List<FileBlob> candidates = fileBlobRepository.findUnreferencedBefore(cutoff);
+            for (FileBlob blob : candidates) {
+                synchronized (lockFor(blob.getSha256())) {
+                    Integer removed = writeTransaction.execute(status ->
+                            fileBlobRepository.countReferences(blob.getFilePath()) > 0
+                                    ? 0 : fileBlobRepository.deleteIfUnreferencedBefore(blob.getId(), cutoff));
+                    if (removed == null || removed == 0) {
+                        kept++;
+                        continue;
+                    }
+                    Path file = resolve(blob.getFilePath());
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        logger.warn("Could not delete blob file {}: {}", file, e.getMessage());
+                    }
+                    thumbnailService.deleteThumbnails(file);
+                    deleted++;
+                    bytesFreed += blob.getFileSize() != null ? blob.getFileSize() : 0;
+                }
+            }
+            result.put("success", true);
+            result.put("incomingRemoved", removeStaleIncoming());
+        } catch (RuntimeException e) {
+            logger.error("Blob collection failed: {}", e.getMessage(), e);
+            result.put("success", false);
+            result.put("message", e.getMessage());
+        } finally {
+            collecting.set(false);
+        }
+        result.put("deleted", deleted);
+        result.put("kept", kept);
+        result.put("bytesFreed", bytesFreed);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        result.put("finishedAt", System.currentTimeMillis());
+        lastCollection = result;
+        logger.info("Blob collection: {}", result);
+        return result;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        List<Object[]> totals = fileBlobRepository.findTotals();
+        Object[] row = totals.isEmpty() ? new Object[5] : totals.get(0);
+        stats.put("blobs", number(row[0]));
+        stats.put("storedBytes", number(row[1]));
+        stats.put("references", number(row[2]));
+        stats.put("unreferenced", number(row[3]));
+        stats.put("referencedBytes", number(row[4]));
+        stats.put("storedSinceStart", stored.get());
+        stats.put("deduplicatedSinceStart", deduplicated.get());
+        stats.put("bytesDeduplicatedSinceStart", bytesDeduplicated.get());
+        stats.put("graceHours", graceHours);
+        stats.put("lastCollection", new HashMap<>(lastCollection));
+        return stats;
+    }
+
+    private int removeStaleIncoming() {
+        Path incoming = baseUploadPath.resolve(BLOB_DIR).resolve(INCOMING_DIR);
+        if (!Files.isDirectory(incoming)) {
+            return 0;
+        }
+        long cutoff = System.currentTimeMillis() - Duration.ofHours(graceHours).toMillis();
+        int removed = 0;
+        try (Stream<Path> files = Files.list(incoming)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (Files.getLastModifiedTime(file).toMillis() < cutoff && Files.deleteIfExists(file)) {
+                    removed++;
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Could not clean {}: {}", incoming, e.getMessage());
+        }
+        return removed;
+    }
+
+    private Path resolve(String relativePath) {
+        return baseUploadPath.resolve(relativePath).normalize();
+    }
+
+    private static String blobPath(String hash, String extension) {
+        String ext = extension == null ? "" : extension.toLowerCase(Locale.ROOT);
+        if (!EXTENSION.matcher(ext).matches()) {
+            ext = "";
+        }
+        return BLOB_DIR + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ext;
+    }
+
+    private Object lockFor(String hash) {
+        return hashLocks[Integer.parseInt(hash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Content hashed into a temp file, not yet part of the store
+     */
+    public static class Received {
+        private final Path temp;
+        public final String sha256;
+        public final long size;
+
+        Received(Path temp, String sha256, long size) {
+            this.temp = temp;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+    }
+}
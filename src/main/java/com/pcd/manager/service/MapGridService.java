@@ -1,5 +1,6 @@
 package com.pcd.manager.service;
 
+import com.pcd.manager.event.MapGridChangeEvent;
 import com.pcd.manager.model.MapGridItem;
 import com.pcd.manager.model.Tool;
 import com.pcd.manager.model.User;
@@ -11,9 +12,14 @@ import com.pcd.manager.repository.LocationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -36,16 +42,22 @@ public class MapGridService {
     private final ToolRepository toolRepository;
     private final UserRepository userRepository;
     private final LocationRepository locationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
     public MapGridService(MapGridItemRepository mapGridItemRepository, 
                         ToolRepository toolRepository,
                         UserRepository userRepository,
-                        LocationRepository locationRepository) {
+                        LocationRepository locationRepository,
+                        JdbcTemplate jdbcTemplate,
+                        ApplicationEventPublisher eventPublisher) {
         this.mapGridItemRepository = mapGridItemRepository;
         this.toolRepository = toolRepository;
         this.userRepository = userRepository;
         this.locationRepository = locationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -120,7 +132,9 @@ public class MapGridService {
             logger.info("Created regular grid item for tool: {} ({})", tool.getName(), tool.getId());
         }
         
-        return mapGridItemRepository.save(gridItem);
+        MapGridItem saved = mapGridItemRepository.save(gridItem);
+        publishChanges(locationId, List.of(MapGridChangeEvent.itemPatch(saved)));
+        return saved;
     }
     
     /**
@@ -148,7 +162,9 @@ public class MapGridService {
         gridItem.setUpdatedBy(user);
         gridItem.setLocation(location); // Set location
         
-        return mapGridItemRepository.save(gridItem);
+        MapGridItem saved = mapGridItemRepository.save(gridItem);
+        publishChanges(locationId, List.of(MapGridChangeEvent.itemPatch(saved)));
+        return saved;
     }
     
     /**
@@ -166,7 +182,10 @@ public class MapGridService {
         gridItem.setY(y);
         gridItem.setUpdatedBy(user);
         
-        return mapGridItemRepository.save(gridItem);
+        // Flush so the version bumped in @PreUpdate is in the live-update patch
+        MapGridItem saved = mapGridItemRepository.saveAndFlush(gridItem);
+        publishChanges(saved.getLocation().getId(), List.of(MapGridChangeEvent.itemPatch(saved)));
+        return saved;
     }
     
     /**
@@ -194,7 +213,9 @@ public class MapGridService {
         gridItem.setIsSolid(isSolid);
         gridItem.setUpdatedBy(user);
         
-        return mapGridItemRepository.save(gridItem);
+        MapGridItem saved = mapGridItemRepository.saveAndFlush(gridItem);
+        publishChanges(saved.getLocation().getId(), List.of(MapGridChangeEvent.itemPatch(saved)));
+        return saved;
     }
     
     /**
@@ -202,7 +223,10 @@ public class MapGridService {
      */
     @Transactional
     public void deleteGridItem(Long id) {
-        mapGridItemRepository.deleteById(id);
+        mapGridItemRepository.findById(id).ifPresent(gridItem -> {
+            mapGridItemRepository.delete(gridItem);
+            publishChanges(gridItem.getLocation().getId(), List.of(MapGridChangeEvent.deletedPatch(id)));
+        });
     }
     
     /**
@@ -320,71 +344,152 @@ public class MapGridService {
     }
     
     /**
-     * Bulk update grid items (for saving map state)
+     * Bulk update grid item geometry (for saving map state).
+     *
+     * The payload is a delta: one entry per moved or resized item with its id, x, y, optional width/height
+     * and the version the editor loaded. Current geometry is read with one query scoped to the location,
+     * unchanged items are dropped, and the rest are written as one JDBC batch of version-checked updates.
+     * Items whose version no longer matches (another editor saved them first) are not written and come
+     * back as conflicts carrying the current server state. Entries without a version are written
+     * unconditionally, as the old full-state payload was.
      */
     @Transactional
-    public void saveMapState(List<Map<String, Object>> gridItemsData, String userEmail, Long locationId) {
+    public MapStateSaveResult saveMapState(List<Map<String, Object>> gridItemsData, String userEmail, Long locationId) {
         User user = userRepository.findByEmailIgnoreCase(userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found with email: " + userEmail));
         
-        Location location = locationRepository.findById(locationId)
-                .orElseThrow(() -> new IllegalArgumentException("Location not found with ID: " + locationId + " for saving map state."));
-                
-        List<MapGridItem> itemsToSave = new ArrayList<>();
+        if (!locationRepository.existsById(locationId)) {
+            throw new IllegalArgumentException("Location not found with ID: " + locationId + " for saving map state.");
+        }
+        
+        Map<Long, Map<String, Object>> changesById = new LinkedHashMap<>();
         for (Map<String, Object> itemData : gridItemsData) {
-            Long id = Long.valueOf(itemData.get("id").toString());
-            MapGridItem gridItem;
-            Optional<MapGridItem> existingItemOpt = mapGridItemRepository.findById(id);
-
-            if (existingItemOpt.isPresent()) {
-                gridItem = existingItemOpt.get();
-                // Ensure it belongs to the correct location, though this should ideally be filtered beforehand
-                if (!gridItem.getLocation().getId().equals(locationId)) {
-                    logger.warn("Attempted to save map state for item ID {} which belongs to location {} but current context is location {}", id, gridItem.getLocation().getId(), locationId);
-                    // Decide on handling: skip, error, or re-associate (re-associating might be dangerous)
-                    continue; // Skip this item if it doesn't belong to the current location context
+            if (itemData.get("id") != null) {
+                changesById.put(Long.valueOf(itemData.get("id").toString()), itemData);
+            }
+        }
+        if (changesById.isEmpty()) {
+            return new MapStateSaveResult(List.of(), List.of(), List.of());
+        }
+        
+        // row: id, x, y, width, height, version
+        Map<Long, Object[]> currentById = new HashMap<>();
+        for (Object[] row : mapGridItemRepository.findGeometryByLocationIdAndIdIn(locationId, changesById.keySet())) {
+            currentById.put((Long) row[0], row);
+        }
+        
+        List<Long> skipped = new ArrayList<>();
+        List<ItemState> conflicts = new ArrayList<>();
+        List<ItemState> pending = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (Map.Entry<Long, Map<String, Object>> entry : changesById.entrySet()) {
+            Long id = entry.getKey();
+            Map<String, Object> itemData = entry.getValue();
+            Object[] current = currentById.get(id);
+            if (current == null) {
+                // Deleted meanwhile, or belongs to another location
+                logger.warn("Skipping map state for grid item {}: not found at location {}", id, locationId);
+                skipped.add(id);
+                continue;
+            }
+            ItemState state = new ItemState(id, (Long) current[5], (Integer) current[1], (Integer) current[2],
+                    (Integer) current[3], (Integer) current[4]);
+            Long expectedVersion = itemData.get("version") != null ? Long.valueOf(itemData.get("version").toString()) : null;
+            if (expectedVersion != null && !expectedVersion.equals(state.version)) {
+                conflicts.add(state);
+                continue;
+            }
+            int x = intValue(itemData.get("x"), state.x);
+            int y = intValue(itemData.get("y"), state.y);
+            int width = intValue(itemData.get("width"), state.width);
+            int height = intValue(itemData.get("height"), state.height);
+            if (x == state.x && y == state.y && width == state.width && height == state.height) {
+                continue;
+            }
+            pending.add(new ItemState(id, state.version + 1, x, y, width, height));
+            batchArgs.add(new Object[] {x, y, width, height, user.getId(), now, id, locationId, state.version});
+        }
+        
+        List<ItemState> updated = new ArrayList<>();
+        if (!batchArgs.isEmpty()) {
+            int[] counts = jdbcTemplate.batchUpdate(
+                    "UPDATE map_grid_items SET x = ?, y = ?, width = ?, height = ?, version = version + 1, " +
+                    "updated_by = ?, updated_date = ? WHERE id = ? AND location_id = ? AND version = ?", batchArgs);
+            List<Long> lostRaces = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    lostRaces.add(pending.get(i).id);
+                } else {
+                    updated.add(pending.get(i));
                 }
-            } else {
-                // This case implies creating a new item from the saveMapState data, which is less common.
-                // If new items are to be created here, ensure all necessary fields are present in itemData.
-                logger.warn("MapGridItem with id {} not found. Creating new item during saveMapState is not fully supported without all fields.", id);
-                // For now, we'll assume saveMapState primarily updates existing, correctly-located items.
-                // If a new item is truly intended, the createToolGridItem or createDrawingGridItem should be used first.
-                // However, if it's just a position update for an item that *should* exist for this location:
-                gridItem = new MapGridItem(); // THIS IS RISKY IF NOT ALL DATA IS PRESENT 
-                gridItem.setId(id); // This will fail if ID is auto-generated or already exists with different data
-                gridItem.setLocation(location);
-                // Need to set type, tool (if tool type), etc. from itemData if creating new
-                // This part needs more robust handling if saveMapState is also for creation.
-                // For now, focusing on updates for items already known to be at this location.
-                // Let's assume for now that `id` in gridItemsData refers to an existing item for THIS location.
-                // If not, `findById` would have been empty, and this block needs robust creation logic.
-                 logger.error("Cannot create a new GridItem during saveMapState without full data and clear intent. Item ID: {}", id);
-                 continue; // Skip if item not found, as creation here is unsafe with partial data
             }
-
-            gridItem.setX((Integer) itemData.get("x"));
-            gridItem.setY((Integer) itemData.get("y"));
-            gridItem.setUpdatedBy(user);
-            gridItem.setLocation(location); // Ensure location is set/re-affirmed
-
-            if (MapGridItem.ItemType.DRAWING.equals(gridItem.getType())) {
-                if (itemData.containsKey("width")) gridItem.setWidth((Integer) itemData.get("width"));
-                if (itemData.containsKey("height")) gridItem.setHeight((Integer) itemData.get("height"));
-                if (itemData.containsKey("text")) gridItem.setText((String) itemData.get("text"));
-                if (itemData.containsKey("color")) gridItem.setColor((String) itemData.get("color"));
-                if (itemData.containsKey("isSolid")) gridItem.setIsSolid((Boolean) itemData.get("isSolid"));
-            } else if (MapGridItem.ItemType.TOOL.equals(gridItem.getType())) {
-                // For tools, width/height might also be updatable if design allows
-                 if (itemData.containsKey("width")) gridItem.setWidth((Integer) itemData.get("width"));
-                if (itemData.containsKey("height")) gridItem.setHeight((Integer) itemData.get("height"));
+            // Changed between our read and the update: report what is there now
+            if (!lostRaces.isEmpty()) {
+                for (Object[] row : mapGridItemRepository.findGeometryByLocationIdAndIdIn(locationId, lostRaces)) {
+                    conflicts.add(new ItemState((Long) row[0], (Long) row[5], (Integer) row[1], (Integer) row[2],
+                            (Integer) row[3], (Integer) row[4]));
+                }
             }
-            itemsToSave.add(gridItem);
         }
         
-        if (!itemsToSave.isEmpty()) {
-            mapGridItemRepository.saveAll(itemsToSave);
+        if (!updated.isEmpty()) {
+            publishChanges(locationId, updated.stream()
+                    .map(state -> MapGridChangeEvent.geometryPatch(state.id, state.version, state.x, state.y, state.width, state.height))
+                    .collect(Collectors.toList()));
+        }
+        
+        logger.info("Map state saved for location {} by {}: {} updated, {} unchanged, {} conflicts, {} skipped",
+                locationId, userEmail, updated.size(), changesById.size() - updated.size() - conflicts.size() - skipped.size(),
+                conflicts.size(), skipped.size());
+        return new MapStateSaveResult(updated, conflicts, skipped);
+    }
+    
+    /**
+     * Announce grid changes to live map viewers; delivered after the surrounding transaction commits
+     */
+    private void publishChanges(Long locationId, List<Map<String, Object>> patches) {
+        eventPublisher.publishEvent(new MapGridChangeEvent(locationId, patches));
+    }
+    
+    private static int intValue(Object value, int fallback) {
+        return value instanceof Number number ? number.intValue() : fallback;
+    }
+    
+    /**
+     * Geometry and version of one grid item
+     */
+    public static class ItemState {
+        public final Long id;
+        public final Long version;
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+        
+        public ItemState(Long id, Long version, int x, int y, int width, int height) {
+            this.id = id;
+            this.version = version;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+    }
+    
+    /**
+     * Outcome of saveMapState: items written (with their new version), items rejected because
+     * another editor changed them first (with the current server state), and ids not found
+     */
+    public static class MapStateSaveResult {
+        public final List<ItemState> updated;
+        public final List<ItemState> conflicts;
+        public final List<Long> skipped;
+        
+        public MapStateSaveResult(List<ItemState> updated, List<ItemState> conflicts, List<Long> skipped) {
+            this.updated = updated;
+            this.conflicts = conflicts;
+            this.skipped = skipped;
         }
-        logger.info("Map state saved for location {} with {} items by user {}", locationId, itemsToSave.size(), userEmail);
     }
-} 
\ No newline at end of file
+}
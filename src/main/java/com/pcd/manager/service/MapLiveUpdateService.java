@@ -0,0 +1,334 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.event.MapGridChangeEvent;
+import com.pcd.manager.model.User;
+import com.pcd.manager.repository.MapGridItemRepository;
+import com.pcd.manager.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes facility-map changes to open dashboards over server-sent events, one channel per location.
+ *
+ * Grid changes (MapGridChangeEvent) and tool status changes are queued per location and coalesced by
+ * item id, so ten drags of the same tool within a tick go out as one patch. Every tick the queue is
+ * handed to each viewer of the location, which keeps its own coalesced backlog and has at most one
+ * write in flight on the live update executor. A viewer that falls more than max-backlog items behind
+ * gets a single "resync" event instead (reload the grid), and one whose write has been stuck longer than
+ * the stall timeout is disconnected; EventSource reconnects and resyncs on its own.
+ */
+@Service
+public class MapLiveUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MapLiveUpdateService.class);
+
+    private final MapGridItemRepository mapGridItemRepository;
+    private final UserRepository userRepository;
+    private final Executor liveUpdateExecutor;
+    private final TransactionTemplate readTransaction;
+
+    private final Map<Long, Set<Subscriber>> subscribersByLocation = new ConcurrentHashMap<>();
+    // locationId -> itemId -> merged patch, swapped out on each tick
+    private final Map<Long, Map<Long, Map<String, Object>>> pendingByLocation = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+
+    @Value("${app.map.live.tick-ms:250}")
+    private long tickMs;
+
+    @Value("${app.map.live.max-backlog:500}")
+    private int maxBacklog;
+
+    @Value("${app.map.live.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+
+    @Value("${app.map.live.heartbeat-ms:25000}")
+    private long heartbeatMs;
+
+    @Value("${app.map.live.stall-timeout-ms:30000}")
+    private long stallTimeoutMs;
+
+    @Autowired
+    public MapLiveUpdateService(MapGridItemRepository mapGridItemRepository,
+                                UserRepository userRepository,
+                                @Qualifier("liveUpdateExecutor") Executor liveUpdateExecutor,
+                                PlatformTransactionManager transactionManager) {
+        this.mapGridItemRepository = mapGridItemRepository;
+        this.userRepository = userRepository;
+        this.liveUpdateExecutor = liveUpdateExecutor;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Map-Live-Ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+        logger.info("Live map updates enabled: tick={}ms, maxBacklog={}", tickMs, maxBacklog);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        subscribersByLocation.values().forEach(subscribers -> subscribers.forEach(Subscriber::close));
+    }
+
+    /**
+     * Location whose map the user sees: active site, else default location; null if neither is set
+     */
+    public Long resolveLocationId(String userEmail) {
+        return readTransaction.execute(status -> {
+            User user = userRepository.findByEmailIgnoreCase(userEmail).orElse(null);
+            if (user == null) {
+                return null;
+            }
+            if (user.getActiveSite() != null) {
+                return user.getActiveSite().getId();
+            }
+            return user.getDefaultLocation() != null ? user.getDefaultLocation().getId() : null;
+        });
+    }
+
+    /**
+     * Opens an event stream for one location's map. Sends "ready" immediately, then "patch" events
+     * (a JSON array of item patches), "resync" when the client should reload the grid, and keep-alives.
+     */
+    public SseEmitter subscribe(Long locationId, String userEmail) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(locationId, userEmail, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        subscribersByLocation.computeIfAbsent(locationId, id -> new CopyOnWriteArraySet<>()).add(subscriber);
+        try {
+            emitter.send(SseEmitter.event().name("ready").data(Map.of("locationId", locationId), MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            subscriber.close();
+        }
+        logger.debug("{} subscribed to live map updates for location {}", userEmail, locationId);
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribersByLocation.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onMapGridChange(MapGridChangeEvent event) {
+        if (hasSubscribers(event.getLocationId())) {
+            enqueue(event.getLocationId(), event.getPatches());
+        }
+    }
+
+    /**
+     * Tool status shows in the map tooltip, so status changes are forwarded to viewers of every
+     * location the tool is placed at
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntityType() != EntityChangeEvent.EntityType.TOOL
+                || event.getChangeType() != EntityChangeEvent.ChangeType.UPDATED
+                || event.getEntityId() == null || subscribersByLocation.isEmpty()) {
+            return;
+        }
+        Long toolId = event.getEntityId();
+        try {
+            List<Object[]> rows = readTransaction.execute(status -> mapGridItemRepository.findPlacementStatusByToolId(toolId));
+            if (rows == null) {
+                return;
+            }
+            // row: id, locationId, status
+            for (Object[] row : rows) {
+                Long locationId = (Long) row[1];
+                if (hasSubscribers(locationId)) {
+                    Map<String, Object> patch = new HashMap<>();
+                    patch.put("id", row[0]);
+                    patch.put("toolId", toolId);
+                    patch.put("status", row[2] != null ? row[2].toString() : null);
+                    enqueue(locationId, List.of(patch));
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not forward status of tool {} to live map viewers: {}", toolId, e.getMessage());
+        }
+    }
+
+    private boolean hasSubscribers(Long locationId) {
+        Set<Subscriber> subscribers = locationId != null ? subscribersByLocation.get(locationId) : null;
+        return subscribers != null && !subscribers.isEmpty();
+    }
+
+    private void enqueue(Long locationId, List<Map<String, Object>> patches) {
+        pendingByLocation.compute(locationId, (id, pending) -> {
+            Map<Long, Map<String, Object>> merged = pending != null ? pending : new LinkedHashMap<>();
+            patches.forEach(patch -> mergePatch(merged, patch));
+            return merged;
+        });
+    }
+
+    /**
+     * Later fields win; a deletion replaces whatever was queued for the item
+     */
+    private static void mergePatch(Map<Long, Map<String, Object>> target, Map<String, Object> patch) {
+        Long id = ((Number) patch.get("id")).longValue();
+        Map<String, Object> existing = target.get(id);
+        if (existing == null || Boolean.TRUE.equals(patch.get("deleted"))) {
+            target.put(id, new HashMap<>(patch));
+        } else if (!Boolean.TRUE.equals(existing.get("deleted"))) {
+            existing.putAll(patch);
+        }
+    }
+
+    private void tick() {
+        try {
+            long now = System.currentTimeMillis();
+            for (Long locationId : pendingByLocation.keySet()) {
+                Map<Long, Map<String, Object>> batch = pendingByLocation.remove(locationId);
+                Set<Subscriber> subscribers = subscribersByLocation.get(locationId);
+                if (batch == null || subscribers == null) {
+                    continue;
+                }
+                subscribers.forEach(subscriber -> subscriber.offer(batch.values()));
+            }
+            subscribersByLocation.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.drain(now)));
+        } catch (Exception e) {
+            logger.error("Live map update tick failed", e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribersByLocation.computeIfPresent(subscriber.locationId, (id, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * One open stream. Backlog, resync flag and in-flight state are guarded by the instance monitor;
+     * the emitter write itself happens outside it on the live update executor.
+     */
+    private class Subscriber {
+        private final Long locationId;
+        private final String userEmail;
+        private final SseEmitter emitter;
+        private final Map<Long, Map<String, Object>> backlog = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean sending;
+        private long sendStartedAt;
+        private long lastSentAt = System.currentTimeMillis();
+        private volatile boolean closed;
+
+        Subscriber(Long locationId, String userEmail, SseEmitter emitter) {
+            this.locationId = locationId;
+            this.userEmail = userEmail;
+            this.emitter = emitter;
+        }
+
+        synchronized void offer(Iterable<Map<String, Object>> patches) {
+            if (closed || resync) {
+                return;
+            }
+            patches.forEach(patch -> mergePatch(backlog, patch));
+            if (backlog.size() > maxBacklog) {
+                backlog.clear();
+                resync = true;
+            }
+        }
+
+        void drain(long now) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (sending) {
+                    if (now - sendStartedAt > stallTimeoutMs) {
+                        logger.warn("Dropping live map client {} at location {}: write stalled for {}ms",
+                                userEmail, locationId, now - sendStartedAt);
+                        close();
+                    }
+                    return;
+                }
+                if (resync) {
+                    event = SseEmitter.event().name("resync").data(Map.of("locationId", locationId), MediaType.APPLICATION_JSON);
+                    resync = false;
+                } else if (!backlog.isEmpty()) {
+                    event = SseEmitter.event().name("patch").data(new ArrayList<>(backlog.values()), MediaType.APPLICATION_JSON);
+                    backlog.clear();
+                } else if (now - lastSentAt >= heartbeatMs) {
+                    event = SseEmitter.event().comment("keep-alive");
+                } else {
+                    return;
+                }
+                sending = true;
+                sendStartedAt = now;
+            }
+            try {
+                liveUpdateExecutor.execute(() -> send(event));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    sending = false;
+                    backlog.clear();
+                    resync = true;
+                }
+            }
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (Exception e) {
+                logger.debug("Live map client {} at location {} went away: {}", userEmail, locationId, e.getMessage());
+                close();
+            } finally {
+                synchronized (this) {
+                    sending = false;
+                    lastSentAt = System.currentTimeMillis();
+                }
+            }
+        }
+
+        void close() {
+            unsubscribe(this);
+            try {
+                emitter.complete();
+            } catch (Exception e) {
+                // Already completed or the connection is gone
+            }
+        }
+    }
+}
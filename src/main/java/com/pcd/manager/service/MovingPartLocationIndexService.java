@@ -0,0 +1,179 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.model.MovingPart;
+import com.pcd.manager.model.MovingPartEndpoint;
+import com.pcd.manager.repository.MovingPartEndpointRepository;
+import com.pcd.manager.repository.MovingPartRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Maintains moving_part_endpoints, the normalized from/to index of moving parts (see MovingPartEndpoint).
+ *
+ * Saved moving parts are re-indexed by MovingPartEndpointListener; parts written before the table
+ * existed (or by SQL outside JPA) are backfilled at startup. Endpoint rows are written with JDBC so
+ * re-indexing during a flush never touches the persistence context.
+ */
+@Service
+public class MovingPartLocationIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MovingPartLocationIndexService.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_ENDPOINT =
+            "INSERT INTO moving_part_endpoints (moving_part_id, role, sort_order, tool_id, custom_location_id, " +
+            "custom_location_name, name_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final MovingPartRepository movingPartRepository;
+    private final MovingPartEndpointRepository movingPartEndpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public MovingPartLocationIndexService(MovingPartRepository movingPartRepository,
+                                          MovingPartEndpointRepository movingPartEndpointRepository,
+                                          JdbcTemplate jdbcTemplate) {
+        this.movingPartRepository = movingPartRepository;
+        this.movingPartEndpointRepository = movingPartEndpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Key custom location names are matched by: trimmed and lower-cased, null when blank
+     */
+    public static String nameKey(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Replace the endpoint rows of one saved moving part
+     */
+    public void reindex(MovingPart movingPart) {
+        jdbcTemplate.update("DELETE FROM moving_part_endpoints WHERE moving_part_id = ?", movingPart.getId());
+        List<Object[]> rows = endpointRows(
+                movingPart.getId(),
+                movingPart.getFromTool() != null ? movingPart.getFromTool().getId() : null,
+                movingPart.getFromCustomLocationEntity() != null ? movingPart.getFromCustomLocationEntity().getId() : null,
+                movingPart.getFromCustomLocationEntity() != null ? movingPart.getFromCustomLocationEntity().getName() : null,
+                movingPart.getFromCustomLocation(),
+                movingPart.getDestinationChain(),
+                movingPart.getToCustomLocationEntity() != null ? movingPart.getToCustomLocationEntity().getId() : null,
+                movingPart.getToCustomLocationEntity() != null ? movingPart.getToCustomLocationEntity().getName() : null,
+                movingPart.getToCustomLocations());
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENDPOINT, rows);
+        }
+    }
+
+    /**
+     * Index moving parts that have no endpoint rows yet, in batches.
+     * Parts with nothing to index (no source or destination at all) are simply read again next time.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        long start = System.currentTimeMillis();
+        // row: id, fromTool.id, fromCustomLocationEntity.id, fromCustomLocationEntity.name, fromCustomLocation,
+        //      destinationChain, toCustomLocationEntity.id, toCustomLocationEntity.name, toCustomLocations
+        List<Object[]> parts = movingPartRepository.findEndpointDataWithoutEndpoints();
+        if (parts.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Object[] part : parts) {
+            rows.addAll(endpointRows((Long) part[0], (Long) part[1], (Long) part[2], (String) part[3], (String) part[4],
+                    (String) part[5], (Long) part[6], (String) part[7], (String) part[8]));
+        }
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(INSERT_ENDPOINT, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+        logger.info("Backfilled {} moving part endpoints for {} moving parts in {}ms",
+                rows.size(), parts.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Rename a custom location in every moving part that refers to it by name (case-insensitive): one
+     * set-based UPDATE each for the sources and the endpoint index, plus one batched rewrite of the
+     * to_custom_locations lists of the destinations the index finds. Bypasses the persistence context:
+     * call it before loading any of the affected moving parts in the same transaction.
+     *
+     * @return number of source and destination references renamed
+     */
+    @Transactional
+    public int renameCustomLocation(String oldName, String newName) {
+        String oldKey = nameKey(oldName);
+        if (oldKey == null || newName == null || newName.isBlank() || oldName.equals(newName)) {
+            return 0;
+        }
+
+        // row: id, toCustomLocations
+        List<Object[]> toParts = movingPartRepository.findToCustomLocationsByEndpointName(MovingPartEndpoint.Role.TO, oldKey);
+        List<Object[]> updates = new ArrayList<>(toParts.size());
+        for (Object[] part : toParts) {
+            List<String> names = MovingPart.parseCustomLocations((String) part[1]);
+            names.replaceAll(name -> oldKey.equals(nameKey(name)) ? newName : name);
+            updates.add(new Object[] {MovingPart.formatCustomLocations(names), part[0]});
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE moving_parts SET to_custom_locations = ? WHERE id = ?", updates);
+        }
+
+        int fromParts = movingPartRepository.renameFromCustomLocation(MovingPartEndpoint.Role.FROM, oldKey, newName);
+        int endpoints = movingPartEndpointRepository.renameCustomLocation(oldKey, newName, nameKey(newName));
+        logger.info("Renamed custom location '{}' to '{}': {} source and {} destination references, {} endpoints",
+                oldName, newName, fromParts, updates.size(), endpoints);
+        return fromParts + updates.size();
+    }
+
+    /**
+     * Endpoint insert parameters for one moving part: its source (sort order 0), then destination-chain
+     * tools and named custom locations in listed order, then the linked destination custom location
+     */
+    static List<Object[]> endpointRows(Long movingPartId, Long fromToolId, Long fromCustomLocationId,
+                                       String fromCustomLocationEntityName, String fromCustomLocation,
+                                       String destinationChain, Long toCustomLocationId,
+                                       String toCustomLocationEntityName, String toCustomLocations) {
+        List<Object[]> rows = new ArrayList<>();
+        String fromKey = nameKey(fromCustomLocation);
+        if (fromToolId != null || fromCustomLocationId != null || fromKey != null) {
+            // Only the text name is matched by name: an entity-linked source matches by id
+            String displayName = fromKey != null ? fromCustomLocation.trim() : fromCustomLocationEntityName;
+            rows.add(row(movingPartId, MovingPartEndpoint.Role.FROM, 0, fromToolId, fromCustomLocationId, displayName, fromKey));
+        }
+        int sortOrder = 1;
+        for (Long toolId : MovingPart.parseDestinationChain(destinationChain)) {
+            if (toolId != null) {
+                rows.add(row(movingPartId, MovingPartEndpoint.Role.TO, sortOrder++, toolId, null, null, null));
+            }
+        }
+        for (String name : MovingPart.parseCustomLocations(toCustomLocations)) {
+            String key = nameKey(name);
+            if (key != null) {
+                rows.add(row(movingPartId, MovingPartEndpoint.Role.TO, sortOrder++, null, null, name.trim(), key));
+            }
+        }
+        if (toCustomLocationId != null) {
+            rows.add(row(movingPartId, MovingPartEndpoint.Role.TO, sortOrder, null, toCustomLocationId,
+                    toCustomLocationEntityName, null));
+        }
+        return rows;
+    }
+
+    private static Object[] row(Long movingPartId, MovingPartEndpoint.Role role, int sortOrder, Long toolId,
+                                Long customLocationId, String customLocationName, String nameKey) {
+        return new Object[] {movingPartId, role.name(), sortOrder, toolId, customLocationId, customLocationName, nameKey};
+    }
+}
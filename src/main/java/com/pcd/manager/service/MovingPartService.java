@@ -16,9 +16,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.Set;
 
 @Service
 public class MovingPartService {
@@ -214,18 +218,52 @@ public class MovingPartService {
     /**
      * Get the destination chain for a moving part
      * @param movingPartId The ID of the moving part
-     * @return List of tools in the destination chain, or empty list if none
+     * @return List of tools in the destination chain, in chain order, or empty list if none
      */
     public List<Tool> getDestinationChainForMovingPart(Long movingPartId) {
-        Optional<MovingPart> movingPartOpt = movingPartRepository.findById(movingPartId);
-        if (movingPartOpt.isPresent()) {
-            MovingPart movingPart = movingPartOpt.get();
+        return movingPartRepository.findById(movingPartId)
+                .map(movingPart -> getDestinationChains(List.of(movingPart)).get(movingPart.getId()))
+                .orElse(List.of());
+    }
+
+    /**
+     * OPTIMIZATION: Resolves the destination chains of many moving parts at once - each chain is parsed
+     * once and every referenced tool is loaded in a single query, instead of one query per moving part
+     * @param movingParts The moving parts to resolve
+     * @return Moving part ID to its destination tools in chain order (tools that no longer exist are skipped)
+     */
+    public Map<Long, List<Tool>> getDestinationChains(List<MovingPart> movingParts) {
+        Map<Long, List<Long>> chainIds = new HashMap<>();
+        Set<Long> toolIds = new LinkedHashSet<>();
+        for (MovingPart movingPart : movingParts) {
             List<Long> destinationIds = movingPart.getDestinationToolIds();
-            if (destinationIds != null && !destinationIds.isEmpty()) {
-                return toolRepository.findAllById(destinationIds);
+            chainIds.put(movingPart.getId(), destinationIds);
+            for (Long toolId : destinationIds) {
+                if (toolId != null) {
+                    toolIds.add(toolId);
+                }
             }
         }
-        return List.of();
+
+        Map<Long, Tool> toolsById = new HashMap<>();
+        if (!toolIds.isEmpty()) {
+            for (Tool tool : toolRepository.findAllById(toolIds)) {
+                toolsById.put(tool.getId(), tool);
+            }
+        }
+
+        Map<Long, List<Tool>> chains = new HashMap<>();
+        chainIds.forEach((movingPartId, destinationIds) -> {
+            List<Tool> chain = new ArrayList<>(destinationIds.size());
+            for (Long toolId : destinationIds) {
+                Tool tool = toolsById.get(toolId);
+                if (tool != null) {
+                    chain.add(tool);
+                }
+            }
+            chains.put(movingPartId, chain);
+        });
+        return chains;
     }
 
     /**
@@ -244,31 +282,4 @@ public class MovingPartService {
         }
         return Optional.empty();
     }
-
-    /**
-     * Get a formatted movement path string for display (e.g., "Tool A → Tool B → Tool C")
-     * @param movingPart The moving part
-     * @return Formatted movement path string
-     */
-    public String getFormattedMovementPath(MovingPart movingPart) {
-        StringBuilder path = new StringBuilder();
-        
-        // Add from tool
-        if (movingPart.getFromTool() != null) {
-            path.append(movingPart.getFromTool().getName());
-        } else {
-            path.append("Unknown");
-        }
-        
-        // Add destination chain
-        List<Long> destinationIds = movingPart.getDestinationToolIds();
-        if (destinationIds != null && !destinationIds.isEmpty()) {
-            List<Tool> destinationTools = toolRepository.findAllById(destinationIds);
-            for (Tool tool : destinationTools) {
-                path.append(" → ").append(tool.getName());
-            }
-        }
-        
-        return path.toString();
-    }
 } 
\ No newline at end of file
@@ -2,8 +2,9 @@ package com.pcd.manager.service;
 
 import com.pcd.manager.model.NCSR;
 import com.pcd.manager.model.Tool;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.pcd.manager.util.StreamingExcelReader;
+import com.pcd.manager.util.StreamingExcelReader.ExcelCell;
+import com.pcd.manager.util.StreamingExcelReader.ExcelRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,30 +72,17 @@ public class NCSRExcelService {
         List<String> headerRow = new ArrayList<>();
         int totalRows = 0;
         
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            // Log workbook info
-            logger.info("Excel Preview - Workbook has {} sheets", workbook.getNumberOfSheets());
-            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
-                Sheet s = workbook.getSheetAt(i);
-                logger.info("  Sheet {}: '{}', Physical rows: {}, Last row num: {}", 
-                    i, s.getSheetName(), s.getPhysicalNumberOfRows(), s.getLastRowNum());
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
+            ExcelRow firstRow = reader.nextSheet() ? reader.nextRow() : null;
+            if (firstRow == null) {
+                throw new IllegalArgumentException("Excel file is empty");
             }
             
-            Sheet sheet = workbook.getSheetAt(0);
-            
             // Log sheet info
-            logger.info("Excel Preview - Using sheet: '{}', Physical rows: {}, Last row num: {}", 
-                sheet.getSheetName(), sheet.getPhysicalNumberOfRows(), sheet.getLastRowNum());
-            
-            Iterator<Row> rowIterator = sheet.iterator();
-            
-            if (!rowIterator.hasNext()) {
-                throw new IllegalArgumentException("Excel file is empty");
-            }
+            logger.info("Excel Preview - Using sheet: '{}'", reader.getSheetName());
             
             // Read header row
-            Row firstRow = rowIterator.next();
-            for (Cell cell : firstRow) {
+            for (ExcelCell cell : firstRow.getCells()) {
                 String header = getCellValueAsString(cell).trim();
                 headerRow.add(header);
             }
@@ -117,14 +105,14 @@ public class NCSRExcelService {
             int skippedEmptyRows = 0;
             int actualRowNum = 1; // Start at 1 (after header at 0)
             
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
+            ExcelRow row;
+            while ((row = reader.nextRow()) != null) {
                 actualRowNum = row.getRowNum(); // Get actual Excel row number
                 
                 // Check if row is empty (skip completely blank rows)
                 boolean isEmptyRow = true;
                 for (int i = 0; i < headerRow.size(); i++) {
-                    Cell cell = row.getCell(i);
+                    ExcelCell cell = row.getCell(i);
                     String value = cell != null ? getCellValueAsString(cell) : "";
                     if (value != null && !value.trim().isEmpty()) {
                         isEmptyRow = false;
@@ -139,7 +127,7 @@ public class NCSRExcelService {
                     if (rowCount < 100) {
                         Map<String, Object> rowMap = new HashMap<>();
                         for (int i = 0; i < headerRow.size(); i++) {
-                            Cell cell = row.getCell(i);
+                            ExcelCell cell = row.getCell(i);
                             String value = cell != null ? getCellValueAsString(cell) : "";
                             rowMap.put(String.valueOf(i), value);
                         }
@@ -172,37 +160,33 @@ public class NCSRExcelService {
         List<NCSR> createdNcsrs = new ArrayList<>();
         List<Map<String, Object>> warnings = new ArrayList<>();
         List<Map<String, Object>> errors = new ArrayList<>();
+        // Tools matched so far, so rows for the same tool share one load
+        Map<Long, Tool> matchedTools = new HashMap<>();
         Map<String, Integer> stats = new HashMap<>();
         stats.put("total", 0);
         stats.put("created", 0);
         stats.put("ignored", 0);
         stats.put("warnings", 0);
         
-        try (Workbook workbook = new XSSFWorkbook(file.getInputStream())) {
-            Sheet sheet = workbook.getSheetAt(0);
-            
-            // Log sheet info
-            logger.info("Excel Import - Sheet name: '{}', Physical rows: {}, Last row num: {}", 
-                sheet.getSheetName(), sheet.getPhysicalNumberOfRows(), sheet.getLastRowNum());
-            
-            Iterator<Row> rowIterator = sheet.iterator();
-            
-            if (!rowIterator.hasNext()) {
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
+            // Skip header row
+            ExcelRow headerRow = reader.nextSheet() ? reader.nextRow() : null;
+            if (headerRow == null) {
                 throw new IllegalArgumentException("Excel file is empty");
             }
             
-            // Skip header row
-            Row headerRow = rowIterator.next();
-            logger.info("Excel Import - Header row has {} cells", headerRow.getPhysicalNumberOfCells());
+            // Log sheet info
+            logger.info("Excel Import - Sheet name: '{}', Header row has {} cells", 
+                reader.getSheetName(), headerRow.getCells().size());
             
             int rowNum = 1;
-            while (rowIterator.hasNext()) {
-                Row row = rowIterator.next();
+            ExcelRow row;
+            while ((row = reader.nextRow()) != null) {
                 rowNum++;
                 
                 // Check if row is completely empty - skip if so
                 boolean isEmptyRow = true;
-                for (Cell cell : row) {
+                for (ExcelCell cell : row.getCells()) {
                     String value = getCellValueAsString(cell);
                     if (value != null && !value.trim().isEmpty()) {
                         isEmptyRow = false;
@@ -247,7 +231,7 @@ public class NCSRExcelService {
                         logger.info("Row {}: Processing {} '{}'", rowNum, matchingSource, matchingValue);
                         
                         // Try to find matching tool
-                        List<Tool> matchingTools = ncsrService.findPotentialToolMatches(matchingValue);
+                        List<Tool> matchingTools = ncsrService.findPotentialToolMatches(matchingValue, matchedTools);
                         
                         if (!matchingTools.isEmpty()) {
                             // Auto-assign to first match
@@ -338,13 +322,13 @@ public class NCSRExcelService {
     /**
      * Parse Excel row to NCSR object
      */
-    private NCSR parseRowToNCSR(Row row, Map<String, String> columnMapping) {
+    private NCSR parseRowToNCSR(ExcelRow row, Map<String, String> columnMapping) {
         NCSR ncsr = new NCSR();
         
         for (Map.Entry<String, String> entry : columnMapping.entrySet()) {
             int colIndex = Integer.parseInt(entry.getKey());
             String fieldName = entry.getValue();
-            Cell cell = row.getCell(colIndex);
+            ExcelCell cell = row.getCell(colIndex);
             String value = cell != null ? getCellValueAsString(cell) : "";
             
             setFieldValue(ncsr, fieldName, value, cell);
@@ -364,7 +348,7 @@ public class NCSRExcelService {
     /**
      * Set field value on NCSR object
      */
-    private void setFieldValue(NCSR ncsr, String fieldName, String value, Cell cell) {
+    private void setFieldValue(NCSR ncsr, String fieldName, String value, ExcelCell cell) {
         if (value == null || value.trim().isEmpty()) {
             return;
         }
@@ -493,7 +477,7 @@ public class NCSRExcelService {
     /**
      * Get cell value as string
      */
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(ExcelCell cell) {
         if (cell == null) {
             return "";
         }
@@ -502,7 +486,7 @@ public class NCSRExcelService {
             case STRING:
                 return cell.getStringCellValue();
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
+                if (cell.isDateFormatted()) {
                     return cell.getLocalDateTimeCellValue().toLocalDate().toString();
                 }
                 return String.valueOf((long) cell.getNumericCellValue());
@@ -518,8 +502,8 @@ public class NCSRExcelService {
     /**
      * Parse date value from cell
      */
-    private LocalDate parseDateValue(Cell cell, String value) {
-        if (cell != null && cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
+    private LocalDate parseDateValue(ExcelCell cell, String value) {
+        if (cell != null && cell.isDateFormatted()) {
             return cell.getLocalDateTimeCellValue().toLocalDate();
         }
         
@@ -30,6 +30,9 @@ public class NCSRService {
     @Autowired
     private LocationService locationService;
     
+    @Autowired
+    private ToolMatchIndexService toolMatchIndexService;
+    
     /**
      * Get all NCSR records
      */
@@ -62,8 +65,9 @@ public class NCSRService {
         List<NCSR> ncsrs = ncsrRepository.findByToolOrMatchingSerialNumbers(toolId, serial1, serial2);
         
         // Auto-assign NCSRs that match but aren't assigned yet
+        Set<String> serialKeys = ToolMatchIndexService.serialKeys(serial1, serial2);
         for (NCSR ncsr : ncsrs) {
-            if (ncsr.getTool() == null && matchesToolSerialNumber(ncsr, tool)) {
+            if (ncsr.getTool() == null && serialKeys.contains(ToolMatchIndexService.normalize(ncsr.getEquipmentNumber()))) {
                 logger.info("Auto-assigning NCSR {} to Tool {} based on Equipment# match", ncsr.getId(), toolId);
                 ncsr.setTool(tool);
                 ncsrRepository.save(ncsr);
@@ -75,137 +79,53 @@ public class NCSRService {
     
     /**
      * Check if NCSR equipment number matches tool serial numbers
+     * (exact, case-insensitive, or the serial's prefix before "-")
      */
     public boolean matchesToolSerialNumber(NCSR ncsr, Tool tool) {
-        String equipNum = ncsr.getEquipmentNumber();
-        if (equipNum == null || equipNum.trim().isEmpty()) {
-            return false;
-        }
-        
-        String serial1 = tool.getSerialNumber1();
-        String serial2 = tool.getSerialNumber2();
-        
-        // Try exact match first
-        if (equipNum.equals(serial1) || equipNum.equals(serial2)) {
-            return true;
-        }
-        
-        // Try case-insensitive match
-        if (equipNum.equalsIgnoreCase(serial1) || equipNum.equalsIgnoreCase(serial2)) {
-            return true;
-        }
-        
-        // Try prefix match (Equipment# is the part before "-")
-        if (serial1 != null && serial1.contains("-")) {
-            String serial1Prefix = serial1.substring(0, serial1.indexOf("-"));
-            if (equipNum.equals(serial1Prefix) || equipNum.equalsIgnoreCase(serial1Prefix)) {
-                return true;
-            }
-        }
-        
-        if (serial2 != null && serial2.contains("-")) {
-            String serial2Prefix = serial2.substring(0, serial2.indexOf("-"));
-            if (equipNum.equals(serial2Prefix) || equipNum.equalsIgnoreCase(serial2Prefix)) {
-                return true;
-            }
-        }
-        
-        return false;
+        String equipNum = ToolMatchIndexService.normalize(ncsr.getEquipmentNumber());
+        return equipNum != null
+            && ToolMatchIndexService.serialKeys(tool.getSerialNumber1(), tool.getSerialNumber2()).contains(equipNum);
     }
     
     /**
      * Find potential tool matches for an NCSR based on equipment number
      */
     public List<Tool> findPotentialToolMatches(String equipmentNumber) {
+        return findPotentialToolMatches(equipmentNumber, new HashMap<>());
+    }
+    
+    /**
+     * Find potential tool matches for an NCSR based on equipment number.
+     * Matches on tool name, secondary name, serial numbers or serial prefix (before "-"), ignoring case,
+     * via the tool match index. Matched tools are loaded once and kept in toolCache, so bulk imports
+     * where many rows point at the same tool do not reload it per row.
+     */
+    public List<Tool> findPotentialToolMatches(String equipmentNumber, Map<Long, Tool> toolCache) {
         if (equipmentNumber == null || equipmentNumber.trim().isEmpty()) {
             logger.debug("Equipment number is null or empty");
             return Collections.emptyList();
         }
         
-        // Clean and normalize equipment number
         String cleanEquipNum = equipmentNumber.trim();
-        logger.info("Looking for tool matches for Equipment#: '{}' (length: {})", cleanEquipNum, cleanEquipNum.length());
+        List<Long> toolIds = toolMatchIndexService.findToolIds(cleanEquipNum);
+        if (toolIds.isEmpty()) {
+            logger.warn("NO MATCHES FOUND for Equipment#: '{}'", cleanEquipNum);
+            return Collections.emptyList();
+        }
         
-        List<Tool> allTools = toolRepository.findAll();
-        logger.info("Searching through {} tools", allTools.size());
+        List<Long> missing = toolIds.stream().filter(id -> !toolCache.containsKey(id)).collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            toolRepository.findAllById(missing).forEach(tool -> toolCache.put(tool.getId(), tool));
+        }
         
         List<Tool> matches = new ArrayList<>();
-        int checkedCount = 0;
-        
-        for (Tool tool : allTools) {
-            String serial1 = tool.getSerialNumber1();
-            String serial2 = tool.getSerialNumber2();
-            String toolName = tool.getName();
-            String secondaryName = tool.getSecondaryName();
-            checkedCount++;
-            
-            // Log first few tools for debugging
-            if (checkedCount <= 5) {
-                logger.debug("Checking tool {}: name='{}', secondaryName='{}', serial1='{}', serial2='{}'", 
-                    tool.getName(), toolName, secondaryName, serial1, serial2);
-            }
-            
-            // Exact match on tool name (e.g., "BT151" matches tool name "BT151")
-            if (toolName != null && cleanEquipNum.equalsIgnoreCase(toolName)) {
-                logger.info("TOOL NAME MATCH FOUND! '{}' matches tool name '{}' (ID: {})", 
-                    cleanEquipNum, tool.getName(), tool.getId());
+        for (Long id : toolIds) {
+            Tool tool = toolCache.get(id);
+            if (tool != null) {
                 matches.add(tool);
-                continue;
-            }
-            
-            // Exact match on secondary name
-            if (secondaryName != null && cleanEquipNum.equalsIgnoreCase(secondaryName)) {
-                logger.info("SECONDARY NAME MATCH FOUND! '{}' matches tool secondary name '{}' on tool '{}' (ID: {})", 
-                    cleanEquipNum, secondaryName, tool.getName(), tool.getId());
-                matches.add(tool);
-                continue;
-            }
-            
-            // Exact match on serial numbers
-            if (cleanEquipNum.equals(serial1) || cleanEquipNum.equals(serial2)) {
-                logger.info("EXACT SERIAL MATCH FOUND! '{}' matches tool '{}' (serial1: '{}', serial2: '{}')", 
-                    cleanEquipNum, tool.getName(), serial1, serial2);
-                matches.add(tool);
-                continue;
-            }
-            
-            // Case-insensitive match on serial numbers
-            if ((serial1 != null && cleanEquipNum.equalsIgnoreCase(serial1)) || 
-                (serial2 != null && cleanEquipNum.equalsIgnoreCase(serial2))) {
-                logger.info("CASE-INSENSITIVE SERIAL MATCH FOUND! '{}' matches tool '{}' (serial1: '{}', serial2: '{}')", 
-                    cleanEquipNum, tool.getName(), serial1, serial2);
-                matches.add(tool);
-                continue;
-            }
-            
-            // Prefix match
-            if (serial1 != null && serial1.contains("-")) {
-                String serial1Prefix = serial1.substring(0, serial1.indexOf("-"));
-                if (cleanEquipNum.equals(serial1Prefix) || cleanEquipNum.equalsIgnoreCase(serial1Prefix)) {
-                    logger.info("PREFIX MATCH FOUND! Equipment# '{}' matches tool '{}' serial1 prefix '{}'", 
-                        cleanEquipNum, tool.getName(), serial1Prefix);
-                    matches.add(tool);
-                    continue;
-                }
-            }
-            
-            if (serial2 != null && serial2.contains("-")) {
-                String serial2Prefix = serial2.substring(0, serial2.indexOf("-"));
-                if (cleanEquipNum.equals(serial2Prefix) || cleanEquipNum.equalsIgnoreCase(serial2Prefix)) {
-                    logger.info("PREFIX MATCH FOUND! Equipment# '{}' matches tool '{}' serial2 prefix '{}'", 
-                        cleanEquipNum, tool.getName(), serial2Prefix);
-                    matches.add(tool);
-                    continue;
-                }
             }
         }
-        
-        if (matches.isEmpty()) {
-            logger.warn("NO MATCHES FOUND for Equipment#: '{}' after checking {} tools", cleanEquipNum, checkedCount);
-        } else {
-            logger.info("Found {} match(es) for Equipment#: '{}'", matches.size(), cleanEquipNum);
-        }
-        
+        logger.info("Found {} match(es) for Equipment#: '{}'", matches.size(), cleanEquipNum);
         return matches;
     }
     
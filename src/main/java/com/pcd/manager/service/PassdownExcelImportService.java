@@ -1,5 +1,6 @@
 package com.pcd.manager.service;
 
+import com.pcd.manager.event.EntityChangeEvent;
 import com.pcd.manager.model.Location;
 import com.pcd.manager.model.Passdown;
 import com.pcd.manager.model.Tool;
@@ -7,16 +8,22 @@ import com.pcd.manager.model.User;
 import com.pcd.manager.repository.PassdownRepository;
 import com.pcd.manager.repository.ToolRepository;
 import com.pcd.manager.repository.UserRepository;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import com.pcd.manager.util.StreamingExcelReader;
+import com.pcd.manager.util.StreamingExcelReader.ExcelCell;
+import com.pcd.manager.util.StreamingExcelReader.ExcelRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -43,6 +50,17 @@ public class PassdownExcelImportService {
     @Autowired
     private PassdownRepository passdownRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Passdowns (and their join rows) inserted per JDBC batch during import
+    private static final int IMPORT_BATCH_SIZE = 500;
+    
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    
     // Regex pattern for extracting tool name (2-4 letters + 3 numbers, e.g., BT151 from BT151D)
     private static final Pattern TOOL_NAME_PATTERN = Pattern.compile("^([A-Z]{2,4}\\d{3})");
     
@@ -57,73 +75,66 @@ public class PassdownExcelImportService {
         logger.info("Starting Excel parse for review. File: {}, Location: {}", 
                    file.getOriginalFilename(), userLocation.getDisplayName());
         
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
-        
         // Sets to track unique items
         Set<String> uniqueToolStrings = new HashSet<>();
         Set<String> uniqueTechInitials = new HashSet<>();
         int totalRows = 0;
         
-        // Process all sheets
-        for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-            Sheet sheet = workbook.getSheetAt(sheetIndex);
-            String sheetName = sheet.getSheetName();
-            logger.info("Processing sheet: {} (index: {})", sheetName, sheetIndex);
-            
-            // Find header row and column indices
-            Row headerRow = findHeaderRow(sheet);
-            if (headerRow == null) {
-                logger.warn("No header row found in sheet: {}", sheetName);
-                continue;
-            }
-            
-            logger.info("Header row found at index: {}, Last row num: {}", headerRow.getRowNum(), sheet.getLastRowNum());
-            
-            Map<String, Integer> columnIndices = mapColumnIndices(headerRow);
-            
-            // Process data rows
-            int rowsProcessedInSheet = 0;
-            int rowsSkippedInSheet = 0;
-            for (int rowIndex = headerRow.getRowNum() + 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) {
-                    rowsSkippedInSheet++;
-                    continue;
-                }
-                if (isRowEmpty(row)) {
-                    rowsSkippedInSheet++;
+        // Process all sheets, one row at a time
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
+            while (reader.nextSheet()) {
+                String sheetName = reader.getSheetName();
+                logger.info("Processing sheet: {} (index: {})", sheetName, reader.getSheetIndex());
+                
+                // Find header row and column indices
+                ExcelRow headerRow = findHeaderRow(reader);
+                if (headerRow == null) {
+                    logger.warn("No header row found in sheet: {}", sheetName);
                     continue;
                 }
                 
-                rowsProcessedInSheet++;
-                totalRows++;
+                logger.info("Header row found at index: {}", headerRow.getRowNum());
                 
-                // Extract tool string
-                String toolString = getCellValueAsString(row, columnIndices.get("tool"));
-                if (toolString != null && !toolString.trim().isEmpty() 
-                    && !toolString.equalsIgnoreCase("Other") && !toolString.equalsIgnoreCase("N/A")) {
-                    uniqueToolStrings.add(toolString.trim());
-                }
+                Map<String, Integer> columnIndices = mapColumnIndices(headerRow);
                 
-                // Extract tech initials
-                String techString = getCellValueAsString(row, columnIndices.get("tech"));
-                if (techString != null && !techString.trim().isEmpty()) {
-                    // Split on multiple delimiters: /, \, ,, &
-                    String[] techParts = techString.split("[/\\\\,&]+");
-                    for (String part : techParts) {
-                        String cleaned = part.trim().toUpperCase();
-                        if (INITIALS_PATTERN.matcher(cleaned).matches()) {
-                            uniqueTechInitials.add(cleaned);
+                // Process data rows
+                int rowsProcessedInSheet = 0;
+                int rowsSkippedInSheet = 0;
+                ExcelRow row;
+                while ((row = reader.nextRow()) != null) {
+                    if (isRowEmpty(row)) {
+                        rowsSkippedInSheet++;
+                        continue;
+                    }
+                    
+                    rowsProcessedInSheet++;
+                    totalRows++;
+                    
+                    // Extract tool string
+                    String toolString = getCellValueAsString(row, columnIndices.get("tool"));
+                    if (toolString != null && !toolString.trim().isEmpty() 
+                        && !toolString.equalsIgnoreCase("Other") && !toolString.equalsIgnoreCase("N/A")) {
+                        uniqueToolStrings.add(toolString.trim());
+                    }
+                    
+                    // Extract tech initials
+                    String techString = getCellValueAsString(row, columnIndices.get("tech"));
+                    if (techString != null && !techString.trim().isEmpty()) {
+                        // Split on multiple delimiters: /, \, ,, &
+                        String[] techParts = techString.split("[/\\\\,&]+");
+                        for (String part : techParts) {
+                            String cleaned = part.trim().toUpperCase();
+                            if (INITIALS_PATTERN.matcher(cleaned).matches()) {
+                                uniqueTechInitials.add(cleaned);
+                            }
                         }
                     }
                 }
+                
+                logger.info("Sheet '{}' - Rows processed: {}, Rows skipped: {}", sheetName, rowsProcessedInSheet, rowsSkippedInSheet);
             }
-            
-            logger.info("Sheet '{}' - Rows processed: {}, Rows skipped: {}", sheetName, rowsProcessedInSheet, rowsSkippedInSheet);
         }
         
-        workbook.close();
-        
         logger.info("Extraction complete. Total rows: {}, Unique tools: {}, Unique techs: {}", 
                    totalRows, uniqueToolStrings.size(), uniqueTechInitials.size());
         
@@ -149,7 +160,6 @@ public class PassdownExcelImportService {
                                                 throws IOException {
         logger.info("Generating preview with confirmed mappings. Location timezone: {}", userLocation.getTimeZone());
         
-        Workbook workbook = new XSSFWorkbook(file.getInputStream());
         Map<String, List<Map<String, Object>>> passdownsByMonth = new LinkedHashMap<>();
         
         // Initialize all 12 months
@@ -161,71 +171,68 @@ public class PassdownExcelImportService {
         int rowCounter = 0;
         List<Map<String, Object>> allEntries = new ArrayList<>(); // Collect all entries first
         
-        // PASS 1: Process all sheets and collect entries
-        for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
-            Sheet sheet = workbook.getSheetAt(sheetIndex);
-            String sheetName = sheet.getSheetName();
-            
-            logger.info("generatePreview - Processing sheet: {} (index: {})", sheetName, sheetIndex);
-            
-            Row headerRow = findHeaderRow(sheet);
-            if (headerRow == null) {
-                logger.warn("generatePreview - No header row found in sheet: {}", sheetName);
-                continue;
-            }
-            
-            logger.info("generatePreview - Header row at index: {}, Last row num: {}", headerRow.getRowNum(), sheet.getLastRowNum());
-            
-            Map<String, Integer> columnIndices = mapColumnIndices(headerRow);
-            
-            // Process data rows
-            int rowsProcessedInSheet = 0;
-            int rowsSkippedInSheet = 0;
-            for (int rowIndex = headerRow.getRowNum() + 1; rowIndex <= sheet.getLastRowNum(); rowIndex++) {
-                Row row = sheet.getRow(rowIndex);
-                if (row == null) {
-                    rowsSkippedInSheet++;
-                    continue;
-                }
-                if (isRowEmpty(row)) {
-                    rowsSkippedInSheet++;
-                    continue;
-                }
-                
-                rowsProcessedInSheet++;
-                rowCounter++;
+        // PASS 1: Process all sheets and collect entries, one row at a time
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
+            while (reader.nextSheet()) {
+                String sheetName = reader.getSheetName();
                 
-                // Extract row data
-                String dateString = getCellValueAsString(row, columnIndices.get("date"));
-                String toolString = getCellValueAsString(row, columnIndices.get("tool"));
-                String taskString = getCellValueAsString(row, columnIndices.get("task"));
-                String techString = getCellValueAsString(row, columnIndices.get("tech"));
+                logger.info("generatePreview - Processing sheet: {} (index: {})", sheetName, reader.getSheetIndex());
                 
-                // Parse date
-                LocalDate passdownDate = parseDate(row, columnIndices.get("date"), userLocation.getTimeZone());
+                ExcelRow headerRow = findHeaderRow(reader);
+                if (headerRow == null) {
+                    logger.warn("generatePreview - No header row found in sheet: {}", sheetName);
+                    continue;
+                }
                 
-                // Resolve tools
-                List<Long> toolIds = resolveTools(toolString, toolMappings);
+                logger.info("generatePreview - Header row at index: {}", headerRow.getRowNum());
                 
-                // Resolve techs
-                List<Long> techIds = resolveTechs(techString, techMappings);
+                Map<String, Integer> columnIndices = mapColumnIndices(headerRow);
                 
-                // Create entry
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("rowId", rowCounter);
-                entry.put("sheetName", sheetName);
-                entry.put("date", passdownDate); // Might be null
-                entry.put("dateString", dateString);
-                entry.put("toolIds", toolIds);
-                entry.put("toolString", toolString);
-                entry.put("task", taskString);
-                entry.put("techIds", techIds);
-                entry.put("techString", techString);
+                // Process data rows
+                int rowsProcessedInSheet = 0;
+                int rowsSkippedInSheet = 0;
+                ExcelRow row;
+                while ((row = reader.nextRow()) != null) {
+                    if (isRowEmpty(row)) {
+                        rowsSkippedInSheet++;
+                        continue;
+                    }
+                    
+                    rowsProcessedInSheet++;
+                    rowCounter++;
+                    
+                    // Extract row data
+                    String dateString = getCellValueAsString(row, columnIndices.get("date"));
+                    String toolString = getCellValueAsString(row, columnIndices.get("tool"));
+                    String taskString = getCellValueAsString(row, columnIndices.get("task"));
+                    String techString = getCellValueAsString(row, columnIndices.get("tech"));
+                    
+                    // Parse date
+                    LocalDate passdownDate = parseDate(row, columnIndices.get("date"), userLocation.getTimeZone());
+                    
+                    // Resolve tools
+                    List<Long> toolIds = resolveTools(toolString, toolMappings);
+                    
+                    // Resolve techs
+                    List<Long> techIds = resolveTechs(techString, techMappings);
+                    
+                    // Create entry
+                    Map<String, Object> entry = new HashMap<>();
+                    entry.put("rowId", rowCounter);
+                    entry.put("sheetName", sheetName);
+                    entry.put("date", passdownDate); // Might be null
+                    entry.put("dateString", dateString);
+                    entry.put("toolIds", toolIds);
+                    entry.put("toolString", toolString);
+                    entry.put("task", taskString);
+                    entry.put("techIds", techIds);
+                    entry.put("techString", techString);
+                    
+                    allEntries.add(entry);
+                }
                 
-                allEntries.add(entry);
+                logger.info("generatePreview - Sheet '{}' - Rows processed: {}, Rows skipped: {}", sheetName, rowsProcessedInSheet, rowsSkippedInSheet);
             }
-            
-            logger.info("generatePreview - Sheet '{}' - Rows processed: {}, Rows skipped: {}", sheetName, rowsProcessedInSheet, rowsSkippedInSheet);
         }
         
         // PASS 2: Infer missing dates from surrounding entries
@@ -255,8 +262,6 @@ public class PassdownExcelImportService {
             }
         }
         
-        workbook.close();
-        
         logger.info("generatePreview - Total passdown entries created: {}", rowCounter);
         
         logger.info("Preview generated. Total entries: {}", rowCounter);
@@ -271,89 +276,36 @@ public class PassdownExcelImportService {
     /**
      * Step 3: Import passdowns into database
      * Uses final edited preview data from user
+     *
+     * Referenced tools and technicians are resolved with one query each, passdowns and their tool/tech
+     * join rows are inserted with JDBC batches of IMPORT_BATCH_SIZE, and each entry's content hash
+     * (date, normalized task, sorted tool ids, sorted tech ids) is checked against the hashes already
+     * stored for the imported date range, so importing the same shift log twice adds nothing. The unique
+     * index on passdowns.content_hash backs this up against a concurrent import of the same rows.
      */
     @Transactional
     public Map<String, Object> importPassdowns(List<Map<String, Object>> finalPassdownData, User creator) {
         logger.info("Importing {} passdowns for user: {}", finalPassdownData.size(), creator.getEmail());
+        long start = System.currentTimeMillis();
         
-        int imported = 0;
         int skipped = 0;
+        int duplicates = 0;
         List<String> errors = new ArrayList<>();
         
+        // Parse entries and collect every referenced id
+        List<ImportEntry> entries = new ArrayList<>();
+        Set<Long> referencedToolIds = new HashSet<>();
+        Set<Long> referencedTechIds = new HashSet<>();
         for (Map<String, Object> entry : finalPassdownData) {
             try {
-                // Parse entry data
                 LocalDate date = LocalDate.parse((String) entry.get("date"));
                 String task = (String) entry.get("task");
-                
-                // Convert toolIds (may come as Integer or Long from JSON)
-                List<Long> toolIds = new ArrayList<>();
-                Object toolIdsObj = entry.get("toolIds");
-                if (toolIdsObj instanceof List) {
-                    for (Object id : (List<?>) toolIdsObj) {
-                        if (id instanceof Number) {
-                            toolIds.add(((Number) id).longValue());
-                        }
-                    }
-                }
-                
-                // Convert techIds (may come as Integer or Long from JSON)
-                List<Long> techIds = new ArrayList<>();
-                Object techIdsObj = entry.get("techIds");
-                if (techIdsObj instanceof List) {
-                    for (Object id : (List<?>) techIdsObj) {
-                        if (id instanceof Number) {
-                            techIds.add(((Number) id).longValue());
-                        }
-                    }
-                }
-                
-                // Check for duplicates (same date, comment, tools, and technicians)
-                // TEMPORARILY DISABLED FOR TESTING
-                /*
-                if (isDuplicate(date, task, toolIds, techIds)) {
-                    logger.info("Skipping duplicate passdown: date={}, task='{}', tools={}, techs={}", date, task, toolIds, techIds);
-                    skipped++;
-                    continue;
-                } else {
-                    logger.debug("Importing passdown: date={}, task='{}', tools={}, techs={}", date, task, toolIds, techIds);
-                }
-                */
-                logger.debug("Importing passdown: date={}, task='{}', tools={}, techs={}", date, task, toolIds, techIds);
-                
-                // Create passdown
-                Passdown passdown = new Passdown();
-                passdown.setDate(date);
-                passdown.setComment(task);
-                passdown.setUser(creator);
-                passdown.setCreatedDate(LocalDateTime.now());
-                
-                // Add tools
-                if (toolIds != null && !toolIds.isEmpty()) {
-                    Set<Tool> tools = new HashSet<>();
-                    for (Long toolId : toolIds) {
-                        toolRepository.findById(toolId).ifPresent(tools::add);
-                    }
-                    passdown.setTools(tools);
-                } else {
-                    passdown.setTools(new HashSet<>());
-                }
-                
-                // Add techs
-                if (techIds != null && !techIds.isEmpty()) {
-                    Set<User> techs = new HashSet<>();
-                    for (Long techId : techIds) {
-                        userRepository.findById(techId).ifPresent(techs::add);
-                    }
-                    passdown.setAssignedTechs(techs);
-                } else {
-                    passdown.setAssignedTechs(new HashSet<>());
-                }
-                
-                // Save passdown
-                passdownRepository.save(passdown);
-                imported++;
-                
+                // Ids may come as Integer or Long from JSON
+                List<Long> toolIds = idList(entry.get("toolIds"));
+                List<Long> techIds = idList(entry.get("techIds"));
+                referencedToolIds.addAll(toolIds);
+                referencedTechIds.addAll(techIds);
+                entries.add(new ImportEntry(date, task, toolIds, techIds));
             } catch (Exception e) {
                 logger.error("Error importing passdown entry: {}", entry, e);
                 errors.add("Row " + entry.get("rowId") + ": " + e.getMessage());
@@ -361,60 +313,181 @@ public class PassdownExcelImportService {
             }
         }
         
-        logger.info("Import complete. Imported: {}, Skipped: {}", imported, skipped);
+        // Unknown ids are dropped, as findById().ifPresent() did per row before
+        Set<Long> knownToolIds = referencedToolIds.isEmpty()
+                ? Set.of() : new HashSet<>(toolRepository.findExistingIds(referencedToolIds));
+        Set<Long> knownTechIds = referencedTechIds.isEmpty()
+                ? Set.of() : new HashSet<>(userRepository.findExistingIds(referencedTechIds));
+        
+        Set<String> existingHashes = new HashSet<>();
+        if (!entries.isEmpty()) {
+            LocalDate from = entries.stream().map(e -> e.date).min(LocalDate::compareTo).get();
+            LocalDate to = entries.stream().map(e -> e.date).max(LocalDate::compareTo).get();
+            hashUnhashedPassdowns(from, to);
+            existingHashes.addAll(passdownRepository.findContentHashesByDateBetween(from, to));
+        }
+        
+        List<ImportEntry> toInsert = new ArrayList<>();
+        for (ImportEntry entry : entries) {
+            entry.toolIds.retainAll(knownToolIds);
+            entry.techIds.retainAll(knownTechIds);
+            entry.contentHash = contentHash(entry.date, entry.task, entry.toolIds, entry.techIds);
+            // add() also catches rows repeated within the same file
+            if (!existingHashes.add(entry.contentHash)) {
+                logger.debug("Skipping duplicate passdown: date={}, task='{}', tools={}, techs={}",
+                        entry.date, entry.task, entry.toolIds, entry.techIds);
+                duplicates++;
+                continue;
+            }
+            toInsert.add(entry);
+        }
+        
+        List<Long> importedIds = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < toInsert.size(); from += IMPORT_BATCH_SIZE) {
+            importedIds.addAll(insertBatch(toInsert.subList(from, Math.min(from + IMPORT_BATCH_SIZE, toInsert.size())), creator, now));
+        }
+        
+        // JDBC inserts bypass the JPA entity listener; announce the new rows after commit like it would
+        for (Long id : importedIds) {
+            eventPublisher.publishEvent(EntityChangeEvent.created(EntityChangeEvent.EntityType.PASSDOWN, id));
+        }
+        
+        logger.info("Import complete in {} ms. Imported: {}, Duplicates: {}, Skipped: {}",
+                System.currentTimeMillis() - start, importedIds.size(), duplicates, skipped);
         
         Map<String, Object> result = new HashMap<>();
-        result.put("imported", imported);
-        result.put("skipped", skipped);
+        result.put("imported", importedIds.size());
+        result.put("skipped", skipped + duplicates);
+        result.put("duplicates", duplicates);
         result.put("errors", errors);
         
         return result;
     }
     
     /**
-     * Check if a passdown is a duplicate
-     * Only mark as duplicate if date, comment, tools AND technicians all match
+     * Identity of a passdown's content for import duplicate detection: SHA-256 over the date, the task with
+     * case and whitespace normalized, and the sorted tool and technician ids
      */
-    private boolean isDuplicate(LocalDate date, String comment, List<Long> toolIds, List<Long> techIds) {
-        if (date == null || comment == null) return false;
-        
-        // Get all passdowns for this date
-        List<Passdown> existing = passdownRepository.findByDateWithUserAndToolOrderByDateDesc(date);
-        
-        // Check for exact match on date, comment, tools, and technicians
-        return existing.stream()
-            .anyMatch(p -> {
-                // Check comment match
-                String existingComment = p.getComment() != null ? p.getComment().trim() : "";
-                if (!comment.trim().equalsIgnoreCase(existingComment)) {
-                    return false;
-                }
-                
-                // Check tools match
-                Set<Long> existingToolIds = p.getTools() != null 
-                    ? p.getTools().stream().map(t -> t.getId()).collect(java.util.stream.Collectors.toSet())
-                    : new HashSet<>();
-                Set<Long> newToolIds = toolIds != null 
-                    ? new HashSet<>(toolIds) 
-                    : new HashSet<>();
-                if (!existingToolIds.equals(newToolIds)) {
-                    return false;
-                }
-                
-                // Check technicians match
-                Set<Long> existingTechIds = p.getAssignedTechs() != null 
-                    ? p.getAssignedTechs().stream().map(u -> u.getId()).collect(java.util.stream.Collectors.toSet())
-                    : new HashSet<>();
-                Set<Long> newTechIds = techIds != null 
-                    ? new HashSet<>(techIds) 
-                    : new HashSet<>();
-                if (!existingTechIds.equals(newTechIds)) {
-                    return false;
+    static String contentHash(LocalDate date, String task, Collection<Long> toolIds, Collection<Long> techIds) {
+        String normalizedTask = task == null ? "" : WHITESPACE.matcher(task.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        String key = date + "\n" + normalizedTask + "\n" + joinSorted(toolIds) + "\n" + joinSorted(techIds);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    /**
+     * Insert one batch of passdowns and their join rows; returns the new ids
+     */
+    private List<Long> insertBatch(List<ImportEntry> batch, User creator, LocalDateTime now) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO passdowns (comment, date, created_date, user_id, content_hash) VALUES (?, ?, ?, ?, ?)",
+                batch.stream()
+                        .map(e -> new Object[] {e.task, e.date, now, creator.getId(), e.contentHash})
+                        .collect(Collectors.toList()));
+        
+        Map<String, Long> idsByHash = new HashMap<>();
+        for (Object[] row : passdownRepository.findIdsByContentHashIn(
+                batch.stream().map(e -> e.contentHash).collect(Collectors.toList()))) {
+            idsByHash.put((String) row[1], (Long) row[0]);
+        }
+        
+        List<Object[]> toolRows = new ArrayList<>();
+        List<Object[]> techRows = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (ImportEntry entry : batch) {
+            Long id = idsByHash.get(entry.contentHash);
+            ids.add(id);
+            for (Long toolId : entry.toolIds) {
+                toolRows.add(new Object[] {id, toolId});
+            }
+            for (Long techId : entry.techIds) {
+                techRows.add(new Object[] {id, techId});
+            }
+        }
+        if (!toolRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO passdown_tools (passdown_id, tool_id) VALUES (?, ?)", toolRows);
+        }
+        if (!techRows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO passdown_techs (passdown_id, user_id) VALUES (?, ?)", techRows);
+        }
+        return ids;
+    }
+    
+    /**
+     * Give passdowns in the import's date range that predate content hashing a hash, so entries typed in
+     * by hand or imported before are recognized. When several rows share the same content (earlier
+     * double imports) only the oldest gets the hash; the unique index allows the others to stay null.
+     */
+    private void hashUnhashedPassdowns(LocalDate from, LocalDate to) {
+        List<Object[]> unhashed = passdownRepository.findUnhashedByDateBetween(from, to);
+        if (unhashed.isEmpty()) {
+            return;
+        }
+        Map<Long, List<Long>> toolIds = groupIds(passdownRepository.findUnhashedToolIdsByDateBetween(from, to));
+        Map<Long, List<Long>> techIds = groupIds(passdownRepository.findUnhashedTechIdsByDateBetween(from, to));
+        Set<String> taken = new HashSet<>(passdownRepository.findContentHashesByDateBetween(from, to));
+        
+        List<Object[]> updates = new ArrayList<>();
+        for (Object[] row : unhashed) {
+            Long id = (Long) row[0];
+            String hash = contentHash((LocalDate) row[1], (String) row[2],
+                    toolIds.getOrDefault(id, List.of()), techIds.getOrDefault(id, List.of()));
+            if (taken.add(hash)) {
+                updates.add(new Object[] {hash, id});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE passdowns SET content_hash = ? WHERE id = ? AND content_hash IS NULL", updates);
+        }
+        logger.info("Recorded content hashes for {} of {} existing passdowns between {} and {}",
+                updates.size(), unhashed.size(), from, to);
+    }
+    
+    private static Map<Long, List<Long>> groupIds(List<Object[]> rows) {
+        Map<Long, List<Long>> grouped = new HashMap<>();
+        for (Object[] row : rows) {
+            grouped.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+        }
+        return grouped;
+    }
+    
+    private static String joinSorted(Collection<Long> ids) {
+        return new TreeSet<>(ids).stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+    
+    private static List<Long> idList(Object value) {
+        List<Long> ids = new ArrayList<>();
+        if (value instanceof List) {
+            for (Object id : (List<?>) value) {
+                if (id instanceof Number) {
+                    ids.add(((Number) id).longValue());
                 }
-                
-                // All fields match - this is a duplicate
-                return true;
-            });
+            }
+        }
+        return ids;
+    }
+    
+    /**
+     * One confirmed row of the import
+     */
+    private static class ImportEntry {
+        final LocalDate date;
+        final String task;
+        final List<Long> toolIds;
+        final List<Long> techIds;
+        String contentHash;
+        
+        ImportEntry(LocalDate date, String task, List<Long> toolIds, List<Long> techIds) {
+            this.date = date;
+            this.task = task;
+            this.toolIds = new ArrayList<>(new LinkedHashSet<>(toolIds));
+            this.techIds = new ArrayList<>(new LinkedHashSet<>(techIds));
+        }
     }
     
     // ========== Helper Methods ==========
@@ -487,10 +560,12 @@ public class PassdownExcelImportService {
     
     /**
      * Find the header row (first row with "Date", "Tool", etc.)
+     * Consumes the sheet's rows up to and including it
      */
-    private Row findHeaderRow(Sheet sheet) {
-        for (Row row : sheet) {
-            for (Cell cell : row) {
+    private ExcelRow findHeaderRow(StreamingExcelReader reader) throws IOException {
+        ExcelRow row;
+        while ((row = reader.nextRow()) != null) {
+            for (ExcelCell cell : row.getCells()) {
                 String value = getCellValueAsString(cell);
                 if (value != null && (value.equalsIgnoreCase("Date") || value.equalsIgnoreCase("Tool"))) {
                     return row;
@@ -504,10 +579,10 @@ public class PassdownExcelImportService {
      * Map column names to indices
      * Supports flexible column names (Date, Tool/Equipment, Task/Issue/Comment, Tech/Technician)
      */
-    private Map<String, Integer> mapColumnIndices(Row headerRow) {
+    private Map<String, Integer> mapColumnIndices(ExcelRow headerRow) {
         Map<String, Integer> indices = new HashMap<>();
         
-        for (Cell cell : headerRow) {
+        for (ExcelCell cell : headerRow.getCells()) {
             String header = getCellValueAsString(cell);
             if (header == null) continue;
             
@@ -531,8 +606,8 @@ public class PassdownExcelImportService {
     /**
      * Check if a row is completely empty
      */
-    private boolean isRowEmpty(Row row) {
-        for (Cell cell : row) {
+    private boolean isRowEmpty(ExcelRow row) {
+        for (ExcelCell cell : row.getCells()) {
             String value = getCellValueAsString(cell);
             if (value != null && !value.trim().isEmpty()) {
                 return false;
@@ -544,20 +619,20 @@ public class PassdownExcelImportService {
     /**
      * Get cell value as string (handles all cell types)
      */
-    private String getCellValueAsString(Row row, Integer columnIndex) {
+    private String getCellValueAsString(ExcelRow row, Integer columnIndex) {
         if (columnIndex == null) return null;
-        Cell cell = row.getCell(columnIndex);
+        ExcelCell cell = row.getCell(columnIndex);
         return getCellValueAsString(cell);
     }
     
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(ExcelCell cell) {
         if (cell == null) return null;
         
         switch (cell.getCellType()) {
             case STRING:
                 return cell.getStringCellValue();
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
+                if (cell.isDateFormatted()) {
                     return cell.getLocalDateTimeCellValue().toLocalDate().toString();
                 } else {
                     return String.valueOf((long) cell.getNumericCellValue());
@@ -574,14 +649,14 @@ public class PassdownExcelImportService {
     /**
      * Parse date from Excel cell, convert to location timezone
      */
-    private LocalDate parseDate(Row row, Integer columnIndex, String timezone) {
+    private LocalDate parseDate(ExcelRow row, Integer columnIndex, String timezone) {
         if (columnIndex == null) return null;
         
-        Cell cell = row.getCell(columnIndex);
+        ExcelCell cell = row.getCell(columnIndex);
         if (cell == null) return null;
         
         try {
-            if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
+            if (cell.isDateFormatted()) {
                 // Excel date as numeric
                 LocalDateTime dateTime = cell.getLocalDateTimeCellValue();
                 ZoneId zoneId = ZoneId.of(timezone != null ? timezone : "America/Phoenix");
@@ -169,6 +169,17 @@ public class PassdownService {
             }
             passdownToSave.setPicturePaths(new HashSet<>());
             passdownToSave.setPictureNames(new HashMap<>());
+            // Only the Excel import records content hashes
+            passdownToSave.setContentHash(null);
+        }
+
+        // An imported passdown whose content was edited no longer matches its recorded hash, which would
+        // skip re-importing the original row. Cleared rather than recomputed because another passdown may
+        // already hold the new content's hash; the next import covering this date hashes it again.
+        if (passdownToSave.getContentHash() != null
+                && !passdownToSave.getContentHash().equals(contentHashOf(passdownToSave))) {
+            logger.debug("Content of passdown ID {} changed, clearing its import content hash", passdownToSave.getId());
+            passdownToSave.setContentHash(null);
         }
 
         passdownToSave.setUser(currentUser);
@@ -221,6 +232,22 @@ public class PassdownService {
         }
     }
     
+    private static String contentHashOf(Passdown passdown) {
+        List<Long> toolIds = new ArrayList<>();
+        if (passdown.getTools() != null) {
+            for (Tool tool : passdown.getTools()) {
+                toolIds.add(tool.getId());
+            }
+        }
+        List<Long> techIds = new ArrayList<>();
+        if (passdown.getAssignedTechs() != null) {
+            for (User tech : passdown.getAssignedTechs()) {
+                techIds.add(tech.getId());
+            }
+        }
+        return PassdownExcelImportService.contentHash(passdown.getDate(), passdown.getComment(), toolIds, techIds);
+    }
+    
     /**
      * Save a passdown entity after updating its document or picture links
      * Used for linking between RMA and Passdown
@@ -0,0 +1,245 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.repository.PassdownRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keyset-paginated passdown timeline, newest first, over a date window (the last
+ * app.passdown.timeline.default-days days unless one is given).
+ * Pages are read as compact rows ordered by (date, id) and the filter facets (authors and tools with
+ * passdown counts) come from grouped queries over the same window, so nothing is lazily loaded while
+ * the list renders, unlike PassdownService.getAllPassdowns.
+ */
+@Service
+public class PassdownTimelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PassdownTimelineService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private final PassdownRepository passdownRepository;
+    private final int defaultWindowDays;
+
+    @Autowired
+    public PassdownTimelineService(PassdownRepository passdownRepository,
+                                   @Value("${app.passdown.timeline.default-days:30}") int defaultWindowDays) {
+        this.passdownRepository = passdownRepository;
+        this.defaultWindowDays = Math.max(1, defaultWindowDays);
+    }
+
+    /**
+     * Load one page of the timeline.
+     *
+     * @param startDate first day of the window; alone it means from that day through today
+     * @param endDate last day of the window; alone it means the default window ending that day
+     * @param userId only passdowns written by this user, or null for everyone
+     * @param toolId only passdowns that include this tool, or null for all tools
+     * @param cursor opaque cursor from the previous page's nextCursor, or null for the first page
+     * @param size requested page size (clamped to 1..MAX_PAGE_SIZE)
+     * @param includeFacets also compute the author and tool facets for the window
+     * @throws IllegalArgumentException if the window is inverted or the cursor cannot be parsed
+     */
+    @Transactional(readOnly = true)
+    public TimelinePage getTimelinePage(LocalDate startDate, LocalDate endDate, Long userId, Long toolId,
+                                        String cursor, Integer size, boolean includeFacets) {
+        long startTime = System.currentTimeMillis();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        LocalDate windowEnd = endDate != null ? endDate : LocalDate.now();
+        LocalDate windowStart = startDate != null ? startDate : windowEnd.minusDays(defaultWindowDays - 1L);
+        if (windowStart.isAfter(windowEnd)) {
+            throw new IllegalArgumentException("startDate must not be after endDate");
+        }
+
+        // First page: everything up to the end of the window
+        LocalDate afterDate = windowEnd.plusDays(1);
+        long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            try {
+                afterDate = LocalDate.parse(decoded.substring(0, separator));
+                afterId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<Object[]> rows = passdownRepository.findTimelinePage(
+                windowStart,
+                windowEnd,
+                userId == null ? 0L : userId,
+                toolId == null ? 0L : toolId,
+                afterDate,
+                afterId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        // Tools, technicians and thumbnails for this page only
+        Map<Long, List<String>> toolNames = new HashMap<>();
+        Map<Long, List<String>> techNames = new HashMap<>();
+        Map<Long, String> picturePaths = new HashMap<>();
+        if (!rows.isEmpty()) {
+            List<Long> ids = new ArrayList<>(rows.size());
+            for (Object[] row : rows) {
+                ids.add((Long) row[0]);
+            }
+            for (Object[] row : passdownRepository.findTimelineToolsByPassdownIds(ids)) {
+                toolNames.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[2]);
+            }
+            for (Object[] row : passdownRepository.findTimelineTechsByPassdownIds(ids)) {
+                techNames.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[2]);
+            }
+            for (Object[] row : passdownRepository.findFirstPicturePathsByPassdownIds(ids)) {
+                picturePaths.put((Long) row[0], (String) row[1]);
+            }
+        }
+
+        List<TimelineEntry> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            items.add(new TimelineEntry(
+                    id,
+                    (LocalDate) row[1],
+                    (LocalDateTime) row[2],
+                    (String) row[3],
+                    (Long) row[4],
+                    (String) row[5],
+                    toolNames.getOrDefault(id, List.of()),
+                    techNames.getOrDefault(id, List.of()),
+                    picturePaths.get(id)));
+        }
+
+        String nextCursor = null;
+        if (hasMore && !items.isEmpty()) {
+            TimelineEntry last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.date + "|" + last.id);
+        }
+
+        List<FacetValue> users = null;
+        List<FacetValue> tools = null;
+        if (includeFacets) {
+            users = facets(passdownRepository.findAuthorFacetsByDateBetween(windowStart, windowEnd));
+            tools = facets(passdownRepository.findToolFacetsByDateBetween(windowStart, windowEnd));
+        }
+
+        logger.debug("Loaded passdown timeline page of {} rows for {}..{} (hasMore={}) in {}ms",
+                items.size(), windowStart, windowEnd, hasMore, System.currentTimeMillis() - startTime);
+        return new TimelinePage(items, nextCursor, hasMore, windowStart, windowEnd, users, tools);
+    }
+
+    private static List<FacetValue> facets(List<Object[]> rows) {
+        List<FacetValue> values = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            values.add(new FacetValue((Long) row[0], (String) row[1], ((Number) row[2]).longValue()));
+        }
+        return values;
+    }
+
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Compact passdown row for the timeline
+     */
+    public static class TimelineEntry {
+        public final Long id;
+        public final LocalDate date;
+        public final LocalDateTime createdDate;
+        public final String comment;
+        public final Long userId;
+        public final String userName;
+        public final List<String> tools;
+        public final List<String> technicians;
+        public final String picturePath;
+
+        public TimelineEntry(Long id, LocalDate date, LocalDateTime createdDate, String comment,
+                             Long userId, String userName, List<String> tools, List<String> technicians,
+                             String picturePath) {
+            this.id = id;
+            this.date = date;
+            this.createdDate = createdDate;
+            this.comment = comment;
+            this.userId = userId;
+            this.userName = userName;
+            this.tools = tools;
+            this.technicians = technicians;
+            this.picturePath = picturePath;
+        }
+    }
+
+    /**
+     * One filter option with the number of passdowns in the window it matches
+     */
+    public static class FacetValue {
+        public final Long id;
+        public final String name;
+        public final long count;
+
+        public FacetValue(Long id, String name, long count) {
+            this.id = id;
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    /**
+     * One page of the timeline, the window it was read from, the cursor for the next page (null on the
+     * last page) and, when requested, the facets for the window
+     */
+    public static class TimelinePage {
+        public final List<TimelineEntry> items;
+        public final String nextCursor;
+        public final boolean hasMore;
+        public final LocalDate startDate;
+        public final LocalDate endDate;
+        public final List<FacetValue> users;
+        public final List<FacetValue> tools;
+
+        public TimelinePage(List<TimelineEntry> items, String nextCursor, boolean hasMore,
+                            LocalDate startDate, LocalDate endDate,
+                            List<FacetValue> users, List<FacetValue> tools) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.users = users;
+            this.tools = tools;
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.model.Location;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.repository.LocationRepository;
+import com.pcd.manager.repository.RmaRepository;
+import com.pcd.manager.repository.ToolRepository;
+import com.pcd.manager.repository.TrackTrendRepository;
+import com.pcd.manager.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Immutable, versioned snapshot of the id/name tuples that detail pages need for their dropdowns
+ * (tools, technicians, locations, RMAs, track/trends), so rendering one RMA no longer hydrates
+ * every Tool, User and Rma entity.
+ *
+ * Every change produces a new Snapshot with a higher version, which doubles as the ETag of
+ * /api/reference-data. Versions start at the boot time in milliseconds so ETags from a previous
+ * run never match. Entity change events patch a single row for updates and deletes; creations
+ * (often bulk imports) mark the section stale and it is re-read once on the next request.
+ */
+@Service
+public class ReferenceDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataService.class);
+
+    private static final Comparator<ToolRef> TOOL_ORDER = Comparator
+            .comparing((ToolRef tool) -> tool.name != null ? tool.name : "", String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(tool -> tool.id);
+    private static final Comparator<UserRef> USER_ORDER = Comparator
+            .comparing((UserRef user) -> user.name != null ? user.name : "", String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(user -> user.id);
+    private static final Comparator<LocationRef> LOCATION_ORDER = Comparator.comparing(location -> location.id);
+    // Same order as RmaService.getAllRmas: newest written date first
+    private static final Comparator<RmaRef> RMA_ORDER = Comparator
+            .comparing((RmaRef rma) -> rma.writtenDate, Comparator.nullsFirst(Comparator.<LocalDate>naturalOrder()))
+            .thenComparing(rma -> rma.id)
+            .reversed();
+    private static final Comparator<TrackTrendRef> TRACK_TREND_ORDER = Comparator
+            .comparing((TrackTrendRef trackTrend) -> trackTrend.name != null ? trackTrend.name : "", String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(trackTrend -> trackTrend.id);
+
+    private enum Section { TOOLS, USERS, LOCATIONS, RMAS, TRACK_TRENDS }
+
+    private final ToolRepository toolRepository;
+    private final UserRepository userRepository;
+    private final LocationRepository locationRepository;
+    private final RmaRepository rmaRepository;
+    private final TrackTrendRepository trackTrendRepository;
+    private final TransactionTemplate readTransaction;
+
+    private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+    private volatile Snapshot snapshot;
+    // Last snapshot built (guarded by this); its fresh sections are reused when snapshot is null
+    private Snapshot lastBuilt;
+    // Sections to re-read before the next snapshot is handed out; guarded by this
+    private final Set<Section> staleSections = EnumSet.noneOf(Section.class);
+
+    @Autowired
+    public ReferenceDataService(ToolRepository toolRepository,
+                                UserRepository userRepository,
+                                LocationRepository locationRepository,
+                                RmaRepository rmaRepository,
+                                TrackTrendRepository trackTrendRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.toolRepository = toolRepository;
+        this.userRepository = userRepository;
+        this.locationRepository = locationRepository;
+        this.rmaRepository = rmaRepository;
+        this.trackTrendRepository = trackTrendRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * The current snapshot, building it (or its stale sections) first if needed
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                long start = System.currentTimeMillis();
+                Snapshot base = lastBuilt;
+                Snapshot built = readTransaction.execute(status -> base == null
+                        ? new Snapshot(versions.incrementAndGet(), loadTools(), loadUsers(), loadLocations(), loadRmas(), loadTrackTrends())
+                        : new Snapshot(versions.incrementAndGet(),
+                                staleSections.contains(Section.TOOLS) ? loadTools() : base.tools,
+                                staleSections.contains(Section.USERS) ? loadUsers() : base.users,
+                                staleSections.contains(Section.LOCATIONS) ? loadLocations() : base.locations,
+                                staleSections.contains(Section.RMAS) ? loadRmas() : base.rmas,
+                                staleSections.contains(Section.TRACK_TRENDS) ? loadTrackTrends() : base.trackTrends));
+                logger.info("Built reference data snapshot v{} (reloaded {}): {} tools, {} users, {} locations, {} RMAs, {} track/trends in {}ms",
+                        built.version, base == null ? "all" : staleSections, built.tools.size(), built.users.size(),
+                        built.locations.size(), built.rmas.size(), built.trackTrends.size(), System.currentTimeMillis() - start);
+                staleSections.clear();
+                lastBuilt = built;
+                snapshot = built;
+            }
+            return snapshot;
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        Section section = switch (event.getEntityType()) {
+            case TOOL -> Section.TOOLS;
+            case USER -> Section.USERS;
+            case LOCATION -> Section.LOCATIONS;
+            case RMA -> Section.RMAS;
+            case TRACK_TREND -> Section.TRACK_TRENDS;
+            default -> null;
+        };
+        if (section == null || event.getEntityId() == null) {
+            return;
+        }
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                // Never built (nothing to do), or already waiting for a rebuild
+                if (lastBuilt != null) {
+                    staleSections.add(section);
+                }
+                return;
+            }
+            try {
+                if (event.getChangeType() == EntityChangeEvent.ChangeType.CREATED) {
+                    markStale(section);
+                } else {
+                    snapshot = patch(current, section, event.getEntityId(),
+                            event.getChangeType() == EntityChangeEvent.ChangeType.DELETED);
+                }
+            } catch (Exception e) {
+                logger.warn("Could not patch reference data for {}, reloading section on next use: {}", event, e.getMessage());
+                markStale(section);
+            }
+        }
+    }
+
+    private void markStale(Section section) {
+        staleSections.add(section);
+        snapshot = null;
+    }
+
+    private Snapshot patch(Snapshot current, Section section, Long id, boolean deleted) {
+        long version = versions.incrementAndGet();
+        Snapshot patched = switch (section) {
+            case TOOLS -> new Snapshot(version, replace(current.tools, id, deleted ? null : toolRepository::findReferenceDataById,
+                    ReferenceDataService::toToolRef, tool -> tool.id, TOOL_ORDER),
+                    current.users, current.locations, current.rmas, current.trackTrends);
+            case USERS -> new Snapshot(version, current.tools, replace(current.users, id,
+                    deleted ? null : userRepository::findReferenceDataById, ReferenceDataService::toUserRef, user -> user.id, USER_ORDER),
+                    current.locations, current.rmas, current.trackTrends);
+            // Locations are few and their display name is computed on the entity, so they are always reloaded
+            case LOCATIONS -> new Snapshot(version, current.tools, current.users,
+                    readTransaction.execute(status -> loadLocations()), current.rmas, current.trackTrends);
+            case RMAS -> new Snapshot(version, current.tools, current.users, current.locations, replace(current.rmas, id,
+                    deleted ? null : rmaRepository::findReferenceDataById, ReferenceDataService::toRmaRef, rma -> rma.id, RMA_ORDER),
+                    current.trackTrends);
+            case TRACK_TRENDS -> new Snapshot(version, current.tools, current.users, current.locations, current.rmas,
+                    replace(current.trackTrends, id, deleted ? null : trackTrendRepository::findReferenceDataById,
+                            ReferenceDataService::toTrackTrendRef, trackTrend -> trackTrend.id, TRACK_TREND_ORDER));
+        };
+        lastBuilt = patched;
+        return patched;
+    }
+
+    /**
+     * Copy of list without the entry for id, plus its re-read row (when loader is given and finds one)
+     */
+    private <T> List<T> replace(List<T> list, Long id, Function<Long, List<Object[]>> loader,
+                                Function<Object[], T> mapper, Function<T, Long> idOf, Comparator<T> order) {
+        List<T> result = new ArrayList<>(list.size() + 1);
+        for (T item : list) {
+            if (!id.equals(idOf.apply(item))) {
+                result.add(item);
+            }
+        }
+        if (loader != null) {
+            List<Object[]> rows = readTransaction.execute(status -> loader.apply(id));
+            if (rows != null && !rows.isEmpty()) {
+                result.add(mapper.apply(rows.get(0)));
+                result.sort(order);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private List<ToolRef> loadTools() {
+        return sorted(toolRepository.findReferenceData(), ReferenceDataService::toToolRef, TOOL_ORDER);
+    }
+
+    private List<UserRef> loadUsers() {
+        return sorted(userRepository.findReferenceData(), ReferenceDataService::toUserRef, USER_ORDER);
+    }
+
+    private List<LocationRef> loadLocations() {
+        List<LocationRef> locations = new ArrayList<>();
+        locationRepository.findAll().forEach(location -> locations.add(toLocationRef(location)));
+        locations.sort(LOCATION_ORDER);
+        return Collections.unmodifiableList(locations);
+    }
+
+    private List<RmaRef> loadRmas() {
+        return sorted(rmaRepository.findReferenceData(), ReferenceDataService::toRmaRef, RMA_ORDER);
+    }
+
+    private List<TrackTrendRef> loadTrackTrends() {
+        return sorted(trackTrendRepository.findReferenceData(), ReferenceDataService::toTrackTrendRef, TRACK_TREND_ORDER);
+    }
+
+    private static <T> List<T> sorted(List<Object[]> rows, Function<Object[], T> mapper, Comparator<T> order) {
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            result.add(mapper.apply(row));
+        }
+        result.sort(order);
+        return Collections.unmodifiableList(result);
+    }
+
+    // row: id, name, secondaryName, toolType, locationName, systemName, equipmentLocation
+    private static ToolRef toToolRef(Object[] row) {
+        return new ToolRef((Long) row[0], (String) row[1], (String) row[2], (Tool.ToolType) row[3],
+                (String) row[4], (String) row[5], (String) row[6]);
+    }
+
+    // row: id, name
+    private static UserRef toUserRef(Object[] row) {
+        return new UserRef((Long) row[0], (String) row[1]);
+    }
+
+    private static LocationRef toLocationRef(Location location) {
+        return new LocationRef(location.getId(), location.getDisplayName());
+    }
+
+    // row: id, referenceNumber, customerName, writtenDate
+    private static RmaRef toRmaRef(Object[] row) {
+        return new RmaRef((Long) row[0], (String) row[1], (String) row[2], (LocalDate) row[3]);
+    }
+
+    // row: id, name
+    private static TrackTrendRef toTrackTrendRef(Object[] row) {
+        return new TrackTrendRef((Long) row[0], (String) row[1]);
+    }
+
+    /**
+     * One immutable version of the reference data; lists are sorted for display
+     */
+    public static class Snapshot {
+        public final long version;
+        public final List<ToolRef> tools;
+        public final List<UserRef> users;
+        public final List<LocationRef> locations;
+        public final List<RmaRef> rmas;
+        public final List<TrackTrendRef> trackTrends;
+
+        public Snapshot(long version, List<ToolRef> tools, List<UserRef> users, List<LocationRef> locations,
+                        List<RmaRef> rmas, List<TrackTrendRef> trackTrends) {
+            this.version = version;
+            this.tools = tools;
+            this.users = users;
+            this.locations = locations;
+            this.rmas = rmas;
+            this.trackTrends = trackTrends;
+        }
+
+        public String getETag() {
+            return "\"ref-" + Long.toHexString(version) + "\"";
+        }
+    }
+
+    public static class ToolRef {
+        public final Long id;
+        public final String name;
+        public final String secondaryName;
+        public final Tool.ToolType toolType;
+        public final String locationName;
+        public final String systemName;
+        public final String equipmentLocation;
+
+        public ToolRef(Long id, String name, String secondaryName, Tool.ToolType toolType, String locationName,
+                       String systemName, String equipmentLocation) {
+            this.id = id;
+            this.name = name;
+            this.secondaryName = secondaryName;
+            this.toolType = toolType;
+            this.locationName = locationName;
+            this.systemName = systemName;
+            this.equipmentLocation = equipmentLocation;
+        }
+    }
+
+    public static class UserRef {
+        public final Long id;
+        public final String name;
+
+        public UserRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+
+    public static class LocationRef {
+        public final Long id;
+        public final String displayName;
+
+        public LocationRef(Long id, String displayName) {
+            this.id = id;
+            this.displayName = displayName;
+        }
+    }
+
+    public static class RmaRef {
+        public final Long id;
+        public final String rmaNumber;
+        public final String customerName;
+        public final LocalDate writtenDate;
+
+        public RmaRef(Long id, String rmaNumber, String customerName, LocalDate writtenDate) {
+            this.id = id;
+            this.rmaNumber = rmaNumber;
+            this.customerName = customerName;
+            this.writtenDate = writtenDate;
+        }
+    }
+
+    public static class TrackTrendRef {
+        public final Long id;
+        public final String name;
+
+        public TrackTrendRef(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
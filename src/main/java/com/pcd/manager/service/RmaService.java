@@ -27,17 +27,21 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
+import com.pcd.manager.event.EntityChangeEvent;
 import org.springframework.web.multipart.MultipartFile;
 import org.hibernate.Hibernate;
 
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Map;
@@ -58,6 +62,7 @@ public class RmaService {
     private final UserRepository userRepository;
     private final MovingPartRepository movingPartRepository;
     private final ReturnAddressService returnAddressService;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final List<String> IMAGE_TYPES = Arrays.asList(
         "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp"
@@ -73,7 +78,8 @@ public class RmaService {
                      RmaCommentRepository rmaCommentRepository,
                      UserRepository userRepository,
                      MovingPartRepository movingPartRepository,
-                     ReturnAddressService returnAddressService) {
+                     ReturnAddressService returnAddressService,
+                     ApplicationEventPublisher eventPublisher) {
         this.rmaRepository = rmaRepository;
         this.rmaPictureRepository = rmaPictureRepository;
         this.rmaDocumentRepository = rmaDocumentRepository;
@@ -84,6 +90,7 @@ public class RmaService {
         this.userRepository = userRepository;
         this.movingPartRepository = movingPartRepository;
         this.returnAddressService = returnAddressService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Cacheable(value = "rma-list", key = "'all-rmas'")
@@ -96,6 +103,53 @@ public class RmaService {
         return rmas;
     }
 
+    /**
+     * Ids of the RMAs to include in the list export, filtered and sorted the way the RMA list page does.
+     * Filters in the query and sorts a six-column projection, so the export never hydrates RMA entities.
+     * Empty statuses means all statuses; a blank sortBy keeps list order.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findRmaIdsForExport(String searchTerm, Set<RmaStatus> statuses, String sortBy, boolean ascending) {
+        boolean matchText = searchTerm != null && !searchTerm.trim().isEmpty();
+        String pattern = "%";
+        if (matchText) {
+            String term = searchTerm.toLowerCase().trim();
+            pattern = "%" + term.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+        }
+        Set<RmaStatus> statusFilter = statuses == null || statuses.isEmpty() ? EnumSet.allOf(RmaStatus.class) : statuses;
+        
+        // row: id, referenceNumber, tool name, customerName, status, writtenDate
+        List<Object[]> rows = rmaRepository.findExportKeys(statusFilter, matchText, pattern);
+        
+        if (sortBy != null && !sortBy.trim().isEmpty()) {
+            Comparator<Object[]> comparator;
+            switch (sortBy.toLowerCase()) {
+                case "rma-number":
+                    comparator = Comparator.comparing(row -> (String) row[1], Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    break;
+                case "tool":
+                    comparator = Comparator.comparing(row -> row[2] != null ? (String) row[2] : "", String.CASE_INSENSITIVE_ORDER);
+                    break;
+                case "status":
+                    comparator = Comparator.comparing(row -> row[4] != null ? ((RmaStatus) row[4]).name() : "");
+                    break;
+                case "customer":
+                    comparator = Comparator.comparing(row -> (String) row[3], Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+                    break;
+                case "date":
+                default:
+                    comparator = Comparator.comparing(row -> (LocalDate) row[5], Comparator.nullsLast(Comparator.naturalOrder()));
+                    break;
+            }
+            if (!ascending) {
+                comparator = comparator.reversed();
+            }
+            rows = rows.stream().sorted(comparator).collect(Collectors.toList());
+        }
+        
+        return rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+    }
+    
     /**
      * Find all RMAs associated with a specific tool
      * 
@@ -179,6 +233,55 @@ public class RmaService {
         return rmaOpt;
     }
 
+    @Transactional(readOnly = true)
+    public boolean rmaExists(Long id) {
+        return rmaRepository.existsById(id);
+    }
+
+    /**
+     * Record files a streamed upload already put in the file store as pictures or documents of an RMA.
+     * Runs after the whole body has been read, so no connection is held while the upload arrives.
+     *
+     * @param asPictures record every file as a picture (otherwise only images are)
+     * @return number of files attached, or -1 when the RMA no longer exists
+     */
+    @Transactional
+    public int attachStoredFiles(Long rmaId, List<StreamingUploadService.FileProgress> files,
+                                 boolean asPictures, User uploadedBy) {
+        Optional<Rma> rmaOpt = rmaRepository.findById(rmaId);
+        if (rmaOpt.isEmpty()) {
+            return -1;
+        }
+        Rma rma = rmaOpt.get();
+        int attached = 0;
+        for (StreamingUploadService.FileProgress file : files) {
+            if (!file.isStored()) {
+                continue;
+            }
+            if (asPictures || file.isImage()) {
+                RmaPicture picture = new RmaPicture();
+                picture.setRma(rma);
+                picture.setFileName(file.originalName);
+                picture.setFilePath(file.getFilePath());
+                picture.setFileType(file.getContentType());
+                picture.setFileSize(file.getSize());
+                picture.setUploadedBy(uploadedBy);
+                rma.getPictures().add(picture);
+            } else {
+                RmaDocument document = new RmaDocument();
+                document.setRma(rma);
+                document.setFileName(file.originalName);
+                document.setFilePath(file.getFilePath());
+                document.setFileType(file.getContentType());
+                document.setFileSize(file.getSize());
+                rma.getDocuments().add(document);
+            }
+            attached++;
+        }
+        logger.info("Attached {} streamed file(s) to RMA {}", attached, rmaId);
+        return attached;
+    }
+
     @Cacheable(value = "rma-details", key = "'counts-' + #id")
     @Transactional(readOnly = true)
     public Map<String, Integer> getRmaCounts(Long id) {
@@ -193,7 +296,6 @@ public class RmaService {
     }
 
     @Transactional
-    @CacheEvict(value = {"rma-list", "rma-details", "dashboard-data"}, allEntries = true)
     public Rma saveRma(Rma rmaToSave, MultipartFile[] fileUploads) {
         try {
             logger.info("=== SAVING RMA WITH FILES ===");
@@ -319,6 +421,8 @@ public class RmaService {
                 logger.info("File processing complete. Success: {}, Errors: {}", successCount, errorCount);
             }
             
+            // Affected-tool (many-to-many) changes don't fire entity callbacks, so report the save here
+            eventPublisher.publishEvent(EntityChangeEvent.updated(EntityChangeEvent.EntityType.RMA, savedRma.getId()));
             return savedRma;
             
         } catch (Exception e) {
@@ -578,7 +682,6 @@ public class RmaService {
     }
 
     @Transactional
-    @CacheEvict(value = {"rma-list", "rma-details", "dashboard-data"}, allEntries = true)
     public void deleteRma(Long id) {
         logger.info("Attempting to delete RMA ID: {}", id);
         Rma rma = getRmaById(id).orElseThrow(() -> new RuntimeException("RMA not found: " + id));
@@ -1791,7 +1894,6 @@ public class RmaService {
      * Add a comment to an RMA
      */
     @Transactional
-    @CacheEvict(value = {"rma-list", "rma-details", "dashboard-data"}, allEntries = true)
     public RmaComment addComment(Long rmaId, String content, String userEmail) {
         Rma rma = rmaRepository.findById(rmaId)
             .orElseThrow(() -> new IllegalArgumentException("RMA not found: " + rmaId));
@@ -1952,7 +2054,6 @@ public class RmaService {
     }
 
     @Transactional
-    @org.springframework.cache.annotation.CacheEvict(value = {"rma-list", "rma-details", "dashboard-data"}, allEntries = true)
     public Rma updateRmaStatus(Long rmaId, RmaStatus newStatus) {
         Rma rma = rmaRepository.findById(rmaId)
             .orElseThrow(() -> new IllegalArgumentException("RMA not found with ID: " + rmaId));
@@ -1967,7 +2068,6 @@ public class RmaService {
     }
     
     @Transactional
-    @org.springframework.cache.annotation.CacheEvict(value = {"rma-list", "rma-details", "dashboard-data"}, allEntries = true)
     public void updateRmaPriority(Long rmaId, RmaPriority newPriority) {
         Rma rma = rmaRepository.findById(rmaId)
             .orElseThrow(() -> new IllegalArgumentException("RMA not found with ID: " + rmaId));
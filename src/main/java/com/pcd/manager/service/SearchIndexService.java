@@ -0,0 +1,719 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.repository.PassdownRepository;
+import com.pcd.manager.repository.RmaCommentRepository;
+import com.pcd.manager.repository.RmaRepository;
+import com.pcd.manager.repository.ToolCommentRepository;
+import com.pcd.manager.repository.ToolRepository;
+import com.pcd.manager.repository.TrackTrendCommentRepository;
+import com.pcd.manager.repository.TrackTrendRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLEncoder;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded Lucene full-text index over tools, RMAs, passdowns, track/trends and the comments on
+ * tools, RMAs and track/trends, served by /api/search.
+ *
+ * Every record and every comment is one document; a comment's document carries its parent's key, so
+ * re-indexing a parent replaces the parent and all of its comments (comment writes arrive as an UPDATE
+ * of the parent). Change events only queue the parent key; the queue is drained on the cache executor,
+ * re-reading each batch of queued records with projection queries, so a 500-row passdown import is a
+ * handful of queries and one index commit. The index lives on disk under app.search.index-dir and is
+ * rebuilt from the database at startup (and on POST /admin/search/rebuild) so writes made while the
+ * application was down are picked up. User renames are not re-indexed until the next rebuild.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Deepest hit a page may reach; ranked results past this are not worth paging to
+    private static final int MAX_RESULT_WINDOW = 1000;
+    private static final int BATCH_SIZE = 500;
+    private static final int SNIPPET_LENGTH = 160;
+    private static final int MAX_SNIPPETS = 2;
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_PARENT = "parent";
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_PARENT_ID = "parentId";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_BODY = "body";
+    private static final String FIELD_AUTHOR = "author";
+    private static final String FIELD_DATE = "date";
+
+    private static final String[] SEARCH_FIELDS = {FIELD_TITLE, FIELD_BODY, FIELD_AUTHOR};
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(FIELD_TITLE, 3f, FIELD_BODY, 1f, FIELD_AUTHOR, 0.5f);
+
+    // A query ending in a plain word also matches words starting with it ("AH15" finds AH151)
+    private static final Pattern TRAILING_WORD = Pattern.compile("[\\p{L}\\p{N}]{2,}$");
+    private static final Pattern QUERY_SYNTAX = Pattern.compile("[+\\-!(){}\\[\\]^\"~*?:\\\\/]|\\b(AND|OR|NOT)\\b");
+
+    /**
+     * Kinds of search result; comments are returned on their own and link to their parent
+     */
+    public enum SearchType {
+        TOOL(EntityChangeEvent.EntityType.TOOL, "/tools/"),
+        RMA(EntityChangeEvent.EntityType.RMA, "/rma/"),
+        PASSDOWN(EntityChangeEvent.EntityType.PASSDOWN, "/passdown/"),
+        TRACK_TREND(EntityChangeEvent.EntityType.TRACK_TREND, "/tracktrend/"),
+        TOOL_COMMENT(EntityChangeEvent.EntityType.TOOL, "/tools/"),
+        RMA_COMMENT(EntityChangeEvent.EntityType.RMA, "/rma/"),
+        TRACK_TREND_COMMENT(EntityChangeEvent.EntityType.TRACK_TREND, "/tracktrend/");
+
+        private final EntityChangeEvent.EntityType parentType;
+        private final String urlPrefix;
+
+        SearchType(EntityChangeEvent.EntityType parentType, String urlPrefix) {
+            this.parentType = parentType;
+            this.urlPrefix = urlPrefix;
+        }
+
+        public EntityChangeEvent.EntityType getParentType() {
+            return parentType;
+        }
+    }
+
+    private static final Set<EntityChangeEvent.EntityType> INDEXED_TYPES = EnumSet.of(
+            EntityChangeEvent.EntityType.TOOL, EntityChangeEvent.EntityType.RMA,
+            EntityChangeEvent.EntityType.PASSDOWN, EntityChangeEvent.EntityType.TRACK_TREND);
+
+    private final ToolRepository toolRepository;
+    private final RmaRepository rmaRepository;
+    private final PassdownRepository passdownRepository;
+    private final TrackTrendRepository trackTrendRepository;
+    private final ToolCommentRepository toolCommentRepository;
+    private final RmaCommentRepository rmaCommentRepository;
+    private final TrackTrendCommentRepository trackTrendCommentRepository;
+    private final Executor cacheExecutor;
+    private final TransactionTemplate readTransaction;
+    private final Analyzer analyzer = new EnglishAnalyzer();
+
+    @Value("${app.search.index-dir:./search-index}")
+    private String indexDir;
+
+    @Value("${app.search.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    private Directory directory;
+    // Replaced only if a failed rebuild has to reopen the writer
+    private volatile IndexWriter writer;
+    private volatile SearcherManager searcherManager;
+    private boolean inMemory;
+
+    // Parent keys ("RMA:12") waiting to be re-indexed
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    // Set from a rebuild request until that rebuild finishes, so repeated requests do not queue rebuilds
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // Held while writing, so a drain never interleaves with a rebuild
+    private final Object writeLock = new Object();
+
+    private final AtomicLong recordsIndexed = new AtomicLong();
+    private final AtomicLong indexFailures = new AtomicLong();
+    private volatile boolean rebuilding;
+    private volatile LocalDateTime lastRebuildAt;
+    private volatile long lastRebuildMs;
+
+    @Autowired
+    public SearchIndexService(ToolRepository toolRepository,
+                              RmaRepository rmaRepository,
+                              PassdownRepository passdownRepository,
+                              TrackTrendRepository trackTrendRepository,
+                              ToolCommentRepository toolCommentRepository,
+                              RmaCommentRepository rmaCommentRepository,
+                              TrackTrendCommentRepository trackTrendCommentRepository,
+                              @Qualifier("cacheExecutor") Executor cacheExecutor,
+                              PlatformTransactionManager transactionManager) {
+        this.toolRepository = toolRepository;
+        this.rmaRepository = rmaRepository;
+        this.passdownRepository = passdownRepository;
+        this.trackTrendRepository = trackTrendRepository;
+        this.toolCommentRepository = toolCommentRepository;
+        this.rmaCommentRepository = rmaCommentRepository;
+        this.trackTrendCommentRepository = trackTrendCommentRepository;
+        this.cacheExecutor = cacheExecutor;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        try {
+            Path path = Paths.get(indexDir).toAbsolutePath().normalize();
+            Files.createDirectories(path);
+            directory = FSDirectory.open(path);
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            logger.info("Opened search index at {} ({} documents)", path, writer.getDocStats().numDocs);
+        } catch (IOException e) {
+            // Another instance holding the lock, or an unwritable directory: search still works per process
+            logger.warn("Could not open search index at {}, using an in-memory index instead: {}", indexDir, e.getMessage());
+            if (directory != null) {
+                directory.close();
+            }
+            directory = new ByteBuffersDirectory();
+            writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+            inMemory = true;
+        }
+        searcherManager = new SearcherManager(writer, null);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            synchronized (writeLock) {
+                searcherManager.close();
+                writer.close();
+                directory.close();
+            }
+        } catch (IOException e) {
+            logger.warn("Error closing search index: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup || inMemory || writer.getDocStats().numDocs == 0) {
+            startRebuild();
+        }
+    }
+
+    /**
+     * Rebuild the index in the background on the cache executor; progress is reported by getStats.
+     * Returns false if a rebuild is already queued or running.
+     */
+    public boolean startRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return false;
+        }
+        cacheExecutor.execute(() -> {
+            try {
+                rebuildQuietly();
+            } finally {
+                rebuildScheduled.set(false);
+            }
+        });
+        return true;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!INDEXED_TYPES.contains(event.getEntityType()) || event.getEntityId() == null) {
+            return;
+        }
+        pending.add(parentKey(event.getEntityType(), event.getEntityId()));
+        if (drainScheduled.compareAndSet(false, true)) {
+            cacheExecutor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Re-read every indexed record from the database and replace the index contents
+     */
+    public void rebuild() throws IOException {
+        synchronized (writeLock) {
+            rebuilding = true;
+            long start = System.currentTimeMillis();
+            try {
+                writer.deleteAll();
+                int records = 0;
+                for (EntityChangeEvent.EntityType type : INDEXED_TYPES) {
+                    List<Long> ids = readTransaction.execute(status -> findAllIds(type));
+                    for (int from = 0; ids != null && from < ids.size(); from += BATCH_SIZE) {
+                        List<Long> batch = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+                        writer.addDocuments(loadDocuments(type, batch).values().stream().flatMap(List::stream).toList());
+                        records += batch.size();
+                    }
+                }
+                writer.commit();
+                searcherManager.maybeRefresh();
+                recordsIndexed.addAndGet(records);
+                lastRebuildAt = LocalDateTime.now();
+                lastRebuildMs = System.currentTimeMillis() - start;
+                logger.info("Rebuilt search index: {} records, {} documents in {}ms",
+                        records, writer.getDocStats().numDocs, lastRebuildMs);
+            } catch (IOException | RuntimeException e) {
+                writer.rollback();
+                // rollback closes the writer; reopen so later updates and searches keep working
+                writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+                searcherManager.close();
+                searcherManager = new SearcherManager(writer, null);
+                throw e;
+            } finally {
+                rebuilding = false;
+            }
+        }
+    }
+
+    /**
+     * Ranked, highlighted hits for a query, page by page (0-based).
+     * Plain words must all match (stemmed, so "leaking" finds "leak"); the last word also matches as a
+     * prefix. Lucene query syntax (quotes, OR, field:value, wildcards) is accepted; unparseable input is
+     * searched as literal text.
+     *
+     * @param types only these kinds of result, or null/empty for all
+     * @throws IllegalArgumentException if the query is blank or the page is beyond the result window
+     */
+    public SearchResults search(String queryText, Collection<SearchType> types, Integer page, Integer size) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new IllegalArgumentException("Query must not be blank");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = page == null ? 0 : page;
+        if (pageNumber < 0 || (long) (pageNumber + 1) * pageSize > MAX_RESULT_WINDOW) {
+            throw new IllegalArgumentException("Page must be between 0 and " + (MAX_RESULT_WINDOW / pageSize - 1));
+        }
+
+        long start = System.currentTimeMillis();
+        String trimmed = queryText.trim();
+        Query textQuery = buildTextQuery(trimmed);
+        Query query = textQuery;
+        if (types != null && !types.isEmpty() && types.size() < SearchType.values().length) {
+            BooleanQuery.Builder typeFilter = new BooleanQuery.Builder();
+            types.forEach(type -> typeFilter.add(new TermQuery(new Term(FIELD_TYPE, type.name())), BooleanClause.Occur.SHOULD));
+            query = new BooleanQuery.Builder()
+                    .add(textQuery, BooleanClause.Occur.MUST)
+                    .add(typeFilter.build(), BooleanClause.Occur.FILTER)
+                    .build();
+        }
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, (pageNumber + 1) * pageSize);
+                int total = searcher.count(query);
+                StoredFields storedFields = searcher.storedFields();
+                Highlighter titleHighlighter = highlighter(textQuery, FIELD_TITLE);
+                Highlighter bodyHighlighter = highlighter(textQuery, FIELD_BODY);
+
+                List<SearchHit> hits = new ArrayList<>(pageSize);
+                ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = pageNumber * pageSize; i < scoreDocs.length; i++) {
+                    Document doc = storedFields.document(scoreDocs[i].doc);
+                    hits.add(toHit(doc, scoreDocs[i].score, titleHighlighter, bodyHighlighter));
+                }
+                logger.debug("Search '{}' matched {} documents, page {} in {}ms",
+                        trimmed, total, pageNumber, System.currentTimeMillis() - start);
+                return new SearchResults(trimmed, pageNumber, pageSize, total,
+                        (long) (pageNumber + 1) * pageSize < Math.min(total, MAX_RESULT_WINDOW), hits);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Search index could not be read", e);
+        }
+    }
+
+    /**
+     * Index size, queue depth and rebuild timings for the admin page
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("indexDir", inMemory ? "(in memory)" : Paths.get(indexDir).toAbsolutePath().normalize().toString());
+        stats.put("documents", writer.getDocStats().numDocs);
+        stats.put("pending", pending.size());
+        stats.put("rebuilding", rebuilding || rebuildScheduled.get());
+        stats.put("recordsIndexed", recordsIndexed.get());
+        stats.put("indexFailures", indexFailures.get());
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("lastRebuildMs", lastRebuildMs);
+        return stats;
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            indexFailures.incrementAndGet();
+            logger.error("Search index rebuild failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private void drain() {
+        synchronized (writeLock) {
+            // Cleared first: anything queued from here on schedules another drain
+            drainScheduled.set(false);
+            List<String> keys = new ArrayList<>(pending);
+            if (keys.isEmpty()) {
+                return;
+            }
+            // Removed before the database is read, so a change committed after this point is queued again
+            pending.removeAll(keys);
+
+            Map<EntityChangeEvent.EntityType, List<Long>> idsByType = new HashMap<>();
+            for (String key : keys) {
+                int separator = key.indexOf(':');
+                idsByType.computeIfAbsent(EntityChangeEvent.EntityType.valueOf(key.substring(0, separator)), k -> new ArrayList<>())
+                        .add(Long.valueOf(key.substring(separator + 1)));
+            }
+            try {
+                for (Map.Entry<EntityChangeEvent.EntityType, List<Long>> entry : idsByType.entrySet()) {
+                    List<Long> ids = entry.getValue();
+                    for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+                        reindex(entry.getKey(), ids.subList(from, Math.min(from + BATCH_SIZE, ids.size())));
+                    }
+                }
+                writer.commit();
+                searcherManager.maybeRefresh();
+                recordsIndexed.addAndGet(keys.size());
+                logger.debug("Re-indexed {} records for search", keys.size());
+            } catch (Exception e) {
+                indexFailures.incrementAndGet();
+                logger.warn("Could not update search index for {} records, rebuilding: {}", keys.size(), e.getMessage());
+                cacheExecutor.execute(this::rebuildQuietly);
+            }
+        }
+    }
+
+    private void reindex(EntityChangeEvent.EntityType type, List<Long> ids) throws IOException {
+        Map<Long, List<Document>> documents = loadDocuments(type, ids);
+        for (Long id : ids) {
+            // Deleted records have no documents and are only removed
+            writer.deleteDocuments(new Term(FIELD_PARENT, parentKey(type, id)));
+            List<Document> docs = documents.get(id);
+            if (docs != null) {
+                writer.addDocuments(docs);
+            }
+        }
+    }
+
+    private List<Long> findAllIds(EntityChangeEvent.EntityType type) {
+        return switch (type) {
+            case TOOL -> toolRepository.findAllIds();
+            case RMA -> rmaRepository.findAllIds();
+            case PASSDOWN -> passdownRepository.findAllIds();
+            case TRACK_TREND -> trackTrendRepository.findAllIds();
+            default -> List.of();
+        };
+    }
+
+    /**
+     * Documents for each existing record among ids (the record first, then its comments)
+     */
+    private Map<Long, List<Document>> loadDocuments(EntityChangeEvent.EntityType type, List<Long> ids) {
+        Map<Long, List<Document>> documents = readTransaction.execute(status -> switch (type) {
+            case TOOL -> loadTools(ids);
+            case RMA -> loadRmas(ids);
+            case PASSDOWN -> loadPassdowns(ids);
+            case TRACK_TREND -> loadTrackTrends(ids);
+            default -> new HashMap<>();
+        });
+        return documents != null ? documents : new HashMap<>();
+    }
+
+    private Map<Long, List<Document>> loadTools(List<Long> ids) {
+        Map<Long, List<Document>> documents = new HashMap<>();
+        Map<Long, String> titles = new HashMap<>();
+        // row: id, name, secondaryName, serialNumber1, serialNumber2, model1, model2, chemicalGasService,
+        //      systemName, equipmentLocation, locationName, notes
+        for (Object[] row : toolRepository.findSearchDataByIds(ids)) {
+            Long id = (Long) row[0];
+            String title = join(" / ", row[1], row[2]);
+            titles.put(id, title);
+            documents.computeIfAbsent(id, k -> new ArrayList<>()).add(document(SearchType.TOOL, id, id, title,
+                    join("\n", row[3], row[4], row[5], row[6], row[7], row[8], row[9], row[10], row[11]), null, null));
+        }
+        // row: tool.id, comment.id, content, createdDate, user.name
+        for (Object[] row : toolCommentRepository.findSearchDataByToolIds(ids)) {
+            addComment(documents, titles, SearchType.TOOL_COMMENT, row);
+        }
+        return documents;
+    }
+
+    private Map<Long, List<Document>> loadRmas(List<Long> ids) {
+        Map<Long, List<Document>> documents = new HashMap<>();
+        Map<Long, String> titles = new HashMap<>();
+        // row: id, referenceNumber, customerName, serialNumber, tool.name, technician, fieldTechName,
+        //      problemDiscoverer, salesOrder, serviceOrder, notes, whatHappened, whyAndHowItHappened,
+        //      howContained, whoContained, instructionsForExposedComponent, writtenDate
+        for (Object[] row : rmaRepository.findSearchDataByIds(ids)) {
+            Long id = (Long) row[0];
+            String reference = row[1] != null ? "RMA " + row[1] : "RMA #" + id;
+            String title = join(" - ", reference, row[2]);
+            titles.put(id, title);
+            documents.computeIfAbsent(id, k -> new ArrayList<>()).add(document(SearchType.RMA, id, id, title,
+                    join("\n", row[3], row[4], row[5], row[6], row[7], row[8], row[9], row[10], row[11], row[12],
+                            row[13], row[14], row[15]),
+                    null, row[16]));
+        }
+        // row: rma.id, comment.id, content, createdDate, user.name
+        for (Object[] row : rmaCommentRepository.findSearchDataByRmaIds(ids)) {
+            addComment(documents, titles, SearchType.RMA_COMMENT, row);
+        }
+        return documents;
+    }
+
+    private Map<Long, List<Document>> loadPassdowns(List<Long> ids) {
+        Map<Long, List<String>> toolNames = new HashMap<>();
+        // row: passdown.id, tool.id, tool.name
+        for (Object[] row : passdownRepository.findTimelineToolsByPassdownIds(ids)) {
+            toolNames.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((String) row[2]);
+        }
+        Map<Long, List<Document>> documents = new HashMap<>();
+        // row: id, date, comment, user.name
+        for (Object[] row : passdownRepository.findSearchDataByIds(ids)) {
+            Long id = (Long) row[0];
+            List<String> tools = toolNames.getOrDefault(id, List.of());
+            String title = "Passdown " + row[1] + (tools.isEmpty() ? "" : " - " + String.join(", ", tools));
+            documents.computeIfAbsent(id, k -> new ArrayList<>()).add(
+                    document(SearchType.PASSDOWN, id, id, title, (String) row[2], (String) row[3], row[1]));
+        }
+        return documents;
+    }
+
+    private Map<Long, List<Document>> loadTrackTrends(List<Long> ids) {
+        Map<Long, List<Document>> documents = new HashMap<>();
+        Map<Long, String> titles = new HashMap<>();
+        // row: id, name, description
+        for (Object[] row : trackTrendRepository.findSearchDataByIds(ids)) {
+            Long id = (Long) row[0];
+            String title = row[1] != null ? (String) row[1] : "Track/Trend #" + id;
+            titles.put(id, title);
+            documents.computeIfAbsent(id, k -> new ArrayList<>()).add(
+                    document(SearchType.TRACK_TREND, id, id, title, (String) row[2], null, null));
+        }
+        // row: trackTrend.id, comment.id, content, createdDate, user.name
+        for (Object[] row : trackTrendCommentRepository.findSearchDataByTrackTrendIds(ids)) {
+            addComment(documents, titles, SearchType.TRACK_TREND_COMMENT, row);
+        }
+        return documents;
+    }
+
+    // row: parent.id, comment.id, content, createdDate, user.name
+    private static void addComment(Map<Long, List<Document>> documents, Map<Long, String> parentTitles,
+                                   SearchType type, Object[] row) {
+        Long parentId = (Long) row[0];
+        List<Document> docs = documents.get(parentId);
+        if (docs == null) {
+            return;
+        }
+        docs.add(document(type, (Long) row[1], parentId, "Comment on " + parentTitles.get(parentId),
+                (String) row[2], (String) row[4], row[3]));
+    }
+
+    private static Document document(SearchType type, Long id, Long parentId, String title, String body,
+                                     String author, Object date) {
+        Document doc = new Document();
+        doc.add(new StringField(FIELD_KEY, type.name() + ":" + id, Field.Store.YES));
+        doc.add(new StringField(FIELD_PARENT, parentKey(type.parentType, parentId), Field.Store.NO));
+        doc.add(new StringField(FIELD_TYPE, type.name(), Field.Store.YES));
+        doc.add(new StoredField(FIELD_ID, id));
+        doc.add(new StoredField(FIELD_PARENT_ID, parentId));
+        doc.add(new TextField(FIELD_TITLE, title != null ? title : "", Field.Store.YES));
+        doc.add(new TextField(FIELD_BODY, body != null ? body : "", Field.Store.YES));
+        if (author != null) {
+            doc.add(new TextField(FIELD_AUTHOR, author, Field.Store.YES));
+        }
+        if (date != null) {
+            doc.add(new StoredField(FIELD_DATE, date.toString()));
+        }
+        return doc;
+    }
+
+    private Query buildTextQuery(String queryText) {
+        Query query = parse(queryText);
+        if (!QUERY_SYNTAX.matcher(queryText).find() && TRAILING_WORD.matcher(queryText).find()) {
+            // Exact matches score on both clauses and rank above prefix-only matches
+            query = new BooleanQuery.Builder()
+                    .add(query, BooleanClause.Occur.SHOULD)
+                    .add(parse(queryText + "*"), BooleanClause.Occur.SHOULD)
+                    .build();
+        }
+        return query;
+    }
+
+    private Query parse(String queryText) {
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, analyzer, FIELD_BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            try {
+                return parser.parse(QueryParser.escape(queryText));
+            } catch (ParseException escaped) {
+                throw new IllegalArgumentException("Query could not be parsed");
+            }
+        }
+    }
+
+    private Highlighter highlighter(Query query, String field) {
+        QueryScorer scorer = new QueryScorer(query, field);
+        Highlighter highlighter = new Highlighter(new SimpleHTMLFormatter("<mark>", "</mark>"), new SimpleHTMLEncoder(), scorer);
+        highlighter.setTextFragmenter(new SimpleSpanFragmenter(scorer, SNIPPET_LENGTH));
+        return highlighter;
+    }
+
+    private SearchHit toHit(Document doc, float score, Highlighter titleHighlighter, Highlighter bodyHighlighter) {
+        SearchType type = SearchType.valueOf(doc.get(FIELD_TYPE));
+        Long id = doc.getField(FIELD_ID).numericValue().longValue();
+        Long parentId = doc.getField(FIELD_PARENT_ID).numericValue().longValue();
+        String title = doc.get(FIELD_TITLE);
+        String body = doc.get(FIELD_BODY);
+
+        String titleHighlight = SimpleHTMLEncoder.htmlEncode(title);
+        List<String> snippets = new ArrayList<>();
+        try {
+            String highlighted = titleHighlighter.getBestFragment(analyzer, FIELD_TITLE, title);
+            if (highlighted != null) {
+                titleHighlight = highlighted;
+            }
+            if (body != null && !body.isEmpty()) {
+                for (String fragment : bodyHighlighter.getBestFragments(analyzer, FIELD_BODY, body, MAX_SNIPPETS)) {
+                    snippets.add(fragment.strip());
+                }
+            }
+        } catch (IOException | InvalidTokenOffsetsException e) {
+            logger.debug("Could not highlight {}: {}", doc.get(FIELD_KEY), e.getMessage());
+        }
+        if (snippets.isEmpty() && body != null && !body.isBlank()) {
+            // Matched on the title or author only: show the start of the text
+            String start = body.length() > SNIPPET_LENGTH ? body.substring(0, SNIPPET_LENGTH) + "..." : body;
+            snippets.add(SimpleHTMLEncoder.htmlEncode(start.strip()));
+        }
+
+        return new SearchHit(type, id, type.parentType, parentId, title, titleHighlight, snippets,
+                doc.get(FIELD_AUTHOR), doc.get(FIELD_DATE), type.urlPrefix + parentId, score);
+    }
+
+    private static String parentKey(EntityChangeEvent.EntityType type, Long id) {
+        return type.name() + ":" + id;
+    }
+
+    private static String join(String separator, Object... values) {
+        StringBuilder joined = new StringBuilder();
+        for (Object value : values) {
+            if (value == null || value.toString().isBlank()) {
+                continue;
+            }
+            if (joined.length() > 0) {
+                joined.append(separator);
+            }
+            joined.append(value.toString().trim());
+        }
+        return joined.toString();
+    }
+
+    /**
+     * One ranked result. titleHighlight and snippets are HTML-escaped with matches wrapped in
+     * &lt;mark&gt;; url is the page of the record (for comments, of the record they belong to).
+     */
+    public static class SearchHit {
+        public final SearchType type;
+        public final Long id;
+        public final EntityChangeEvent.EntityType parentType;
+        public final Long parentId;
+        public final String title;
+        public final String titleHighlight;
+        public final List<String> snippets;
+        public final String author;
+        public final String date;
+        public final String url;
+        public final float score;
+
+        public SearchHit(SearchType type, Long id, EntityChangeEvent.EntityType parentType, Long parentId,
+                         String title, String titleHighlight, List<String> snippets, String author, String date,
+                         String url, float score) {
+            this.type = type;
+            this.id = id;
+            this.parentType = parentType;
+            this.parentId = parentId;
+            this.title = title;
+            this.titleHighlight = titleHighlight;
+            this.snippets = snippets;
+            this.author = author;
+            this.date = date;
+            this.url = url;
+            this.score = score;
+        }
+    }
+
+    /**
+     * One page of hits; total counts every match, hasMore is false past the last page or the result window
+     */
+    public static class SearchResults {
+        public final String query;
+        public final int page;
+        public final int size;
+        public final int total;
+        public final boolean hasMore;
+        public final List<SearchHit> hits;
+
+        public SearchResults(String query, int page, int size, int total, boolean hasMore, List<SearchHit> hits) {
+            this.query = query;
+            this.page = page;
+            this.size = size;
+            this.total = total;
+            this.hasMore = hasMore;
+            this.hits = hits;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.util.SqlStatementCounter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-endpoint SQL statistics collected by SqlMonitoringFilter (empty unless app.sql-monitor.enabled=true).
+ * Keeps a bounded window of recent requests per endpoint for p50/p95 statement and row counts,
+ * and the most recent requests that went over the statement budget.
+ */
+@Service
+public class SqlStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatsService.class);
+
+    private static final int WINDOW_SIZE = 500;
+    private static final int MAX_ENDPOINTS = 500;
+    private static final int MAX_OFFENDERS = 50;
+
+    @Value("${app.sql-monitor.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.sql-monitor.statement-budget:40}")
+    private int statementBudget;
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final Deque<BudgetViolation> recentViolations = new ArrayDeque<>();
+    private volatile long since = System.currentTimeMillis();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getStatementBudget() {
+        return statementBudget;
+    }
+
+    /**
+     * Record one finished request. Returns true when it exceeded the statement budget.
+     */
+    public boolean record(String endpoint, SqlStatementCounter.Scope scope) {
+        EndpointStats stats = endpoints.get(endpoint);
+        if (stats == null) {
+            if (endpoints.size() >= MAX_ENDPOINTS) {
+                endpoint = "OTHER";
+            }
+            stats = endpoints.computeIfAbsent(endpoint, key -> new EndpointStats());
+        }
+        stats.add(scope.getStatementCount(), scope.getRowCount(), scope.getEntityLoadCount());
+
+        if (scope.getStatementCount() <= statementBudget) {
+            return false;
+        }
+        stats.overBudget++;
+        Map.Entry<String, Integer> top = scope.getMostRepeatedStatement();
+        BudgetViolation violation = new BudgetViolation(System.currentTimeMillis(), endpoint,
+                scope.getStatementCount(), scope.getRowCount(), scope.getEntityLoadCount(), scope.getElapsedMillis(),
+                top != null ? top.getKey() : null, top != null ? top.getValue() : 0);
+        synchronized (recentViolations) {
+            recentViolations.addFirst(violation);
+            while (recentViolations.size() > MAX_OFFENDERS) {
+                recentViolations.removeLast();
+            }
+        }
+        logger.warn("{} in {}ms", scope.describe("SQL budget exceeded by " + endpoint, statementBudget),
+                scope.getElapsedMillis());
+        return true;
+    }
+
+    /**
+     * Per-endpoint summaries, worst p95 statement count first
+     */
+    public List<Map<String, Object>> getEndpointStats() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        endpoints.forEach((endpoint, stats) -> result.add(stats.summarize(endpoint)));
+        result.sort(Comparator.comparing((Map<String, Object> row) -> (Integer) row.get("statementsP95")).reversed());
+        return result;
+    }
+
+    public List<BudgetViolation> getRecentViolations() {
+        synchronized (recentViolations) {
+            return new ArrayList<>(recentViolations);
+        }
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public void reset() {
+        endpoints.clear();
+        synchronized (recentViolations) {
+            recentViolations.clear();
+        }
+        since = System.currentTimeMillis();
+        logger.info("Reset SQL statistics");
+    }
+
+    private static int percentile(int[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /**
+     * Ring buffers of the last WINDOW_SIZE requests of one endpoint
+     */
+    private static class EndpointStats {
+        private final int[] statements = new int[WINDOW_SIZE];
+        private final int[] rows = new int[WINDOW_SIZE];
+        private final int[] entityLoads = new int[WINDOW_SIZE];
+        private long requests;
+        private int maxStatements;
+        private long overBudget;
+
+        synchronized void add(int statementCount, long rowCount, int entityLoadCount) {
+            int slot = (int) (requests % WINDOW_SIZE);
+            statements[slot] = statementCount;
+            rows[slot] = (int) Math.min(Integer.MAX_VALUE, rowCount);
+            entityLoads[slot] = entityLoadCount;
+            requests++;
+            maxStatements = Math.max(maxStatements, statementCount);
+        }
+
+        synchronized Map<String, Object> summarize(String endpoint) {
+            int filled = (int) Math.min(requests, WINDOW_SIZE);
+            int[] sortedStatements = Arrays.copyOf(statements, filled);
+            int[] sortedRows = Arrays.copyOf(rows, filled);
+            int[] sortedLoads = Arrays.copyOf(entityLoads, filled);
+            Arrays.sort(sortedStatements);
+            Arrays.sort(sortedRows);
+            Arrays.sort(sortedLoads);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("endpoint", endpoint);
+            summary.put("requests", requests);
+            summary.put("statementsP50", percentile(sortedStatements, 0.50));
+            summary.put("statementsP95", percentile(sortedStatements, 0.95));
+            summary.put("statementsMax", maxStatements);
+            summary.put("rowsP50", percentile(sortedRows, 0.50));
+            summary.put("rowsP95", percentile(sortedRows, 0.95));
+            summary.put("entityLoadsP95", percentile(sortedLoads, 0.95));
+            summary.put("overBudget", overBudget);
+            return summary;
+        }
+    }
+
+    /**
+     * One request that ran more statements than the budget
+     */
+    public static class BudgetViolation {
+        public final long timestamp;
+        public final String endpoint;
+        public final int statements;
+        public final long rows;
+        public final int entityLoads;
+        public final long elapsedMillis;
+        public final String mostRepeatedSql;
+        public final int mostRepeatedCount;
+
+        public BudgetViolation(long timestamp, String endpoint, int statements, long rows, int entityLoads,
+                               long elapsedMillis, String mostRepeatedSql, int mostRepeatedCount) {
+            this.timestamp = timestamp;
+            this.endpoint = endpoint;
+            this.statements = statements;
+            this.rows = rows;
+            this.entityLoads = entityLoads;
+            this.elapsedMillis = elapsedMillis;
+            this.mostRepeatedSql = mostRepeatedSql;
+            this.mostRepeatedCount = mostRepeatedCount;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.util.FileSignatures;
+import com.pcd.manager.util.MultipartStream;
+import com.pcd.manager.util.UploadUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.regex.Pattern;
+
+/**
+ * Reads multipart uploads straight from the request body instead of letting the container buffer every
+ * part to a temp file first. Only for the endpoints listed in WebConfig.STREAMING_UPLOAD_PATHS: the
+ * multipart resolver leaves their body unparsed and they run without open-in-view, so callers must not
+ * load entities before receive() returns.
+ *
+ * Each file part is written once, into the blob store's incoming area, hashed and size-checked as it
+ * arrives; its first bytes must match the signature of its extension or the part is rejected before the
+ * rest is read. Moving the file to its hash path, recording the blob and scheduling thumbnails runs on the
+ * fileExecutor while the next part is read, with at most app.upload.stream.parallelism files being stored
+ * at once across all uploads. Per-file progress is kept by upload id for a few minutes after completion.
+ */
+@Service
+public class StreamingUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingUploadService.class);
+
+    private static final Pattern UPLOAD_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    public enum FileStatus { RECEIVING, STORING, STORED, REJECTED, FAILED }
+
+    private final FileBlobService fileBlobService;
+    private final ThumbnailService thumbnailService;
+    private final Executor fileExecutor;
+    private final Semaphore storePermits;
+    private final long maxFileSize;
+    private final long maxRequestSize;
+    private final Map<String, UploadProgress> uploads = new ConcurrentHashMap<>();
+
+    @Value("${app.upload.stream.progress-retention-minutes:10}")
+    private long progressRetentionMinutes;
+
+    @Autowired
+    public StreamingUploadService(FileBlobService fileBlobService,
+                                  ThumbnailService thumbnailService,
+                                  @Qualifier("fileExecutor") Executor fileExecutor,
+                                  MultipartProperties multipartProperties,
+                                  UploadUtils uploadUtils,
+                                  @Value("${app.upload.stream.parallelism:4}") int parallelism) {
+        this.fileBlobService = fileBlobService;
+        this.thumbnailService = thumbnailService;
+        this.fileExecutor = fileExecutor;
+        this.storePermits = new Semaphore(Math.max(1, parallelism));
+        // The same limits the container would enforce, and UploadUtils' own cap when it is lower
+        long multipartFileLimit = multipartProperties.getMaxFileSize().toBytes();
+        this.maxFileSize = multipartFileLimit > 0
+                ? Math.min(multipartFileLimit, uploadUtils.getMaxFileSize()) : uploadUtils.getMaxFileSize();
+        this.maxRequestSize = multipartProperties.getMaxRequestSize().toBytes();
+    }
+
+    /**
+     * Read every file part of a multipart request into the blob store. Returns when all files are stored or
+     * rejected; files stored before a failure mid-request are still reported (and the failure recorded as
+     * the upload's message) so callers can attach what arrived.
+     *
+     * @param uploadId   client-chosen id for progress polling, or null
+     * @param imagesOnly reject anything that is not a picture
+     * @throws IllegalArgumentException when the request is not multipart/form-data
+     */
+    public UploadProgress receive(HttpServletRequest request, String uploadId, boolean imagesOnly) {
+        String boundary = MultipartStream.boundaryOf(request.getContentType());
+        if (boundary == null) {
+            throw new IllegalArgumentException("Request is not multipart/form-data");
+        }
+        UploadProgress upload = start(uploadId);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        try {
+            long declaredLength = request.getContentLengthLong();
+            if (maxRequestSize > 0 && declaredLength > maxRequestSize) {
+                throw new RequestTooLargeException(maxRequestSize);
+            }
+            MultipartStream parts = new MultipartStream(new RequestInputStream(request.getInputStream(), upload), boundary);
+            MultipartStream.Part part;
+            while ((part = parts.next()) != null) {
+                // An empty filename is a file input with nothing chosen
+                if (!part.isFile() || part.filename.isBlank()) {
+                    continue;
+                }
+                FileProgress file = upload.add(part.filename);
+                String extension = extensionOf(part.filename);
+                if (!FileSignatures.isSupportedExtension(extension)) {
+                    file.finish(FileStatus.REJECTED, "File type not allowed");
+                    continue;
+                }
+                if (imagesOnly && !FileSignatures.isImageExtension(extension)) {
+                    file.finish(FileStatus.REJECTED, "Only image files are allowed");
+                    continue;
+                }
+                FileBlobService.Received received;
+                try {
+                    received = fileBlobService.receive(new CheckedPartInputStream(part.body, extension, file));
+                } catch (UploadRejectedException e) {
+                    if (e instanceof RequestTooLargeException) {
+                        throw e;
+                    }
+                    file.finish(FileStatus.REJECTED, e.getMessage());
+                    continue;
+                }
+                if (received.size == 0) {
+                    fileBlobService.discard(received);
+                    file.finish(FileStatus.REJECTED, "File is empty");
+                    continue;
+                }
+                file.status = FileStatus.STORING;
+                pending.add(storeAsync(received, extension, file));
+            }
+        } catch (IOException e) {
+            upload.message = e instanceof UploadRejectedException ? e.getMessage() : "Upload interrupted: " + e.getMessage();
+            logger.warn("Upload {} stopped early: {}", upload.uploadId, upload.message);
+            for (FileProgress file : upload.files) {
+                if (file.status == FileStatus.RECEIVING) {
+                    file.finish(e instanceof UploadRejectedException ? FileStatus.REJECTED : FileStatus.FAILED, upload.message);
+                }
+            }
+        } finally {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+            upload.completedAt = System.currentTimeMillis();
+        }
+        logger.info("Upload {}: {} of {} files stored, {} bytes received in {} ms", upload.uploadId,
+                upload.storedCount(), upload.files.size(), upload.bytesReceived, upload.completedAt - upload.startedAt);
+        return upload;
+    }
+
+    /**
+     * Progress of a running or recently finished upload, or null
+     */
+    public UploadProgress getProgress(String uploadId) {
+        return uploadId == null ? null : uploads.get(uploadId);
+    }
+
+    private UploadProgress start(String requestedId) {
+        long cutoff = System.currentTimeMillis() - progressRetentionMinutes * 60_000;
+        uploads.values().removeIf(upload -> upload.completedAt > 0 && upload.completedAt < cutoff);
+        String uploadId = requestedId != null && UPLOAD_ID.matcher(requestedId).matches()
+                ? requestedId : UUID.randomUUID().toString();
+        UploadProgress upload = new UploadProgress(uploadId);
+        uploads.put(uploadId, upload);
+        return upload;
+    }
+
+    /**
+     * Store one received file on the fileExecutor; blocks the reading thread while the store is saturated
+     */
+    private CompletableFuture<Void> storeAsync(FileBlobService.Received received, String extension, FileProgress file) {
+        storePermits.acquireUninterruptibly();
+        Runnable task = () -> {
+            try {
+                store(received, extension, file);
+            } finally {
+                storePermits.release();
+            }
+        };
+        try {
+            return CompletableFuture.runAsync(task, fileExecutor);
+        } catch (RejectedExecutionException e) {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private void store(FileBlobService.Received received, String extension, FileProgress file) {
+        try {
+            String filePath = fileBlobService.commit(received, "." + extension);
+            file.filePath = filePath;
+            file.contentType = FileSignatures.contentType(extension);
+            file.finish(FileStatus.STORED, "File uploaded successfully");
+            if (thumbnailService.isSupported(filePath)) {
+                thumbnailService.schedule(filePath);
+            }
+        } catch (IOException | RuntimeException e) {
+            fileBlobService.discard(received);
+            logger.error("Error storing upload {}: {}", file.originalName, e.getMessage(), e);
+            file.finish(FileStatus.FAILED, "Failed to save file: " + e.getMessage());
+        }
+    }
+
+    private static String extensionOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot > 0 ? filename.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * One upload request and its files, readable while it is still running
+     */
+    public static class UploadProgress {
+        public final String uploadId;
+        public final long startedAt = System.currentTimeMillis();
+        public final List<FileProgress> files = new CopyOnWriteArrayList<>();
+        private volatile long bytesReceived;
+        private volatile long completedAt;
+        private volatile String message;
+
+        UploadProgress(String uploadId) {
+            this.uploadId = uploadId;
+        }
+
+        FileProgress add(String originalName) {
+            FileProgress file = new FileProgress(originalName);
+            files.add(file);
+            return file;
+        }
+
+        public boolean isComplete() {
+            return completedAt > 0;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public long storedCount() {
+            return files.stream().filter(FileProgress::isStored).count();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("uploadId", uploadId);
+            map.put("complete", isComplete());
+            map.put("bytesReceived", bytesReceived);
+            map.put("message", message);
+            List<Map<String, Object>> fileMaps = new ArrayList<>();
+            for (FileProgress file : files) {
+                fileMaps.add(file.toMap());
+            }
+            map.put("files", fileMaps);
+            return map;
+        }
+    }
+
+    /**
+     * One file of an upload; fields are written by the reading thread and then by the storing task
+     */
+    public static class FileProgress {
+        public final String originalName;
+        private volatile long bytesReceived;
+        private volatile FileStatus status = FileStatus.RECEIVING;
+        private volatile String message;
+        private volatile String filePath;
+        private volatile String contentType;
+
+        FileProgress(String originalName) {
+            this.originalName = originalName;
+        }
+
+        void finish(FileStatus status, String message) {
+            this.message = message;
+            this.status = status;
+        }
+
+        public boolean isStored() {
+            return status == FileStatus.STORED;
+        }
+
+        public boolean isImage() {
+            return contentType != null && contentType.startsWith("image/");
+        }
+
+        public long getSize() {
+            return bytesReceived;
+        }
+
+        public FileStatus getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("originalName", originalName);
+            map.put("bytesReceived", bytesReceived);
+            map.put("status", status);
+            map.put("message", message);
+            map.put("filePath", filePath);
+            return map;
+        }
+    }
+
+    private static class UploadRejectedException extends IOException {
+        UploadRejectedException(String message) {
+            super(message);
+        }
+    }
+
+    private static class RequestTooLargeException extends UploadRejectedException {
+        RequestTooLargeException(long limit) {
+            super("Upload exceeds the maximum request size of " + megabytes(limit));
+        }
+    }
+
+    private static String megabytes(long bytes) {
+        return bytes % (1024 * 1024) == 0 ? bytes / (1024 * 1024) + "MB" : bytes + " bytes";
+    }
+
+    /**
+     * Whole request body: counts bytes for progress and enforces the request size limit
+     */
+    private class RequestInputStream extends FilterInputStream {
+        private final UploadProgress upload;
+        private long count;
+
+        RequestInputStream(InputStream in, UploadProgress upload) {
+            super(in);
+            this.upload = upload;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+                upload.bytesReceived = count;
+                if (maxRequestSize > 0 && count > maxRequestSize) {
+                    throw new RequestTooLargeException(maxRequestSize);
+                }
+            }
+            return read;
+        }
+    }
+
+    /**
+     * One file part: checks the leading bytes against the extension, enforces the per-file limit and
+     * records bytes received
+     */
+    private class CheckedPartInputStream extends FilterInputStream {
+        private final String extension;
+        private final FileProgress file;
+        private final byte[] head = new byte[FileSignatures.HEAD_LENGTH];
+        private int headLength;
+        private boolean checked;
+        private long count;
+
+        CheckedPartInputStream(InputStream in, String extension, FileProgress file) {
+            super(in);
+            this.extension = extension;
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read < 0) {
+                if (!checked && headLength > 0) {
+                    check();
+                }
+                return read;
+            }
+            count += read;
+            file.bytesReceived = count;
+            if (count > maxFileSize) {
+                throw new UploadRejectedException("File exceeds the maximum size of " + megabytes(maxFileSize));
+            }
+            if (!checked) {
+                int copied = Math.min(read, head.length - headLength);
+                System.arraycopy(buffer, offset, head, headLength, copied);
+                headLength += copied;
+                if (headLength == head.length) {
+                    check();
+                }
+            }
+            return read;
+        }
+
+        private void check() throws UploadRejectedException {
+            checked = true;
+            if (!FileSignatures.matches(extension, head, headLength)) {
+                String detected = FileSignatures.detect(head, headLength);
+                throw new UploadRejectedException("File content does not match its ." + extension + " extension"
+                        + (detected != null ? " (looks like " + detected + ")" : ""));
+            }
+        }
+    }
+}
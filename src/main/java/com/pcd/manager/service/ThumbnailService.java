@@ -0,0 +1,561 @@
+package com.pcd.manager.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Generates downscaled JPEG thumbnails of uploaded pictures on the fileExecutor.
+ *
+ * Thumbnails sit next to the original as {@code <original name>.<content hash>.<size>.jpg}, where the hash is
+ * the first 16 hex digits of the original's SHA-256 and size is the longest edge in pixels. EXIF orientation
+ * is applied to the pixels and no metadata is written, so thumbnails are upright and carry no EXIF (camera,
+ * GPS). Uploads are scheduled as they are saved; pictures that predate this, or were saved some other way,
+ * are picked up on their first thumbnail request or by {@link #startBackfill()}.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final Pattern THUMBNAIL_NAME = Pattern.compile("(.+)\\.([0-9a-f]{16})\\.(\\d+)\\.jpg");
+    private static final Set<String> SOURCE_EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "bmp");
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    private final Executor fileExecutor;
+    private final Path baseUploadPath;
+    private final int[] sizes;
+
+    // Original file -> content hash of its generated thumbnails; filled on generation and on first lookup
+    private final Map<Path, String> hashesByOriginal = new ConcurrentHashMap<>();
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    // Originals that could not be decoded; not retried on request until the next backfill
+    private final Set<Path> undecodable = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong unsupported = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    private final AtomicBoolean backfillRunning = new AtomicBoolean();
+    private volatile Map<String, Object> lastBackfill = Map.of();
+
+    @Value("${app.thumbnails.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    @Value("${app.thumbnails.max-queued:16}")
+    private int maxQueued;
+
+    @Autowired
+    public ThumbnailService(@Qualifier("fileExecutor") Executor fileExecutor,
+                            @Value("${app.upload.dir:${user.home}/uploads}") String uploadDir,
+                            @Value("${app.thumbnails.sizes:160,640}") int[] sizes) {
+        this.fileExecutor = fileExecutor;
+        this.baseUploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.sizes = Arrays.stream(sizes).filter(size -> size > 0).sorted().distinct().toArray();
+    }
+
+    public boolean isSupported(String fileName) {
+        return fileName != null && SOURCE_EXTENSIONS.contains(extension(fileName))
+                && !THUMBNAIL_NAME.matcher(fileName).matches();
+    }
+
+    /**
+     * Queue thumbnail generation for an upload (path relative to the upload directory). Requests for a file
+     * already queued, or while max-queued files are waiting, are dropped.
+     */
+    public void schedule(String relativePath) {
+        Path original = baseUploadPath.resolve(relativePath.replace('\\', '/')).normalize();
+        if (original.startsWith(baseUploadPath)) {
+            schedule(original);
+        }
+    }
+
+    private void schedule(Path original) {
+        if (sizes.length == 0 || !isSupported(original.getFileName().toString()) || undecodable.contains(original)) {
+            return;
+        }
+        // Past this the backfill or a later request picks the picture up, rather than piling onto the executor
+        if (inFlight.size() >= maxQueued || !inFlight.add(original)) {
+            return;
+        }
+        try {
+            fileExecutor.execute(() -> {
+                try {
+                    // Stored content is shared, so a repeated upload may already have its thumbnails
+                    if (!hasAllSizes(original)) {
+                        generate(original);
+                    }
+                } finally {
+                    inFlight.remove(original);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(original);
+            logger.warn("Could not queue thumbnails for {}: {}", original, e.getMessage());
+        }
+    }
+
+    /**
+     * The thumbnail for a resolved original that best fits the requested size: the smallest configured
+     * size at least as large, else the largest. Returns null and queues generation when it does not exist yet.
+     */
+    public Path findThumbnail(Path original, int requestedSize) {
+        if (sizes.length == 0 || !isSupported(original.getFileName().toString())) {
+            return null;
+        }
+        int size = sizes[sizes.length - 1];
+        for (int candidate : sizes) {
+            if (candidate >= requestedSize) {
+                size = candidate;
+                break;
+            }
+        }
+        String hash = hashesByOriginal.get(original);
+        if (hash == null) {
+            hash = findExistingHash(original);
+            if (hash == null) {
+                schedule(original);
+                return null;
+            }
+            hashesByOriginal.put(original, hash);
+        }
+        Path thumbnail = thumbnailPath(original, hash, size);
+        if (Files.isRegularFile(thumbnail)) {
+            return thumbnail;
+        }
+        // Sizes changed since generation, or the thumbnail was removed
+        hashesByOriginal.remove(original);
+        schedule(original);
+        return null;
+    }
+
+    /**
+     * Remove the thumbnails of an original that is being deleted
+     */
+    public void deleteThumbnails(Path original) {
+        hashesByOriginal.remove(original);
+        for (Path thumbnail : listThumbnails(original)) {
+            try {
+                Files.deleteIfExists(thumbnail);
+            } catch (IOException e) {
+                logger.warn("Could not delete thumbnail {}: {}", thumbnail, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Start generating missing thumbnails for every picture under the upload directory, one at a time on a
+     * single fileExecutor thread, and delete thumbnails whose original is gone. Returns false when a backfill
+     * is already running.
+     */
+    public boolean startBackfill() {
+        if (!backfillRunning.compareAndSet(false, true)) {
+            return false;
+        }
+        undecodable.clear();
+        Map<String, Object> progress = new ConcurrentHashMap<>();
+        progress.put("running", true);
+        progress.put("startedAt", System.currentTimeMillis());
+        lastBackfill = progress;
+        try {
+            fileExecutor.execute(() -> {
+                try {
+                    runBackfill(progress);
+                } finally {
+                    progress.put("running", false);
+                    progress.put("finishedAt", System.currentTimeMillis());
+                    backfillRunning.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            backfillRunning.set(false);
+            progress.put("running", false);
+            progress.put("error", e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long count = generated.get();
+        stats.put("sizes", sizes);
+        stats.put("generated", count);
+        stats.put("failed", failed.get());
+        stats.put("unsupported", unsupported.get());
+        stats.put("queued", inFlight.size());
+        stats.put("avgMillis", count == 0 ? 0 : totalMillis.get() / count);
+        stats.put("maxMillis", maxMillis.get());
+        stats.put("backfill", new HashMap<>(lastBackfill));
+        return stats;
+    }
+
+    private void runBackfill(Map<String, Object> progress) {
+        AtomicLong scanned = new AtomicLong();
+        AtomicLong created = new AtomicLong();
+        AtomicLong upToDate = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicLong orphansRemoved = new AtomicLong();
+        logger.info("Thumbnail backfill started under {}", baseUploadPath);
+        try (Stream<Path> files = Files.walk(baseUploadPath)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                String name = file.getFileName().toString();
+                Matcher thumbnail = THUMBNAIL_NAME.matcher(name);
+                if (thumbnail.matches()) {
+                    if (!Files.exists(file.resolveSibling(thumbnail.group(1)))) {
+                        try {
+                            Files.deleteIfExists(file);
+                            orphansRemoved.incrementAndGet();
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                } else if (isSupported(name)) {
+                    scanned.incrementAndGet();
+                    if (hasAllSizes(file)) {
+                        upToDate.incrementAndGet();
+                    } else if (generate(file)) {
+                        created.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+                progress.put("scanned", scanned.get());
+                progress.put("generated", created.get());
+                progress.put("upToDate", upToDate.get());
+                progress.put("errors", errors.get());
+                progress.put("orphansRemoved", orphansRemoved.get());
+            });
+        } catch (IOException | RuntimeException e) {
+            logger.error("Thumbnail backfill failed: {}", e.getMessage(), e);
+            progress.put("error", String.valueOf(e.getMessage()));
+        }
+        logger.info("Thumbnail backfill finished: {} pictures scanned, {} generated, {} up to date, {} errors, {} orphans removed",
+                scanned.get(), created.get(), upToDate.get(), errors.get(), orphansRemoved.get());
+    }
+
+    private boolean hasAllSizes(Path original) {
+        String hash = findExistingHash(original);
+        if (hash == null) {
+            return false;
+        }
+        for (int size : sizes) {
+            if (!Files.isRegularFile(thumbnailPath(original, hash, size))) {
+                return false;
+            }
+        }
+        hashesByOriginal.put(original, hash);
+        return true;
+    }
+
+    /**
+     * Decode, orient and scale one original into every configured size; true when all were written
+     */
+    private boolean generate(Path original) {
+        long start = System.nanoTime();
+        try {
+            if (!Files.isRegularFile(original)) {
+                return false;
+            }
+            byte[] bytes = Files.readAllBytes(original);
+            String hash = contentHash(bytes);
+            BufferedImage decoded = decode(bytes, sizes[sizes.length - 1]);
+            if (decoded == null) {
+                undecodable.add(original);
+                unsupported.incrementAndGet();
+                logger.debug("No image reader could decode {}", original);
+                return false;
+            }
+            int orientation = exifOrientation(bytes);
+            BufferedImage current = decoded;
+            // Largest first, so each smaller size is scaled down from the previous result
+            for (int i = sizes.length - 1; i >= 0; i--) {
+                current = scaleToFit(current, sizes[i]);
+                write(orient(current, orientation), thumbnailPath(original, hash, sizes[i]));
+            }
+            // Thumbnails from an older version of the original
+            for (Path stale : listThumbnails(original)) {
+                Matcher matcher = THUMBNAIL_NAME.matcher(stale.getFileName().toString());
+                if (matcher.matches() && !matcher.group(2).equals(hash)) {
+                    Files.deleteIfExists(stale);
+                }
+            }
+            hashesByOriginal.put(original, hash);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            generated.incrementAndGet();
+            totalMillis.addAndGet(millis);
+            maxMillis.accumulateAndGet(millis, Math::max);
+            logger.debug("Generated thumbnails for {} in {} ms", original, millis);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            undecodable.add(original);
+            failed.incrementAndGet();
+            logger.warn("Could not generate thumbnails for {}: {}", original, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Decode with source subsampling so large camera images are never held at full resolution; the result
+     * keeps at least twice the largest thumbnail size on its longest edge for a clean downscale
+     */
+    private static BufferedImage decode(byte[] bytes, int largestSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(bytes))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longest / (largestSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scale so the longest edge is at most maxEdge, halving in steps with bilinear filtering; never upscales.
+     * Always returns an opaque RGB image, with transparency flattened onto white.
+     */
+    private static BufferedImage scaleToFit(BufferedImage source, int maxEdge) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        if (scale == 1.0 && source.getType() == BufferedImage.TYPE_INT_RGB) {
+            return source;
+        }
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * Apply an EXIF orientation (1-8) to the pixels
+     */
+    private static BufferedImage orient(BufferedImage image, int orientation) {
+        if (orientation < 2 || orientation > 8) {
+            return image;
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean swap = orientation >= 5;
+        AffineTransform transform = new AffineTransform();
+        switch (orientation) {
+            case 2 -> { transform.translate(width, 0); transform.scale(-1, 1); }
+            case 3 -> { transform.translate(width, height); transform.rotate(Math.PI); }
+            case 4 -> { transform.translate(0, height); transform.scale(1, -1); }
+            case 5 -> { transform.rotate(Math.PI / 2); transform.scale(1, -1); }
+            case 6 -> { transform.translate(height, 0); transform.rotate(Math.PI / 2); }
+            case 7 -> { transform.translate(height, width); transform.rotate(Math.PI / 2); transform.scale(-1, 1); }
+            default -> { transform.translate(0, width); transform.rotate(-Math.PI / 2); }
+        }
+        BufferedImage oriented = new BufferedImage(swap ? height : width, swap ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.drawImage(image, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Write a baseline JPEG without metadata through a temp file, so readers never see a partial thumbnail
+     */
+    private void write(BufferedImage image, Path target) throws IOException {
+        // Not Files.createTempFile: that makes an owner-only file, and thumbnails should match the uploads
+        Path temp = target.resolveSibling("." + UUID.randomUUID() + ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Orientation from the IFD0 of a JPEG's Exif APP1 segment; 1 (as stored) for anything else
+     */
+    static int exifOrientation(byte[] jpeg) {
+        if (jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int offset = 2;
+        while (offset + 4 <= jpeg.length && (jpeg[offset] & 0xFF) == 0xFF) {
+            int marker = jpeg[offset + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                break; // Start of scan: no more metadata segments
+            }
+            int length = ((jpeg[offset + 2] & 0xFF) << 8) | (jpeg[offset + 3] & 0xFF);
+            int segment = offset + 4;
+            if (marker == 0xE1 && segment + 14 <= jpeg.length && segment + length - 2 <= jpeg.length
+                    && jpeg[segment] == 'E' && jpeg[segment + 1] == 'x' && jpeg[segment + 2] == 'i'
+                    && jpeg[segment + 3] == 'f' && jpeg[segment + 4] == 0 && jpeg[segment + 5] == 0) {
+                return tiffOrientation(jpeg, segment + 6, segment + length - 2);
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        boolean littleEndian = data[tiff] == 'I' && data[tiff + 1] == 'I';
+        if (!littleEndian && !(data[tiff] == 'M' && data[tiff + 1] == 'M')) {
+            return 1;
+        }
+        int ifd = tiff + readInt(data, tiff + 4, littleEndian);
+        if (ifd < tiff || ifd + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int value = readShort(data, entry + 8, littleEndian);
+                return value >= 1 && value <= 8 ? value : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int first = data[offset] & 0xFF;
+        int second = data[offset + 1] & 0xFF;
+        return littleEndian ? (second << 8) | first : (first << 8) | second;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+
+    private String findExistingHash(Path original) {
+        String hash = null;
+        for (Path thumbnail : listThumbnails(original)) {
+            Matcher matcher = THUMBNAIL_NAME.matcher(thumbnail.getFileName().toString());
+            if (matcher.matches() && Integer.parseInt(matcher.group(3)) == sizes[0]) {
+                hash = matcher.group(2);
+            }
+        }
+        return hash;
+    }
+
+    private static List<Path> listThumbnails(Path original) {
+        List<Path> thumbnails = new ArrayList<>();
+        Path directory = original.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            return thumbnails;
+        }
+        String glob = original.getFileName().toString().replaceAll("([\\[\\]{}*?\\\\])", "\\\\$1") + ".*.jpg";
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path path : stream) {
+                Matcher matcher = THUMBNAIL_NAME.matcher(path.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(original.getFileName().toString())) {
+                    thumbnails.add(path);
+                }
+            }
+        } catch (IOException e) {
+            logger.debug("Could not list thumbnails for {}: {}", original, e.getMessage());
+        }
+        return thumbnails;
+    }
+
+    private static Path thumbnailPath(Path original, String hash, int size) {
+        return original.resolveSibling(original.getFileName() + "." + hash + "." + size + ".jpg");
+    }
+
+    private static String contentHash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String extension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
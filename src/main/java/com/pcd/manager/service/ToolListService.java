@@ -0,0 +1,246 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keyset-paginated tools list (GET /tools/api/page).
+ * All filtering (type, location, status, search) happens in SQL and only one page of
+ * compact rows is read per request, instead of hydrating every tool like ToolController.listTools.
+ * The server-rendered list page still uses listTools: it sorts tools with technicians first, renders
+ * GasGuards in their own table and filters client-side, none of which maps onto a (name, id) keyset.
+ */
+@Service
+public class ToolListService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolListService.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Total checklist items counted by Tool.getCalculatedStatus()
+    private static final int CHECKLIST_ITEM_COUNT = 12;
+
+    private final ToolRepository toolRepository;
+
+    @Autowired
+    public ToolListService(ToolRepository toolRepository) {
+        this.toolRepository = toolRepository;
+    }
+
+    /**
+     * Load one page of the tools list.
+     *
+     * @param typeView tool type name (CHEMBLEND, SLURRY, AMATGASGUARD...) or null/ALL for every type;
+     *                 GasGuard tools are never filtered out, matching the list page
+     * @param locationName exact location name, or null for all locations
+     * @param status calculated status (NOT_STARTED, IN_PROGRESS, COMPLETED), or null for all
+     * @param search free text matched against name, secondary name, serials and models
+     * @param cursor opaque cursor from the previous page's nextCursor, or null for the first page
+     * @param size requested page size (clamped to 1..MAX_PAGE_SIZE)
+     * @throws IllegalArgumentException if typeView, status or cursor cannot be parsed
+     */
+    @Transactional(readOnly = true)
+    public ToolListPage getToolListPage(String typeView, String locationName, String status,
+                                        String search, String cursor, Integer size) {
+        long startTime = System.currentTimeMillis();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        String toolType = "";
+        if (typeView != null && !typeView.isBlank() && !"ALL".equalsIgnoreCase(typeView)) {
+            toolType = Tool.ToolType.valueOf(typeView.trim().toUpperCase(Locale.ROOT)).name();
+        }
+
+        int minCompleted = 0;
+        int maxCompleted = CHECKLIST_ITEM_COUNT;
+        if (status != null && !status.isBlank() && !"ALL".equalsIgnoreCase(status)) {
+            switch (Tool.ToolStatus.valueOf(status.trim().toUpperCase(Locale.ROOT))) {
+                case NOT_STARTED -> maxCompleted = 0;
+                case IN_PROGRESS -> {
+                    minCompleted = 1;
+                    maxCompleted = CHECKLIST_ITEM_COUNT - 1;
+                }
+                case COMPLETED -> minCompleted = CHECKLIST_ITEM_COUNT;
+            }
+        }
+
+        String searchPattern = "";
+        if (search != null && !search.isBlank()) {
+            // Match the text literally: escape the LIKE wildcards (the query declares ESCAPE '!')
+            String literal = search.trim().toLowerCase(Locale.ROOT)
+                    .replace("!", "!!").replace("%", "!%").replace("_", "!_");
+            searchPattern = "%" + literal + "%";
+        }
+
+        String afterName = "";
+        long afterId = 0L;
+        if (cursor != null && !cursor.isBlank()) {
+            String decoded = decodeCursor(cursor);
+            int separator = decoded.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            afterName = decoded.substring(0, separator);
+            try {
+                afterId = Long.parseLong(decoded.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists without a COUNT query
+        List<Object[]> rows = toolRepository.findToolListPage(
+                toolType,
+                locationName == null ? "" : locationName.trim(),
+                searchPattern,
+                minCompleted,
+                maxCompleted,
+                afterName,
+                afterId,
+                PageRequest.of(0, pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<ToolListRow> items = new ArrayList<>(rows.size());
+        List<Long> toolIds = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = ((Number) row[0]).longValue();
+            toolIds.add(id);
+            items.add(new ToolListRow(
+                    id,
+                    (String) row[1],
+                    (String) row[2],
+                    normalizeToolType((String) row[3]),
+                    (String) row[4],
+                    (String) row[5],
+                    (String) row[6],
+                    (String) row[7],
+                    (String) row[8],
+                    row[9] != null ? ((java.sql.Timestamp) row[9]).toLocalDateTime() : null,
+                    statusForCompletedItems(((Number) row[10]).intValue()),
+                    new ArrayList<>()));
+        }
+
+        // One extra query for the technicians on this page only
+        if (!toolIds.isEmpty()) {
+            Map<Long, ToolListRow> byId = new HashMap<>();
+            for (ToolListRow item : items) {
+                byId.put(item.id, item);
+            }
+            for (Object[] row : toolRepository.findTechniciansByToolIds(toolIds)) {
+                ToolListRow item = byId.get((Long) row[0]);
+                if (item != null) {
+                    item.technicians.add((String) row[2]);
+                }
+            }
+        }
+
+        String nextCursor = null;
+        if (hasMore && !items.isEmpty()) {
+            ToolListRow last = items.get(items.size() - 1);
+            nextCursor = encodeCursor(last.name + "|" + last.id);
+        }
+
+        logger.debug("Loaded tool list page of {} rows (hasMore={}) in {}ms",
+                items.size(), hasMore, System.currentTimeMillis() - startTime);
+        return new ToolListPage(items, nextCursor, hasMore);
+    }
+
+    private static String normalizeToolType(String rawToolType) {
+        // Map legacy GASGUARD to AMATGASGUARD, same as the list page
+        if ("GASGUARD".equalsIgnoreCase(rawToolType)) {
+            return Tool.ToolType.AMATGASGUARD.name();
+        }
+        return rawToolType;
+    }
+
+    private static Tool.ToolStatus statusForCompletedItems(int completedItems) {
+        if (completedItems == 0) {
+            return Tool.ToolStatus.NOT_STARTED;
+        } else if (completedItems >= CHECKLIST_ITEM_COUNT) {
+            return Tool.ToolStatus.COMPLETED;
+        }
+        return Tool.ToolStatus.IN_PROGRESS;
+    }
+
+    private static String encodeCursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Compact row for the scrolling tools list
+     */
+    public static class ToolListRow {
+        public final Long id;
+        public final String name;
+        public final String secondaryName;
+        public final String toolType;
+        public final String serialNumber1;
+        public final String serialNumber2;
+        public final String model1;
+        public final String model2;
+        public final String locationName;
+        public final LocalDateTime updatedAt;
+        public final Tool.ToolStatus status;
+        public final List<String> technicians;
+
+        public ToolListRow(Long id, String name, String secondaryName, String toolType,
+                           String serialNumber1, String serialNumber2, String model1, String model2,
+                           String locationName, LocalDateTime updatedAt, Tool.ToolStatus status,
+                           List<String> technicians) {
+            this.id = id;
+            this.name = name;
+            this.secondaryName = secondaryName;
+            this.toolType = toolType;
+            this.serialNumber1 = serialNumber1;
+            this.serialNumber2 = serialNumber2;
+            this.model1 = model1;
+            this.model2 = model2;
+            this.locationName = locationName;
+            this.updatedAt = updatedAt;
+            this.status = status;
+            this.technicians = technicians;
+        }
+    }
+
+    /**
+     * One page of rows plus the cursor for the next page (null when this is the last page)
+     */
+    public static class ToolListPage {
+        public final List<ToolListRow> items;
+        public final String nextCursor;
+        public final boolean hasMore;
+
+        public ToolListPage(List<ToolListRow> items, String nextCursor, boolean hasMore) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.event.EntityChangeEvent;
+import com.pcd.manager.repository.ToolRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index from normalized tool identifiers to tool ids, used to match NCSR equipment
+ * numbers without scanning every tool.
+ *
+ * Each tool is indexed under its name, secondary name, both serial numbers and the part of each
+ * serial before the first "-" (trimmed, upper-cased), which covers every rule the old linear scan
+ * applied. The index is built lazily from a five-column projection and kept current by tool
+ * change events: updates re-read the one tool, deletes drop it, and creations (which usually
+ * arrive in bulk from Excel imports) mark the index for a rebuild on next use.
+ */
+@Service
+public class ToolMatchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ToolMatchIndexService.class);
+
+    private final ToolRepository toolRepository;
+    private final TransactionTemplate readTransaction;
+
+    // Replaced wholesale on rebuild; mutated in place (under the monitor) for single-tool changes
+    private volatile Index index;
+
+    @Autowired
+    public ToolMatchIndexService(ToolRepository toolRepository, PlatformTransactionManager transactionManager) {
+        this.toolRepository = toolRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Ids of tools whose name, secondary name, serial number or serial prefix equals the
+     * given equipment number (case-insensitive), in ascending id order
+     */
+    public List<Long> findToolIds(String equipmentNumber) {
+        String key = normalize(equipmentNumber);
+        if (key == null) {
+            return Collections.emptyList();
+        }
+        Set<Long> ids = getIndex().toolIdsByKey.get(key);
+        return ids == null ? Collections.emptyList() : new ArrayList<>(ids);
+    }
+
+    /**
+     * Keys an equipment number must normalize to in order to match one of these serial numbers
+     * (the serials themselves and their prefixes before "-")
+     */
+    public static Set<String> serialKeys(String serialNumber1, String serialNumber2) {
+        Set<String> keys = new LinkedHashSet<>();
+        addSerialKeys(keys, serialNumber1);
+        addSerialKeys(keys, serialNumber2);
+        return keys;
+    }
+
+    /**
+     * Trimmed, upper-cased form used for index keys; null for blank input
+     */
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toUpperCase(Locale.ROOT);
+    }
+
+    public int size() {
+        Index current = index;
+        return current == null ? 0 : current.keysByToolId.size();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.getEntityType() != EntityChangeEvent.EntityType.TOOL || event.getEntityId() == null) {
+            return;
+        }
+        synchronized (this) {
+            Index current = index;
+            if (current == null) {
+                return;
+            }
+            Long id = event.getEntityId();
+            try {
+                switch (event.getChangeType()) {
+                    case CREATED -> index = null;
+                    case DELETED -> current.remove(id);
+                    case UPDATED -> {
+                        List<Object[]> rows = readTransaction.execute(status -> toolRepository.findMatchKeyDataById(id));
+                        current.remove(id);
+                        if (rows != null && !rows.isEmpty()) {
+                            current.add(rows.get(0));
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                logger.warn("Could not update tool match index for {}, rebuilding on next use: {}", event, e.getMessage());
+                index = null;
+            }
+        }
+    }
+
+    private Index getIndex() {
+        Index current = index;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (index == null) {
+                long start = System.currentTimeMillis();
+                List<Object[]> rows = readTransaction.execute(status -> toolRepository.findMatchKeyData());
+                Index built = new Index();
+                if (rows != null) {
+                    rows.forEach(built::add);
+                }
+                index = built;
+                logger.info("Built tool match index: {} tools, {} keys in {}ms",
+                        built.keysByToolId.size(), built.toolIdsByKey.size(), System.currentTimeMillis() - start);
+            }
+            return index;
+        }
+    }
+
+    private static void addSerialKeys(Set<String> keys, String serial) {
+        String key = normalize(serial);
+        if (key == null) {
+            return;
+        }
+        keys.add(key);
+        int dash = serial.indexOf('-');
+        if (dash > 0) {
+            String prefix = normalize(serial.substring(0, dash));
+            if (prefix != null) {
+                keys.add(prefix);
+            }
+        }
+    }
+
+    private static class Index {
+        private final Map<String, Set<Long>> toolIdsByKey = new ConcurrentHashMap<>();
+        private final Map<Long, Set<String>> keysByToolId = new ConcurrentHashMap<>();
+
+        // row: id, name, secondaryName, serialNumber1, serialNumber2
+        void add(Object[] row) {
+            Long id = ((Number) row[0]).longValue();
+            Set<String> keys = serialKeys((String) row[3], (String) row[4]);
+            String name = normalize((String) row[1]);
+            String secondaryName = normalize((String) row[2]);
+            if (name != null) {
+                keys.add(name);
+            }
+            if (secondaryName != null) {
+                keys.add(secondaryName);
+            }
+            for (String key : keys) {
+                toolIdsByKey.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+            }
+            keysByToolId.put(id, keys);
+        }
+
+        void remove(Long id) {
+            Set<String> keys = keysByToolId.remove(id);
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                toolIdsByKey.computeIfPresent(key, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+    }
+}
@@ -24,8 +24,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
+import com.pcd.manager.event.EntityChangeEvent;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
@@ -38,14 +39,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.Objects;
-import java.io.InputStream;
 import java.io.IOException;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.ss.usermodel.WorkbookFactory;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.DateUtil;
+import com.pcd.manager.util.StreamingExcelReader;
+import com.pcd.manager.util.StreamingExcelReader.ExcelCell;
+import com.pcd.manager.util.StreamingExcelReader.ExcelRow;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -63,6 +60,7 @@ public class ToolService {
     private final ToolCommentRepository toolCommentRepository;
     private final UserRepository userRepository;
     private final LocationRepository locationRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private PassdownService passdownService; // Not final anymore, will be set by setter
 
     @Autowired
@@ -73,7 +71,8 @@ public class ToolService {
                       MovingPartRepository movingPartRepository,
                       ToolCommentRepository toolCommentRepository,
                       UserRepository userRepository,
-                      LocationRepository locationRepository) {
+                      LocationRepository locationRepository,
+                      ApplicationEventPublisher eventPublisher) {
         this.toolRepository = toolRepository;
         this.rmaRepository = rmaRepository;
         this.documentRepository = documentRepository;
@@ -82,6 +81,7 @@ public class ToolService {
         this.toolCommentRepository = toolCommentRepository;
         this.userRepository = userRepository;
         this.locationRepository = locationRepository;
+        this.eventPublisher = eventPublisher;
         // PassdownService will be injected via setter
     }
     
@@ -93,8 +93,18 @@ public class ToolService {
 
     @Cacheable(value = "tools-list", key = "'all-tools'")
     public List<Tool> getAllTools() {
-        logger.info("Fetching all tools (cacheable)");
-        return toolRepository.findAll();
+        return loadAllTools();
+    }
+
+    /**
+     * Load every tool, bypassing the cache.
+     * Also used by the tools-list refresh-ahead loader in CacheConfig.
+     */
+    @Transactional
+    public List<Tool> loadAllTools() {
+        logger.info("Loading all tools");
+        // The snapshot outlives the session, so collections are initialized up front (constant statement count)
+        return toolRepository.findAllWithCollections();
     }
     
     /**
@@ -114,15 +124,24 @@ public class ToolService {
     }
 
     @Cacheable(value = "tool-details", key = "#id")
+    @Transactional // not read-only: callers edit and save the returned entity
     public Optional<Tool> getToolById(Long id) {
         logger.debug("Fetching tool by ID: {} (cacheable)", id);
-        return toolRepository.findById(id);
+        return toolRepository.findByIdWithCollections(id);
     }
 
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public Tool saveTool(Tool tool) {
-        logger.info("Saving tool and evicting caches");
-        return toolRepository.save(tool);
+        logger.info("Saving tool");
+        Tool saved = toolRepository.save(tool);
+        // Document/picture/tag collection changes don't fire entity callbacks, so report them here
+        publishToolUpdated(saved.getId());
+        return saved;
+    }
+
+    private void publishToolUpdated(Long toolId) {
+        if (toolId != null) {
+            eventPublisher.publishEvent(EntityChangeEvent.updated(EntityChangeEvent.EntityType.TOOL, toolId));
+        }
     }
 
     /**
@@ -145,9 +164,8 @@ public class ToolService {
         }
     }
 
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public void deleteTool(Long id) {
-        logger.info("Deleting tool {} and evicting caches", id);
+        logger.info("Deleting tool {}", id);
         // Detach or cleanup dependent rows that could block deletion in Postgres
         try {
             // 1) Moving parts where this tool is the source (fromTool) or in destination chain
@@ -471,7 +489,6 @@ public class ToolService {
      * Assign a user to a tool with proper session management
      */
     @Transactional
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public boolean assignUserToTool(Long toolId, String userEmail) {
         try {
             // Load tool with technicians eagerly loaded to avoid lazy loading issues
@@ -501,6 +518,7 @@ public class ToolService {
             if (!tool.getCurrentTechnicians().contains(user)) {
                 tool.getCurrentTechnicians().add(user);
                 toolRepository.save(tool);
+                publishToolUpdated(tool.getId());
             }
             
             logger.info("Successfully assigned tool {} to user {}", tool.getName(), user.getName());
@@ -515,7 +533,6 @@ public class ToolService {
      * Unassign a user from a tool with proper session management
      */
     @Transactional
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public boolean unassignUserFromTool(Long toolId, String userEmail) {
         try {
             // Load tool with technicians eagerly loaded to avoid lazy loading issues
@@ -541,6 +558,7 @@ public class ToolService {
             if (tool.getCurrentTechnicians() != null && tool.getCurrentTechnicians().contains(user)) {
                 tool.getCurrentTechnicians().remove(user);
                 toolRepository.save(tool);
+                publishToolUpdated(tool.getId());
             }
             
             logger.info("Successfully unassigned tool {} from user {}", tool.getName(), user.getName());
@@ -582,7 +600,6 @@ public class ToolService {
      * Edit a comment
      */
     @Transactional
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public ToolComment editComment(Long commentId, String content, String userEmail) {
         ToolComment comment = toolCommentRepository.findById(commentId)
             .orElseThrow(() -> new IllegalArgumentException("Comment not found: " + commentId));
@@ -605,7 +622,6 @@ public class ToolService {
      * Delete a comment
      */
     @Transactional
-    @CacheEvict(value = {"tools-list", "dropdown-data", "tool-details"}, allEntries = true)
     public void deleteComment(Long commentId, String userEmail) {
         ToolComment comment = toolCommentRepository.findById(commentId)
             .orElseThrow(() -> new IllegalArgumentException("Comment not found: " + commentId));
@@ -629,7 +645,6 @@ public class ToolService {
     }
 
     @Transactional
-    @CacheEvict(value = {"tools-list", "dashboard-data"}, allEntries = true)  
     public Map<String, Object> analyzeExcelForDuplicates(MultipartFile file) throws Exception {
         logger.info("Starting Excel analysis for duplicates");
         
@@ -637,83 +652,28 @@ public class ToolService {
         List<Map<String, Object>> duplicates = new ArrayList<>();
         List<Map<String, Object>> validRows = new ArrayList<>();
         
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
             
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
+            if (!reader.nextSheet()) {
                 throw new IllegalArgumentException("Excel file is empty or corrupted");
             }
             
-            // Create flexible header mapping (same as createToolsFromExcel)
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
+            // Header must be the first row of the first sheet
+            ExcelRow headerRow = reader.nextRow();
+            if (headerRow == null || headerRow.getRowNum() != 0) {
                 throw new IllegalArgumentException("Excel file must have a header row");
             }
             
-            Map<String, Integer> headerMap = new HashMap<>();
-            int lastColumnNum = headerRow.getLastCellNum();
-            
-            // Track serial number columns for proper mapping
-            List<Integer> serialColumns = new ArrayList<>();
-            
-            for (int i = 0; i < lastColumnNum; i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell == null) continue;
-                
-                String headerValue = cell.getStringCellValue().trim().toLowerCase();
-                if (headerValue.isEmpty()) continue;
-                
-                logger.debug("Processing header at column {}: '{}'", i, headerValue);
-                
-                // Flexible header matching
-                if (matchesPattern(headerValue, "system")) {
-                    headerMap.put("system", i);
-                } else if (matchesPattern(headerValue, "equipment location", "equipmentlocation", "tool location", "toollocation", "equipment/location", "equipment / location", "equipment/ location", "equipment /location")) {
-                    headerMap.put("equipmentLocation", i);
-                } else if (matchesPattern(headerValue, "config", "config#", "config number")) {
-                    headerMap.put("config", i);
-                } else if (matchesPattern(headerValue, "equipment set", "equipmentset", "set")) {
-                    headerMap.put("equipmentSet", i);
-                } else if (matchesPattern(headerValue, "tool name", "toolname", "name") && !headerMap.containsKey("toolName")) {
-                    headerMap.put("toolName", i);
-                } else if (matchesPattern(headerValue, "tool name 2", "toolname2", "name 2", "secondary name") && !headerMap.containsKey("toolName2")) {
-                    headerMap.put("toolName2", i);
-                } else if (matchesPattern(headerValue, "type", "tool type", "tooltype")) {
-                    headerMap.put("type", i);
-                } else if (matchesPattern(headerValue, "model", "model number", "model#")) {
-                    if (!headerMap.containsKey("model1")) {
-                        headerMap.put("model1", i);
-                    } else if (!headerMap.containsKey("model2")) {
-                        headerMap.put("model2", i);
-                    }
-                } else if (matchesPattern(headerValue, "serial", "serial number", "serial#")) {
-                    serialColumns.add(i);
-                } else if (matchesPattern(headerValue, "location")) {
-                    headerMap.put("location", i);
-                }
-            }
-            
-            // Map serial columns (first = serial1, second = serial2)
-            if (serialColumns.size() >= 1) {
-                headerMap.put("serial1", serialColumns.get(0));
-            }
-            if (serialColumns.size() >= 2) {
-                headerMap.put("serial2", serialColumns.get(1));
-            }
+            Map<String, Integer> headerMap = mapToolHeaders(headerRow);
             
             logger.info("Flexible header mapping completed for analysis. Found headers: {}", headerMap.keySet());
             
-            int rowNum = 1; // Start after header row
+            int rowNum = 0;
             String lastSystemName = null; // Track system name for inheritance
             
-            while (rowNum <= sheet.getLastRowNum()) {
-                Row row = sheet.getRow(rowNum);
-                
-                if (row == null) {
-                    rowNum++;
-                    continue;
-                }
+            ExcelRow row;
+            while ((row = reader.nextRow()) != null) {
+                rowNum = row.getRowNum();
                 
                 try {
                     // Extract data from row using flexible header mapping
@@ -755,7 +715,6 @@ public class ToolService {
                     
                     if (primaryName == null || primaryName.trim().isEmpty()) {
                         logger.debug("Skipping row {} - no primary identifier", rowNum + 1);
-                        rowNum++;
                         continue;
                     }
                     
@@ -798,13 +757,11 @@ public class ToolService {
                     logger.error("Error analyzing row {}: {}", rowNum + 1, e.getMessage());
                     // Continue processing other rows
                 }
-                
-                rowNum++;
             }
             
             result.put("duplicates", duplicates);
             result.put("validRows", validRows);
-            result.put("totalRows", rowNum - 1);
+            result.put("totalRows", rowNum);
             result.put("duplicateCount", duplicates.size());
             result.put("validCount", validRows.size());
             
@@ -819,75 +776,22 @@ public class ToolService {
     }
 
     @Transactional
-    @CacheEvict(value = {"tools-list", "dashboard-data"}, allEntries = true)  
     public int createToolsFromExcel(MultipartFile file) throws Exception {
                     logger.info("Starting Excel tool creation process");
         
-        try (InputStream inputStream = file.getInputStream();
-             Workbook workbook = WorkbookFactory.create(inputStream)) {
+        try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
             
-            Sheet sheet = workbook.getSheetAt(0);
-            if (sheet == null) {
+            if (!reader.nextSheet()) {
                 throw new IllegalArgumentException("Excel file is empty or corrupted");
             }
             
-            // Validate headers
-            Row headerRow = sheet.getRow(0);
-            if (headerRow == null) {
+            // Header must be the first row of the first sheet
+            ExcelRow headerRow = reader.nextRow();
+            if (headerRow == null || headerRow.getRowNum() != 0) {
                 throw new IllegalArgumentException("Excel file must have a header row");
             }
             
-            // Create flexible header mapping
-            Map<String, Integer> headerMap = new HashMap<>();
-            int lastColumnNum = headerRow.getLastCellNum();
-            
-            // Track serial number columns for proper mapping
-            List<Integer> serialColumns = new ArrayList<>();
-            
-            for (int i = 0; i < lastColumnNum; i++) {
-                Cell cell = headerRow.getCell(i);
-                if (cell == null) continue;
-                
-                String headerValue = cell.getStringCellValue().trim().toLowerCase();
-                if (headerValue.isEmpty()) continue;
-                
-                logger.debug("Processing header at column {}: '{}'", i, headerValue);
-                
-                // Flexible header matching
-                if (matchesPattern(headerValue, "system")) {
-                    headerMap.put("system", i);
-                } else if (matchesPattern(headerValue, "equipment location", "equipmentlocation", "tool location", "toollocation", "equipment/location", "equipment / location", "equipment/ location", "equipment /location")) {
-                    headerMap.put("equipmentLocation", i);
-                } else if (matchesPattern(headerValue, "config", "config#", "config number")) {
-                    headerMap.put("config", i);
-                } else if (matchesPattern(headerValue, "equipment set", "equipmentset", "set")) {
-                    headerMap.put("equipmentSet", i);
-                } else if (matchesPattern(headerValue, "tool name", "toolname", "name") && !headerMap.containsKey("toolName")) {
-                    headerMap.put("toolName", i);
-                } else if (matchesPattern(headerValue, "tool name 2", "toolname2", "name 2", "secondary name") && !headerMap.containsKey("toolName2")) {
-                    headerMap.put("toolName2", i);
-                } else if (matchesPattern(headerValue, "type", "tool type", "tooltype")) {
-                    headerMap.put("type", i);
-                } else if (matchesPattern(headerValue, "model", "model number", "model#")) {
-                    if (!headerMap.containsKey("model1")) {
-                        headerMap.put("model1", i);
-                    } else if (!headerMap.containsKey("model2")) {
-                        headerMap.put("model2", i);
-                    }
-                } else if (matchesPattern(headerValue, "serial", "serial number", "serial#")) {
-                    serialColumns.add(i);
-                } else if (matchesPattern(headerValue, "location")) {
-                    headerMap.put("location", i);
-                }
-            }
-            
-            // Map serial columns (first = serial1, second = serial2)
-            if (serialColumns.size() >= 1) {
-                headerMap.put("serial1", serialColumns.get(0));
-            }
-            if (serialColumns.size() >= 2) {
-                headerMap.put("serial2", serialColumns.get(1));
-            }
+            Map<String, Integer> headerMap = mapToolHeaders(headerRow);
             
             logger.info("Flexible header mapping completed. Found headers: {}", headerMap.keySet());
             
@@ -917,17 +821,13 @@ public class ToolService {
             }
             
             int toolsCreated = 0;
-            int rowNum = 1; // Start after header row
+            int rowNum = 0;
             String lastSystemName = null; // Track system name for inheritance
             LocalDateTime baseUploadTime = LocalDateTime.now(); // Base time for upload dates
             
-            while (rowNum <= sheet.getLastRowNum()) {
-                Row row = sheet.getRow(rowNum);
-                
-                if (row == null) {
-                    rowNum++;
-                    continue;
-                }
+            ExcelRow row;
+            while ((row = reader.nextRow()) != null) {
+                rowNum = row.getRowNum();
                 
                 try {
                     // Extract data from row using flexible header mapping
@@ -969,14 +869,12 @@ public class ToolService {
                     
                     if (primaryName == null || primaryName.trim().isEmpty()) {
                         logger.debug("Skipping row {} - no primary identifier", rowNum + 1);
-                        rowNum++;
                         continue;
                     }
                     
                     // Check if tool with this name already exists
                     if (toolRepository.findByName(primaryName.trim()).isPresent()) {
                         logger.warn("Tool '{}' already exists, skipping row {}", primaryName, rowNum + 1);
-                        rowNum++;
                         continue;
                     }
                     
@@ -1107,8 +1005,6 @@ public class ToolService {
                     logger.error("Error processing row {}: {}", rowNum + 1, e.getMessage());
                     // Continue processing other rows
                 }
-                
-                rowNum++;
             }
             
             logger.info("Excel tool creation completed. {} tools created", toolsCreated);
@@ -1120,7 +1016,7 @@ public class ToolService {
         }
     }
     
-    private String getCellValueAsString(Cell cell) {
+    private String getCellValueAsString(ExcelCell cell) {
         if (cell == null) {
             return null;
         }
@@ -1130,7 +1026,7 @@ public class ToolService {
                 return cell.getStringCellValue();
             case NUMERIC:
                 // Handle numeric values that should be strings (like serial numbers)
-                if (DateUtil.isCellDateFormatted(cell)) {
+                if (cell.isDateFormatted()) {
                     return cell.getDateCellValue().toString();
                 } else {
                     // Convert numeric to string, removing decimal if it's a whole number
@@ -1513,7 +1409,6 @@ public class ToolService {
      * Creates new tools and updates existing ones based on user choices
      */
     @Transactional
-    @CacheEvict(value = {"tools-list", "dashboard-data"}, allEntries = true)
     public Map<String, Object> processExcelWithDuplicateResolutions(
             List<Map<String, Object>> validRows, 
             List<Map<String, Object>> duplicateResolutions,
@@ -1860,6 +1755,60 @@ public class ToolService {
         return String.format("No changes needed for tool '%s' (ID: %d)", tool.getName(), tool.getId());
     }
     
+    /**
+     * Flexible header mapping shared by the Excel analysis and import paths
+     */
+    private Map<String, Integer> mapToolHeaders(ExcelRow headerRow) {
+        Map<String, Integer> headerMap = new HashMap<>();
+        
+        // Track serial number columns for proper mapping
+        List<Integer> serialColumns = new ArrayList<>();
+        
+        for (ExcelCell cell : headerRow.getCells()) {
+            int i = cell.getColumnIndex();
+            String headerValue = cell.getStringCellValue().trim().toLowerCase();
+            if (headerValue.isEmpty()) continue;
+            
+            logger.debug("Processing header at column {}: '{}'", i, headerValue);
+            
+            // Flexible header matching
+            if (matchesPattern(headerValue, "system")) {
+                headerMap.put("system", i);
+            } else if (matchesPattern(headerValue, "equipment location", "equipmentlocation", "tool location", "toollocation", "equipment/location", "equipment / location", "equipment/ location", "equipment /location")) {
+                headerMap.put("equipmentLocation", i);
+            } else if (matchesPattern(headerValue, "config", "config#", "config number")) {
+                headerMap.put("config", i);
+            } else if (matchesPattern(headerValue, "equipment set", "equipmentset", "set")) {
+                headerMap.put("equipmentSet", i);
+            } else if (matchesPattern(headerValue, "tool name", "toolname", "name") && !headerMap.containsKey("toolName")) {
+                headerMap.put("toolName", i);
+            } else if (matchesPattern(headerValue, "tool name 2", "toolname2", "name 2", "secondary name") && !headerMap.containsKey("toolName2")) {
+                headerMap.put("toolName2", i);
+            } else if (matchesPattern(headerValue, "type", "tool type", "tooltype")) {
+                headerMap.put("type", i);
+            } else if (matchesPattern(headerValue, "model", "model number", "model#")) {
+                if (!headerMap.containsKey("model1")) {
+                    headerMap.put("model1", i);
+                } else if (!headerMap.containsKey("model2")) {
+                    headerMap.put("model2", i);
+                }
+            } else if (matchesPattern(headerValue, "serial", "serial number", "serial#")) {
+                serialColumns.add(i);
+            } else if (matchesPattern(headerValue, "location")) {
+                headerMap.put("location", i);
+            }
+        }
+        
+        // Map serial columns (first = serial1, second = serial2)
+        if (serialColumns.size() >= 1) {
+            headerMap.put("serial1", serialColumns.get(0));
+        }
+        if (serialColumns.size() >= 2) {
+            headerMap.put("serial2", serialColumns.get(1));
+        }
+        return headerMap;
+    }
+    
     /**
      * Flexible pattern matching for header names
      */
@@ -1878,7 +1827,7 @@ public class ToolService {
     /**
      * Get cell value from flexible header mapping
      */
-    private String getCellValueFromMapping(Row row, Map<String, Integer> headerMap, String fieldName) {
+    private String getCellValueFromMapping(ExcelRow row, Map<String, Integer> headerMap, String fieldName) {
         Integer columnIndex = headerMap.get(fieldName);
         if (columnIndex == null) {
             return null;
@@ -14,8 +14,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.context.ApplicationEventPublisher;
+import com.pcd.manager.event.EntityChangeEvent;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
@@ -40,6 +41,7 @@ public class TrackTrendService {
     private final ToolRepository toolRepository;
     private final UserRepository userRepository;
     private final RmaRepository rmaRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private static final Logger logger = LoggerFactory.getLogger(TrackTrendService.class);
 
     @Autowired
@@ -47,12 +49,14 @@ public class TrackTrendService {
                             TrackTrendCommentRepository trackTrendCommentRepository,
                             ToolRepository toolRepository,
                             UserRepository userRepository,
-                            RmaRepository rmaRepository) {
+                            RmaRepository rmaRepository,
+                            ApplicationEventPublisher eventPublisher) {
         this.trackTrendRepository = trackTrendRepository;
         this.trackTrendCommentRepository = trackTrendCommentRepository;
         this.toolRepository = toolRepository;
         this.userRepository = userRepository;
         this.rmaRepository = rmaRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Cacheable(value = "tracktrend-list", key = "'all-tracktrends'")
@@ -90,15 +94,16 @@ public class TrackTrendService {
         return trackTrendRepository.findById(id);
     }
 
-    @CacheEvict(value = {"tracktrend-list", "dashboard-data"}, allEntries = true)
     public TrackTrend saveTrackTrend(TrackTrend trackTrend) {
-        logger.info("Saving TrackTrend and evicting caches");
-        return trackTrendRepository.save(trackTrend);
+        logger.info("Saving TrackTrend");
+        TrackTrend saved = trackTrendRepository.save(trackTrend);
+        // Affected tools / related RMAs are collection-only changes that don't fire entity callbacks
+        eventPublisher.publishEvent(EntityChangeEvent.updated(EntityChangeEvent.EntityType.TRACK_TREND, saved.getId()));
+        return saved;
     }
 
-    @CacheEvict(value = {"tracktrend-list", "dashboard-data"}, allEntries = true)
     public void deleteTrackTrend(Long id) {
-        logger.info("Deleting TrackTrend {} and evicting caches", id);
+        logger.info("Deleting TrackTrend {}", id);
         trackTrendRepository.deleteById(id);
     }
 
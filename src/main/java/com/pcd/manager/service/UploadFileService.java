@@ -0,0 +1,295 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.util.UploadUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files from the upload directory for /uploads/**, /rma/files/** and /api/files/download.
+ *
+ * Supports conditional GET (ETag / If-None-Match and Last-Modified / If-Modified-Since answer 304),
+ * single byte ranges (206, with If-Range) and HEAD. Uploads are stored under random UUID or SHA-256
+ * names and never rewritten, so those (and their content-hashed thumbnails) get a year-long immutable
+ * Cache-Control; anything else must revalidate.
+ * Bodies are sent with Tomcat sendfile when the connector offers it, otherwise with
+ * FileChannel.transferTo. Content types are resolved once per extension.
+ */
+@Service
+public class UploadFileService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadFileService.class);
+
+    private static final Pattern UUID_FILE_NAME = Pattern.compile(
+            "([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|[0-9a-f]{64})"
+            + "(\\.[A-Za-z0-9]+)?(\\.[0-9a-f]{16}\\.\\d+\\.jpg)?");
+    private static final Pattern SINGLE_RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final String IMMUTABLE_CACHE_CONTROL = "private, max-age=31536000, immutable";
+    private static final String REVALIDATE_CACHE_CONTROL = "private, no-cache";
+
+    // Tomcat's sendfile request attributes (org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final Path baseUploadPath;
+    private final Map<String, String> contentTypesByExtension = new ConcurrentHashMap<>();
+
+    @Value("${app.upload.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    @Autowired
+    public UploadFileService(UploadUtils uploadUtils) {
+        this.baseUploadPath = Paths.get(uploadUtils.getUploadDir()).toAbsolutePath().normalize();
+    }
+
+    /**
+     * Resolves a stored or requested upload path to a file inside the upload directory.
+     * Accepts legacy values that still carry an absolute prefix (C:/.../uploads/...).
+     * Returns null for paths that escape the upload directory or do not name a regular file.
+     */
+    public Path resolve(String filePath) {
+        if (filePath == null || filePath.isBlank()) {
+            return null;
+        }
+        String relative = filePath.replace('\\', '/');
+        if (relative.contains(":/")) {
+            int uploadsIndex = relative.lastIndexOf("uploads/");
+            if (uploadsIndex == -1) {
+                logger.warn("Could not find 'uploads/' in file path: {}", filePath);
+                return null;
+            }
+            relative = relative.substring(uploadsIndex + "uploads/".length());
+        }
+        while (relative.startsWith("/")) {
+            relative = relative.substring(1);
+        }
+        Path file = baseUploadPath.resolve(relative).normalize();
+        if (!file.startsWith(baseUploadPath)) {
+            logger.warn("Rejected upload path outside the upload directory: {}", filePath);
+            return null;
+        }
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Writes the upload at filePath to the response, honouring conditional and range headers.
+     *
+     * @param filePath path relative to the upload directory
+     * @param contentType stored content type, or null to derive it from the extension
+     * @param downloadName file name for Content-Disposition, or null for the stored name
+     */
+    public void serve(String filePath, String contentType, String downloadName,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = resolve(filePath);
+        if (file == null) {
+            logger.warn("File not found: {}", filePath);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(file, contentType, downloadName, isImmutable(file), request, response);
+    }
+
+    /**
+     * Writes an already resolved file. immutable=false forces revalidation, for responses whose URL will
+     * later serve different content (a picture standing in for a thumbnail that is still being generated).
+     */
+    public void serve(Path file, String contentType, String downloadName, boolean immutable,
+                      HttpServletRequest request, HttpServletResponse response) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis() / 1000 * 1000;
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        String fileName = file.getFileName().toString();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable ? IMMUTABLE_CACHE_CONTROL : REVALIDATE_CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (isNotModified(request, etag, lastModified)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setContentType(resolveContentType(fileName, contentType));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "inline; filename=\"" + (downloadName != null ? downloadName : fileName).replace("\"", "") + "\"");
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && length > 0 && rangeStillValid(request, etag, lastModified)) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        if (count >= sendfileMinSize && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // The connector copies file to socket in the kernel once the servlet returns
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /**
+     * UUID- and SHA-256-named uploads and their content-hashed thumbnails are never rewritten
+     */
+    public boolean isImmutable(Path file) {
+        return UUID_FILE_NAME.matcher(file.getFileName().toString()).matches();
+    }
+
+    /**
+     * Content type for a file name: the stored type when it parses, otherwise one lookup per extension
+     */
+    public String resolveContentType(String fileName, String storedContentType) {
+        if (storedContentType != null && !storedContentType.isBlank()) {
+            try {
+                return MediaType.parseMediaType(storedContentType).toString();
+            } catch (Exception e) {
+                logger.debug("Ignoring unparseable stored content type {} for {}", storedContentType, fileName);
+            }
+        }
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        return contentTypesByExtension.computeIfAbsent(extension, ext -> MediaTypeFactory.getMediaType("file." + ext)
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE));
+    }
+
+    private static boolean isNotModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return etagMatches(ifNoneMatch, etag);
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && lastModified <= ifModifiedSince;
+    }
+
+    /**
+     * If-Range: serve the range only while the client's copy is still current
+     */
+    private static boolean rangeStillValid(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.trim().startsWith("\"") || ifRange.trim().startsWith("W/")) {
+            return ifRange.trim().equals(etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && lastModified <= date;
+    }
+
+    private static boolean etagMatches(String header, String etag) {
+        for (String candidate : header.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns {start, end} for a satisfiable single range, an empty array when the header should be
+     * ignored (multiple or malformed ranges get the whole file), or null when it cannot be satisfied
+     */
+    private static long[] parseRange(String header, long length) {
+        Matcher matcher = SINGLE_RANGE.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (matcher.group(1).isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(matcher.group(2));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                end = matcher.group(2).isEmpty() ? length - 1 : Math.min(Long.parseLong(matcher.group(2)), length - 1);
+            }
+            if (start >= length || start > end) {
+                return null;
+            }
+            return new long[] {start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+}
@@ -8,7 +8,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.CacheEvict;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.transaction.annotation.Transactional;
@@ -34,7 +33,6 @@ public class UserService {
     /**
      * Create a new user with encoded password
      */
-    @CacheEvict(value = {"users-list", "dropdown-data"}, allEntries = true)
     public User createUser(User user) {
         // Normalize email to lowercase and trim whitespace
         if (user.getEmail() != null) {
@@ -46,14 +44,13 @@ public class UserService {
             user.setPassword(passwordEncoder.encode(user.getPassword()));
         }
 
-        logger.debug("Creating user with normalized email: {} and evicting caches", user.getEmail());
+        logger.debug("Creating user with normalized email: {}", user.getEmail());
         return userRepository.save(user);
     }
 
     /**
      * Update an existing user
      */
-    @CacheEvict(value = {"users-list", "dropdown-data"}, allEntries = true)
     public User updateUser(User user) {
         // Normalize email to lowercase and trim whitespace
         if (user.getEmail() != null) {
@@ -120,9 +117,8 @@ public class UserService {
     /**
      * Delete a user by id
      */
-    @CacheEvict(value = {"users-list", "dropdown-data"}, allEntries = true)
     public void deleteUser(Long id) {
-        logger.debug("Deleting user {} and evicting caches", id);
+        logger.debug("Deleting user {}", id);
         userRepository.deleteById(id);
     }
 
@@ -241,7 +237,6 @@ public class UserService {
      * @param newPlaintextPassword The new plaintext password
      * @return The updated user
      */
-    @CacheEvict(value = {"users-list", "dropdown-data"}, allEntries = true)
     public User updateUserPassword(Long userId, String newPlaintextPassword) {
         Optional<User> userOpt = userRepository.findById(userId);
         if (userOpt.isEmpty()) {
@@ -0,0 +1,153 @@
+package com.pcd.manager.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Identifies uploads by their leading bytes rather than the client-supplied content type, for the file
+ * types UploadUtils accepts. Office formats are only distinguished by container (OLE for doc/xls, ZIP for
+ * docx/xlsx); text is anything in the sniffed head without NUL bytes.
+ */
+public final class FileSignatures {
+
+    /**
+     * Bytes of the file start needed by {@link #detect}; shorter files are judged on what they have
+     */
+    public static final int HEAD_LENGTH = 512;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF87 = "GIF87a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] GIF89 = "GIF89a".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] BMP = "BM".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RIFF = "RIFF".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WEBP = "WEBP".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ZIP = {'P', 'K', 3, 4};
+    private static final byte[] OLE = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1};
+
+    private static final String OLE_CONTAINER = "application/x-ole-storage";
+    private static final String ZIP_CONTAINER = "application/zip";
+
+    // Extension -> detected type it must have (containers for Office formats)
+    private static final Map<String, String> EXPECTED = Map.ofEntries(
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("png", "image/png"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("bmp", "image/bmp"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("doc", OLE_CONTAINER),
+            Map.entry("xls", OLE_CONTAINER),
+            Map.entry("docx", ZIP_CONTAINER),
+            Map.entry("xlsx", ZIP_CONTAINER),
+            Map.entry("txt", "text/plain"),
+            Map.entry("csv", "text/plain"));
+
+    // Extension -> content type recorded for the stored file
+    private static final Map<String, String> CONTENT_TYPES = Map.ofEntries(
+            Map.entry("jpg", "image/jpeg"),
+            Map.entry("jpeg", "image/jpeg"),
+            Map.entry("png", "image/png"),
+            Map.entry("gif", "image/gif"),
+            Map.entry("bmp", "image/bmp"),
+            Map.entry("webp", "image/webp"),
+            Map.entry("pdf", "application/pdf"),
+            Map.entry("doc", "application/msword"),
+            Map.entry("xls", "application/vnd.ms-excel"),
+            Map.entry("docx", "application/vnd.openxmlformats-officedocument.wordprocessingml.document"),
+            Map.entry("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+            Map.entry("txt", "text/plain"),
+            Map.entry("csv", "text/csv"));
+
+    private FileSignatures() {
+    }
+
+    public static boolean isSupportedExtension(String extension) {
+        return extension != null && EXPECTED.containsKey(extension.toLowerCase(Locale.ROOT));
+    }
+
+    public static boolean isImageExtension(String extension) {
+        return isSupportedExtension(extension) && EXPECTED.get(extension.toLowerCase(Locale.ROOT)).startsWith("image/");
+    }
+
+    /**
+     * Content type for a supported extension, e.g. "image/jpeg" for "jpg"
+     */
+    public static String contentType(String extension) {
+        return extension == null ? null : CONTENT_TYPES.get(extension.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Type identified from the first bytes of a file, or null when none matches
+     */
+    public static String detect(byte[] head, int length) {
+        if (startsWith(head, length, JPEG)) {
+            return "image/jpeg";
+        }
+        if (startsWith(head, length, PNG)) {
+            return "image/png";
+        }
+        if (startsWith(head, length, GIF87) || startsWith(head, length, GIF89)) {
+            return "image/gif";
+        }
+        if (startsWith(head, length, RIFF) && length >= 12 && regionMatches(head, 8, WEBP)) {
+            return "image/webp";
+        }
+        if (startsWith(head, length, PDF)) {
+            return "application/pdf";
+        }
+        if (startsWith(head, length, ZIP)) {
+            return ZIP_CONTAINER;
+        }
+        if (startsWith(head, length, OLE)) {
+            return OLE_CONTAINER;
+        }
+        if (startsWith(head, length, BMP) && length >= 14) {
+            return "image/bmp";
+        }
+        return isText(head, length) ? "text/plain" : null;
+    }
+
+    /**
+     * Whether the first bytes of a file are what its extension claims
+     */
+    public static boolean matches(String extension, byte[] head, int length) {
+        String expected = extension == null ? null : EXPECTED.get(extension.toLowerCase(Locale.ROOT));
+        if (expected == null) {
+            return false;
+        }
+        // Text is judged on its own: "BM" or "PK" are plausible starts of a CSV line
+        if ("text/plain".equals(expected)) {
+            return isText(head, length);
+        }
+        return expected.equals(detect(head, length));
+    }
+
+    private static boolean isText(byte[] head, int length) {
+        if (length == 0) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (head[i] == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] head, int length, byte[] signature) {
+        return length >= signature.length && regionMatches(head, 0, signature);
+    }
+
+    private static boolean regionMatches(byte[] head, int offset, byte[] signature) {
+        for (int i = 0; i < signature.length; i++) {
+            if (head[offset + i] != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
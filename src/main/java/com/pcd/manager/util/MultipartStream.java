@@ -0,0 +1,287 @@
+package com.pcd.manager.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Forward-only reader of a multipart/form-data body (RFC 7578), for handlers that stream parts straight
+ * from the request instead of letting the container buffer them to temp files first.
+ *
+ * Parts must be read in order: {@link #next()} skips whatever is left of the previous part. Memory use is
+ * one fixed buffer regardless of part size.
+ */
+public class MultipartStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStream(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.buffer = new byte[BUFFER_SIZE + delimiter.length];
+        // The body starts with "--boundary"; a leading CRLF lets the first delimiter match like the others
+        this.buffer[0] = '\r';
+        this.buffer[1] = '\n';
+        this.tail = 2;
+    }
+
+    /**
+     * Boundary parameter of a multipart/form-data content type, or null when it is not one
+     */
+    public static String boundaryOf(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data")) {
+            return null;
+        }
+        for (String parameter : contentType.split(";")) {
+            String trimmed = parameter.trim();
+            if (trimmed.toLowerCase(Locale.ROOT).startsWith("boundary=")) {
+                String boundary = trimmed.substring("boundary=".length());
+                if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+                    boundary = boundary.substring(1, boundary.length() - 1);
+                }
+                return boundary.isEmpty() || boundary.length() > 70 ? null : boundary;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The next part, or null after the closing delimiter
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current == null) {
+            // Preamble before the first delimiter
+            current = new PartInputStream();
+        }
+        current.skipRemaining();
+        if (!fill(2)) {
+            throw new IOException("Malformed multipart body: truncated after boundary");
+        }
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            finished = true;
+            return null;
+        }
+        // Transport padding is allowed between the boundary and its CRLF
+        while (buffer[head] == ' ' || buffer[head] == '\t') {
+            head++;
+            if (!fill(2)) {
+                throw new IOException("Malformed multipart body: truncated after boundary");
+            }
+        }
+        if (buffer[head] != '\r' || buffer[head + 1] != '\n') {
+            throw new IOException("Malformed multipart body: boundary not followed by CRLF");
+        }
+        head += 2;
+        Map<String, String> headers = readHeaders();
+        current = new PartInputStream();
+        return new Part(headers, current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        int consumed = 0;
+        while (true) {
+            int lineEnd = indexOfCrlf();
+            while (lineEnd < 0) {
+                if (tail - head >= MAX_HEADER_BYTES || !fill(tail - head + 1)) {
+                    throw new IOException("Malformed multipart body: part headers too long or truncated");
+                }
+                lineEnd = indexOfCrlf();
+            }
+            String line = new String(buffer, head, lineEnd - head, StandardCharsets.UTF_8);
+            consumed += lineEnd + 2 - head;
+            head = lineEnd + 2;
+            if (line.isEmpty()) {
+                return headers;
+            }
+            if (consumed > MAX_HEADER_BYTES) {
+                throw new IOException("Malformed multipart body: part headers too long");
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    private int indexOfCrlf() {
+        for (int i = head; i + 1 < tail; i++) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Make at least count bytes available from head, compacting and reading as needed; false at end of input
+     */
+    private boolean fill(int count) throws IOException {
+        if (tail - head >= count) {
+            return true;
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        while (tail - head < count && !eof) {
+            int read = in.read(buffer, tail, buffer.length - tail);
+            if (read < 0) {
+                eof = true;
+            } else {
+                tail += read;
+            }
+        }
+        return tail - head >= count;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            if (buffer[i] != '\r') {
+                continue;
+            }
+            for (int j = 1; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Body of one part; ends (returns -1) at the next delimiter
+     */
+    private class PartInputStream extends InputStream {
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                int delimiterAt = indexOfDelimiter();
+                int available;
+                if (delimiterAt >= 0) {
+                    available = delimiterAt - head;
+                    if (available == 0) {
+                        head += delimiter.length;
+                        done = true;
+                        return -1;
+                    }
+                } else {
+                    // Keep a possible partial delimiter at the end of the buffer
+                    available = tail - head - (delimiter.length - 1);
+                }
+                if (available > 0) {
+                    int count = Math.min(length, available);
+                    System.arraycopy(buffer, head, target, offset, count);
+                    head += count;
+                    return count;
+                }
+                if (!fill(delimiter.length)) {
+                    throw new IOException("Malformed multipart body: missing closing boundary");
+                }
+            }
+        }
+
+        void skipRemaining() throws IOException {
+            byte[] discard = new byte[8192];
+            while (read(discard, 0, discard.length) >= 0) {
+                // Drain to the delimiter
+            }
+        }
+    }
+
+    /**
+     * One form field or file; filename is null for plain fields
+     */
+    public static class Part {
+        public final String name;
+        public final String filename;
+        public final String contentType;
+        public final InputStream body;
+
+        Part(Map<String, String> headers, InputStream body) {
+            Map<String, String> disposition = dispositionParameters(headers.get("content-disposition"));
+            this.name = disposition.get("name");
+            this.filename = disposition.get("filename");
+            this.contentType = headers.get("content-type");
+            this.body = body;
+        }
+
+        public boolean isFile() {
+            return filename != null;
+        }
+
+        private static Map<String, String> dispositionParameters(String header) {
+            Map<String, String> parameters = new LinkedHashMap<>();
+            if (header == null) {
+                return parameters;
+            }
+            int i = header.indexOf(';');
+            while (i >= 0 && i < header.length()) {
+                int equals = header.indexOf('=', i);
+                if (equals < 0) {
+                    break;
+                }
+                String key = header.substring(i + 1, equals).trim().toLowerCase(Locale.ROOT);
+                StringBuilder value = new StringBuilder();
+                int j = equals + 1;
+                if (j < header.length() && header.charAt(j) == '"') {
+                    j++;
+                    while (j < header.length() && header.charAt(j) != '"') {
+                        if (header.charAt(j) == '\\' && j + 1 < header.length()) {
+                            j++;
+                        }
+                        value.append(header.charAt(j++));
+                    }
+                    j = header.indexOf(';', j);
+                } else {
+                    int end = header.indexOf(';', j);
+                    value.append(header, j, end < 0 ? header.length() : end);
+                    j = end;
+                }
+                parameters.put(key, value.toString().trim());
+                i = j;
+            }
+            // Browsers may send a path; keep only the name
+            String filename = parameters.get("filename");
+            if (filename != null) {
+                parameters.put("filename", filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1));
+            }
+            return parameters;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.pcd.manager.util;
+
+import org.hibernate.Hibernate;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cheap estimate of the heap retained by a cached value, used as the Caffeine weigher.
+ *
+ * This is deliberately approximate: large collections are sampled and the average element size
+ * is extrapolated, object graphs are followed only a few levels deep, and uninitialized Hibernate
+ * proxies/collections are counted as a reference without being loaded. The goal is that an
+ * "all-tools" list weighs thousands of times more than a single location, not byte accuracy.
+ */
+public final class RetainedSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int MAX_DEPTH = 4;
+    private static final int COLLECTION_SAMPLE = 16;
+
+    private static final Map<Class<?>, Field[]> FIELD_CACHE = new ConcurrentHashMap<>();
+
+    private RetainedSizeEstimator() {
+    }
+
+    /**
+     * Estimated retained bytes of a cache key/value pair, clamped to a positive int for Caffeine
+     */
+    public static int weigh(Object key, Object value) {
+        long bytes = estimate(key) + estimate(value);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, bytes));
+    }
+
+    public static long estimate(Object value) {
+        return estimate(value, 0, new IdentityHashMap<>());
+    }
+
+    private static long estimate(Object value, int depth, Map<Object, Boolean> visited) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            return OBJECT_HEADER + 24 + (long) s.length() * 2;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return OBJECT_HEADER + 8;
+        }
+        if (value instanceof Enum<?>) {
+            // Enum constants are shared singletons
+            return 0;
+        }
+        if (value instanceof Temporal || value instanceof Date) {
+            return OBJECT_HEADER + 32;
+        }
+        if (depth > MAX_DEPTH || visited.put(value, Boolean.TRUE) != null) {
+            return 0;
+        }
+        if (!Hibernate.isInitialized(value)) {
+            return OBJECT_HEADER + REFERENCE;
+        }
+        if (value instanceof Optional<?> optional) {
+            return OBJECT_HEADER + estimate(optional.orElse(null), depth + 1, visited);
+        }
+        if (value instanceof Collection<?> collection) {
+            return estimateCollection(collection, depth, visited);
+        }
+        if (value instanceof Map<?, ?> map) {
+            return estimateMap(map, depth, visited);
+        }
+        if (value instanceof byte[] bytes) {
+            return OBJECT_HEADER + bytes.length;
+        }
+        if (value instanceof Object[] array) {
+            return estimateCollection(Arrays.asList(array), depth, visited);
+        }
+        if (value.getClass().getName().startsWith("java.")) {
+            return OBJECT_HEADER + 32;
+        }
+        return estimateObject(value, depth, visited);
+    }
+
+    private static long estimateCollection(Collection<?> collection, int depth, Map<Object, Boolean> visited) {
+        int size = collection.size();
+        long shallow = 48 + (long) size * REFERENCE;
+        if (size == 0) {
+            return shallow;
+        }
+        long sampled = 0;
+        int count = 0;
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext() && count < COLLECTION_SAMPLE) {
+            sampled += estimate(iterator.next(), depth + 1, visited);
+            count++;
+        }
+        return shallow + sampled * size / count;
+    }
+
+    private static long estimateMap(Map<?, ?> map, int depth, Map<Object, Boolean> visited) {
+        int size = map.size();
+        // HashMap.Node: header + hash + key/value/next references
+        long shallow = 48 + (long) size * (OBJECT_HEADER + 4 + 3 * REFERENCE);
+        if (size == 0) {
+            return shallow;
+        }
+        long sampled = 0;
+        int count = 0;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (count >= COLLECTION_SAMPLE) {
+                break;
+            }
+            sampled += estimate(entry.getKey(), depth + 1, visited) + estimate(entry.getValue(), depth + 1, visited);
+            count++;
+        }
+        return shallow + sampled * size / count;
+    }
+
+    private static long estimateObject(Object value, int depth, Map<Object, Boolean> visited) {
+        long bytes = OBJECT_HEADER;
+        for (Field field : fieldsOf(value.getClass())) {
+            if (field.getType().isPrimitive()) {
+                bytes += 8;
+                continue;
+            }
+            bytes += REFERENCE;
+            try {
+                bytes += estimate(field.get(value), depth + 1, visited);
+            } catch (IllegalAccessException | RuntimeException e) {
+                // Inaccessible field - count the reference only
+            }
+        }
+        return bytes;
+    }
+
+    private static Field[] fieldsOf(Class<?> type) {
+        return FIELD_CACHE.computeIfAbsent(type, t -> {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = t; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    try {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    } catch (RuntimeException e) {
+                        // Module-protected field - skip it
+                    }
+                }
+            }
+            return fields.toArray(new Field[0]);
+        });
+    }
+}
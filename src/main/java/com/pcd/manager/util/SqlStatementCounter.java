@@ -0,0 +1,160 @@
+package com.pcd.manager.util;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Thread-bound counters for JDBC statements, rows fetched and entity loads.
+ *
+ * The counting DataSource (SqlMonitoringConfig) and the Hibernate post-load listener report into
+ * whatever scopes are open on the current thread; nothing is recorded when no scope is open.
+ * SqlMonitoringFilter opens one scope per HTTP request. Tests can open their own scope to pin the
+ * statement count of a code path:
+ *
+ * <pre>
+ * try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+ *     toolRepository.findAllWithCollections();
+ *     scope.assertStatementsAtMost(8);
+ * }
+ * </pre>
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    // Distinct SQL strings tracked per scope, to bound memory on pathological requests
+    private static final int MAX_TRACKED_SQL = 200;
+
+    private SqlStatementCounter() {
+    }
+
+    /**
+     * Open a counting scope on the current thread. Scopes nest: statements count towards every open scope.
+     */
+    public static Scope open() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * The innermost open scope on this thread, or null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    public static void recordStatement(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.statements++;
+            if (sql != null) {
+                if (scope.statementsBySql.size() < MAX_TRACKED_SQL || scope.statementsBySql.containsKey(sql)) {
+                    scope.statementsBySql.merge(sql, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    public static void recordRow() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.rows++;
+        }
+    }
+
+    public static void recordEntityLoad() {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.entityLoads++;
+        }
+    }
+
+    /**
+     * Counters for one unit of work. Only touched by the thread that opened it.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final Scope parent;
+        private final long startNanos = System.nanoTime();
+        private int statements;
+        private long rows;
+        private int entityLoads;
+        private final Map<String, Integer> statementsBySql = new HashMap<>();
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        public int getStatementCount() {
+            return statements;
+        }
+
+        public long getRowCount() {
+            return rows;
+        }
+
+        public int getEntityLoadCount() {
+            return entityLoads;
+        }
+
+        public long getElapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1_000_000;
+        }
+
+        /**
+         * The SQL executed most often in this scope and how many times - the usual N+1 suspect
+         */
+        public Map.Entry<String, Integer> getMostRepeatedStatement() {
+            Map.Entry<String, Integer> top = null;
+            for (Map.Entry<String, Integer> entry : statementsBySql.entrySet()) {
+                if (top == null || entry.getValue() > top.getValue()) {
+                    top = entry;
+                }
+            }
+            return top;
+        }
+
+        /**
+         * @throws SqlBudgetExceededException if more than maxStatements statements ran in this scope
+         */
+        public void assertStatementsAtMost(int maxStatements) {
+            if (statements > maxStatements) {
+                throw new SqlBudgetExceededException(describe("SQL budget exceeded", maxStatements));
+            }
+        }
+
+        public String describe(String prefix, int budget) {
+            StringBuilder message = new StringBuilder(prefix)
+                    .append(": ").append(statements).append(" statements (budget ").append(budget).append("), ")
+                    .append(rows).append(" rows, ").append(entityLoads).append(" entity loads");
+            Map.Entry<String, Integer> top = getMostRepeatedStatement();
+            if (top != null && top.getValue() > 1) {
+                message.append("; most repeated (").append(top.getValue()).append("x): ").append(top.getKey());
+            }
+            return message.toString();
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Thrown when a scope runs more statements than allowed, either by an explicit assertion
+     * or by SqlBudgetInterceptor when app.sql-monitor.fail-on-budget is enabled
+     */
+    public static class SqlBudgetExceededException extends IllegalStateException {
+        public SqlBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
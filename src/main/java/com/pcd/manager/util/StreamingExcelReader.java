@@ -0,0 +1,488 @@
+package com.pcd.manager.util;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Date1904Support;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.xml.sax.SAXException;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Forward-only reader for Excel uploads that does not build the POI DOM for .xlsx files.
+ *
+ * An XSSFWorkbook holds every row and cell of the file as objects, which costs 50-100x the file
+ * size in heap. Here the upload is spooled to a temp file and each sheet's XML is pulled one row at
+ * a time through XSSFReader, so memory depends on the shared-strings table and the widest row,
+ * not on the number of rows. Cells come back typed (string, numeric with date detection from the
+ * cell style, boolean, formula, blank) with accessors named after POI's Cell, so existing
+ * cell-to-string conversions carry over unchanged. Legacy .xls files (at most 65536 rows per
+ * sheet) are still read through WorkbookFactory and exposed through the same row API.
+ *
+ * <pre>
+ * try (StreamingExcelReader reader = StreamingExcelReader.open(file.getInputStream())) {
+ *     while (reader.nextSheet()) {
+ *         StreamingExcelReader.ExcelRow row;
+ *         while ((row = reader.nextRow()) != null) {
+ *             ...
+ *         }
+ *     }
+ * }
+ * </pre>
+ */
+public final class StreamingExcelReader implements AutoCloseable {
+
+    private final Path tempFile;
+
+    // .xlsx streaming state
+    private OPCPackage pkg;
+    private ReadOnlySharedStringsTable sharedStrings;
+    private StylesTable styles;
+    private XSSFReader.SheetIterator xlsxSheets;
+    private final Map<Integer, Boolean> dateStyles = new HashMap<>();
+    private XMLInputFactory xmlInputFactory;
+    private InputStream sheetStream;
+    private XMLStreamReader sheetReader;
+    private boolean date1904;
+
+    // .xls fallback state
+    private Workbook legacyWorkbook;
+    private Iterator<Row> legacyRows;
+
+    private String sheetName;
+    private int sheetIndex = -1;
+    private int lastRowNum = -1;
+
+    private StreamingExcelReader(Path tempFile) {
+        this.tempFile = tempFile;
+    }
+
+    /**
+     * Spool the stream to a temp file and open it. The stream is consumed and closed.
+     */
+    public static StreamingExcelReader open(InputStream in) throws IOException {
+        Path tempFile = Files.createTempFile("excel-import-", ".tmp");
+        StreamingExcelReader reader = new StreamingExcelReader(tempFile);
+        try {
+            try (InputStream source = in) {
+                Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+            if (FileMagic.valueOf(tempFile.toFile()) == FileMagic.OOXML) {
+                reader.openXlsx();
+            } else {
+                reader.legacyWorkbook = WorkbookFactory.create(tempFile.toFile(), null, true);
+            }
+            return reader;
+        } catch (IOException | RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private void openXlsx() throws IOException {
+        try {
+            pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ);
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            styles = xssfReader.getStylesTable();
+            xmlInputFactory = XMLHelper.newXMLInputFactory();
+            date1904 = readDate1904(xssfReader);
+            xlsxSheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        } catch (OpenXML4JException | SAXException | XMLStreamException e) {
+            throw new IOException("Not a readable .xlsx file: " + e.getMessage(), e);
+        }
+    }
+
+    private boolean readDate1904(XSSFReader xssfReader) throws IOException, OpenXML4JException, XMLStreamException {
+        try (InputStream workbookData = xssfReader.getWorkbookData()) {
+            XMLStreamReader xml = xmlInputFactory.createXMLStreamReader(workbookData);
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "workbookPr".equals(xml.getLocalName())) {
+                        String value = xml.getAttributeValue(null, "date1904");
+                        return "1".equals(value) || "true".equalsIgnoreCase(value);
+                    }
+                    if (xml.getEventType() == XMLStreamConstants.START_ELEMENT && "sheets".equals(xml.getLocalName())) {
+                        return false;
+                    }
+                }
+                return false;
+            } finally {
+                xml.close();
+            }
+        }
+    }
+
+    /**
+     * Advance to the next sheet in workbook order. Returns false when there are no more sheets.
+     */
+    public boolean nextSheet() throws IOException {
+        closeSheet();
+        lastRowNum = -1;
+        if (legacyWorkbook != null) {
+            if (sheetIndex + 1 >= legacyWorkbook.getNumberOfSheets()) {
+                return false;
+            }
+            sheetIndex++;
+            Sheet sheet = legacyWorkbook.getSheetAt(sheetIndex);
+            sheetName = sheet.getSheetName();
+            legacyRows = sheet.iterator();
+            return true;
+        }
+        if (!xlsxSheets.hasNext()) {
+            return false;
+        }
+        sheetStream = xlsxSheets.next();
+        sheetName = xlsxSheets.getSheetName();
+        sheetIndex++;
+        try {
+            sheetReader = xmlInputFactory.createXMLStreamReader(sheetStream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Could not read sheet '" + sheetName + "': " + e.getMessage(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Next physically present row of the current sheet, or null at the end of the sheet.
+     * Rows that do not exist in the file are skipped, like Sheet.iterator().
+     */
+    public ExcelRow nextRow() throws IOException {
+        if (legacyRows != null) {
+            if (!legacyRows.hasNext()) {
+                return null;
+            }
+            Row row = legacyRows.next();
+            ExcelRow excelRow = new ExcelRow(row.getRowNum());
+            for (Cell cell : row) {
+                excelRow.cells.put(cell.getColumnIndex(), ExcelCell.of(cell));
+            }
+            lastRowNum = row.getRowNum();
+            return excelRow;
+        }
+        if (sheetReader == null) {
+            return null;
+        }
+        try {
+            while (sheetReader.hasNext()) {
+                if (sheetReader.next() == XMLStreamConstants.START_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+                    return readRow();
+                }
+            }
+            return null;
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed sheet '" + sheetName + "': " + e.getMessage(), e);
+        }
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    /**
+     * 0-based index of the last row returned from the current sheet, -1 before the first row
+     */
+    public int getLastRowNum() {
+        return lastRowNum;
+    }
+
+    private ExcelRow readRow() throws XMLStreamException {
+        String ref = sheetReader.getAttributeValue(null, "r");
+        int rowNum = ref != null ? Integer.parseInt(ref) - 1 : lastRowNum + 1;
+        ExcelRow row = new ExcelRow(rowNum);
+        int nextColumn = 0;
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+                ExcelCell cell = readCell(nextColumn);
+                row.cells.put(cell.columnIndex, cell);
+                nextColumn = cell.columnIndex + 1;
+            } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(sheetReader.getLocalName())) {
+                break;
+            }
+        }
+        lastRowNum = rowNum;
+        return row;
+    }
+
+    private ExcelCell readCell(int defaultColumn) throws XMLStreamException {
+        String ref = sheetReader.getAttributeValue(null, "r");
+        String type = sheetReader.getAttributeValue(null, "t");
+        String style = sheetReader.getAttributeValue(null, "s");
+        int column = ref != null ? new CellReference(ref).getCol() : defaultColumn;
+
+        String value = null;
+        String formula = null;
+        StringBuilder inline = null;
+        while (sheetReader.hasNext()) {
+            int event = sheetReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String name = sheetReader.getLocalName();
+                if ("v".equals(name)) {
+                    value = sheetReader.getElementText();
+                } else if ("f".equals(name)) {
+                    formula = sheetReader.getElementText();
+                } else if ("t".equals(name)) {
+                    // text runs of an inline string (<is><t>..</t></is> or <is><r><t>..</t></r></is>)
+                    if (inline == null) {
+                        inline = new StringBuilder();
+                    }
+                    inline.append(sheetReader.getElementText());
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(sheetReader.getLocalName())) {
+                break;
+            }
+        }
+
+        if (formula != null) {
+            // Children of a shared formula carry no formula text; fall back to the cached result
+            return ExcelCell.formula(column, formula.isEmpty() && value != null ? value : formula);
+        }
+        if ("s".equals(type)) {
+            String text = value == null ? "" : sharedStrings.getItemAt(Integer.parseInt(value.trim())).getString();
+            return ExcelCell.string(column, text);
+        }
+        if ("inlineStr".equals(type)) {
+            return ExcelCell.string(column, inline == null ? "" : inline.toString());
+        }
+        if ("str".equals(type) || "d".equals(type) || "e".equals(type)) {
+            return value == null ? ExcelCell.blank(column) : ExcelCell.string(column, value);
+        }
+        if ("b".equals(type)) {
+            return value == null ? ExcelCell.blank(column) : ExcelCell.bool(column, "1".equals(value.trim()));
+        }
+        if (value == null || value.isEmpty()) {
+            return ExcelCell.blank(column);
+        }
+        double number = Double.parseDouble(value);
+        boolean dateFormatted = style != null && isDateStyle(Integer.parseInt(style)) && DateUtil.isValidExcelDate(number);
+        return ExcelCell.numeric(column, number, dateFormatted, date1904);
+    }
+
+    private boolean isDateStyle(int styleIndex) {
+        if (styles == null) {
+            return false;
+        }
+        return dateStyles.computeIfAbsent(styleIndex, index -> {
+            CellStyle cellStyle = styles.getStyleAt(index);
+            return cellStyle != null
+                    && DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        });
+    }
+
+    private void closeSheet() {
+        legacyRows = null;
+        if (sheetReader != null) {
+            try {
+                sheetReader.close();
+            } catch (XMLStreamException ignored) {
+                // nothing left to release
+            }
+            sheetReader = null;
+        }
+        if (sheetStream != null) {
+            try {
+                sheetStream.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+            sheetStream = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSheet();
+        try {
+            if (pkg != null) {
+                pkg.revert();
+            }
+            if (legacyWorkbook != null) {
+                legacyWorkbook.close();
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * One physically present row. Only cells present in the file are held.
+     */
+    public static final class ExcelRow {
+        private final int rowNum;
+        private final TreeMap<Integer, ExcelCell> cells = new TreeMap<>();
+
+        private ExcelRow(int rowNum) {
+            this.rowNum = rowNum;
+        }
+
+        /**
+         * 0-based row index, as in Row.getRowNum()
+         */
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        /**
+         * The cell at a 0-based column index, or null when the file has no cell there
+         */
+        public ExcelCell getCell(int columnIndex) {
+            return cells.get(columnIndex);
+        }
+
+        /**
+         * Present cells in column order, like iterating a POI Row
+         */
+        public Collection<ExcelCell> getCells() {
+            return cells.values();
+        }
+    }
+
+    /**
+     * A typed cell value detached from any workbook
+     */
+    public static final class ExcelCell {
+        private final int columnIndex;
+        private final CellType cellType;
+        private final String text;
+        private final double number;
+        private final boolean bool;
+        private final boolean dateFormatted;
+        private final boolean date1904;
+
+        private ExcelCell(int columnIndex, CellType cellType, String text, double number, boolean bool,
+                          boolean dateFormatted, boolean date1904) {
+            this.columnIndex = columnIndex;
+            this.cellType = cellType;
+            this.text = text;
+            this.number = number;
+            this.bool = bool;
+            this.dateFormatted = dateFormatted;
+            this.date1904 = date1904;
+        }
+
+        static ExcelCell string(int column, String text) {
+            return new ExcelCell(column, CellType.STRING, text, 0, false, false, false);
+        }
+
+        static ExcelCell numeric(int column, double number, boolean dateFormatted, boolean date1904) {
+            return new ExcelCell(column, CellType.NUMERIC, null, number, false, dateFormatted, date1904);
+        }
+
+        static ExcelCell bool(int column, boolean value) {
+            return new ExcelCell(column, CellType.BOOLEAN, null, 0, value, false, false);
+        }
+
+        static ExcelCell formula(int column, String formula) {
+            return new ExcelCell(column, CellType.FORMULA, formula, 0, false, false, false);
+        }
+
+        static ExcelCell blank(int column) {
+            return new ExcelCell(column, CellType.BLANK, null, 0, false, false, false);
+        }
+
+        static ExcelCell of(Cell cell) {
+            int column = cell.getColumnIndex();
+            switch (cell.getCellType()) {
+                case STRING:
+                    return string(column, cell.getStringCellValue());
+                case NUMERIC:
+                    return numeric(column, cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell),
+                            cell.getSheet().getWorkbook() instanceof Date1904Support support && support.isDate1904());
+                case BOOLEAN:
+                    return bool(column, cell.getBooleanCellValue());
+                case FORMULA:
+                    return formula(column, cell.getCellFormula());
+                case ERROR:
+                    return string(column, String.valueOf(cell.getErrorCellValue()));
+                default:
+                    return blank(column);
+            }
+        }
+
+        public int getColumnIndex() {
+            return columnIndex;
+        }
+
+        public CellType getCellType() {
+            return cellType;
+        }
+
+        /**
+         * Value of a STRING cell, "" for a BLANK cell
+         * @throws IllegalStateException for other cell types, as Cell.getStringCellValue() does
+         */
+        public String getStringCellValue() {
+            if (cellType == CellType.STRING) {
+                return text;
+            }
+            if (cellType == CellType.BLANK) {
+                return "";
+            }
+            throw new IllegalStateException("Cannot get a STRING value from a " + cellType + " cell");
+        }
+
+        public double getNumericCellValue() {
+            if (cellType == CellType.NUMERIC || cellType == CellType.BLANK) {
+                return number;
+            }
+            throw new IllegalStateException("Cannot get a NUMERIC value from a " + cellType + " cell");
+        }
+
+        public boolean getBooleanCellValue() {
+            return bool;
+        }
+
+        public String getCellFormula() {
+            return cellType == CellType.FORMULA ? text : null;
+        }
+
+        /**
+         * True for numeric cells whose style uses a date format, as DateUtil.isCellDateFormatted(cell)
+         */
+        public boolean isDateFormatted() {
+            return cellType == CellType.NUMERIC && dateFormatted;
+        }
+
+        public Date getDateCellValue() {
+            return DateUtil.getJavaDate(number, date1904);
+        }
+
+        public LocalDateTime getLocalDateTimeCellValue() {
+            return DateUtil.getLocalDateTime(number, date1904);
+        }
+    }
+}
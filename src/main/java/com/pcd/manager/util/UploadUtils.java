@@ -1,5 +1,6 @@
 package com.pcd.manager.util;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -14,11 +15,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import java.util.List;
 import java.util.ArrayList;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import java.net.MalformedURLException;
 import jakarta.annotation.PostConstruct;
-import java.io.FileNotFoundException;
 import java.util.Map;
 import java.util.HashMap;
 import java.text.SimpleDateFormat;
@@ -34,7 +31,8 @@ import com.pcd.manager.model.PassdownPicture;
 import com.pcd.manager.model.TrackTrend;
 import com.pcd.manager.model.TrackTrendPicture;
 import com.pcd.manager.model.User;
-import org.springframework.http.ResponseEntity;
+import com.pcd.manager.service.FileBlobService;
+import com.pcd.manager.service.ThumbnailService;
 
 @Component
 public class UploadUtils {
@@ -68,6 +66,11 @@ public class UploadUtils {
         "image/jpeg", "image/png", "image/gif", "image/bmp", "image/webp"
     );
     
+    // Subdirectories whose uploads are attached to records and stored through FileBlobService
+    private static final List<String> CONTENT_ADDRESSED_SUBDIRS = Arrays.asList(
+        "pictures", "documents", "rma-pictures", "rma-documents"
+    );
+    
     // List of Excel file extensions and MIME types
     private static final List<String> EXCEL_EXTENSIONS = Arrays.asList("xls", "xlsx");
     private static final List<String> EXCEL_MIME_TYPES = Arrays.asList(
@@ -83,6 +86,12 @@ public class UploadUtils {
     @Value("${upload.max-file-size:10485760}")
     private long maxFileSize; // Default 10MB
 
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private FileBlobService fileBlobService;
+
     @PostConstruct
     public void init() {
         this.baseUploadPath = Paths.get(uploadDir);
@@ -204,6 +213,15 @@ public class UploadUtils {
             logger.warn("File validation failed for {}", file.getOriginalFilename());
             return null;
         }
+
+        // Record attachments go to the content-addressed store: one copy per distinct content
+        if (subdirectory != null && CONTENT_ADDRESSED_SUBDIRS.contains(subdirectory)) {
+            String relativePath = fileBlobService.store(file.getInputStream(), extensionOf(file.getOriginalFilename()));
+            if (thumbnailService.isSupported(relativePath)) {
+                thumbnailService.schedule(relativePath);
+            }
+            return relativePath;
+        }
         
         // Create subdirectory if provided
         String targetDir = uploadDir;
@@ -253,6 +271,10 @@ public class UploadUtils {
             // Ensure forward slashes for web compatibility
             relativePath = relativePath.replace('\\', '/');
             logger.info("File saved successfully. Relative path: {}", relativePath);
+            // Thumbnails are generated in the background on the file executor
+            if (thumbnailService.isSupported(uniqueFilename)) {
+                thumbnailService.schedule(relativePath);
+            }
             return relativePath;
         } catch (IOException e) {
             logger.error("Failed to save file: {}", e.getMessage(), e);
@@ -260,6 +282,16 @@ public class UploadUtils {
         }
     }
     
+    /**
+     * Extension of an uploaded file name including the dot, or an empty string
+     */
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null || originalFilename.lastIndexOf('.') < 0) {
+            return "";
+        }
+        return originalFilename.substring(originalFilename.lastIndexOf('.'));
+    }
+    
     /**
      * Checks if a file exists at the given path
      * 
@@ -297,6 +329,12 @@ public class UploadUtils {
             logger.warn("Cannot delete file: path is null or empty");
             return false;
         }
+
+        // Shared content: other records may still point at it, so leave it to blob collection
+        if (fileBlobService.isBlobPath(filePath)) {
+            fileBlobService.release(filePath);
+            return true;
+        }
         
         try {
             // Try with the path as provided
@@ -313,6 +351,7 @@ public class UploadUtils {
                 boolean deleted = file.delete();
                 if (deleted) {
                     logger.info("File deleted successfully: {}", file.getAbsolutePath());
+                    thumbnailService.deleteThumbnails(file.toPath().toAbsolutePath().normalize());
                 } else {
                     logger.warn("Failed to delete file: {}", file.getAbsolutePath());
                 }
@@ -585,31 +624,4 @@ public class UploadUtils {
         
         return document;
     }
-
-    /**
-     * Serves a file from the upload directory
-     * 
-     * @param filePath The path to the file relative to the upload directory
-     * @param contentType The content type of the file
-     * @return ResponseEntity containing the file
-     * @throws IOException If an I/O error occurs
-     */
-    public ResponseEntity<?> serveFile(String filePath, String contentType) throws IOException {
-        try {
-            Path file = baseUploadPath.resolve(filePath);
-            Resource resource = new UrlResource(file.toUri());
-            
-            if (resource.exists() || resource.isReadable()) {
-                return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.parseMediaType(contentType))
-                    .header(org.springframework.http.HttpHeaders.CONTENT_DISPOSITION, 
-                           "inline; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-            } else {
-                throw new FileNotFoundException("Could not read file: " + filePath);
-            }
-        } catch (MalformedURLException e) {
-            throw new FileNotFoundException("Could not read file: " + filePath);
-        }
-    }
-} 
\ No newline at end of file
+}
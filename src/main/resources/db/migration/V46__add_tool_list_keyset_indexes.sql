@@ -0,0 +1,4 @@
+-- Indexes backing the keyset-paginated tools list (/tools/api/page)
+CREATE INDEX IF NOT EXISTS idx_tools_name_id ON tools (name, id);
+CREATE INDEX IF NOT EXISTS idx_tools_location_name ON tools (location_name);
+CREATE INDEX IF NOT EXISTS idx_tools_tool_type ON tools (tool_type);
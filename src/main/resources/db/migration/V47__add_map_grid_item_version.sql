@@ -0,0 +1,3 @@
+-- Optimistic version for map-state saves and the location-scoped geometry lookup they run
+ALTER TABLE map_grid_items ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS idx_map_grid_items_location_id ON map_grid_items (location_id);
@@ -0,0 +1,11 @@
+-- Content-addressed upload store: one row per distinct file under blobs/, with its reference count
+CREATE TABLE IF NOT EXISTS file_blobs (
+    id BIGSERIAL PRIMARY KEY,
+    sha256 VARCHAR(64) NOT NULL UNIQUE,
+    file_path VARCHAR(255) NOT NULL UNIQUE,
+    file_size BIGINT,
+    reference_count INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    unreferenced_since TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_file_blobs_unreferenced ON file_blobs (reference_count, unreferenced_since);
@@ -0,0 +1,3 @@
+-- Content hash recorded by the passdown Excel import; the unique index makes re-imports idempotent
+ALTER TABLE passdowns ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS ux_passdowns_content_hash ON passdowns (content_hash);
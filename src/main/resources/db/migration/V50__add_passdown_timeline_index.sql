@@ -0,0 +1,2 @@
+-- Keyset index for the passdown timeline (/passdown/api/timeline), read newest first by (date, id)
+CREATE INDEX IF NOT EXISTS idx_passdowns_date_id ON passdowns (date, id);
@@ -0,0 +1,58 @@
+-- Normalized from/to endpoints of moving parts, replacing scans of the destination_chain and
+-- to_custom_locations JSON text columns; kept current by the application on every moving part save
+CREATE TABLE IF NOT EXISTS moving_part_endpoints (
+    id BIGSERIAL PRIMARY KEY,
+    moving_part_id BIGINT NOT NULL REFERENCES moving_parts (id) ON DELETE CASCADE,
+    role VARCHAR(8) NOT NULL,
+    sort_order INTEGER NOT NULL,
+    tool_id BIGINT,
+    custom_location_id BIGINT,
+    custom_location_name VARCHAR(255),
+    name_key VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_mpe_moving_part ON moving_part_endpoints (moving_part_id);
+CREATE INDEX IF NOT EXISTS idx_mpe_tool_role ON moving_part_endpoints (tool_id, role);
+CREATE INDEX IF NOT EXISTS idx_mpe_custom_location_role ON moving_part_endpoints (custom_location_id, role);
+CREATE INDEX IF NOT EXISTS idx_mpe_name_key_role ON moving_part_endpoints (name_key, role);
+
+-- Backfill (parts without endpoints only, so a re-run or the application's startup backfill is harmless)
+CREATE TEMPORARY TABLE unindexed_moving_parts ON COMMIT DROP AS
+SELECT mp.id FROM moving_parts mp
+WHERE NOT EXISTS (SELECT 1 FROM moving_part_endpoints e WHERE e.moving_part_id = mp.id);
+
+-- Source: tool, linked custom location and/or custom location name
+INSERT INTO moving_part_endpoints (moving_part_id, role, sort_order, tool_id, custom_location_id, custom_location_name, name_key)
+SELECT mp.id, 'FROM', 0, mp.from_tool_id, mp.from_custom_location_id,
+       COALESCE(NULLIF(TRIM(mp.from_custom_location), ''), cl.name),
+       LOWER(NULLIF(TRIM(mp.from_custom_location), ''))
+FROM moving_parts mp
+JOIN unindexed_moving_parts u ON u.id = mp.id
+LEFT JOIN custom_locations cl ON cl.id = mp.from_custom_location_id
+WHERE mp.from_tool_id IS NOT NULL OR mp.from_custom_location_id IS NOT NULL
+   OR NULLIF(TRIM(mp.from_custom_location), '') IS NOT NULL;
+
+-- Destination chain tools in order
+INSERT INTO moving_part_endpoints (moving_part_id, role, sort_order, tool_id)
+SELECT mp.id, 'TO', chain.ordinality, chain.tool_id::BIGINT
+FROM moving_parts mp
+JOIN unindexed_moving_parts u ON u.id = mp.id
+CROSS JOIN LATERAL jsonb_array_elements_text(mp.destination_chain::jsonb) WITH ORDINALITY AS chain(tool_id, ordinality)
+WHERE NULLIF(TRIM(mp.destination_chain), '') IS NOT NULL AND chain.tool_id IS NOT NULL;
+
+-- Named destination custom locations, numbered after the chain tools
+INSERT INTO moving_part_endpoints (moving_part_id, role, sort_order, custom_location_name, name_key)
+SELECT mp.id, 'TO',
+       COALESCE(jsonb_array_length(NULLIF(TRIM(mp.destination_chain), '')::jsonb), 0) + names.ordinality,
+       TRIM(names.name), LOWER(TRIM(names.name))
+FROM moving_parts mp
+JOIN unindexed_moving_parts u ON u.id = mp.id
+CROSS JOIN LATERAL jsonb_array_elements_text(mp.to_custom_locations::jsonb) WITH ORDINALITY AS names(name, ordinality)
+WHERE NULLIF(TRIM(mp.to_custom_locations), '') IS NOT NULL AND NULLIF(TRIM(names.name), '') IS NOT NULL;
+
+-- Linked destination custom location
+INSERT INTO moving_part_endpoints (moving_part_id, role, sort_order, custom_location_id, custom_location_name)
+SELECT mp.id, 'TO', 1000, mp.to_custom_location_id, cl.name
+FROM moving_parts mp
+JOIN unindexed_moving_parts u ON u.id = mp.id
+JOIN custom_locations cl ON cl.id = mp.to_custom_location_id;
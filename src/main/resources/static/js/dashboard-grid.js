@@ -27,6 +27,7 @@ let dragOffsetX = 0;
 let dragOffsetY = 0;
 let isMouseDown = false; // Track if mouse button is down globally
 let potentialSelectShape = null; // Track shape that might be selected on mouseup
+let liveUpdates = null; // EventSource streaming other users' map changes
 window.toolShapes = toolShapes; // Expose for filtering
 window.gridLayer = gridLayer; // Expose for filtering
 
@@ -1256,6 +1257,7 @@ function loadGridItems() {
         document.dispatchEvent(new CustomEvent('gridReady'));
         
         mapInitialized = true;
+        connectLiveUpdates();
     } catch (e) {
         console.error('Error loading grid items:', e);
     }
@@ -1272,6 +1274,168 @@ function confirmDelete() {
     deleteModal.show();
 }
 
+/**
+ * Record the geometry and version last confirmed by the server, so saves only send what moved
+ */
+function rememberSavedState(shape, state) {
+    shape.attrs.version = state.version || 0;
+    shape.attrs.savedX = state.x;
+    shape.attrs.savedY = state.y;
+    shape.attrs.savedWidth = state.width;
+    shape.attrs.savedHeight = state.height;
+}
+
+/**
+ * Current geometry of a shape in grid units
+ */
+function shapeGridState(shape) {
+    const rect = shape.findOne('.mainRect');
+    return {
+        id: shape.attrs.id,
+        version: shape.attrs.version || 0,
+        x: Math.floor(shape.x() / gridSize),
+        y: Math.floor(shape.y() / gridSize),
+        width: Math.floor(rect.width() / gridSize),
+        height: Math.floor(rect.height() / gridSize)
+    };
+}
+
+/**
+ * Apply server geometry to a shape (used for conflicts: another editor saved it first)
+ */
+function applyServerState(shape, state) {
+    shape.x(state.x * gridSize);
+    shape.y(state.y * gridSize);
+    if (shape.attrs.type === 'drawing') {
+        const rect = shape.findOne('.mainRect');
+        const textNode = shape.findOne('.text');
+        rect.width(state.width * gridSize);
+        rect.height(state.height * gridSize);
+        if (textNode) {
+            textNode.width(state.width * gridSize);
+            textNode.height(state.height * gridSize);
+        }
+    }
+    rememberSavedState(shape, state);
+}
+
+/**
+ * Subscribe to live changes for this location's map so other users' edits show up without reloading
+ */
+function connectLiveUpdates() {
+    if (liveUpdates || !window.EventSource) return;
+    
+    let connectedBefore = false;
+    liveUpdates = new EventSource('/api/map/live');
+    liveUpdates.addEventListener('ready', () => {
+        // EventSource reconnects by itself; reload whatever was missed while disconnected
+        if (connectedBefore) resyncGrid();
+        connectedBefore = true;
+    });
+    liveUpdates.addEventListener('patch', event => {
+        try {
+            JSON.parse(event.data).forEach(applyRemotePatch);
+            toolLayer.batchDraw();
+        } catch (e) {
+            console.error('Error applying live map update:', e);
+        }
+    });
+    liveUpdates.addEventListener('resync', resyncGrid);
+}
+
+/**
+ * Grid item shape by item id (tool shapes are indexed by tool id)
+ */
+function findShapeByItemId(id) {
+    return toolLayer.getChildren(node => node.attrs.id === id &&
+        (node.attrs.type === 'tool' || node.attrs.type === 'drawing'))[0] || null;
+}
+
+/**
+ * Remove a grid item shape and its index entry
+ */
+function removeShape(shape) {
+    if (selectedShape === shape) deselectShape();
+    if (shape.attrs.type === 'tool') {
+        if (toolShapes[shape.attrs.toolId] === shape) delete toolShapes[shape.attrs.toolId];
+    } else {
+        delete drawingShapes[shape.attrs.id];
+    }
+    shape.destroy();
+}
+
+/**
+ * Apply one item patch from the live stream: create, move/resize, edit, delete or tool status
+ */
+function applyRemotePatch(patch) {
+    const shape = findShapeByItemId(patch.id);
+    
+    if (patch.deleted) {
+        if (shape) removeShape(shape);
+        return;
+    }
+    
+    if (patch.status !== undefined && Array.isArray(window.allToolsData)) {
+        const toolData = window.allToolsData.find(t => t.id == patch.toolId);
+        if (toolData) toolData.status = patch.status;
+    }
+    
+    if (!shape) {
+        if (patch.type === 'TOOL') {
+            createToolShape(patch);
+        } else if (patch.type === 'DRAWING') {
+            createDrawingShape(patch);
+        }
+        return;
+    }
+    
+    // Our own saves come back too; only newer versions matter
+    if (patch.version === undefined || patch.version <= (shape.attrs.version || 0)) return;
+    
+    // Unsaved local edits win for now; saving them will report the conflict and snap back
+    const local = shapeGridState(shape);
+    if (local.x !== shape.attrs.savedX || local.y !== shape.attrs.savedY ||
+        local.width !== shape.attrs.savedWidth || local.height !== shape.attrs.savedHeight) {
+        return;
+    }
+    
+    if (shape.attrs.type === 'drawing' && patch.type === 'DRAWING' &&
+        (patch.text !== shape.attrs.text || (patch.color || 'black') !== shape.attrs.color || patch.isSolid !== shape.attrs.isSolid)) {
+        // Text and colours are baked into the shape, so rebuild it
+        removeShape(shape);
+        createDrawingShape(patch);
+        return;
+    }
+    
+    applyServerState(shape, patch);
+}
+
+/**
+ * Reconcile the whole grid with the server after missed updates
+ */
+function resyncGrid() {
+    fetch('/api/map')
+        .then(response => {
+            if (!response.ok) {
+                throw new Error('Failed to reload map');
+            }
+            return response.json();
+        })
+        .then(items => {
+            const ids = new Set(items.map(item => item.id));
+            toolLayer.getChildren(node => node.attrs.type === 'tool' || node.attrs.type === 'drawing')
+                .filter(shape => !ids.has(shape.attrs.id))
+                .forEach(removeShape);
+            items.forEach(item => applyRemotePatch(Object.assign({}, item, {
+                toolId: item.tool ? item.tool.id : item.toolId
+            })));
+            toolLayer.batchDraw();
+        })
+        .catch(error => {
+            console.error('Error resyncing map:', error);
+        });
+}
+
 /**
  * Save grid state
  */
@@ -1279,33 +1443,29 @@ function saveGridState() {
     if (!hasChanges) return;
     
     try {
-        // Collect all grid items
+        // Collect only the items that moved or were resized since the last save
+        const shapesById = {};
         const items = [];
-        
-        // Add tools
-        for (const id in toolShapes) {
-            if (toolShapes.hasOwnProperty(id)) {
-                const shape = toolShapes[id];
-                items.push({
-                    id: shape.attrs.id,
-                    x: Math.floor(shape.x() / gridSize),
-                    y: Math.floor(shape.y() / gridSize)
-                });
+        const collect = shape => {
+            shapesById[shape.attrs.id] = shape;
+            const state = shapeGridState(shape);
+            if (state.x !== shape.attrs.savedX || state.y !== shape.attrs.savedY ||
+                state.width !== shape.attrs.savedWidth || state.height !== shape.attrs.savedHeight) {
+                // Tools are not resizable here, so their size is left out of the delta
+                if (shape.attrs.type === 'tool') {
+                    delete state.width;
+                    delete state.height;
+                }
+                items.push(state);
             }
-        }
+        };
+        Object.values(toolShapes).forEach(collect);
+        Object.values(drawingShapes).forEach(collect);
         
-        // Add drawings
-        for (const id in drawingShapes) {
-            if (drawingShapes.hasOwnProperty(id)) {
-                const shape = drawingShapes[id];
-                items.push({
-                    id: shape.attrs.id,
-                    x: Math.floor(shape.x() / gridSize),
-                    y: Math.floor(shape.y() / gridSize),
-                    width: Math.floor(shape.findOne('.mainRect').width() / gridSize),
-                    height: Math.floor(shape.findOne('.mainRect').height() / gridSize)
-                });
-            }
+        if (items.length === 0) {
+            hasChanges = false;
+            updateSaveButton();
+            return;
         }
         
         // Send to server
@@ -1317,14 +1477,31 @@ function saveGridState() {
             body: JSON.stringify(items)
         })
         .then(response => {
-            if (!response.ok) {
+            if (!response.ok && response.status !== 409) {
                 throw new Error('Failed to save map state');
             }
+            return response.json();
+        })
+        .then(result => {
+            (result.updated || []).forEach(state => {
+                const shape = shapesById[state.id];
+                if (shape) rememberSavedState(shape, state);
+            });
+            (result.conflicts || []).forEach(state => {
+                const shape = shapesById[state.id];
+                if (shape) applyServerState(shape, state);
+            });
+            toolLayer.batchDraw();
             
             // Reset changes flag
             hasChanges = false;
             updateSaveButton();
-            console.log('Map state saved successfully');
+            if (result.conflicts && result.conflicts.length > 0) {
+                console.warn('Map items changed by another user were reloaded:', result.conflicts);
+                alert(result.conflicts.length + ' item(s) were moved by someone else since you loaded the map; their latest positions are now shown.');
+            } else {
+                console.log('Map state saved successfully');
+            }
         })
         .catch(error => {
             console.error('Error saving map state:', error);
@@ -1861,6 +2038,7 @@ function updateDrawing(shape, text, color, isSolid) {
     })
     .then(data => {
         console.log('Drawing updated successfully:', data);
+        rememberSavedState(shape, data);
         
         // Update shape appearance
         const rect = shape.findOne('.mainRect');
@@ -2116,6 +2294,9 @@ function getThemeAwareColors(toolType) {
  * Create a tool shape from data
  */
 function createToolShape(data) {
+    // The live stream may have delivered this item before our own create request returned
+    if (data.id != null && findShapeByItemId(data.id)) return;
+    
     // Calculate grid positions
     const x = data.x * gridSize;
     const y = data.y * gridSize;
@@ -2173,6 +2354,7 @@ function createToolShape(data) {
         toolType: toolData.type,
         draggable: false
     });
+    rememberSavedState(group, data);
     
     // Determine fill color based on tool type
     // Get theme-aware colors
@@ -2256,6 +2438,8 @@ function createToolShape(data) {
  * Create a drawing shape from data
  */
 function createDrawingShape(data) {
+    if (data.id != null && findShapeByItemId(data.id)) return;
+    
     // Calculate grid positions
     const x = data.x * gridSize;
     const y = data.y * gridSize;
@@ -2273,6 +2457,7 @@ function createDrawingShape(data) {
         isSolid: data.isSolid,
         draggable: false
     });
+    rememberSavedState(group, data);
     
     // Determine colors based on selected color and style
     let strokeColor, fillColor;
@@ -0,0 +1,154 @@
+package com.pcd.manager;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Closed-loop load benchmark of a running server's heaviest pages, for comparing thread pool and virtual
+ * thread mode. Runs in its own JVM, so the load it generates is not measured as part of the server.
+ *
+ * Usage: LoadBenchmarkClient BASE_URL EMAIL PASSWORD [PATHS] [REQUESTS] [CONCURRENCY] [WARMUP]
+ * e.g. LoadBenchmarkClient http://localhost:8080 admin@pcd.com secret /tools,/rma,/dashboard 200 16 5
+ *
+ * Logs in once, then a fixed number of client threads share the session and request each path in turn,
+ * printing throughput and latency percentiles per path. Run it once per mode (restart the server with
+ * spring.threads.virtual.enabled toggled) and compare the results.
+ */
+public final class LoadBenchmarkClient {
+
+    private static final int MAX_CONCURRENCY = 64;
+    private static final int MAX_REQUESTS = 5000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .cookieHandler(new CookieManager())
+            .build();
+
+    private LoadBenchmarkClient() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadBenchmarkClient BASE_URL EMAIL PASSWORD [PATHS] [REQUESTS] [CONCURRENCY] [WARMUP]");
+            System.exit(2);
+        }
+        String baseUrl = args[0].replaceAll("/+$", "");
+        List<String> paths = new ArrayList<>();
+        for (String path : (args.length > 3 ? args[3] : "/tools,/rma,/dashboard").split(",")) {
+            if (!path.trim().isEmpty()) {
+                paths.add(path.trim());
+            }
+        }
+        int requests = Math.max(1, Math.min(args.length > 4 ? Integer.parseInt(args[4]) : 200, MAX_REQUESTS));
+        int clients = Math.max(1, Math.min(args.length > 5 ? Integer.parseInt(args[5]) : 16, MAX_CONCURRENCY));
+        int warmup = Math.max(0, args.length > 6 ? Integer.parseInt(args[6]) : 5);
+
+        LoadBenchmarkClient client = new LoadBenchmarkClient();
+        client.login(baseUrl, args[1], args[2]);
+        System.out.printf("baseUrl=%s concurrency=%d requestsPerPath=%d%n", baseUrl, clients, requests);
+
+        ExecutorService clientThreads = Executors.newFixedThreadPool(clients);
+        try {
+            for (String path : paths) {
+                URI uri = URI.create(baseUrl + path);
+                for (int i = 0; i < warmup; i++) {
+                    client.send(uri);
+                }
+                client.measure(clientThreads, uri, path, requests, clients);
+            }
+        } finally {
+            clientThreads.shutdownNow();
+        }
+    }
+
+    /**
+     * Form login; the session cookie is kept by the client's cookie handler for every later request
+     */
+    private void login(String baseUrl, String email, String password) throws IOException, InterruptedException {
+        String form = "username=" + URLEncoder.encode(email, StandardCharsets.UTF_8)
+                + "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        String location = response.headers().firstValue("Location").orElse("");
+        if (response.statusCode() != 302 || location.contains("error")) {
+            throw new IllegalStateException("Login as " + email + " failed: HTTP " + response.statusCode() + " " + location);
+        }
+    }
+
+    private void measure(ExecutorService clientThreads, URI uri, String path, int total, int clients) {
+        AtomicInteger remaining = new AtomicInteger(total);
+        AtomicInteger errors = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(total));
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            futures.add(clientThreads.submit(() -> {
+                while (remaining.getAndDecrement() > 0) {
+                    long requestStart = System.nanoTime();
+                    int status = send(uri);
+                    latencies.add(System.nanoTime() - requestStart);
+                    if (status != 200) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (Exception e) {
+                System.err.println("Benchmark client for " + path + " failed: " + e.getMessage());
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("path=%s requests=%d errors=%d durationMs=%d throughputPerSecond=%.1f p50Ms=%d p95Ms=%d p99Ms=%d maxMs=%d%n",
+                path, sorted.size(), errors.get(), elapsedNanos / 1_000_000, sorted.size() * 1_000_000_000.0 / elapsedNanos,
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.95), percentileMillis(sorted, 0.99),
+                sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1) / 1_000_000);
+    }
+
+    /**
+     * Returns the HTTP status, or -1 when the request could not be made
+     */
+    private int send(URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static long percentileMillis(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1_000_000;
+    }
+}
@@ -0,0 +1,142 @@
+package com.pcd.manager.repository;
+
+import com.pcd.manager.config.SqlMonitoringConfig;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.model.ToolPicture;
+import com.pcd.manager.util.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the number of SQL statements issued by the Tool queries used by the caches and list pages,
+ * so a collection that silently goes back to one select per tool fails the build.
+ */
+@DataJpaTest(properties = {
+        "app.sql-monitor.enabled=true",
+        "spring.flyway.enabled=false"
+})
+class ToolRepositoryStatementCountTest {
+
+    // PcdManagerApplication's explicit @ComponentScan would pull every controller and service into the slice
+    @Configuration
+    @EntityScan(basePackageClasses = Tool.class)
+    @EnableJpaRepositories(basePackageClasses = ToolRepository.class)
+    @Import(SqlMonitoringConfig.class)
+    static class JpaSliceConfig {
+    }
+
+    // 1 tools query + 1 query per collection
+    private static final int COLLECTION_LOAD_STATEMENTS = 8;
+
+    @Autowired
+    private ToolRepository toolRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long firstToolId;
+
+    @BeforeEach
+    void createTools() {
+        for (int i = 0; i < 5; i++) {
+            Tool tool = new Tool();
+            tool.setName("TOOL-" + i);
+            tool.setLocationName("AZ F52");
+            tool.getDocumentPaths().add("documents/tool-" + i + ".pdf");
+            tool.getDocumentNames().put("documents/tool-" + i + ".pdf", "Manual " + i);
+            tool.getDocumentTags().put("documents/tool-" + i + ".pdf", "manual");
+            tool.getPicturePaths().add("pictures/tool-" + i + ".jpg");
+            tool.getPictureNames().put("pictures/tool-" + i + ".jpg", "Front " + i);
+            tool.getTags().add("tag-" + i);
+
+            ToolPicture picture = new ToolPicture();
+            picture.setFileName("tool-" + i + ".jpg");
+            picture.setFilePath("pictures/tool-" + i + ".jpg");
+            picture.setTool(tool);
+            tool.getPictures().add(picture);
+
+            entityManager.persist(tool);
+            if (firstToolId == null) {
+                firstToolId = tool.getId();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void findAllWithCollectionsDoesNotScaleWithToolCount() {
+        List<Tool> tools;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            tools = toolRepository.findAllWithCollections();
+            scope.assertStatementsAtMost(COLLECTION_LOAD_STATEMENTS);
+        }
+
+        assertThat(tools).hasSize(5);
+        for (Tool tool : tools) {
+            assertCollectionsInitialized(tool);
+        }
+    }
+
+    @Test
+    void findByIdWithCollectionsLoadsEveryCollection() {
+        Optional<Tool> tool;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            tool = toolRepository.findByIdWithCollections(firstToolId);
+            scope.assertStatementsAtMost(COLLECTION_LOAD_STATEMENTS);
+        }
+
+        assertThat(tool).isPresent();
+        assertCollectionsInitialized(tool.get());
+        assertThat(tool.get().getPictures()).hasSize(1);
+        assertThat(tool.get().getDocumentNames()).hasSize(1);
+    }
+
+    @Test
+    void findAllLeavesCollectionsLazy() {
+        List<Tool> tools;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            tools = toolRepository.findAll();
+            // exactly one: also proves the counting DataSource is in place
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+
+        assertThat(tools).isNotEmpty()
+                .allSatisfy(tool -> assertThat(Hibernate.isInitialized(tool.getPictures())).isFalse());
+    }
+
+    @Test
+    void listProjectionsAreSingleStatements() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(toolRepository.findReferenceData()).hasSize(5);
+            scope.assertStatementsAtMost(1);
+        }
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(toolRepository.findGridViewData()).hasSize(5);
+            scope.assertStatementsAtMost(1);
+        }
+    }
+
+    private static void assertCollectionsInitialized(Tool tool) {
+        assertThat(Hibernate.isInitialized(tool.getDocumentPaths())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getDocumentNames())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getDocumentTags())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getPictures())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getPicturePaths())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getPictureNames())).isTrue();
+        assertThat(Hibernate.isInitialized(tool.getTags())).isTrue();
+    }
+}
@@ -0,0 +1,128 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.config.SqlMonitoringConfig;
+import com.pcd.manager.model.MovingPart;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.repository.MovingPartRepository;
+import com.pcd.manager.repository.ToolRepository;
+import com.pcd.manager.util.SqlStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins that resolving the destination chains of an RMA's moving parts is one tool query however many
+ * parts there are, as the RMA page does for up to hundreds of parts.
+ */
+@DataJpaTest(properties = {
+        "app.sql-monitor.enabled=true",
+        "spring.flyway.enabled=false"
+})
+class MovingPartServiceStatementCountTest {
+
+    // PcdManagerApplication's explicit @ComponentScan would pull every controller and service into the slice
+    @Configuration
+    @EntityScan(basePackageClasses = Tool.class)
+    @EnableJpaRepositories(basePackageClasses = ToolRepository.class)
+    @Import({SqlMonitoringConfig.class, MovingPartService.class})
+    static class JpaSliceConfig {
+    }
+
+    private static final int MOVING_PARTS = 200;
+    private static final long MISSING_TOOL_ID = 999_999L;
+
+    // Used by the MovingPart entity listener
+    @MockBean
+    private MovingPartLocationIndexService movingPartLocationIndexService;
+
+    @Autowired
+    private MovingPartService movingPartService;
+
+    @Autowired
+    private MovingPartRepository movingPartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<Tool> tools = new ArrayList<>();
+
+    @BeforeEach
+    void createMovingParts() {
+        for (int i = 0; i < 4; i++) {
+            Tool tool = new Tool();
+            tool.setName("TOOL-" + i);
+            tool.setLocationName("AZ F52");
+            entityManager.persist(tool);
+            tools.add(tool);
+        }
+        for (int i = 0; i < MOVING_PARTS; i++) {
+            MovingPart movingPart = new MovingPart();
+            movingPart.setPartName("Part " + i);
+            movingPart.setMoveDate(LocalDateTime.now());
+            movingPart.setFromTool(tools.get(0));
+            if (i % 10 != 0) {
+                // Chains list tools out of id order, and every other one names a deleted tool
+                List<Long> chain = new ArrayList<>(List.of(tools.get(3).getId(), tools.get(1 + i % 2).getId()));
+                if (i % 2 == 0) {
+                    chain.add(MISSING_TOOL_ID);
+                }
+                movingPart.setDestinationToolIds(chain);
+            }
+            entityManager.persist(movingPart);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void destinationChainsAreOneQueryForAllMovingParts() {
+        List<MovingPart> movingParts = movingPartRepository.findAll();
+        entityManager.clear();
+
+        Map<Long, List<Tool>> chains;
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            chains = movingPartService.getDestinationChains(movingParts);
+            // exactly one: the tool lookup is not per moving part
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+
+        assertThat(chains).hasSize(MOVING_PARTS);
+        for (MovingPart movingPart : movingParts) {
+            List<Tool> chain = chains.get(movingPart.getId());
+            if (movingPart.hasDestinationChain()) {
+                // Chain order is kept and the deleted tool is skipped
+                assertThat(chain).extracting(Tool::getId).hasSize(2)
+                        .first().isEqualTo(tools.get(3).getId());
+            } else {
+                assertThat(chain).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void movingPartsWithoutChainsNeedNoQuery() {
+        List<MovingPart> movingParts = movingPartRepository.findAll().stream()
+                .filter(movingPart -> !movingPart.hasDestinationChain())
+                .toList();
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(movingPartService.getDestinationChains(movingParts)).hasSize(MOVING_PARTS / 10)
+                    .allSatisfy((id, chain) -> assertThat(chain).isEmpty());
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+}
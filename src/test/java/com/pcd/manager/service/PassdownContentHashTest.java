@@ -0,0 +1,159 @@
+package com.pcd.manager.service;
+
+import com.pcd.manager.model.Passdown;
+import com.pcd.manager.model.Tool;
+import com.pcd.manager.model.User;
+import com.pcd.manager.repository.PassdownRepository;
+import com.pcd.manager.util.UploadUtils;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins that editing an imported passdown keeps import duplicate detection right: the original row can be
+ * imported again, and the edited content is recognized once the next import has hashed it.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=false")
+class PassdownContentHashTest {
+
+    // PcdManagerApplication's explicit @ComponentScan would pull every controller and service into the slice
+    @Configuration
+    @EntityScan(basePackageClasses = Passdown.class)
+    @EnableJpaRepositories(basePackageClasses = PassdownRepository.class)
+    @Import({PassdownService.class, PassdownExcelImportService.class})
+    static class JpaSliceConfig {
+    }
+
+    private static final LocalDate SHIFT_DATE = LocalDate.of(2025, 3, 14);
+    private static final String TASK = "Replaced pump seal";
+
+    @MockBean
+    private UploadUtils uploadUtils;
+
+    @MockBean
+    private ToolService toolService;
+
+    @Autowired
+    private PassdownService passdownService;
+
+    @Autowired
+    private PassdownExcelImportService passdownExcelImportService;
+
+    @Autowired
+    private PassdownRepository passdownRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User technician;
+    private Tool tool;
+
+    @BeforeEach
+    void createToolAndTechnician() {
+        technician = new User();
+        technician.setEmail("tech@example.com");
+        technician.setName("Test Tech");
+        entityManager.persist(technician);
+
+        tool = new Tool();
+        tool.setName("BT151");
+        tool.setLocationName("AZ F52");
+        entityManager.persist(tool);
+        entityManager.flush();
+    }
+
+    @Test
+    void editedPassdownIsImportedAgainAndItsNewContentIsRecognized() {
+        assertThat(importRow(TASK).get("imported")).isEqualTo(1);
+        Passdown imported = onlyPassdown();
+        assertThat(imported.getContentHash()).isNotNull();
+
+        Passdown form = new Passdown();
+        form.setId(imported.getId());
+        form.setComment(TASK + " and filter");
+        form.setDate(SHIFT_DATE);
+        form.setTools(Set.of(tool));
+        form.setAssignedTechs(Set.of(technician));
+        passdownService.savePassdown(form, technician, null, null);
+        endRequest();
+
+        assertThat(passdownRepository.findById(imported.getId()).get().getContentHash()).isNull();
+        assertThat(importRow(TASK).get("imported")).isEqualTo(1);
+        endRequest();
+        assertThat(importRow(TASK + " and filter").get("duplicates")).isEqualTo(1);
+    }
+
+    @Test
+    void passdownEditedInPlaceLosesItsHash() {
+        importRow(TASK);
+        Passdown passdown = passdownService.getPassdownByIdWithDetails(onlyPassdown().getId()).get();
+
+        // As PassdownController.editPassdown does: change the loaded entity, then save it
+        passdown.setDate(SHIFT_DATE.plusDays(1));
+        passdownService.savePassdown(passdown, technician, null, null);
+        endRequest();
+
+        assertThat(onlyPassdown().getContentHash()).isNull();
+        assertThat(importRow(TASK).get("imported")).isEqualTo(1);
+    }
+
+    @Test
+    void editThatKeepsTheContentKeepsTheHash() {
+        importRow(TASK);
+        Passdown imported = onlyPassdown();
+        String hash = imported.getContentHash();
+
+        Passdown form = new Passdown();
+        form.setId(imported.getId());
+        form.setComment("  replaced PUMP   seal ");
+        form.setDate(SHIFT_DATE);
+        form.setTools(Set.of(tool));
+        form.setAssignedTechs(Set.of(technician));
+        passdownService.savePassdown(form, technician, null, null);
+        endRequest();
+
+        assertThat(onlyPassdown().getContentHash()).isEqualTo(hash);
+        assertThat(importRow(TASK).get("duplicates")).isEqualTo(1);
+    }
+
+    private Map<String, Object> importRow(String task) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("rowId", 1);
+        row.put("date", SHIFT_DATE.toString());
+        row.put("task", task);
+        row.put("toolIds", List.of(tool.getId()));
+        row.put("techIds", List.of(technician.getId()));
+        Map<String, Object> result = passdownExcelImportService.importPassdowns(List.of(row), technician);
+        endRequest();
+        return result;
+    }
+
+    private Passdown onlyPassdown() {
+        List<Passdown> passdowns = passdownRepository.findAll();
+        assertThat(passdowns).hasSize(1);
+        return passdowns.get(0);
+    }
+
+    /**
+     * Write pending changes and start the next step with an empty persistence context, like a new request
+     */
+    private void endRequest() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
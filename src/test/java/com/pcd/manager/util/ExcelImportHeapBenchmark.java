@@ -0,0 +1,126 @@
+package com.pcd.manager.util;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Heap and time of the Excel import read path: StreamingExcelReader against the workbook DOM (WorkbookFactory)
+ * the imports used before. Meant to run in its own JVM with a small -Xmx, so one mode's memory use cannot
+ * affect anything else; StreamingExcelReaderHeapTest forks it.
+ *
+ * Usage: ExcelImportHeapBenchmark streaming|dom FILE [ROWS]
+ * Writes a ROWS-row workbook shaped like a tool import to FILE first when ROWS is given, then reads every
+ * cell and prints one result line. Running out of heap ends the JVM with a non-zero exit code.
+ */
+public final class ExcelImportHeapBenchmark {
+
+    public static final int COLUMNS = 9;
+
+    private ExcelImportHeapBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String mode = args[0];
+        Path file = Paths.get(args[1]);
+        if (args.length > 2) {
+            writeWorkbook(file, Integer.parseInt(args[2]));
+        }
+
+        long start = System.nanoTime();
+        long cells = "dom".equals(mode) ? readDom(file) : readStreaming(file);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("mode=%s fileBytes=%d cells=%d durationMs=%d peakHeapMb=%d maxHeapMb=%d%n",
+                mode, Files.size(file), cells, elapsedMillis, peakHeapBytes() / (1024 * 1024),
+                Runtime.getRuntime().maxMemory() / (1024 * 1024));
+    }
+
+    static long readStreaming(Path file) throws IOException {
+        long cells = 0;
+        try (StreamingExcelReader reader = StreamingExcelReader.open(Files.newInputStream(file))) {
+            while (reader.nextSheet()) {
+                StreamingExcelReader.ExcelRow row;
+                while ((row = reader.nextRow()) != null) {
+                    cells += row.getCells().size();
+                }
+            }
+        }
+        return cells;
+    }
+
+    static long readDom(Path file) throws IOException {
+        long cells = 0;
+        try (InputStream in = Files.newInputStream(file); Workbook workbook = WorkbookFactory.create(in)) {
+            for (Sheet sheet : workbook) {
+                for (Row row : sheet) {
+                    cells += row.getPhysicalNumberOfCells();
+                }
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Header row plus rows of text, numbers and dates. SXSSF keeps a window of rows in memory, so this
+     * runs in a small heap too.
+     */
+    static void writeWorkbook(Path file, int rows) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(100);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd"));
+            Sheet sheet = workbook.createSheet("Tools");
+            String[] headers = {"Tool Name", "Secondary Name", "Type", "Model", "Serial", "Location", "Status",
+                    "Set In Date", "Chamber Count"};
+            Row header = sheet.createRow(0);
+            for (int c = 0; c < headers.length; c++) {
+                header.createCell(c).setCellValue(headers[c]);
+            }
+            LocalDate firstDate = LocalDate.of(2020, 1, 1);
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue("TOOL-" + r);
+                row.createCell(1).setCellValue("SEC-" + (r % 1000));
+                row.createCell(2).setCellValue(r % 2 == 0 ? "CHEMBLEND" : "SLURRY");
+                row.createCell(3).setCellValue("MODEL-" + (r % 50));
+                row.createCell(4).setCellValue(100000 + r);
+                row.createCell(5).setCellValue("AZ F" + (r % 4 == 0 ? "52" : "32"));
+                row.createCell(6).setCellValue(r % 3 == 0 ? "COMPLETED" : "IN_PROGRESS");
+                Cell date = row.createCell(7);
+                date.setCellValue(firstDate.plusDays(r % 2000));
+                date.setCellStyle(dateStyle);
+                row.createCell(8).setCellValue(r % 8);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static long peakHeapBytes() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+}
@@ -0,0 +1,118 @@
+package com.pcd.manager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSignaturesTest {
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F', 'I', 'F'};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 0, 0, 0, 0x0D};
+    private static final byte[] GIF = ascii("GIF89a\u0001\u0000\u0001\u0000");
+    private static final byte[] WEBP = ascii("RIFF$\u0000\u0000\u0000WEBPVP8 ");
+    private static final byte[] BMP = ascii("BM6\u0000\u0000\u0000\u0000\u0000\u0000\u00006\u0000\u0000\u0000");
+    private static final byte[] PDF = ascii("%PDF-1.7\n");
+    private static final byte[] ZIP = {'P', 'K', 3, 4, 0x14, 0, 6, 0};
+    private static final byte[] OLE = {(byte) 0xD0, (byte) 0xCF, 0x11, (byte) 0xE0, (byte) 0xA1, (byte) 0xB1, 0x1A, (byte) 0xE1, 0};
+    private static final byte[] CSV = ascii("tool,status\nBT151,COMPLETED\n");
+
+    @Test
+    void detectsEachSupportedSignature() {
+        assertThat(detect(JPEG)).isEqualTo("image/jpeg");
+        assertThat(detect(PNG)).isEqualTo("image/png");
+        assertThat(detect(GIF)).isEqualTo("image/gif");
+        assertThat(detect(ascii("GIF87a"))).isEqualTo("image/gif");
+        assertThat(detect(WEBP)).isEqualTo("image/webp");
+        assertThat(detect(BMP)).isEqualTo("image/bmp");
+        assertThat(detect(PDF)).isEqualTo("application/pdf");
+        assertThat(detect(ZIP)).isEqualTo("application/zip");
+        assertThat(detect(OLE)).isEqualTo("application/x-ole-storage");
+        assertThat(detect(CSV)).isEqualTo("text/plain");
+    }
+
+    @Test
+    void detectJudgesOnlyTheGivenLength() {
+        byte[] head = Arrays.copyOf(PNG, FileSignatures.HEAD_LENGTH);
+
+        assertThat(FileSignatures.detect(head, PNG.length)).isEqualTo("image/png");
+        // Signatures cut short are not matched
+        assertThat(FileSignatures.detect(head, 4)).isEqualTo("text/plain");
+        assertThat(FileSignatures.detect(JPEG, 2)).isNotEqualTo("image/jpeg");
+        assertThat(FileSignatures.detect(new byte[0], 0)).isNull();
+    }
+
+    @Test
+    void signaturesThatNeedMoreBytesAreNotGuessed() {
+        // RIFF without the WEBP form type, and "BM" shorter than a bitmap file header
+        assertThat(detect(ascii("RIFF$\u0000\u0000\u0000WAVE"))).isNull();
+        assertThat(detect(ascii("RIFF$\u0000\u0000"))).isNull();
+        assertThat(detect(ascii("BM short"))).isEqualTo("text/plain");
+    }
+
+    @Test
+    void binaryWithoutSignatureIsNotDetected() {
+        assertThat(detect(new byte[] {1, 2, 0, 4})).isNull();
+    }
+
+    @Test
+    void matchesAcceptsContentOfTheClaimedType() {
+        assertThat(matches("jpg", JPEG)).isTrue();
+        assertThat(matches("JPEG", JPEG)).isTrue();
+        assertThat(matches("png", PNG)).isTrue();
+        assertThat(matches("gif", GIF)).isTrue();
+        assertThat(matches("webp", WEBP)).isTrue();
+        assertThat(matches("bmp", BMP)).isTrue();
+        assertThat(matches("pdf", PDF)).isTrue();
+        assertThat(matches("docx", ZIP)).isTrue();
+        assertThat(matches("xlsx", ZIP)).isTrue();
+        assertThat(matches("doc", OLE)).isTrue();
+        assertThat(matches("xls", OLE)).isTrue();
+        assertThat(matches("csv", CSV)).isTrue();
+        assertThat(matches("txt", CSV)).isTrue();
+    }
+
+    @Test
+    void matchesRejectsContentOfAnotherType() {
+        assertThat(matches("jpg", PNG)).isFalse();
+        assertThat(matches("png", ascii("<html><script>alert(1)</script></html>"))).isFalse();
+        assertThat(matches("pdf", ZIP)).isFalse();
+        assertThat(matches("xlsx", OLE)).isFalse();
+        assertThat(matches("xls", ZIP)).isFalse();
+        assertThat(matches("txt", new byte[] {'a', 0, 'b'})).isFalse();
+        assertThat(matches("txt", new byte[0])).isFalse();
+    }
+
+    @Test
+    void textIsJudgedOnItsOwn() {
+        // CSV lines that happen to start like a signature are still text
+        assertThat(matches("csv", ascii("BM151,COMPLETED\n"))).isTrue();
+        assertThat(matches("csv", ascii("PK-7,IN_PROGRESS\n"))).isTrue();
+    }
+
+    @Test
+    void unsupportedExtensionsNeverMatch() {
+        assertThat(matches("exe", ascii("MZ"))).isFalse();
+        assertThat(matches("html", ascii("<html></html>"))).isFalse();
+        assertThat(matches(null, JPEG)).isFalse();
+        assertThat(FileSignatures.isSupportedExtension("exe")).isFalse();
+        assertThat(FileSignatures.isSupportedExtension("XLSX")).isTrue();
+        assertThat(FileSignatures.isImageExtension("webp")).isTrue();
+        assertThat(FileSignatures.isImageExtension("pdf")).isFalse();
+        assertThat(FileSignatures.contentType("CSV")).isEqualTo("text/csv");
+    }
+
+    private static String detect(byte[] head) {
+        return FileSignatures.detect(head, head.length);
+    }
+
+    private static boolean matches(String extension, byte[] head) {
+        return FileSignatures.matches(extension, head, head.length);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,215 @@
+package com.pcd.manager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MultipartStreamTest {
+
+    private static final String BOUNDARY = "----FormBoundary7MA4YWxkTrZu0gW";
+    // MultipartStream's buffer size, so part bodies can end right around a refill
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Test
+    void readsFieldsAndFilesInOrder() throws IOException {
+        byte[] body = new Body()
+                .field("comment", "Pump replaced")
+                .file("file", "C:\\Users\\tech\\pump.jpg", "image/jpeg", bytes("jpeg bytes"))
+                .close();
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStream.Part field = stream.next();
+        assertThat(field.name).isEqualTo("comment");
+        assertThat(field.isFile()).isFalse();
+        assertThat(text(field)).isEqualTo("Pump replaced");
+
+        MultipartStream.Part file = stream.next();
+        assertThat(file.name).isEqualTo("file");
+        assertThat(file.filename).isEqualTo("pump.jpg");
+        assertThat(file.contentType).isEqualTo("image/jpeg");
+        assertThat(text(file)).isEqualTo("jpeg bytes");
+
+        assertThat(stream.next()).isNull();
+        assertThat(stream.next()).isNull();
+    }
+
+    @Test
+    void delimiterSplitAcrossReadsIsFound() throws IOException {
+        byte[] content = bytes("first part, long enough to be split into many small reads");
+        byte[] body = new Body().file("a", "a.txt", "text/plain", content).field("b", "second").close();
+
+        for (int chunk = 1; chunk <= 11; chunk++) {
+            MultipartStream stream = new MultipartStream(new ChunkedInputStream(body, chunk), BOUNDARY);
+            assertThat(stream.next().body.readAllBytes()).as("chunk size %d", chunk).isEqualTo(content);
+            assertThat(text(stream.next())).as("chunk size %d", chunk).isEqualTo("second");
+            assertThat(stream.next()).isNull();
+        }
+    }
+
+    @Test
+    void delimiterSplitAcrossBufferRefillIsFound() throws IOException {
+        int delimiterLength = ("\r\n--" + BOUNDARY).length();
+        for (int size = BUFFER_SIZE - 2 * delimiterLength; size <= BUFFER_SIZE + delimiterLength; size++) {
+            byte[] content = new byte[size];
+            Arrays.fill(content, (byte) 'x');
+            byte[] body = new Body().file("upload", "big.bin", "application/octet-stream", content).field("after", "ok").close();
+
+            MultipartStream stream = new MultipartStream(new ChunkedInputStream(body, 4096), BOUNDARY);
+            assertThat(stream.next().body.readAllBytes()).as("content size %d", size).hasSize(size);
+            assertThat(text(stream.next())).as("content size %d", size).isEqualTo("ok");
+        }
+    }
+
+    @Test
+    void crlfAndDashesInsideContentAreKept() throws IOException {
+        String content = "line one\r\n--\r\n-- not a boundary\r\n--" + BOUNDARY.substring(0, BOUNDARY.length() - 1)
+                + "X\r\nmid-line --" + BOUNDARY + "\r\n\r\n\r\n";
+        byte[] body = new Body().file("log", "log.txt", "text/plain", bytes(content)).close();
+
+        MultipartStream stream = new MultipartStream(new ChunkedInputStream(body, 5), BOUNDARY);
+        assertThat(text(stream.next())).isEqualTo(content);
+        assertThat(stream.next()).isNull();
+    }
+
+    @Test
+    void emptyPartHasEmptyBody() throws IOException {
+        byte[] body = new Body().file("file", "", "application/octet-stream", new byte[0]).field("name", "").close();
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStream.Part file = stream.next();
+        assertThat(file.isFile()).isTrue();
+        assertThat(file.filename).isEmpty();
+        assertThat(file.body.read()).isEqualTo(-1);
+        assertThat(text(stream.next())).isEmpty();
+        assertThat(stream.next()).isNull();
+    }
+
+    @Test
+    void unreadPartIsSkipped() throws IOException {
+        byte[] body = new Body().file("skipped", "s.bin", "application/octet-stream", new byte[100_000])
+                .field("kept", "value").close();
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body), BOUNDARY);
+        stream.next().body.read();
+        assertThat(text(stream.next())).isEqualTo("value");
+    }
+
+    @Test
+    void bodyWithoutClosingDelimiterFails() throws IOException {
+        byte[] complete = new Body().file("file", "f.txt", "text/plain", bytes("cut off here")).close();
+        byte[] truncated = Arrays.copyOf(complete, complete.length - ("\r\n--" + BOUNDARY + "--\r\n").length());
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(truncated), BOUNDARY);
+        MultipartStream.Part part = stream.next();
+        assertThatThrownBy(part.body::readAllBytes)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("missing closing boundary");
+    }
+
+    @Test
+    void bodyTruncatedInsideHeadersFails() {
+        byte[] body = bytes("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"cut");
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body), BOUNDARY);
+        assertThatThrownBy(stream::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("too long or truncated");
+    }
+
+    @Test
+    void headerLineOverTheCapFails() {
+        String longName = "x".repeat(17 * 1024);
+        byte[] body = new Body().field(longName, "value").close();
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body), BOUNDARY);
+        assertThatThrownBy(stream::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("part headers too long");
+    }
+
+    @Test
+    void manyHeaderLinesOverTheCapFail() {
+        StringBuilder headers = new StringBuilder("--" + BOUNDARY + "\r\n");
+        for (int i = 0; i < 20; i++) {
+            headers.append("X-Padding-").append(i).append(": ").append("y".repeat(1024)).append("\r\n");
+        }
+        headers.append("Content-Disposition: form-data; name=\"field\"\r\n\r\nvalue\r\n--").append(BOUNDARY).append("--\r\n");
+
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(bytes(headers.toString())), BOUNDARY);
+        assertThatThrownBy(stream::next)
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("part headers too long");
+    }
+
+    @Test
+    void boundaryIsReadFromTheContentType() {
+        assertThat(MultipartStream.boundaryOf("multipart/form-data; boundary=" + BOUNDARY)).isEqualTo(BOUNDARY);
+        assertThat(MultipartStream.boundaryOf("Multipart/Form-Data; charset=UTF-8; boundary=\"a b\"")).isEqualTo("a b");
+        assertThat(MultipartStream.boundaryOf("multipart/form-data")).isNull();
+        assertThat(MultipartStream.boundaryOf("multipart/form-data; boundary=" + "b".repeat(71))).isNull();
+        assertThat(MultipartStream.boundaryOf("application/json")).isNull();
+        assertThat(MultipartStream.boundaryOf(null)).isNull();
+    }
+
+    private static String text(MultipartStream.Part part) throws IOException {
+        return new String(part.body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A multipart/form-data body as a browser sends it
+     */
+    private static class Body {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Body field(String name, String value) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n", bytes(value));
+        }
+
+        Body file(String name, String filename, String contentType, byte[] content) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename.replace("\\", "\\\\")
+                    + "\"\r\nContent-Type: " + contentType + "\r\n", content);
+        }
+
+        private Body part(String headers, byte[] content) {
+            out.writeBytes(bytes("--" + BOUNDARY + "\r\n" + headers + "\r\n"));
+            out.writeBytes(content);
+            out.writeBytes(bytes("\r\n"));
+            return this;
+        }
+
+        byte[] close() {
+            out.writeBytes(bytes("--" + BOUNDARY + "--\r\n"));
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Returns at most chunk bytes per read, like a slow network connection
+     */
+    private static class ChunkedInputStream extends FilterInputStream {
+        private final int chunk;
+
+        ChunkedInputStream(byte[] data, int chunk) {
+            super(new ByteArrayInputStream(data));
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            return super.read(target, offset, Math.min(length, chunk));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.pcd.manager.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlStatementCounterTest {
+
+    private static final String SELECT_TOOL = "select * from tools where id=?";
+    private static final String SELECT_RMAS = "select * from rma";
+
+    @AfterEach
+    void noScopeLeftOpen() {
+        assertThat(SqlStatementCounter.current()).isNull();
+    }
+
+    @Test
+    void nothingIsRecordedWithoutAScope() {
+        SqlStatementCounter.recordStatement(SELECT_TOOL);
+        SqlStatementCounter.recordRow();
+        SqlStatementCounter.recordEntityLoad();
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            assertThat(scope.getStatementCount()).isZero();
+            assertThat(scope.getRowCount()).isZero();
+            assertThat(scope.getEntityLoadCount()).isZero();
+        }
+    }
+
+    @Test
+    void countsStatementsRowsAndEntityLoads() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordStatement(SELECT_RMAS);
+            SqlStatementCounter.recordRow();
+            SqlStatementCounter.recordRow();
+            SqlStatementCounter.recordEntityLoad();
+
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+            assertThat(scope.getRowCount()).isEqualTo(2);
+            assertThat(scope.getEntityLoadCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void nestedScopesCountTowardsEveryOpenScope() {
+        try (SqlStatementCounter.Scope outer = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordStatement(SELECT_RMAS);
+            try (SqlStatementCounter.Scope inner = SqlStatementCounter.open()) {
+                assertThat(SqlStatementCounter.current()).isSameAs(inner);
+                SqlStatementCounter.recordStatement(SELECT_TOOL);
+                assertThat(inner.getStatementCount()).isEqualTo(1);
+            }
+            assertThat(SqlStatementCounter.current()).isSameAs(outer);
+            SqlStatementCounter.recordStatement(SELECT_TOOL);
+            assertThat(outer.getStatementCount()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void closedScopeStopsCounting() {
+        SqlStatementCounter.Scope scope = SqlStatementCounter.open();
+        SqlStatementCounter.recordStatement(SELECT_TOOL);
+        scope.close();
+        scope.close();
+        SqlStatementCounter.recordStatement(SELECT_TOOL);
+
+        assertThat(scope.getStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsTheMostRepeatedStatement() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordStatement(SELECT_RMAS);
+            for (int i = 0; i < 3; i++) {
+                SqlStatementCounter.recordStatement(SELECT_TOOL);
+            }
+
+            Map.Entry<String, Integer> top = scope.getMostRepeatedStatement();
+            assertThat(top.getKey()).isEqualTo(SELECT_TOOL);
+            assertThat(top.getValue()).isEqualTo(3);
+            assertThat(scope.describe("GET /tools", 2)).contains("4 statements (budget 2)", "(3x): " + SELECT_TOOL);
+        }
+    }
+
+    @Test
+    void assertStatementsAtMostFailsOverBudget() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.open()) {
+            SqlStatementCounter.recordStatement(SELECT_TOOL);
+            SqlStatementCounter.recordStatement(SELECT_TOOL);
+
+            scope.assertStatementsAtMost(2);
+            assertThatThrownBy(() -> scope.assertStatementsAtMost(1))
+                    .isInstanceOf(SqlStatementCounter.SqlBudgetExceededException.class)
+                    .hasMessageContaining("2 statements (budget 1)");
+        }
+    }
+}
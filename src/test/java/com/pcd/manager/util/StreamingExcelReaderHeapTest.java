@@ -0,0 +1,71 @@
+package com.pcd.manager.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins that the Excel imports read at bounded memory: a 100k-row workbook is read by StreamingExcelReader in
+ * a forked JVM with a 64MB heap, where the workbook DOM the imports used before runs out of memory.
+ * Each fork prints its ExcelImportHeapBenchmark result line to the test output.
+ */
+class StreamingExcelReaderHeapTest {
+
+    private static final int ROWS = 100_000;
+    private static final String HEAP = "-Xmx64m";
+
+    @TempDir
+    static Path tempDir;
+
+    private static Path workbook;
+
+    @BeforeAll
+    static void writeWorkbook() throws IOException {
+        workbook = tempDir.resolve("tools-100k.xlsx");
+        ExcelImportHeapBenchmark.writeWorkbook(workbook, ROWS);
+    }
+
+    @Test
+    void streamingReadFitsInSmallHeap() throws Exception {
+        Result result = fork("streaming");
+
+        assertThat(result.exitCode).as(result.output).isZero();
+        assertThat(result.output).contains("cells=" + (ROWS + 1) * ExcelImportHeapBenchmark.COLUMNS);
+    }
+
+    @Test
+    void domReadRunsOutOfTheSameHeap() throws Exception {
+        Result result = fork("dom");
+
+        assertThat(result.exitCode).as(result.output).isNotZero();
+        assertThat(result.output).contains("OutOfMemoryError");
+    }
+
+    private static Result fork(String mode) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, HEAP, "-cp", System.getProperty("java.class.path"),
+                ExcelImportHeapBenchmark.class.getName(), mode, workbook.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (!process.waitFor(2, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+        }
+        output.lines()
+                .filter(line -> line.startsWith("mode=") || line.contains("OutOfMemoryError"))
+                .findFirst()
+                .ifPresent(line -> System.out.println("[" + HEAP + "] " + line));
+        return new Result(process.exitValue(), output);
+    }
+
+    private record Result(int exitCode, String output) {
+    }
+}